@@ -1,7 +1,14 @@
 package com.group02.openevent.ai.controller;
 
+import com.group02.openevent.ai.security.RateLimitingService;
 import com.group02.openevent.ai.service.EmbeddingService;
+import com.group02.openevent.ai.service.EventTitleIndex;
+import com.group02.openevent.ai.service.PipelineStageRunner;
+import com.group02.openevent.ai.service.SemanticResponseCache;
+import com.group02.openevent.ai.session.AISessionStore;
 import com.group02.openevent.ai.service.WeatherService;
+import com.group02.openevent.ai.qdrant.service.EventVectorSyncService;
+import com.group02.openevent.ai.qdrant.service.LocalIntentIndex;
 import com.group02.openevent.ai.qdrant.service.QdrantService;
 import com.group02.openevent.ai.qdrant.service.VectorIntentClassifier;
 import com.group02.openevent.ai.qdrant.model.ActionType;
@@ -10,9 +17,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Controller để xử lý các utility functions của AI
@@ -27,15 +37,35 @@ public class AIUtilityController {
     private final WeatherService weatherService;
     private final QdrantService qdrantService;
     private final VectorIntentClassifier intentClassifier;
+    // Tên thành phần -> số liệu, dùng cho /stats
+    private final Map<String, Supplier<Map<String, Object>>> statsProviders;
 
     public AIUtilityController(EmbeddingService embeddingService,
                                WeatherService weatherService,
                                QdrantService qdrantService,
-                               VectorIntentClassifier intentClassifier) {
+                               VectorIntentClassifier intentClassifier,
+                               LocalIntentIndex localIntentIndex,
+                               EventVectorSyncService eventVectorSyncService,
+                               SemanticResponseCache responseCache,
+                               AISessionStore sessionStore,
+                               PipelineStageRunner pipelineStages,
+                               EventTitleIndex eventTitleIndex,
+                               RateLimitingService rateLimitingService) {
         this.embeddingService = embeddingService;
         this.weatherService = weatherService;
         this.qdrantService = qdrantService;
         this.intentClassifier = intentClassifier;
+
+        Map<String, Supplier<Map<String, Object>>> providers = new LinkedHashMap<>();
+        providers.put("embeddingCache", embeddingService::getCacheStats);
+        providers.put("intentIndex", localIntentIndex::getStats);
+        providers.put("vectorSync", eventVectorSyncService::getSyncStats);
+        providers.put("responseCache", responseCache::getStats);
+        providers.put("sessions", sessionStore::getStats);
+        providers.put("pipeline", pipelineStages::getStats);
+        providers.put("titleIndex", eventTitleIndex::getStats);
+        providers.put("rateLimit", rateLimitingService::getStats);
+        this.statsProviders = Collections.unmodifiableMap(providers);
     }
 
     /**
@@ -289,6 +319,27 @@ public class AIUtilityController {
         }
     }
 
+    /**
+     * Số liệu vận hành của các thành phần AI (cache, index, phiên, pipeline, rate limit)
+     *
+     * @param component tên thành phần; bỏ trống để lấy tất cả
+     * @return ResponseEntity chứa số liệu theo tên thành phần
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats(@RequestParam(required = false) String component) {
+        if (component == null || component.isBlank()) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            statsProviders.forEach((name, provider) -> result.put(name, provider.get()));
+            return ResponseEntity.ok(result);
+        }
+        Supplier<Map<String, Object>> provider = statsProviders.get(component);
+        if (provider == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "❌ Không có thành phần " + component, "components", statsProviders.keySet()));
+        }
+        return ResponseEntity.ok(Map.of(component, provider.get()));
+    }
+
     /**
      * Kiểm tra health của các AI services
      *
@@ -1,7 +1,7 @@
 package com.group02.openevent.ai.controller;
 
 import com.group02.openevent.ai.exception.AIException;
-import com.group02.openevent.ai.util.SessionManager;
+import com.group02.openevent.ai.session.AISessionStore;
 import com.group02.openevent.model.ai.ChatHistory;
 import com.group02.openevent.repository.IChatHistoryRepo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +25,9 @@ public class ChatController {
     @Autowired
     private IChatHistoryRepo chatHistoryRepo;
 
+    @Autowired
+    private AISessionStore sessionStore;
+
     /**
      * Lấy lịch sử chat của một user
      * @param userId ID của user
@@ -82,8 +85,8 @@ public class ChatController {
         try {
             chatHistoryRepo.deleteByUserIdAndSessionId(userId, sessionId);
             
-            // Xóa session khỏi SessionManager
-            SessionManager.remove(sessionId);
+            // Xóa trạng thái hội thoại AI của session
+            sessionStore.remove(userId.longValue(), sessionId);
             
             Map<String, String> result = Map.of("message", "✅ Đã xóa lịch sử chat thành công");
             return ResponseEntity.ok(result);
@@ -132,13 +135,7 @@ public class ChatController {
             // Tạo session ID mới
             String newSessionId = "SESSION_" + System.currentTimeMillis();
             session.setAttribute("sessionId", newSessionId);
-            
-            // Khởi tạo AI Agent cho session nếu có cấu hình sẵn; nếu chưa sẵn sàng thì bỏ qua để không 500
-            try {
-                SessionManager.getOrCreate(newSessionId);
-            } catch (Exception ignore) {
-                // Hệ thống AI chưa sẵn sàng (ví dụ default agent chưa set) -> vẫn trả về 200 với sessionId
-            }
+            // Trạng thái hội thoại AI được tạo khi có tin nhắn đầu tiên (AISessionStore)
             
             Map<String, String> result = Map.of(
                 "sessionId", newSessionId,
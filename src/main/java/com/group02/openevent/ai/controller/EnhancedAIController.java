@@ -14,15 +14,20 @@ import io.swagger.v3.oas.annotations.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.servlet.http.HttpSession;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Enhanced AI Controller with multi-language support and security measures
@@ -35,6 +40,8 @@ import java.util.Map;
 @Slf4j
 public class EnhancedAIController {
 
+    private static final long STREAM_TIMEOUT_MS = 120_000L;
+
     private final ChatSessionService chatSessionService;
     private final LanguageDetectionService languageDetectionService;
     private final TranslationService translationService;
@@ -178,6 +185,101 @@ public class EnhancedAIController {
         // Process chat
         ChatReply reply = chatSessionService.chat(processedReq);
         
+        return ResponseEntity.ok(finalizeReply(reply, userLanguage));
+    }
+
+    @Operation(summary = "Streaming chat (SSE): 'token' events while the LLM generates, then a final 'done' event")
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> chatStream(
+            @RequestBody ChatRequest req,
+            @RequestParam(required = false, defaultValue = "vi") String language,
+            HttpSession httpSession) {
+
+        UserSession us = sessionUtils.requireUser(httpSession);
+        String userId = us.getUserId().toString();
+
+        // Lỗi trả JSON (không phải SSE) để client hiển thị, không gửi lại qua API thường (sẽ bị tính rate limit lần nữa)
+        if (!rateLimitingService.isAllowed(userId, RateLimitingService.RateLimitType.AI_CHAT)) {
+            return streamError(429, "Rate limit exceeded. Please try again later.");
+        }
+
+        AISecurityService.ValidationResult validation = securityService.validateInput(
+            req.message(),
+            AISecurityService.InputType.MESSAGE
+        );
+        if (!validation.isValid()) {
+            return streamError(400, "❌ " + validation.getErrorMessage());
+        }
+
+        Language userLanguage = Language.fromCode(language);
+        if ("auto".equals(language)) {
+            userLanguage = languageDetectionService.detectLanguage(req.message());
+        }
+        String processedMessage = validation.getSanitizedInput();
+        if (userLanguage != Language.VIETNAMESE) {
+            processedMessage = translationService.translateUserInput(processedMessage, userLanguage);
+        }
+        ChatRequest processedReq = new ChatRequest(processedMessage, us.getUserId(), req.sessionId());
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        // Token tiếng Việt chưa dịch không stream cho người dùng ngôn ngữ khác, chỉ gửi bản cuối đã dịch
+        Consumer<String> onToken = userLanguage == Language.VIETNAMESE
+                ? guardedTokenRelay(emitter)
+                : null;
+        Language replyLanguage = userLanguage;
+
+        try {
+            chatSessionService.chatStream(processedReq, onToken).whenComplete((reply, error) -> {
+                if (error != null) {
+                    log.error("Streaming chat failed: {}", error.getMessage(), error);
+                    sendEvent(emitter, "error", Map.of("message", "❌ Đã xảy ra lỗi khi xử lý tin nhắn"));
+                } else {
+                    sendEvent(emitter, "done", finalizeReply(reply, replyLanguage));
+                }
+                emitter.complete();
+            });
+        } catch (IllegalStateException e) {
+            return streamError(503, "❌ Hệ thống AI đang quá tải, vui lòng thử lại sau ít phút.");
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    private ResponseEntity<ChatReply> streamError(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ChatReply(message, false, LocalDateTime.now()));
+    }
+
+    /**
+     * Chuyển token cho client theo AISecurityService.checkStreamedResponse: giữ lại phần đầu cho tới khi chắc chắn
+     * validateAIResponse sẽ không chặn, rồi gửi phần đã giữ và các token sau. Vượt độ dài thì ngừng stream;
+     * câu trả lời cuối (event "done") vẫn qua finalizeReply.
+     */
+    private Consumer<String> guardedTokenRelay(SseEmitter emitter) {
+        StringBuilder streamed = new StringBuilder();
+        int[] sent = {0};
+        AtomicBoolean blocked = new AtomicBoolean();
+        return token -> {
+            if (blocked.get()) {
+                return;
+            }
+            streamed.append(token);
+            AISecurityService.StreamCheck check = securityService.checkStreamedResponse(streamed);
+            if (check == AISecurityService.StreamCheck.BLOCKED) {
+                blocked.set(true);
+                return;
+            }
+            if (check == AISecurityService.StreamCheck.SAFE && sent[0] < streamed.length()) {
+                sendEvent(emitter, "token", Map.of("text", streamed.substring(sent[0])));
+                sent[0] = streamed.length();
+            }
+        };
+    }
+
+    /**
+     * Dịch câu trả lời sang ngôn ngữ người dùng và kiểm tra an toàn trước khi trả về
+     */
+    private ChatReply finalizeReply(ChatReply reply, Language userLanguage) {
         // Translate AI response to user's language
         String translatedResponse = reply.message();
         if (userLanguage != Language.VIETNAMESE) {
@@ -190,7 +292,16 @@ public class EnhancedAIController {
             translatedResponse = "❌ " + responseValidation.getErrorMessage();
         }
         
-        return ResponseEntity.ok(new ChatReply(translatedResponse, reply.shouldReload(), reply.timestamp()));
+        return new ChatReply(translatedResponse, reply.shouldReload(), reply.timestamp());
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client đã ngắt kết nối: vẫn xử lý xong và lưu lịch sử, chỉ bỏ qua việc gửi
+            log.debug("SSE client disconnected: {}", e.getMessage());
+        }
     }
 
     @Operation(summary = "Detect language of input text")
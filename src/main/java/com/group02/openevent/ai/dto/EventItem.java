@@ -14,6 +14,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
+
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -34,7 +36,7 @@ import java.util.List;
         @JsonSubTypes.Type(value = CompetitionEventCreationRequest.class, name = "COMPETITION"),
         @JsonSubTypes.Type(value = OtherEvent.class, name = "OTHERS")
 })
-public class EventItem {
+public class EventItem implements Serializable {
 
     private Long id;                // ID sự kiện
     private String title;              // event_title
@@ -1,6 +1,8 @@
 package com.group02.openevent.ai.dto;
 
-public class Message {
+import java.io.Serializable;
+
+public class Message implements Serializable {
     private String role;
     private String content;
 
@@ -4,15 +4,21 @@ import com.group02.openevent.model.event.Event;
 import com.group02.openevent.model.ticket.TicketType;
 import lombok.Data;
 
+import java.io.Serializable;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
- * DTO to hold pending order information during AI conversation
+ * DTO to hold pending order information during AI conversation.
+ * Chỉ giữ id và vài trường hiển thị (không giữ entity) để state của phiên nhỏ và serialize được.
  */
 @Data
-public class PendingOrder {
-    private Event event;
-    private TicketType ticketType;
+public class PendingOrder implements Serializable {
+    private Long eventId;
+    private String eventTitle;
+    private Long ticketTypeId;
+    private String ticketTypeName;
+    private BigDecimal ticketPrice;
     private String participantName;
     private String participantEmail;
     private String participantPhone;
@@ -33,9 +39,20 @@ public class PendingOrder {
         this.createdAt = LocalDateTime.now();
     }
     
+    public void setEvent(Event event) {
+        this.eventId = event.getId();
+        this.eventTitle = event.getTitle();
+    }
+
+    public void setTicketType(TicketType ticketType) {
+        this.ticketTypeId = ticketType.getTicketTypeId();
+        this.ticketTypeName = ticketType.getName();
+        this.ticketPrice = ticketType.getFinalPrice();
+    }
+
     public boolean isComplete() {
-        return event != null 
-            && ticketType != null 
+        return eventId != null 
+            && ticketTypeId != null 
             && participantName != null && !participantName.isEmpty()
             && participantEmail != null && !participantEmail.isEmpty();
     }
@@ -43,8 +60,8 @@ public class PendingOrder {
     public String getMissingFields() {
         StringBuilder missing = new StringBuilder();
         
-        if (event == null) missing.append("- Sự kiện\n");
-        if (ticketType == null) missing.append("- Loại vé\n");
+        if (eventId == null) missing.append("- Sự kiện\n");
+        if (ticketTypeId == null) missing.append("- Loại vé\n");
         if (participantName == null || participantName.isEmpty()) missing.append("- Tên người tham gia\n");
         if (participantEmail == null || participantEmail.isEmpty()) missing.append("- Email\n");
         
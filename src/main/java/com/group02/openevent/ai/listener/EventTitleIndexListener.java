@@ -0,0 +1,42 @@
+package com.group02.openevent.ai.listener;
+
+import com.group02.openevent.ai.service.EventTitleIndex;
+import com.group02.openevent.model.event.Event;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener của Event: giữ index tên event cho chat đồng bộ với mọi luồng lưu/xóa event
+ * (đổi trạng thái, agent AI, các endpoint save/*...), áp dụng sau commit
+ */
+@Component
+public class EventTitleIndexListener {
+
+    // Sử dụng static để inject dependency vào một listener
+    private static EventTitleIndex titleIndex;
+
+    // @Lazy: Hibernate tạo listener lúc dựng EntityManagerFactory, chưa thể tạo service phụ thuộc repository
+    @Autowired
+    public void init(@Lazy EventTitleIndex titleIndex) {
+        EventTitleIndexListener.titleIndex = titleIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterEventSave(Event event) {
+        if (titleIndex != null) {
+            titleIndex.refreshEvent(event);
+        }
+    }
+
+    @PostRemove
+    public void afterEventDelete(Event event) {
+        if (titleIndex != null) {
+            titleIndex.removeEvent(event.getId());
+        }
+    }
+}
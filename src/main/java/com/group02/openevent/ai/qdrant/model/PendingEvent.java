@@ -1,24 +1,59 @@
 package com.group02.openevent.ai.qdrant.model;
 
 import com.group02.openevent.ai.dto.EventItem;
+import com.group02.openevent.model.event.Place;
 
-public class PendingEvent {
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Event đang chờ người dùng xác nhận. Place là entity JPA nên không giữ ở đây:
+ * chỉ lưu id địa điểm, khi xác nhận thì nạp lại Place từ DB (trạng thái phiên có thể bị spill xuống DB).
+ */
+public class PendingEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Bản sao không có danh sách place
     private EventItem eventItem;
+    private ArrayList<Long> placeIds = new ArrayList<>();
 
     public PendingEvent(EventItem eventItem) {
-        this.eventItem = eventItem;
+        setEventItem(eventItem);
     }
 
+    public PendingEvent() {
+    }
+
+    /**
+     * Thông tin event, {@code place} luôn null; địa điểm lấy qua {@link #getPlaceIds()}
+     */
     public EventItem getEventItem() {
         return eventItem;
     }
 
     public void setEventItem(EventItem eventItem) {
-        this.eventItem = eventItem;
+        placeIds = new ArrayList<>();
+        if (eventItem == null) {
+            this.eventItem = null;
+            return;
+        }
+        if (eventItem.getPlace() != null) {
+            for (Place place : eventItem.getPlace()) {
+                if (place != null && place.getId() != null) {
+                    placeIds.add(place.getId());
+                }
+            }
+        }
+        this.eventItem = new EventItem(eventItem.getId(), eventItem.getTitle(), eventItem.getDescription(),
+                eventItem.getStartsAt(), eventItem.getEndsAt(), null, eventItem.getEnrollDeadline(),
+                eventItem.getCreatedAt(), eventItem.getEventType(), eventItem.getEventStatus());
     }
 
-    public PendingEvent() {
+    public List<Long> getPlaceIds() {
+        return List.copyOf(placeIds);
     }
 }
-
@@ -1,26 +1,38 @@
 package com.group02.openevent.ai.qdrant.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.group02.openevent.ai.service.EmbeddingService;
+import com.group02.openevent.model.ai.EventVectorState;
 import com.group02.openevent.model.enums.Building;
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.model.event.Place;
 import com.group02.openevent.model.enums.EventStatus;
 import com.group02.openevent.model.enums.EventType;
 import com.group02.openevent.model.event.Speaker;
-import com.group02.openevent.service.EventService;
+import com.group02.openevent.repository.IEventRepo;
+import com.group02.openevent.repository.IEventVectorStateRepo;
 import com.group02.openevent.service.PlaceService;
+import com.group02.openevent.util.Hashing;
+import com.group02.openevent.util.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
- * Đồng bộ Event & một số intent mẫu vào Qdrant (vector store)
+ * Đồng bộ Event & một số intent mẫu vào Qdrant (vector store).
+ * Event được đồng bộ tăng dần: entity listener đánh dấu event bẩn, worker gom theo lô,
+ * so hash text/payload với lần trước (EventVectorState) để text không đổi thì không embed lại.
  */
 @Service
 @RequiredArgsConstructor
@@ -28,11 +40,40 @@ import java.util.stream.IntStream;
 public class EventVectorSyncService {
 
     private final QdrantService qdrantService;     // com.group02.openevent.ai.qdrant.service.QdrantService (của bạn)
-    private final EventService eventService;       // com.group02.openevent.service.EventService
     private final EmbeddingService embeddingService; // com.group02.openevent.ai.service.EmbeddingService
     private final PlaceService placeService;
+    private final LocalIntentIndex localIntentIndex;
+    private final IEventRepo eventRepo;
+    private final IEventVectorStateRepo vectorStateRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ai.vector-sync.batch-size:64}")
+    private int syncBatchSize;
+
+    @Value("${ai.vector-sync.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${ai.vector-sync.backoff-max-seconds:300}")
+    private long backoffMaxSeconds;
+
+    @Value("${ai.vector-sync.reconcile-hash-sweep:true}")
+    private boolean reconcileHashSweep;
+
+    // Hàng đợi đồng bộ; Set nên nhiều lần sửa một event trước khi worker chạy chỉ tính một lần.
+    // Cả hai set được bảo vệ bởi lock dirtyIds
+    private final Set<Long> dirtyIds = new LinkedHashSet<>();
+    private final Set<Long> deletedIds = new LinkedHashSet<>();
+    private volatile long pausedUntil;
+    private int consecutiveFailures;
+
+    private final AtomicLong embeddedCount = new AtomicLong();
+    private final AtomicLong payloadOnlyCount = new AtomicLong();
+    private final AtomicLong unchangedCount = new AtomicLong();
+    private final AtomicLong deletedCount = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
 
     private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ObjectMapper HASH_MAPPER = new ObjectMapper();
 
 
     /**
@@ -108,57 +149,240 @@ public class EventVectorSyncService {
         return s == null ? "" : s;
     }
     /**
-     * Đồng bộ toàn bộ sự kiện đang có vào Qdrant THEO LÔ.
+     * Đồng bộ toàn bộ sự kiện đang có vào Qdrant: đưa tất cả vào hàng đợi đồng bộ,
+     * worker chỉ embed lại các event có text thay đổi so với lần đồng bộ trước.
      */
-    @Transactional(readOnly = true)
     public void syncAllEvents() {
-        List<Event> allEvents = eventService.getAllEvents();
-        if (allEvents.isEmpty()) {
-            log.info("Không có sự kiện nào để đồng bộ.");
-            return;
+        List<Long> ids = eventRepo.findAllIds();
+        synchronized (dirtyIds) {
+            dirtyIds.addAll(ids);
         }
-        log.info("Tìm thấy {} sự kiện. Bắt đầu đồng bộ theo lô...", allEvents.size());
+        log.info("Đưa {} sự kiện vào hàng đợi đồng bộ vector.", ids.size());
+    }
 
-        try {
-            // 1. Chuẩn bị tất cả văn bản cần tạo embedding
-            List<String> textsToEmbed = allEvents.stream().map(this::toSearchableText).toList();
+    /* ==================== incremental sync ==================== */
 
-            // 2. Gọi EmbeddingService MỘT LẦN DUY NHẤT
-            List<float[]> vectors;
-            try {
-                vectors = embeddingService.getEmbeddings(textsToEmbed);
-            } catch (IllegalStateException e) {
-                log.warn("Embedding service không khả dụng, bỏ qua sync events: {}", e.getMessage());
+    /**
+     * Đánh dấu event cần đồng bộ lại (sau khi transaction hiện tại commit)
+     */
+    public void markDirty(Long eventId) {
+        if (eventId == null) return;
+        TransactionCallbacks.runAfterCommit(() -> {
+            synchronized (dirtyIds) {
+                dirtyIds.add(eventId);
+            }
+        });
+    }
+
+    /**
+     * Đánh dấu event đã bị xóa, point tương ứng sẽ được xóa theo lô
+     */
+    public void markDeleted(Long eventId) {
+        if (eventId == null) return;
+        TransactionCallbacks.runAfterCommit(() -> {
+            synchronized (dirtyIds) {
+                dirtyIds.remove(eventId);
+                deletedIds.add(eventId);
+            }
+        });
+    }
+
+    /**
+     * Worker: lấy từng lô event bẩn, mỗi lô một lần gọi embedding và một lần upsert.
+     * Lỗi (embedding/Qdrant không khả dụng) thì trả lô về hàng đợi và tạm dừng theo exponential backoff,
+     * nên các thay đổi dồn lại thay vì bắn request liên tục.
+     */
+    @Scheduled(fixedDelayString = "${ai.vector-sync.drain-interval-ms:2000}")
+    public void drainDirty() {
+        if (System.currentTimeMillis() < pausedUntil) {
+            return;
+        }
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<Long> deletes;
+            List<Long> upserts;
+            synchronized (dirtyIds) {
+                deletes = take(deletedIds, syncBatchSize);
+                upserts = take(dirtyIds, syncBatchSize);
+            }
+            if (deletes.isEmpty() && upserts.isEmpty()) {
                 return;
+            }
+            try {
+                syncDeletes(deletes);
+                syncUpserts(upserts);
+                consecutiveFailures = 0;
             } catch (Exception e) {
-                log.error("Lỗi khi tạo embeddings cho events: {}", e.getMessage());
+                synchronized (dirtyIds) {
+                    deletedIds.addAll(deletes);
+                    upserts.stream().filter(id -> !deletedIds.contains(id)).forEach(dirtyIds::add);
+                }
+                consecutiveFailures++;
+                long delayMillis = Math.min(backoffMaxSeconds * 1000, 1000L << Math.min(consecutiveFailures, 16));
+                pausedUntil = System.currentTimeMillis() + delayMillis;
+                failures.incrementAndGet();
+                log.warn("Đồng bộ vector thất bại ({} lần liên tiếp), thử lại sau {} ms: {}",
+                        consecutiveFailures, delayMillis, e.getMessage());
                 return;
             }
+        }
+    }
 
-            // 3. Chuẩn bị danh sách các điểm (points) để upsert
-            List<Map<String, Object>> pointsToUpsert = IntStream.range(0, allEvents.size())
-                    .mapToObj(i -> {
-                        Event e = allEvents.get(i);
-                        Map<String, Object> payload = createEventPayload(e);
+    /**
+     * Đối chiếu id event trong DB với các point event trên Qdrant:
+     * xóa point thừa (event đã xóa, id kiểu cũ), đưa event thiếu point vào hàng đợi.
+     * Nếu bật hash sweep thì đưa luôn mọi event vào hàng đợi để bắt các thay đổi không đi qua entity listener
+     * (bulk update, đổi speaker/place); event không đổi chỉ tốn một lần tính hash.
+     */
+    @Scheduled(initialDelayString = "${ai.vector-sync.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${ai.vector-sync.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        long startTime = System.currentTimeMillis();
+        try {
+            Set<Long> dbIds = new HashSet<>(eventRepo.findAllIds());
+            Map<String, Object> filter = Map.of("must", List.of(
+                    Map.of("key", "kind", "match", Map.of("value", "event"))));
+            List<Map<String, Object>> points = qdrantService.scrollPoints(filter, 1000, false, List.of("event_id"));
+
+            List<Object> orphans = new ArrayList<>();
+            Set<Long> present = new HashSet<>();
+            for (Map<String, Object> point : points) {
+                Object rawEventId = point.get("payload") instanceof Map<?, ?> payload ? payload.get("event_id") : null;
+                Long eventId = rawEventId instanceof Number n ? n.longValue() : null;
+                if (eventId == null || !dbIds.contains(eventId) || !pointId(eventId).equals(String.valueOf(point.get("id")))) {
+                    orphans.add(point.get("id"));
+                } else {
+                    present.add(eventId);
+                }
+            }
+            for (int i = 0; i < orphans.size(); i += syncBatchSize) {
+                qdrantService.deletePoints(orphans.subList(i, Math.min(orphans.size(), i + syncBatchSize)));
+            }
 
-                        String uniqueId = UUID.nameUUIDFromBytes(("event_" + e.getId()).getBytes()).toString();
+            List<Long> missing = dbIds.stream().filter(id -> !present.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                // Xóa state để worker embed lại dù hash text không đổi
+                vectorStateRepo.deleteAllByIdInBatch(missing);
+            }
+            synchronized (dirtyIds) {
+                dirtyIds.addAll(reconcileHashSweep ? dbIds : missing);
+            }
+            log.info("Đối chiếu vector event: {} event, {} point, xóa {} point thừa, {} event thiếu point ({} ms)",
+                    dbIds.size(), points.size(), orphans.size(), missing.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("Không thể đối chiếu vector event với Qdrant: {}", e.getMessage());
+        }
+    }
 
-                        Map<String, Object> point = new HashMap<>();
-                        point.put("id", uniqueId);
-                        point.put("vector", toFloatList(vectors.get(i)));
-                        point.put("payload", payload);
+    public Map<String, Object> getSyncStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (dirtyIds) {
+            stats.put("pendingUpserts", dirtyIds.size());
+            stats.put("pendingDeletes", deletedIds.size());
+        }
+        stats.put("embedded", embeddedCount.get());
+        stats.put("payloadOnly", payloadOnlyCount.get());
+        stats.put("unchanged", unchangedCount.get());
+        stats.put("deleted", deletedCount.get());
+        stats.put("failures", failures.get());
+        stats.put("pausedUntil", pausedUntil > System.currentTimeMillis() ? pausedUntil : null);
+        return stats;
+    }
 
-                        return point;
-                    })
-                    .collect(Collectors.toList());
+    private void syncUpserts(List<Long> ids) throws Exception {
+        if (ids.isEmpty()) return;
 
-            // 4. Gọi QdrantService MỘT LẦN DUY NHẤT
-            qdrantService.upsertPoints(pointsToUpsert);
-            log.info("✅ Đồng bộ thành công {} sự kiện vào Qdrant.", allEvents.size());
+        // 1. Đọc event + dựng text/payload trong transaction (speakers, places... lazy)
+        Map<Long, Prepared> prepared = transactionTemplate.execute(status -> {
+            Map<Long, Prepared> out = new LinkedHashMap<>();
+            for (Event e : eventRepo.findAllById(ids)) {
+                String text = toSearchableText(e);
+                Map<String, Object> payload = createEventPayload(e);
+                out.put(e.getId(), new Prepared(text, payload, Hashing.sha256Hex(text), Hashing.sha256Hex(toJson(payload))));
+            }
+            return out;
+        });
+
+        // Event không còn trong DB thì xóa point
+        syncDeletes(ids.stream().filter(id -> !prepared.containsKey(id)).toList());
+        if (prepared.isEmpty()) return;
+
+        // 2. So hash với lần đồng bộ trước
+        Map<Long, EventVectorState> states = new HashMap<>();
+        vectorStateRepo.findAllById(prepared.keySet()).forEach(st -> states.put(st.getEventId(), st));
+        List<Long> toEmbed = new ArrayList<>();
+        Map<Object, Map<String, Object>> payloadOnly = new LinkedHashMap<>();
+        List<EventVectorState> changed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        prepared.forEach((id, p) -> {
+            EventVectorState state = states.get(id);
+            if (state == null || !state.getTextHash().equals(p.textHash())) {
+                toEmbed.add(id);
+            } else if (!state.getPayloadHash().equals(p.payloadHash())) {
+                payloadOnly.put(pointId(id), p.payload());
+            } else {
+                unchangedCount.incrementAndGet();
+                return;
+            }
+            changed.add(new EventVectorState(id, p.textHash(), p.payloadHash(), now));
+        });
+
+        // 3. Chỉ embed các text đã đổi, một request cho cả lô
+        if (!toEmbed.isEmpty()) {
+            List<float[]> vectors = embeddingService.getEmbeddings(toEmbed.stream().map(id -> prepared.get(id).text()).toList());
+            List<Map<String, Object>> points = new ArrayList<>(toEmbed.size());
+            for (int i = 0; i < toEmbed.size(); i++) {
+                Map<String, Object> point = new HashMap<>();
+                point.put("id", pointId(toEmbed.get(i)));
+                point.put("vector", vectors.get(i));
+                point.put("payload", prepared.get(toEmbed.get(i)).payload());
+                points.add(point);
+            }
+            qdrantService.upsertPoints(points);
+            embeddedCount.addAndGet(toEmbed.size());
+        }
+        qdrantService.overwritePayloads(payloadOnly);
+        payloadOnlyCount.addAndGet(payloadOnly.size());
 
-        } catch (Exception ex) {
-            log.error("❌ Lỗi khi đồng bộ sự kiện theo lô: {}", ex.getMessage(), ex);
+        if (!changed.isEmpty()) {
+            vectorStateRepo.saveAll(changed);
+        }
+        log.debug("Đồng bộ vector: {} embed, {} chỉ payload, {} không đổi", toEmbed.size(), payloadOnly.size(),
+                prepared.size() - changed.size());
+    }
+
+    private void syncDeletes(List<Long> ids) throws Exception {
+        if (ids.isEmpty()) return;
+        qdrantService.deletePoints(ids.stream().map(EventVectorSyncService::pointId).toList());
+        vectorStateRepo.deleteAllByIdInBatch(ids);
+        deletedCount.addAndGet(ids.size());
+    }
+
+    private static List<Long> take(Set<Long> source, int max) {
+        List<Long> batch = new ArrayList<>(Math.min(max, source.size()));
+        Iterator<Long> it = source.iterator();
+        while (it.hasNext() && batch.size() < max) {
+            batch.add(it.next());
+            it.remove();
         }
+        return batch;
+    }
+
+    /**
+     * Point id cố định theo eventId để upsert ghi đè đúng point cũ
+     */
+    private static String pointId(Long eventId) {
+        return UUID.nameUUIDFromBytes(("event_" + eventId).getBytes()).toString();
+    }
+
+    private static String toJson(Map<String, Object> payload) {
+        try {
+            return HASH_MAPPER.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Prepared(String text, Map<String, Object> payload, String textHash, String payloadHash) {
     }
 
     /**
@@ -345,7 +569,7 @@ public class EventVectorSyncService {
                         Map<String, Object> point = new HashMap<>();
                         String uniqueId = UUID.nameUUIDFromBytes(("place_" + p.getId()).getBytes()).toString();
                         point.put("id", uniqueId);
-                        point.put("vector", toFloatList(vectors.get(i)));
+                        point.put("vector", vectors.get(i));
                         point.put("payload", payload);
 
                         return point;
@@ -382,17 +606,21 @@ public class EventVectorSyncService {
             }
 
             // 2. Chuẩn bị points
-            List<Map<String, Object>> pointsToUpsert = IntStream.range(0, contents.size())
-                    .mapToObj(i -> {
+            List<Map<String, Object>> payloads = contents.stream()
+                    .map(content -> {
                         Map<String, Object> payload = new LinkedHashMap<>();
                         payload.put("kind", kind);
                         payload.put(typeKey, typeValue);
-                        payload.put(contentKey, contents.get(i));
-
+                        payload.put(contentKey, content);
+                        return payload;
+                    })
+                    .collect(Collectors.toList());
+            List<Map<String, Object>> pointsToUpsert = IntStream.range(0, contents.size())
+                    .mapToObj(i -> {
                         Map<String, Object> point = new HashMap<>();
                         point.put("id", UUID.randomUUID().toString());
-                        point.put("vector", toFloatList(vectors.get(i)));
-                        point.put("payload", payload);
+                        point.put("vector", vectors.get(i));
+                        point.put("payload", payloads.get(i));
 
                         return point;
                     })
@@ -401,17 +629,15 @@ public class EventVectorSyncService {
             // 3. Upsert tất cả points một lần
             qdrantService.upsertPoints(pointsToUpsert);
             log.info("✅ Seed thành công {} items.", contents.size());
+
+            // 4. Cập nhật bản sao intent trong bộ nhớ để classifier dùng ngay
+            if (LocalIntentIndex.INTENT_KINDS.contains(kind)) {
+                localIntentIndex.replaceGroup(contents, vectors, payloads);
+            }
         } catch (Exception ex) {
             log.error("❌ Lỗi khi seed theo lô cho kind '{}', type '{}': {}", kind, typeValue, ex.getMessage());
         }
     }
-    // Helper để chuyển float[] sang List<Float>
-    private List<Float> toFloatList(float[] vector) {
-        if (vector == null) return Collections.emptyList();
-        return IntStream.range(0, vector.length)
-                .mapToObj(i -> vector[i])
-                .collect(Collectors.toList());
-    }
     /**
      * Helper để tạo payload đầy đủ cho một đối tượng Event.
      * Tách ra từ hàm syncAllEvents cũ để tái sử dụng và làm sạch code.
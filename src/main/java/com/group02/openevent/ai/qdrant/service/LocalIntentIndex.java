@@ -0,0 +1,238 @@
+package com.group02.openevent.ai.qdrant.service;
+
+import com.group02.openevent.ai.util.FlatVectorIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Bản sao trong bộ nhớ của các vector intent (kind prompt / label / tool_prompt) đang nằm trên Qdrant,
+ * để phân loại intent không cần gọi mạng. Event và Place vẫn chỉ tìm trên Qdrant.
+ * Nạp từ Qdrant khi ứng dụng khởi động và định kỳ, cập nhật ngay khi EventVectorSyncService seed lại một nhóm.
+ * Mỗi nhóm (kind, typeKey, typeValue) chỉ giữ một vector cho mỗi câu mẫu, nên seed lặp lại trên Qdrant
+ * (id ngẫu nhiên) không làm trùng kết quả ở đây.
+ */
+@Component
+@Slf4j
+public class LocalIntentIndex {
+
+    public static final List<String> INTENT_KINDS = List.of("prompt", "label", "tool_prompt");
+    private static final List<String> TYPE_KEYS = List.of("type", "toolName", "intentType");
+    private static final List<String> CONTENT_KEYS = List.of("prompt", "label");
+
+    private static final int RECALL_K = 3;
+    private static final int RECALL_SAMPLE = 100;
+
+    private final QdrantService qdrantService;
+    private final boolean enabled;
+    private final FlatVectorIndex.Quantization quantization;
+    private final boolean keepFullPrecision;
+    private final int oversampling;
+
+    // group key -> (nội dung câu mẫu -> entry); chỉ sửa trong synchronized(this), rỗng nếu !retainSources()
+    private final Map<String, Map<String, Entry>> groups = new HashMap<>();
+    private volatile FlatVectorIndex index = FlatVectorIndex.empty();
+    private volatile boolean loaded;
+    private volatile double recallAtK = 1.0;
+
+    public LocalIntentIndex(QdrantService qdrantService,
+                            @Value("${ai.intent-index.enabled:true}") boolean enabled,
+                            @Value("${ai.intent-index.quantization:none}") String quantization,
+                            @Value("${ai.intent-index.keep-full-precision:true}") boolean keepFullPrecision,
+                            @Value("${ai.intent-index.oversampling:4}") int oversampling) {
+        this.qdrantService = qdrantService;
+        this.enabled = enabled;
+        this.quantization = FlatVectorIndex.Quantization.fromString(quantization);
+        this.keepFullPrecision = keepFullPrecision;
+        this.oversampling = oversampling;
+    }
+
+    /**
+     * Index đã có dữ liệu để thay cho Qdrant chưa
+     */
+    public boolean isReady() {
+        return enabled && loaded && index.size() > 0;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public Map<String, Object> getStats() {
+        FlatVectorIndex current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("loaded", loaded);
+        stats.put("size", current.size());
+        stats.put("dimension", current.dimension());
+        stats.put("quantization", current.quantization().name());
+        stats.put("keepFullPrecision", keepFullPrecision);
+        stats.put("vectorBytes", current.vectorBytes());
+        stats.put("float32Bytes", (long) current.size() * current.dimension() * Float.BYTES);
+        stats.put("recallAt" + RECALL_K, recallAtK);
+        return stats;
+    }
+
+    /**
+     * Dựng một FlatVectorIndex riêng với cùng cấu hình lượng tử (cho các bộ câu mẫu khác, vd. hỏi thông tin vé)
+     */
+    public FlatVectorIndex buildIndex(List<float[]> vectors, List<Map<String, Object>> payloads) {
+        return FlatVectorIndex.build(vectors, payloads, quantization, keepFullPrecision, oversampling);
+    }
+
+    /**
+     * Top-k vector intent gần nhất, cùng dạng kết quả với QdrantService.searchSimilarVectors
+     */
+    public List<Map<String, Object>> search(float[] queryVector, int limit) {
+        return index.search(queryVector, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Đọc lại toàn bộ vector intent từ Qdrant, thay thế nội dung hiện tại
+     */
+    @Scheduled(initialDelayString = "${ai.intent-index.refresh-interval-ms:900000}",
+            fixedDelayString = "${ai.intent-index.refresh-interval-ms:900000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        List<Map<String, Object>> points;
+        try {
+            Map<String, Object> filter = Map.of("must", List.of(
+                    Map.of("key", "kind", "match", Map.of("any", INTENT_KINDS))));
+            points = qdrantService.scrollPointsWithVectors(filter, 256);
+        } catch (Exception e) {
+            // Giữ nguyên index cũ; classifier sẽ tự quay về Qdrant nếu index đang rỗng
+            log.warn("Không thể nạp intent index từ Qdrant: {}", e.getMessage());
+            return;
+        }
+
+        Map<String, Map<String, Entry>> fresh = new HashMap<>();
+        for (Map<String, Object> point : points) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> payload = (Map<String, Object>) point.get("payload");
+            float[] vector = (float[]) point.get("vector");
+            if (payload == null || vector == null || vector.length == 0) {
+                continue;
+            }
+            String content = firstString(payload, CONTENT_KEYS);
+            fresh.computeIfAbsent(groupKey(payload), k -> new LinkedHashMap<>())
+                    .put(content != null ? content : String.valueOf(point.get("id")), new Entry(vector, payload));
+        }
+        synchronized (this) {
+            groups.clear();
+            groups.putAll(fresh);
+            rebuild();
+            if (!retainSources()) {
+                // Chỉ giữ bản lượng tử; seed lại thì đọc lại từ Qdrant
+                groups.clear();
+            }
+            loaded = true;
+        }
+        log.info("Intent index nạp {} vector ({} nhóm) từ Qdrant trong {} ms",
+                index.size(), fresh.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Thay một nhóm câu mẫu vừa được seed lên Qdrant (gọi sau khi upsert thành công)
+     */
+    public void replaceGroup(List<String> contents, List<float[]> vectors, List<Map<String, Object>> payloads) {
+        if (!enabled || contents.isEmpty()) {
+            return;
+        }
+        if (!retainSources()) {
+            // Không giữ vector gốc của các nhóm khác để dựng lại, points mới đã nằm trên Qdrant
+            reload();
+            return;
+        }
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < contents.size(); i++) {
+            entries.put(contents.get(i), new Entry(vectors.get(i), payloads.get(i)));
+        }
+        synchronized (this) {
+            groups.put(groupKey(payloads.get(0)), entries);
+            rebuild();
+        }
+        log.info("Intent index cập nhật nhóm '{}': {} vector, tổng {}", groupKey(payloads.get(0)),
+                entries.size(), index.size());
+    }
+
+    /**
+     * Giữ vector float gốc trong heap để cập nhật từng nhóm mà không đọc lại Qdrant.
+     * Tắt khi lượng tử hóa mà không giữ full precision, nếu không sẽ mất phần bộ nhớ tiết kiệm được.
+     */
+    private boolean retainSources() {
+        return quantization == FlatVectorIndex.Quantization.NONE || keepFullPrecision;
+    }
+
+    private void rebuild() {
+        List<float[]> vectors = new ArrayList<>();
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (Map<String, Entry> entries : groups.values()) {
+            for (Entry entry : entries.values()) {
+                vectors.add(entry.vector());
+                payloads.add(entry.payload());
+            }
+        }
+        FlatVectorIndex built = buildIndex(vectors, payloads);
+        if (quantization != FlatVectorIndex.Quantization.NONE) {
+            recallAtK = measureRecall(built, vectors, payloads);
+        }
+        index = built;
+    }
+
+    /**
+     * Recall@k của index lượng tử so với index float đầy đủ, dùng chính các vector mẫu làm truy vấn
+     */
+    private double measureRecall(FlatVectorIndex quantized, List<float[]> vectors, List<Map<String, Object>> payloads) {
+        FlatVectorIndex exact = FlatVectorIndex.build(vectors, payloads);
+        int queries = Math.min(RECALL_SAMPLE, vectors.size());
+        if (queries == 0) {
+            return 1.0;
+        }
+        int step = Math.max(1, vectors.size() / queries);
+        long hits = 0;
+        long total = 0;
+        for (int i = 0; i < vectors.size() && total < (long) queries * RECALL_K; i += step) {
+            List<Long> expected = exact.searchIds(vectors.get(i), RECALL_K);
+            List<Long> actual = quantized.searchIds(vectors.get(i), RECALL_K);
+            for (Long id : expected) {
+                if (actual.contains(id)) {
+                    hits++;
+                }
+            }
+            total += expected.size();
+        }
+        double recall = total == 0 ? 1.0 : (double) hits / total;
+        log.info("Intent index {} recall@{} = {}", quantization, RECALL_K, String.format("%.3f", recall));
+        return recall;
+    }
+
+    private static String groupKey(Map<String, Object> payload) {
+        String typeKey = TYPE_KEYS.stream().filter(payload::containsKey).findFirst().orElse("");
+        return payload.get("kind") + "|" + typeKey + "|" + payload.get(typeKey);
+    }
+
+    private static String firstString(Map<String, Object> payload, List<String> keys) {
+        for (String key : keys) {
+            if (payload.get(key) instanceof String value) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private record Entry(float[] vector, Map<String, Object> payload) {
+    }
+}
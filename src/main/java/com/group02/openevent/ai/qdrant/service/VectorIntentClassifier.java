@@ -4,11 +4,12 @@ import com.group02.openevent.ai.qdrant.model.ActionType;
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.ai.service.EmbeddingService;
 import com.group02.openevent.ai.service.EventVectorSearchService;
+import com.group02.openevent.ai.util.FlatVectorIndex;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -20,13 +21,17 @@ import java.util.Map;
 @Slf4j
 public class VectorIntentClassifier {
 
-    private final Map<String, float[]> ticketInfoExampleVectors = new HashMap<>();
+    // Câu mẫu hỏi thông tin vé, payload "example" = câu gốc
+    private volatile FlatVectorIndex ticketInfoExamples = FlatVectorIndex.empty();
     private final QdrantService qdrantService;
     private final EmbeddingService embeddingService;
     private final EventVectorSearchService eventVectorSearchService;
+    private final LocalIntentIndex localIntentIndex;
 
-    public VectorIntentClassifier(QdrantService qdrantService, EmbeddingService embeddingService,EventVectorSearchService eventVectorSearchService) {
+    public VectorIntentClassifier(QdrantService qdrantService, EmbeddingService embeddingService,EventVectorSearchService eventVectorSearchService,
+                                  LocalIntentIndex localIntentIndex) {
         this.qdrantService = qdrantService;
+        this.localIntentIndex = localIntentIndex;
         this.embeddingService = embeddingService;
         this.eventVectorSearchService = eventVectorSearchService;
     }
@@ -78,16 +83,20 @@ public class VectorIntentClassifier {
                 "vé còn lại bao nhiêu"
         };
 
+        List<float[]> vectors = new ArrayList<>();
+        List<Map<String, Object>> payloads = new ArrayList<>();
         for (String example : ticketInfoExamples) {
             try {
                 float[] vector = embeddingService.getEmbedding(example);
-                this.ticketInfoExampleVectors.put(example, vector);
+                vectors.add(vector);
+                payloads.add(Map.of("example", example));
             } catch (Exception e) {
                 log.error("Lỗi khi tạo embedding cho câu mẫu: '{}'. Bỏ qua câu này.", example, e);
             }
 
         }
-        log.info("Hoàn tất khởi tạo {} vector mẫu.", this.ticketInfoExampleVectors.size());
+        this.ticketInfoExamples = localIntentIndex.buildIndex(vectors, payloads);
+        log.info("Hoàn tất khởi tạo {} vector mẫu.", this.ticketInfoExamples.size());
     }
 
     public ActionType classifyIntent(String userInput, float[] userVector) {
@@ -101,7 +110,7 @@ public class VectorIntentClassifier {
                 return ActionType.QUERY_TICKET_INFO;
             }
 
-            List<Map<String, Object>> results = qdrantService.searchSimilarVectors(userVector, 3);
+            List<Map<String, Object>> results = searchIntentVectors(userVector, 3);
 
             if (results == null || results.isEmpty()) {
                 return ActionType.UNKNOWN;
@@ -139,7 +148,7 @@ public class VectorIntentClassifier {
                 return "UNKNOWN";
             }
 
-            List<Map<String, Object>> results = qdrantService.searchSimilarVectors(userVector, 3);
+            List<Map<String, Object>> results = searchIntentVectors(userVector, 3);
             System.out.println(results);
             
             if (results == null || results.isEmpty()) {
@@ -233,7 +242,7 @@ public class VectorIntentClassifier {
                 return "UNKNOWN";
             }
 
-            List<Map<String, Object>> results = qdrantService.searchSimilarVectors(userVector, 3);
+            List<Map<String, Object>> results = searchIntentVectors(userVector, 3);
             System.out.println(results);
             
             if (results == null || results.isEmpty()) {
@@ -510,16 +519,10 @@ public class VectorIntentClassifier {
             double maxSimilarity = 0.0;
             String bestMatch = "";
 
-            for (Map.Entry<String, float[]> entry : this.ticketInfoExampleVectors.entrySet()) {
-                String exampleText = entry.getKey();
-                float[] exampleVector = entry.getValue(); // Lấy vector đã được tính sẵn
-
-                double similarity = cosineSimilarity(userVector, exampleVector);
-
-                if (similarity > maxSimilarity) {
-                    maxSimilarity = similarity;
-                    bestMatch = exampleText;
-                }
+            List<Map<String, Object>> hits = this.ticketInfoExamples.search(userVector, 1);
+            if (!hits.isEmpty()) {
+                maxSimilarity = ((Number) hits.get(0).get("score")).doubleValue();
+                bestMatch = (String) ((Map<String, Object>) hits.get(0).get("payload")).get("example");
             }
             
             System.out.println("🎯 DEBUG: Best match: '" + bestMatch + "' with similarity: " + maxSimilarity);
@@ -561,24 +564,14 @@ public class VectorIntentClassifier {
     }
     
     /**
-     * Tính cosine similarity giữa hai vector
+     * Tìm trong các vector intent (prompt / label / tool_prompt): dùng index trong bộ nhớ nếu đã nạp,
+     * ngược lại gọi Qdrant như trước
      */
-    private double cosineSimilarity(float[] vectorA, float[] vectorB) {
-        if (vectorA.length != vectorB.length) {
-            return 0.0;
+    private List<Map<String, Object>> searchIntentVectors(float[] userVector, int limit) throws Exception {
+        if (localIntentIndex.isReady()) {
+            return localIntentIndex.search(userVector, limit);
         }
-        
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += Math.pow(vectorA[i], 2);
-            normB += Math.pow(vectorB[i], 2);
-        }
-        
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        return qdrantService.searchSimilarVectors(userVector, limit);
     }
 }
 
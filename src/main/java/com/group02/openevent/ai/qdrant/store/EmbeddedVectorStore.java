@@ -0,0 +1,699 @@
+package com.group02.openevent.ai.qdrant.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group02.openevent.ai.util.VectorKernels;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoublePredicate;
+
+/**
+ * Vector store nhúng trong process, thay cho Qdrant khi qdrant.backend=embedded
+ * (dev/offline, hoặc deploy nhỏ không muốn thêm một network hop cho mỗi lần search).
+ * <p>
+ * - Vector được chuẩn hóa L2 lúc ghi và xếp thành các segment float[] liền nhau
+ *   ({@value #SEGMENT_ROWS} hàng/segment), search = flat scan bằng VectorKernels.dot (SIMD nếu có)
+ * - Payload index: keyword (giá trị → BitSet slot) và integer (TreeMap, dùng cho range);
+ *   điều kiện trên key không có index thì quét payload
+ * - Hỗ trợ filter Qdrant: must / should / must_not (lồng nhau), match value/any, range gt/gte/lt/lte, has_id
+ * - Snapshot ra đĩa định kỳ khi có thay đổi và lúc tắt app (ghi file tạm rồi move atomic), nạp lại khi khởi động
+ */
+@Component
+@ConditionalOnProperty(name = "qdrant.backend", havingValue = "embedded")
+@Slf4j
+public class EmbeddedVectorStore implements VectorStore {
+    static final int SEGMENT_ROWS = 256;
+
+    private static final int SNAPSHOT_MAGIC = 0x4F455653; // "OEVS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_FILE = "vectors.snapshot";
+
+    private final int dimension;
+    private final String snapshotDir;
+    private final ObjectMapper om = new ObjectMapper();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Dữ liệu theo slot; slot bị xóa được tái sử dụng
+    private final List<float[]> segments = new ArrayList<>();
+    private final List<Object> ids = new ArrayList<>();
+    private final List<Map<String, Object>> payloads = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<Object, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, PayloadIndex> indexes = new LinkedHashMap<>();
+
+    private volatile boolean dirty = false;
+
+    public EmbeddedVectorStore(
+            @Value("${qdrant.vector.size}") int dimension,
+            @Value("${qdrant.embedded.snapshot-dir:data/vector-store}") String snapshotDir
+    ) {
+        this.dimension = dimension;
+        this.snapshotDir = snapshotDir.trim();
+    }
+
+    @PostConstruct
+    public void load() {
+        Path file = snapshotFile();
+        if (file == null || !Files.exists(file)) {
+            log.info("Embedded vector store: không có snapshot, bắt đầu với store rỗng (dim={})", dimension);
+            return;
+        }
+        try {
+            readSnapshot(file);
+            log.info("Embedded vector store: nạp {} points từ {}", slotById.size(), file);
+        } catch (Exception e) {
+            // Snapshot hỏng thì bắt đầu lại từ đầu, EventVectorSyncService sẽ reconcile và seed lại
+            log.error("Không đọc được snapshot {}, bắt đầu với store rỗng: {}", file, e.getMessage());
+            clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${qdrant.embedded.snapshot-interval-ms:60000}",
+            initialDelayString = "${qdrant.embedded.snapshot-interval-ms:60000}")
+    public void snapshotIfDirty() {
+        if (dirty) {
+            snapshot();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotIfDirty();
+    }
+
+    /**
+     * Ghi snapshot toàn bộ store ra đĩa
+     */
+    public synchronized void snapshot() {
+        Path file = snapshotFile();
+        if (file == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(SNAPSHOT_FILE + ".tmp");
+            writeSnapshot(tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Embedded vector store: snapshot {} points -> {}", slotById.size(), file);
+        } catch (IOException e) {
+            dirty = true;
+            log.error("Ghi snapshot vector store thất bại: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void ensureCollection() {
+        // Store nhúng luôn sẵn sàng, không có collection riêng
+    }
+
+    @Override
+    public void createPayloadIndex(String fieldName, String fieldType) {
+        IndexType type = IndexType.fromSchema(fieldType);
+        if (type == null) {
+            log.warn("Embedded vector store không hỗ trợ index kiểu '{}' cho key '{}', sẽ quét payload", fieldType, fieldName);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            PayloadIndex existing = indexes.get(fieldName);
+            if (existing != null && existing.type == type) {
+                return;
+            }
+            PayloadIndex index = new PayloadIndex(fieldName, type);
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                index.add(slot, payloads.get(slot));
+            }
+            indexes.put(fieldName, index);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsertPoints(List<Map<String, Object>> points) {
+        // Chuẩn bị ngoài lock: parse vector, chuẩn hóa, copy payload
+        List<Object> pointIds = new ArrayList<>(points.size());
+        List<float[]> vectors = new ArrayList<>(points.size());
+        List<Map<String, Object>> pointPayloads = new ArrayList<>(points.size());
+        for (Map<String, Object> point : points) {
+            pointIds.add(normalizeId(point.get("id")));
+            float[] vector = toVector(point.get("vector"));
+            if (vector.length != dimension) {
+                throw new IllegalArgumentException("Vector dimension error: expected dim: " + dimension + ", got " + vector.length);
+            }
+            float[] normalized = VectorKernels.normalize(vector);
+            vectors.add(normalized != null ? normalized : vector);
+            pointPayloads.add(toPayload(point.get("payload")));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < pointIds.size(); i++) {
+                Object id = pointIds.get(i);
+                Integer slot = slotById.get(id);
+                if (slot != null) {
+                    unindex(slot);
+                } else {
+                    slot = allocateSlot();
+                    slotById.put(id, slot);
+                }
+                float[] vector = vectors.get(i);
+                System.arraycopy(vector, 0, segments.get(slot / SEGMENT_ROWS), (slot % SEGMENT_ROWS) * dimension, dimension);
+                ids.set(slot, id);
+                payloads.set(slot, pointPayloads.get(i));
+                live.set(slot);
+                index(slot);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deletePoints(Collection<?> pointIds) {
+        lock.writeLock().lock();
+        try {
+            for (Object rawId : pointIds) {
+                Integer slot = slotById.remove(normalizeId(rawId));
+                if (slot == null) {
+                    continue;
+                }
+                unindex(slot);
+                live.clear(slot);
+                ids.set(slot, null);
+                payloads.set(slot, null);
+                freeSlots.push(slot);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void overwritePayloads(Map<?, Map<String, Object>> payloadsByPointId) {
+        lock.writeLock().lock();
+        try {
+            payloadsByPointId.forEach((rawId, payload) -> {
+                Integer slot = slotById.get(normalizeId(rawId));
+                if (slot == null) {
+                    log.debug("overwritePayloads: không có point id {}, bỏ qua", rawId);
+                    return;
+                }
+                unindex(slot);
+                payloads.set(slot, toPayload(payload));
+                index(slot);
+            });
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> search(float[] queryVector, int limit, Map<String, Object> filter) {
+        if (queryVector == null || queryVector.length != dimension) {
+            throw new IllegalArgumentException("Vector dimension error: expected dim: " + dimension
+                    + ", got " + (queryVector == null ? 0 : queryVector.length));
+        }
+        float[] q = VectorKernels.normalize(queryVector);
+        if (q == null || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = filter == null || filter.isEmpty() ? live : evaluate(filter);
+            int k = Math.min(limit, candidates.cardinality());
+            int[] topSlots = new int[k];
+            float[] topScores = new float[k];
+            int count = 0;
+            for (int slot = candidates.nextSetBit(0); slot >= 0 && k > 0; slot = candidates.nextSetBit(slot + 1)) {
+                float score = VectorKernels.dot(segments.get(slot / SEGMENT_ROWS), (slot % SEGMENT_ROWS) * dimension, q, 0, dimension);
+                if (count == k && score <= topScores[k - 1]) {
+                    continue;
+                }
+                // Top-k nhỏ giữ bằng insertion sort, giảm dần theo score
+                int pos = count < k ? count++ : k - 1;
+                while (pos > 0 && topScores[pos - 1] < score) {
+                    topScores[pos] = topScores[pos - 1];
+                    topSlots[pos] = topSlots[pos - 1];
+                    pos--;
+                }
+                topScores[pos] = score;
+                topSlots[pos] = slot;
+            }
+
+            List<Map<String, Object>> out = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Map<String, Object> m = new HashMap<>();
+                m.put("id", ids.get(topSlots[i]));
+                m.put("score", (double) topScores[i]);
+                m.put("payload", copyPayload(payloads.get(topSlots[i]), null));
+                out.add(m);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> scroll(Map<String, Object> filter, int pageSize, boolean withVector,
+                                            List<String> payloadKeys) {
+        lock.readLock().lock();
+        try {
+            BitSet matched = filter == null || filter.isEmpty() ? live : evaluate(filter);
+            List<Map<String, Object>> out = new ArrayList<>(matched.cardinality());
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                Map<String, Object> m = new HashMap<>();
+                m.put("id", ids.get(slot));
+                if (withVector) {
+                    int offset = (slot % SEGMENT_ROWS) * dimension;
+                    m.put("vector", Arrays.copyOfRange(segments.get(slot / SEGMENT_ROWS), offset, offset + dimension));
+                }
+                m.put("payload", copyPayload(payloads.get(slot), payloadKeys));
+                out.add(m);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Filter ====================
+
+    /**
+     * Tập slot khớp filter Qdrant; các điều kiện trong must/should/must_not có thể là filter lồng nhau
+     */
+    private BitSet evaluate(Map<String, Object> filter) {
+        BitSet result = (BitSet) live.clone();
+        for (Map<String, Object> condition : conditions(filter.get("must"))) {
+            result.and(evaluateCondition(condition));
+        }
+        List<Map<String, Object>> should = conditions(filter.get("should"));
+        if (!should.isEmpty()) {
+            BitSet any = new BitSet();
+            for (Map<String, Object> condition : should) {
+                any.or(evaluateCondition(condition));
+            }
+            result.and(any);
+        }
+        for (Map<String, Object> condition : conditions(filter.get("must_not"))) {
+            result.andNot(evaluateCondition(condition));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BitSet evaluateCondition(Map<String, Object> condition) {
+        if (condition.containsKey("must") || condition.containsKey("should") || condition.containsKey("must_not")) {
+            return evaluate(condition);
+        }
+        if (condition.get("has_id") instanceof Collection<?> hasIds) {
+            BitSet bits = new BitSet();
+            for (Object id : hasIds) {
+                Integer slot = slotById.get(normalizeId(id));
+                if (slot != null) bits.set(slot);
+            }
+            return bits;
+        }
+        Object key = condition.get("key");
+        if (key == null) {
+            throw new IllegalArgumentException("Filter condition không hỗ trợ: " + condition);
+        }
+        Map<String, Object> match = condition.get("match") instanceof Map<?, ?> m ? (Map<String, Object>) m : null;
+        Map<String, Object> range = condition.get("range") instanceof Map<?, ?> r ? (Map<String, Object>) r : null;
+
+        PayloadIndex index = indexes.get(key.toString());
+        if (index != null) {
+            BitSet fromIndex = index.lookup(match, range);
+            if (fromIndex != null) {
+                return fromIndex;
+            }
+        }
+        // Không có index phù hợp: quét payload
+        BitSet bits = new BitSet();
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            if (matches(valuesAt(payloads.get(slot), key.toString()), match, range)) {
+                bits.set(slot);
+            }
+        }
+        return bits;
+    }
+
+    private static boolean matches(List<Object> values, Map<String, Object> match, Map<String, Object> range) {
+        for (Object value : values) {
+            boolean ok = true;
+            if (match != null) {
+                if (match.containsKey("value")) {
+                    ok = valueEquals(value, match.get("value"));
+                } else if (match.get("any") instanceof Collection<?> any) {
+                    ok = any.stream().anyMatch(candidate -> valueEquals(value, candidate));
+                } else {
+                    throw new IllegalArgumentException("Match condition không hỗ trợ: " + match);
+                }
+            }
+            if (ok && range != null) {
+                ok = value instanceof Number n && rangePredicate(range).test(n.doubleValue());
+            }
+            if (ok) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean valueEquals(Object value, Object expected) {
+        if (value instanceof Number a && expected instanceof Number b) {
+            return a.doubleValue() == b.doubleValue();
+        }
+        return Objects.equals(value, expected);
+    }
+
+    private static DoublePredicate rangePredicate(Map<String, Object> range) {
+        DoublePredicate predicate = v -> true;
+        if (range.get("gt") instanceof Number n) predicate = predicate.and(v -> v > n.doubleValue());
+        if (range.get("gte") instanceof Number n) predicate = predicate.and(v -> v >= n.doubleValue());
+        if (range.get("lt") instanceof Number n) predicate = predicate.and(v -> v < n.doubleValue());
+        if (range.get("lte") instanceof Number n) predicate = predicate.and(v -> v <= n.doubleValue());
+        return predicate;
+    }
+
+    /**
+     * Giá trị tại key (hỗ trợ "a.b"); mảng được trải phẳng vì Qdrant khớp nếu bất kỳ phần tử nào khớp
+     */
+    private static List<Object> valuesAt(Map<String, Object> payload, String key) {
+        Object current = payload;
+        for (String part : key.split("\\.")) {
+            if (!(current instanceof Map<?, ?> map)) {
+                return List.of();
+            }
+            current = map.get(part);
+        }
+        if (current == null) {
+            return List.of();
+        }
+        return current instanceof Collection<?> c ? new ArrayList<>(c) : List.of(current);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> conditions(Object raw) {
+        if (raw == null) {
+            return List.of();
+        }
+        if (raw instanceof Map<?, ?> single) {
+            return List.of((Map<String, Object>) single);
+        }
+        return (List<Map<String, Object>>) raw;
+    }
+
+    // ==================== Slot / index ====================
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        int slot = ids.size();
+        if (slot / SEGMENT_ROWS >= segments.size()) {
+            segments.add(new float[SEGMENT_ROWS * dimension]);
+        }
+        ids.add(null);
+        payloads.add(null);
+        return slot;
+    }
+
+    private void index(int slot) {
+        for (PayloadIndex index : indexes.values()) {
+            index.add(slot, payloads.get(slot));
+        }
+    }
+
+    private void unindex(int slot) {
+        for (PayloadIndex index : indexes.values()) {
+            index.remove(slot, payloads.get(slot));
+        }
+    }
+
+    private void clear() {
+        segments.clear();
+        ids.clear();
+        payloads.clear();
+        live.clear();
+        slotById.clear();
+        freeSlots.clear();
+        indexes.clear();
+    }
+
+    // Qdrant: id là số nguyên không âm hoặc UUID (chuỗi)
+    private static Object normalizeId(Object id) {
+        if (id instanceof Number n) {
+            return n.longValue();
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Point id không được null");
+        }
+        return id.toString();
+    }
+
+    private static float[] toVector(Object raw) {
+        if (raw instanceof float[] f) {
+            return f;
+        }
+        if (raw instanceof double[] d) {
+            float[] out = new float[d.length];
+            for (int i = 0; i < d.length; i++) out[i] = (float) d[i];
+            return out;
+        }
+        if (raw instanceof List<?> list) {
+            float[] out = new float[list.size()];
+            for (int i = 0; i < out.length; i++) out[i] = ((Number) list.get(i)).floatValue();
+            return out;
+        }
+        throw new IllegalArgumentException("Vector không hợp lệ: " + (raw == null ? "null" : raw.getClass().getSimpleName()));
+    }
+
+    /**
+     * Chuyển payload về Map/List/String/Number thuần (như sau khi qua JSON) để filter và snapshot nhất quán
+     */
+    private Map<String, Object> toPayload(Object raw) {
+        if (raw == null) {
+            return new LinkedHashMap<>();
+        }
+        return om.convertValue(raw, new TypeReference<LinkedHashMap<String, Object>>() {});
+    }
+
+    /**
+     * Bản sao nông để caller không sửa được dữ liệu trong store
+     */
+    private static Map<String, Object> copyPayload(Map<String, Object> payload, List<String> includeKeys) {
+        if (includeKeys == null) {
+            return new LinkedHashMap<>(payload);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String key : includeKeys) {
+            if (payload.containsKey(key)) out.put(key, payload.get(key));
+        }
+        return out;
+    }
+
+    private enum IndexType {
+        KEYWORD, INTEGER;
+
+        static IndexType fromSchema(String schema) {
+            return switch (schema == null ? "" : schema.trim().toLowerCase()) {
+                case "keyword" -> KEYWORD;
+                case "integer" -> INTEGER;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * Index một key payload: keyword → BitSet theo giá trị chuỗi, integer → TreeMap để trả lời range
+     */
+    private static final class PayloadIndex {
+        private final String key;
+        private final IndexType type;
+        private final Map<String, BitSet> keywords = new HashMap<>();
+        private final NavigableMap<Long, BitSet> integers = new TreeMap<>();
+
+        PayloadIndex(String key, IndexType type) {
+            this.key = key;
+            this.type = type;
+        }
+
+        void add(int slot, Map<String, Object> payload) {
+            for (Object value : valuesAt(payload, key)) {
+                if (type == IndexType.KEYWORD && value instanceof String s) {
+                    keywords.computeIfAbsent(s, v -> new BitSet()).set(slot);
+                } else if (type == IndexType.INTEGER && value instanceof Number n) {
+                    integers.computeIfAbsent(n.longValue(), v -> new BitSet()).set(slot);
+                }
+            }
+        }
+
+        void remove(int slot, Map<String, Object> payload) {
+            for (Object value : valuesAt(payload, key)) {
+                BitSet bits = null;
+                if (type == IndexType.KEYWORD && value instanceof String s) {
+                    bits = keywords.get(s);
+                } else if (type == IndexType.INTEGER && value instanceof Number n) {
+                    bits = integers.get(n.longValue());
+                }
+                if (bits != null) {
+                    bits.clear(slot);
+                }
+            }
+        }
+
+        /**
+         * Trả về null nếu điều kiện không trả lời được bằng index này (sẽ quét payload)
+         */
+        BitSet lookup(Map<String, Object> match, Map<String, Object> range) {
+            if (match != null && range != null) {
+                return null;
+            }
+            BitSet out = new BitSet();
+            if (match != null) {
+                Collection<?> wanted = match.containsKey("value") ? Collections.singletonList(match.get("value"))
+                        : match.get("any") instanceof Collection<?> any ? any : null;
+                if (wanted == null) {
+                    return null;
+                }
+                for (Object value : wanted) {
+                    BitSet bits;
+                    if (type == IndexType.KEYWORD && value instanceof String s) {
+                        bits = keywords.get(s);
+                    } else if (type == IndexType.INTEGER && (value instanceof Integer || value instanceof Long)) {
+                        bits = integers.get(((Number) value).longValue());
+                    } else {
+                        return null;
+                    }
+                    if (bits != null) out.or(bits);
+                }
+                return out;
+            }
+            if (range != null && type == IndexType.INTEGER) {
+                // Lấy khoảng khóa rộng rồi lọc chính xác bằng predicate (cận có thể là số thực)
+                DoublePredicate predicate = rangePredicate(range);
+                long from = Long.MIN_VALUE;
+                long to = Long.MAX_VALUE;
+                if (range.get("gt") instanceof Number n) from = Math.max(from, (long) Math.floor(n.doubleValue()));
+                if (range.get("gte") instanceof Number n) from = Math.max(from, (long) Math.floor(n.doubleValue()));
+                if (range.get("lt") instanceof Number n) to = Math.min(to, (long) Math.ceil(n.doubleValue()));
+                if (range.get("lte") instanceof Number n) to = Math.min(to, (long) Math.ceil(n.doubleValue()));
+                if (from > to) {
+                    return out;
+                }
+                for (Map.Entry<Long, BitSet> entry : integers.subMap(from, true, to, true).entrySet()) {
+                    if (predicate.test(entry.getKey())) out.or(entry.getValue());
+                }
+                return out;
+            }
+            return null;
+        }
+    }
+
+    // ==================== Snapshot ====================
+
+    private Path snapshotFile() {
+        return snapshotDir.isEmpty() ? null : Paths.get(snapshotDir).toAbsolutePath().resolve(SNAPSHOT_FILE);
+    }
+
+    private void writeSnapshot(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(dimension);
+            out.writeInt(indexes.size());
+            for (PayloadIndex index : indexes.values()) {
+                out.writeUTF(index.key);
+                out.writeUTF(index.type.name());
+            }
+            out.writeInt(slotById.size());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                Object id = ids.get(slot);
+                if (id instanceof Long l) {
+                    out.writeByte(0);
+                    out.writeLong(l);
+                } else {
+                    out.writeByte(1);
+                    out.writeUTF(id.toString());
+                }
+                byte[] payloadJson = om.writeValueAsBytes(payloads.get(slot));
+                out.writeInt(payloadJson.length);
+                out.write(payloadJson);
+                float[] segment = segments.get(slot / SEGMENT_ROWS);
+                int offset = (slot % SEGMENT_ROWS) * dimension;
+                for (int d = 0; d < dimension; d++) {
+                    out.writeFloat(segment[offset + d]);
+                }
+            }
+        }
+    }
+
+    private void readSnapshot(Path file) throws IOException {
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Sai định dạng snapshot");
+            }
+            int fileDimension = in.readInt();
+            if (fileDimension != dimension) {
+                throw new IOException("Snapshot có dim " + fileDimension + ", cấu hình hiện tại là " + dimension);
+            }
+            clear();
+            int indexCount = in.readInt();
+            for (int i = 0; i < indexCount; i++) {
+                String key = in.readUTF();
+                indexes.put(key, new PayloadIndex(key, IndexType.valueOf(in.readUTF())));
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Object id = in.readByte() == 0 ? (Object) in.readLong() : in.readUTF();
+                byte[] payloadJson = new byte[in.readInt()];
+                in.readFully(payloadJson);
+                int slot = allocateSlot();
+                float[] segment = segments.get(slot / SEGMENT_ROWS);
+                int offset = (slot % SEGMENT_ROWS) * dimension;
+                for (int d = 0; d < dimension; d++) {
+                    segment[offset + d] = in.readFloat();
+                }
+                ids.set(slot, id);
+                payloads.set(slot, om.readValue(payloadJson, new TypeReference<LinkedHashMap<String, Object>>() {}));
+                live.set(slot);
+                slotById.put(id, slot);
+                index(slot);
+            }
+            dirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.group02.openevent.ai.qdrant.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group02.openevent.ai.util.FlatVectorIndex.Quantization;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+
+/**
+ * Backend mặc định: Qdrant từ xa qua REST API (JSON/HTTP)
+ */
+@Component
+@ConditionalOnProperty(name = "qdrant.backend", havingValue = "remote", matchIfMissing = true)
+@Slf4j
+public class QdrantHttpStore implements VectorStore {
+    private final String baseUrl;
+    private final String apiKey;
+    private final String collection;
+    private final int vectorSize;
+    private final Quantization quantization; // none | int8 | binary
+    private final double oversampling;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper om = new ObjectMapper();
+
+    public QdrantHttpStore(
+            @Value("${qdrant.url}") String baseUrl,
+            @Value("${qdrant.api.key}") String apiKey,
+            @Value("${qdrant.collection}") String collection,
+            @Value("${qdrant.vector.size}") int vectorSize,
+            @Value("${qdrant.quantization:none}") String quantization,
+            @Value("${qdrant.quantization.oversampling:2.0}") double oversampling
+    ) {
+        this.baseUrl = baseUrl.trim();
+        this.apiKey = apiKey.trim();
+        this.collection = collection.trim();
+        this.vectorSize = vectorSize;
+        this.quantization = Quantization.fromString(quantization);
+        this.oversampling = oversampling;
+    }
+
+    @Override
+    public void ensureCollection() throws Exception {
+        HttpRequest get = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection))
+                .header("api-key", apiKey)
+                .build();
+        HttpResponse<String> resp = http.send(get, HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() == 200) return; // đã có
+
+        // tạo mới
+        Map<String, Object> body = new HashMap<>();
+        body.put("vectors", Map.of("size", vectorSize, "distance", "Cosine"));
+        Object quantizationConfig = quantizationConfig();
+        if (quantizationConfig != null) body.put("quantization_config", quantizationConfig);
+        HttpRequest put = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection))
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .PUT(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> created = http.send(put, HttpResponse.BodyHandlers.ofString());
+        requireOk(created, "Tạo collection thất bại");
+    }
+
+    /**
+     * Cập nhật cấu hình lượng tử hóa cho collection đã tồn tại (Qdrant tự dựng lại bản lượng tử ở nền).
+     * Vector gốc float32 vẫn được giữ để chấm lại (rescore) top ứng viên khi search.
+     * Với none thì không gửi gì (không PATCH mỗi lần khởi động); muốn tắt lượng tử trên collection cũ
+     * thì PATCH quantization_config = "Disabled" thủ công.
+     */
+    @Override
+    public void applyCollectionConfig() throws Exception {
+        Object quantizationConfig = quantizationConfig();
+        if (quantizationConfig == null) {
+            return;
+        }
+        Map<String, Object> body = Map.of("quantization_config", quantizationConfig);
+        HttpRequest patch = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection))
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(om.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> resp = http.send(patch, HttpResponse.BodyHandlers.ofString());
+        requireOk(resp, "Cập nhật quantization_config thất bại");
+        log.info("Qdrant collection '{}' quantization: {}", collection, quantization.name().toLowerCase());
+    }
+
+    /**
+     * int8: 4x nhỏ hơn float32, binary: 32x; bản lượng tử luôn nằm trong RAM
+     */
+    private Object quantizationConfig() {
+        return switch (quantization) {
+            case INT8 -> Map.of("scalar", Map.of("type", "int8", "quantile", 0.99, "always_ram", true));
+            case BINARY -> Map.of("binary", Map.of("always_ram", true));
+            case NONE -> null;
+        };
+    }
+
+    @Override
+    public void createPayloadIndex(String fieldName, String fieldType) throws Exception {
+        String indexUrl = baseUrl + "/collections/" + collection + "/index";
+
+        var body = Map.of(
+                "field_name", fieldName,
+                "field_schema", fieldType, // Ví dụ: "keyword" hoặc "integer"
+                "wait", true
+        );
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(indexUrl))
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .PUT(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(body)))
+                .build();
+
+        HttpResponse<String> resp = http.send(request, HttpResponse.BodyHandlers.ofString());
+        requireOk(resp, "Tạo Payload Index thất bại cho key: " + fieldName);
+    }
+
+    @Override
+    public void upsertPoints(List<Map<String, Object>> points) throws Exception {
+        ensureCollection();
+
+        // Body của request sẽ chứa một danh sách các point trong key "points"
+        Map<String, Object> req = Map.of("points", points);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection + "/points?wait=true")) // wait=true để đảm bảo dữ liệu được ghi xong
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .PUT(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(req)))
+                .build();
+
+        HttpResponse<String> resp = http.send(request, HttpResponse.BodyHandlers.ofString());
+        requireOk(resp, "Lỗi khi upsert theo lô (batch upsert)");
+    }
+
+    @Override
+    public void deletePoints(Collection<?> pointIds) throws Exception {
+        ensureCollection();
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection + "/points/delete?wait=true"))
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(Map.of("points", pointIds))))
+                .build();
+
+        HttpResponse<String> resp = http.send(request, HttpResponse.BodyHandlers.ofString());
+        requireOk(resp, "Lỗi khi xóa theo lô");
+    }
+
+    /**
+     * Mỗi point một payload riêng, gửi trong một request Batch API
+     */
+    @Override
+    public void overwritePayloads(Map<?, Map<String, Object>> payloadsByPointId) throws Exception {
+        ensureCollection();
+
+        List<Map<String, Object>> operations = new ArrayList<>(payloadsByPointId.size());
+        payloadsByPointId.forEach((id, payload) -> operations.add(Map.of(
+                "overwrite_payload", Map.of("payload", payload, "points", List.of(id)))));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection + "/points/batch?wait=true"))
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(Map.of("operations", operations))))
+                .build();
+
+        HttpResponse<String> resp = http.send(request, HttpResponse.BodyHandlers.ofString());
+        requireOk(resp, "Lỗi khi ghi đè payload theo lô");
+    }
+
+    @Override
+    public List<Map<String, Object>> search(float[] queryVector, int limit, Map<String, Object> filter) throws Exception {
+        ensureCollection();
+
+        Map<String, Object> req = new HashMap<>();
+        req.put("vector", queryVector);
+        req.put("limit", limit);
+        req.put("with_payload", true);
+        if (quantizationConfig() != null) {
+            // Quét trên bản lượng tử, chấm lại top (limit * oversampling) bằng vector gốc
+            req.put("params", Map.of("quantization", Map.of(
+                    "rescore", true,
+                    "oversampling", oversampling)));
+        }
+        if (filter != null && !filter.isEmpty()) {
+            req.put("filter", filter);
+        }
+
+        HttpRequest httpReq = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/collections/" + collection + "/points/search"))
+                .header("Content-Type", "application/json")
+                .header("api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(req)))
+                .build();
+
+        HttpResponse<String> resp = http.send(httpReq, HttpResponse.BodyHandlers.ofString());
+        requireOk(resp, "Search lỗi");
+
+        JsonNode root = om.readTree(resp.body());
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (JsonNode n : root.path("result")) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", n.path("id").isNumber() ? n.get("id").asLong() : n.get("id").asText());
+            m.put("score", n.path("score").asDouble());
+            if (n.has("payload")) m.put("payload", om.convertValue(n.get("payload"), Map.class));
+            out.add(m);
+        }
+        return out;
+    }
+
+    @Override
+    public List<Map<String, Object>> scroll(Map<String, Object> filter, int pageSize, boolean withVector,
+                                            List<String> payloadKeys) throws Exception {
+        ensureCollection();
+
+        List<Map<String, Object>> out = new ArrayList<>();
+        JsonNode offset = null;
+        do {
+            Map<String, Object> req = new HashMap<>();
+            req.put("limit", pageSize);
+            req.put("with_payload", payloadKeys != null ? Map.of("include", payloadKeys) : true);
+            req.put("with_vector", withVector);
+            if (filter != null && !filter.isEmpty()) {
+                req.put("filter", filter);
+            }
+            if (offset != null) {
+                req.put("offset", om.convertValue(offset, Object.class));
+            }
+
+            HttpRequest httpReq = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/collections/" + collection + "/points/scroll"))
+                    .header("Content-Type", "application/json")
+                    .header("api-key", apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(om.writeValueAsString(req)))
+                    .build();
+
+            HttpResponse<String> resp = http.send(httpReq, HttpResponse.BodyHandlers.ofString());
+            requireOk(resp, "Scroll lỗi");
+
+            JsonNode result = om.readTree(resp.body()).path("result");
+            for (JsonNode n : result.path("points")) {
+                Map<String, Object> m = new HashMap<>();
+                m.put("id", n.path("id").isNumber() ? n.get("id").asLong() : n.get("id").asText());
+                if (withVector) {
+                    JsonNode vectorNode = n.path("vector");
+                    float[] vector = new float[vectorNode.size()];
+                    for (int i = 0; i < vector.length; i++) {
+                        vector[i] = (float) vectorNode.get(i).asDouble();
+                    }
+                    m.put("vector", vector);
+                }
+                if (n.has("payload")) m.put("payload", om.convertValue(n.get("payload"), Map.class));
+                out.add(m);
+            }
+            offset = result.path("next_page_offset");
+        } while (offset != null && !offset.isNull() && !offset.isMissingNode());
+        return out;
+    }
+
+    private void requireOk(HttpResponse<String> resp, String msg) {
+        if (resp.statusCode() != 200) throw new RuntimeException(msg + ": HTTP " + resp.statusCode() + " - " + resp.body());
+        try {
+            JsonNode root = om.readTree(resp.body());
+            if (root.has("status") && !root.path("status").path("error").isNull()
+                    && !root.path("status").path("error").asText().isEmpty()) {
+                throw new RuntimeException(msg + ": " + root.path("status").path("error").asText());
+            }
+        } catch (Exception ignore) { /* nếu body không phải JSON hợp lệ, đã check statusCode ở trên */ }
+    }
+}
@@ -0,0 +1,55 @@
+package com.group02.openevent.ai.qdrant.store;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend lưu trữ vector phía sau QdrantService.
+ * Point, filter và kết quả dùng đúng định dạng JSON của Qdrant REST API (dưới dạng Map),
+ * nên các service AI không cần biết đang chạy với Qdrant từ xa hay store nhúng trong process.
+ * Kết quả search: mỗi phần tử có "id" (Long hoặc String), "score" (cosine) và "payload".
+ */
+public interface VectorStore {
+
+    /**
+     * Tạo collection nếu chưa có
+     */
+    void ensureCollection() throws Exception;
+
+    /**
+     * Áp dụng cấu hình cấp collection (lượng tử hóa...) khi khởi động
+     */
+    default void applyCollectionConfig() throws Exception {
+    }
+
+    /**
+     * Tạo index cho một key payload ("keyword" hoặc "integer")
+     */
+    void createPayloadIndex(String fieldName, String fieldType) throws Exception;
+
+    /**
+     * Upsert theo lô; mỗi point có "id", "vector" (float[] hoặc List số) và "payload"
+     */
+    void upsertPoints(List<Map<String, Object>> points) throws Exception;
+
+    void deletePoints(Collection<?> pointIds) throws Exception;
+
+    /**
+     * Ghi đè payload của từng point, giữ nguyên vector
+     */
+    void overwritePayloads(Map<?, Map<String, Object>> payloadsByPointId) throws Exception;
+
+    /**
+     * Top-k theo cosine similarity
+     * @param filter filter theo cú pháp Qdrant (must / should / must_not), null nếu không lọc
+     */
+    List<Map<String, Object>> search(float[] queryVector, int limit, Map<String, Object> filter) throws Exception;
+
+    /**
+     * Đọc toàn bộ point khớp filter. Mỗi phần tử có "id", "payload" và "vector" (float[]) nếu withVector.
+     * @param payloadKeys chỉ lấy các key payload này (null = lấy hết)
+     */
+    List<Map<String, Object>> scroll(Map<String, Object> filter, int pageSize, boolean withVector,
+                                     List<String> payloadKeys) throws Exception;
+}
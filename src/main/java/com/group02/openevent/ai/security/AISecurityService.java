@@ -13,26 +13,8 @@ import java.util.regex.Pattern;
 @Slf4j
 public class AISecurityService {
 
-    // Patterns for detecting potentially malicious content
-    private static final List<Pattern> MALICIOUS_PATTERNS = Arrays.asList(
-        // SQL Injection patterns
-        Pattern.compile(".*(union|select|insert|update|delete|drop|create|alter|exec|execute).*", Pattern.CASE_INSENSITIVE),
-        Pattern.compile(".*(;|--|/\\*|\\*/).*", Pattern.CASE_INSENSITIVE),
-        
-        // XSS patterns
-        Pattern.compile(".*<script.*>.*</script>.*", Pattern.CASE_INSENSITIVE),
-        Pattern.compile(".*javascript:.*", Pattern.CASE_INSENSITIVE),
-        Pattern.compile(".*on\\w+\\s*=.*", Pattern.CASE_INSENSITIVE),
-        
-        // Command injection patterns
-        Pattern.compile(".*(\\||&|;|`|\\$|\\(|\\)).*", Pattern.CASE_INSENSITIVE),
-        
-        // Path traversal patterns
-        Pattern.compile(".*(\\.\\./|\\.\\.\\\\).*", Pattern.CASE_INSENSITIVE),
-        
-        // Sensitive data patterns
-        Pattern.compile(".*(password|passwd|secret|key|token|api_key|private).*", Pattern.CASE_INSENSITIVE)
-    );
+    // SQL injection, XSS, command injection, path traversal, sensitive data: quét một lượt, xem InputThreatScanner
+    private static final InputThreatScanner THREAT_SCANNER = InputThreatScanner.getDefault();
 
     // Maximum input length limits
     private static final int MAX_INPUT_LENGTH = 5000;
@@ -54,11 +36,9 @@ public class AISecurityService {
         }
 
         // Check for malicious patterns
-        for (Pattern pattern : MALICIOUS_PATTERNS) {
-            if (pattern.matcher(input).matches()) {
-                log.warn("Malicious pattern detected in input: {}", input.substring(0, Math.min(100, input.length())));
-                return ValidationResult.invalid("Input contains potentially malicious content");
-            }
+        if (THREAT_SCANNER.matches(input)) {
+            log.warn("Malicious pattern detected in input: {}", input.substring(0, Math.min(100, input.length())));
+            return ValidationResult.invalid("Input contains potentially malicious content");
         }
 
         // Check length limits
@@ -140,11 +120,9 @@ public class AISecurityService {
         }
 
         // Check for malicious content in AI response
-        for (Pattern pattern : MALICIOUS_PATTERNS) {
-            if (pattern.matcher(response).matches()) {
-                log.warn("Malicious pattern detected in AI response");
-                return ValidationResult.invalid("AI response contains potentially malicious content");
-            }
+        if (THREAT_SCANNER.matches(response)) {
+            log.warn("Malicious pattern detected in AI response");
+            return ValidationResult.invalid("AI response contains potentially malicious content");
         }
 
         // Check length
@@ -155,6 +133,22 @@ public class AISecurityService {
         return ValidationResult.valid(response);
     }
 
+    /**
+     * Kiểm tra phần câu trả lời đã stream (toàn bộ các chunk đã nhận tới giờ), nhất quán với validateAIResponse:
+     * - SAFE: đã có xuống dòng nằm ngoài mọi match nên validateAIResponse chắc chắn không chặn vì pattern,
+     *   phần đã giữ và các chunk sau được gửi ngay
+     * - PENDING: chưa kết luận được (vd. dòng đầu có "(" hay "key" nhưng câu trả lời nhiều dòng vẫn hợp lệ),
+     *   giữ lại chưa gửi; nếu tới hết vẫn PENDING thì client chỉ nhận câu trả lời cuối đã qua validateAIResponse
+     * - BLOCKED: vượt quá độ dài tối đa, validateAIResponse chắc chắn từ chối
+     */
+    public StreamCheck checkStreamedResponse(CharSequence streamed) {
+        if (streamed.length() > MAX_MESSAGE_LENGTH) {
+            log.warn("Streamed AI response exceeds maximum length");
+            return StreamCheck.BLOCKED;
+        }
+        return THREAT_SCANNER.cannotMatchWithAnySuffix(streamed) ? StreamCheck.SAFE : StreamCheck.PENDING;
+    }
+
     /**
      * Check if user has permission to access AI features
      */
@@ -184,6 +178,10 @@ public class AISecurityService {
     /**
      * Input types for validation
      */
+    public enum StreamCheck {
+        SAFE, PENDING, BLOCKED
+    }
+
     public enum InputType {
         MESSAGE,
         EVENT_TITLE,
@@ -0,0 +1,49 @@
+package com.group02.openevent.ai.security;
+
+import com.group02.openevent.models.ai.RateLimitCounter;
+import com.group02.openevent.repository.ai.RateLimitCounterRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bộ đếm dùng chung qua DB cho nhiều instance: mỗi lô là một transaction
+ * (upsert cộng dồn các key có delta, rồi đọc lại tổng của cả lô bằng một câu SELECT ... IN)
+ */
+@Component
+@ConditionalOnProperty(name = "ai.rate-limit.backend", havingValue = "db")
+@RequiredArgsConstructor
+public class DatabaseRateLimitStore implements RateLimitStore {
+
+    private final RateLimitCounterRepo counterRepo;
+
+    @Override
+    @Transactional
+    public Map<String, Long> addAndGet(Map<String, Long> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        // Ghi theo thứ tự key cố định để hai node cùng flush không khóa chéo nhau
+        new TreeMap<>(deltas).forEach((key, delta) -> {
+            if (delta > 0) {
+                counterRepo.addToTotal(key, delta, now);
+            }
+        });
+
+        Map<String, Long> totals = new HashMap<>(deltas.size() * 2);
+        for (RateLimitCounter counter : counterRepo.findAllById(deltas.keySet())) {
+            totals.put(counter.getLimitKey(), counter.getTotal());
+        }
+        return totals;
+    }
+
+    @Override
+    public void purgeIdle(Duration ttl) {
+        counterRepo.deleteByUpdatedAtBefore(LocalDateTime.now().minus(ttl));
+    }
+}
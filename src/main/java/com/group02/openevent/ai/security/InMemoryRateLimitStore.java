@@ -0,0 +1,49 @@
+package com.group02.openevent.ai.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backend mặc định: bộ đếm trong process (một node). Cũng dùng để giả lập nhiều node
+ * bằng cách cho nhiều RateLimitingService dùng chung một instance.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.rate-limit.backend", havingValue = "local", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, Long> addAndGet(Map<String, Long> deltas) {
+        long now = System.currentTimeMillis();
+        Map<String, Long> totals = new HashMap<>(deltas.size() * 2);
+        deltas.forEach((key, delta) -> {
+            if (delta == 0) {
+                Counter counter = counters.get(key);
+                totals.put(key, counter != null ? counter.total.get() : 0L);
+                return;
+            }
+            Counter counter = counters.computeIfAbsent(key, k -> new Counter());
+            counter.updatedAt = now;
+            totals.put(key, counter.total.addAndGet(delta));
+        });
+        return totals;
+    }
+
+    @Override
+    public void purgeIdle(Duration ttl) {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        counters.values().removeIf(counter -> counter.updatedAt < cutoff);
+    }
+
+    private static class Counter {
+        private final AtomicLong total = new AtomicLong();
+        private volatile long updatedAt;
+    }
+}
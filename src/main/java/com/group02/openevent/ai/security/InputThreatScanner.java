@@ -0,0 +1,225 @@
+package com.group02.openevent.ai.security;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quét input một lượt, O(n), thay cho các regex dạng ".*(a|b|c).*" + matches() trong AISecurityService.
+ * Kết quả giống hệt bộ regex cũ, kể cả việc "." không khớp ký tự xuống dòng (input nhiều dòng
+ * không bị các rule ".*x.*" bắt):
+ * - từ khóa và ký tự đặc biệt: automaton Aho-Corasick, không phân biệt hoa thường (chỉ ASCII, như CASE_INSENSITIVE)
+ * - "<script.*>.*</script>": máy 3 trạng thái trên kết quả của automaton
+ * - "on\w+\s*=": DFA nhỏ; xuống dòng chỉ được nằm trong đoạn \s* của chính match đó
+ */
+public final class InputThreatScanner {
+
+    private static final int KEYWORD = 1;
+    private static final int SCRIPT_OPEN = 2;
+    private static final int SCRIPT_CLOSE = 4;
+
+    // Kết quả scan
+    private static final int NO_MATCH = 0;
+    private static final int MATCH = 1;
+    // Gặp xuống dòng nằm ngoài mọi match: input này và mọi chuỗi bắt đầu bằng nó đều không khớp
+    private static final int NEVER_MATCHES = 2;
+
+    private static final String[] KEYWORDS = {
+            // SQL injection
+            "union", "select", "insert", "update", "delete", "drop", "create", "alter", "exec", "execute",
+            ";", "--", "/*", "*/",
+            // XSS
+            "javascript:",
+            // Command injection
+            "|", "&", "`", "$", "(", ")",
+            // Path traversal
+            "../", "..\\",
+            // Sensitive data
+            "password", "passwd", "secret", "key", "token", "api_key", "private"
+    };
+
+    private static final InputThreatScanner DEFAULT = new InputThreatScanner();
+
+    // DFA đầy đủ trên ASCII (goto + failure đã gộp); ký tự ngoài ASCII luôn về gốc
+    private final int[][] next;
+    private final int[] output;
+
+    private InputThreatScanner() {
+        List<int[]> gotos = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        gotos.add(newNode());
+        outputs.add(0);
+        for (String keyword : KEYWORDS) {
+            addPattern(gotos, outputs, keyword, KEYWORD);
+        }
+        addPattern(gotos, outputs, "<script", SCRIPT_OPEN);
+        addPattern(gotos, outputs, "</script>", SCRIPT_CLOSE);
+
+        next = gotos.toArray(new int[0][]);
+        output = outputs.stream().mapToInt(Integer::intValue).toArray();
+        buildFailureTransitions();
+    }
+
+    public static InputThreatScanner getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * true nếu ít nhất một rule trong bộ regex cũ khớp (tương đương pattern.matcher(input).matches())
+     */
+    public boolean matches(String input) {
+        return scan(input) == MATCH;
+    }
+
+    /**
+     * true nếu không chuỗi nào bắt đầu bằng prefix có thể khớp, tức kết quả của matches() trên câu trả lời
+     * đầy đủ đã được quyết định là false (dùng khi kiểm tra câu trả lời đang stream)
+     */
+    public boolean cannotMatchWithAnySuffix(CharSequence prefix) {
+        return scan(prefix) == NEVER_MATCHES;
+    }
+
+    private int scan(CharSequence input) {
+        int state = 0;
+        boolean keyword = false;
+        int script = 0; // 0: chờ "<script", 1: chờ ">", 2: chờ "</script>"
+        boolean scriptFound = false;
+
+        // on\w+\s*=
+        boolean prevO = false;
+        boolean seenOn = false;   // đã có "on" trong đoạn \w hiện tại
+        boolean armed = false;    // "on\w+" kết thúc tại ký tự hiện tại
+        boolean wsArmed = false;  // đang ở đoạn \s* ngay sau "on\w+"
+        boolean handler = false;
+        int lineBreaks = 0;
+        int lineBreaksInRun = 0;
+
+        for (int i = 0, n = input.length(); i < n; i++) {
+            char c = input.charAt(i);
+            char lower = c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+
+            state = c < 128 ? next[state][lower] : 0;
+            int out = output[state];
+            if (out != 0) {
+                keyword |= (out & KEYWORD) != 0;
+                if (script == 2 && (out & SCRIPT_CLOSE) != 0) {
+                    scriptFound = true;
+                }
+                if (script == 0 && (out & SCRIPT_OPEN) != 0) {
+                    script = 1;
+                }
+            }
+            if (script == 1 && c == '>') {
+                script = 2;
+            }
+
+            if (isWordChar(c)) {
+                if (lineBreaks > 0 && !handler) {
+                    // Đoạn \s* chứa xuống dòng bị cắt trước "=": xuống dòng đó không còn nằm trong match nào
+                    return NEVER_MATCHES;
+                }
+                armed = seenOn;
+                if (prevO && lower == 'n') {
+                    seenOn = true;
+                }
+                prevO = lower == 'o';
+                wsArmed = false;
+                lineBreaksInRun = 0;
+            } else if (isSpace(c)) {
+                wsArmed = armed || wsArmed;
+                armed = false;
+                seenOn = false;
+                prevO = false;
+                if (!wsArmed) {
+                    lineBreaksInRun = 0;
+                }
+            } else {
+                // Match chỉ hợp lệ khi mọi xuống dòng trước đó đều nằm trong đoạn \s* của nó
+                if (c == '=' && (armed || wsArmed) && lineBreaks == lineBreaksInRun) {
+                    handler = true;
+                }
+                if (lineBreaks > 0 && !handler) {
+                    return NEVER_MATCHES;
+                }
+                armed = false;
+                seenOn = false;
+                prevO = false;
+                wsArmed = false;
+                lineBreaksInRun = 0;
+            }
+
+            if (isLineTerminator(c)) {
+                if (!wsArmed) {
+                    // Xuống dòng ngoài mọi match: không rule nào còn có thể khớp
+                    return NEVER_MATCHES;
+                }
+                lineBreaks++;
+                lineBreaksInRun++;
+                handler = false;
+            }
+        }
+        return handler || (lineBreaks == 0 && (keyword || scriptFound)) ? MATCH : NO_MATCH;
+    }
+
+    private void addPattern(List<int[]> gotos, List<Integer> outputs, String pattern, int flag) {
+        int state = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (gotos.get(state)[c] == 0) {
+                gotos.add(newNode());
+                outputs.add(0);
+                gotos.get(state)[c] = gotos.size() - 1;
+            }
+            state = gotos.get(state)[c];
+        }
+        outputs.set(state, outputs.get(state) | flag);
+    }
+
+    /**
+     * BFS: gộp output theo failure link và điền các cạnh thiếu để mỗi ký tự chỉ cần một lần tra bảng
+     */
+    private void buildFailureTransitions() {
+        int[] fail = new int[next.length];
+        int[] queue = new int[next.length];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < 128; c++) {
+            int child = next[0][c];
+            if (child > 0) {
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            output[state] |= output[fail[state]];
+            for (int c = 0; c < 128; c++) {
+                int child = next[state][c];
+                if (child > 0) {
+                    fail[child] = next[fail[state]][c];
+                    queue[tail++] = child;
+                } else {
+                    next[state][c] = next[fail[state]][c];
+                }
+            }
+        }
+    }
+
+    // Cạnh 0 = chưa có (trong trie không cạnh nào trỏ về gốc)
+    private static int[] newNode() {
+        return new int[128];
+    }
+
+    // \w mặc định của java.util.regex
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // \s mặc định của java.util.regex
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Các ký tự "." không khớp khi không bật DOTALL
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
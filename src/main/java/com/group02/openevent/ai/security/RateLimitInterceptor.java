@@ -11,6 +11,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -47,7 +48,9 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             response.setHeader("X-RateLimit-Limit", String.valueOf(rateLimitInfo.getMaxRequests()));
             response.setHeader("X-RateLimit-Remaining", String.valueOf(rateLimitInfo.getRemainingRequests()));
             response.setHeader("X-RateLimit-Reset", rateLimitInfo.getResetTime().toString());
-            response.setHeader("Retry-After", String.valueOf(60)); // Retry after 60 seconds
+            // Số giây tới khi bucket có lượt tiếp theo
+            long retryAfter = Math.max(1, (Duration.between(LocalDateTime.now(), rateLimitInfo.getResetTime()).toMillis() + 999) / 1000);
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
             
             // Create error response
             Map<String, Object> errorResponse = new HashMap<>();
@@ -0,0 +1,23 @@
+package com.group02.openevent.ai.security;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bộ đếm dùng chung giữa các node phía sau RateLimitingService.
+ * Mỗi key (userId:type) có một tổng cộng dồn số request đã được cho qua trên toàn cluster;
+ * node đẩy phần tăng của mình theo lô và nhận lại tổng mới để trừ phần các node khác đã dùng
+ * vào token bucket cục bộ.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Cộng delta vào từng key và trả về tổng cộng dồn mới của các key đó (key chưa có coi như 0)
+     */
+    Map<String, Long> addAndGet(Map<String, Long> deltas);
+
+    /**
+     * Xóa bộ đếm không được cập nhật trong khoảng ttl
+     */
+    void purgeIdle(Duration ttl);
+}
@@ -1,16 +1,26 @@
 package com.group02.openevent.ai.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Service for implementing rate limiting for AI endpoints
+ * Service for implementing rate limiting for AI endpoints.
+ * Mỗi user + loại request có một token bucket (GCRA) cho ba tầng phút / giờ / ngày,
+ * trạng thái là ba mốc System.nanoTime() cập nhật bằng một lần CAS, không khóa.
+ * Bucket rảnh (đã đầy lại ở mọi tầng) được dọn ở nền; số request đã cho qua được
+ * đồng bộ theo lô với RateLimitStore để giới hạn áp dụng chung cho mọi instance.
  */
 @Service
 @Slf4j
@@ -20,47 +30,74 @@ public class RateLimitingService {
     private static final int DEFAULT_REQUESTS_PER_MINUTE = 30;
     private static final int DEFAULT_REQUESTS_PER_HOUR = 500;
     private static final int DEFAULT_REQUESTS_PER_DAY = 2000;
-    
+
     // AI-specific rate limits (more restrictive)
     private static final int AI_REQUESTS_PER_MINUTE = 20;
     private static final int AI_REQUESTS_PER_HOUR = 300;
     private static final int AI_REQUESTS_PER_DAY = 1000;
-    
-    // Translation rate limits
+
+    // Translation rate limits (no daily limit)
     private static final int TRANSLATION_REQUESTS_PER_MINUTE = 50;
     private static final int TRANSLATION_REQUESTS_PER_HOUR = 1000;
-    
+
+    private static final long[] TIER_PERIODS = {
+            TimeUnit.MINUTES.toNanos(1), TimeUnit.HOURS.toNanos(1), TimeUnit.DAYS.toNanos(1)
+    };
+
+    private final RateLimitStore store;
+    private final Duration counterTtl;
+
     // Rate limit tracking
-    private final ConcurrentHashMap<String, RateLimitTracker> rateLimitMap = new ConcurrentHashMap<>();
-    
-    // Cleanup task to remove expired entries
-    private final ConcurrentHashMap<String, LocalDateTime> lastCleanup = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong syncFailures = new AtomicLong();
+    private final AtomicLong remoteCharged = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RateLimitingService(RateLimitStore store,
+                               @Value("${ai.rate-limit.counter-ttl-hours:48}") long counterTtlHours) {
+        this.store = store;
+        this.counterTtl = Duration.ofHours(counterTtlHours);
+    }
 
     /**
      * Check if request is allowed for user
      */
     public boolean isAllowed(String userId, RateLimitType type) {
         String key = generateKey(userId, type);
-        RateLimitTracker tracker = rateLimitMap.computeIfAbsent(key, k -> new RateLimitTracker(type));
-        
-        // Cleanup old entries periodically
-        cleanupExpiredEntries();
-        
-        return tracker.isAllowed();
+        long now = System.nanoTime();
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(type, now));
+            Boolean result = bucket.tryAcquire(now);
+            if (result == null) {
+                // Bucket vừa bị dọn, lấy bucket mới
+                continue;
+            }
+            if (result) {
+                allowed.incrementAndGet();
+            } else {
+                rejected.incrementAndGet();
+                log.debug("Rate limit exceeded for key: {}", key);
+            }
+            return result;
+        }
     }
 
     /**
-     * Get remaining requests for user
+     * Get remaining requests for user (tầng đang còn ít lượt nhất)
      */
     public RateLimitInfo getRateLimitInfo(String userId, RateLimitType type) {
         String key = generateKey(userId, type);
-        RateLimitTracker tracker = rateLimitMap.get(key);
-        
-        if (tracker == null) {
+        Bucket bucket = buckets.get(key);
+
+        if (bucket == null) {
             return new RateLimitInfo(getMaxRequests(type), getMaxRequests(type), LocalDateTime.now().plusMinutes(1));
         }
-        
-        return tracker.getRateLimitInfo();
+
+        return bucket.getRateLimitInfo(System.nanoTime());
     }
 
     /**
@@ -68,7 +105,10 @@ public class RateLimitingService {
      */
     public void resetRateLimit(String userId, RateLimitType type) {
         String key = generateKey(userId, type);
-        rateLimitMap.remove(key);
+        Bucket bucket = buckets.remove(key);
+        if (bucket != null) {
+            bucket.retire();
+        }
         log.info("Rate limit reset for user: {} type: {}", userId, type);
     }
 
@@ -77,41 +117,116 @@ public class RateLimitingService {
      */
     public Map<RateLimitType, RateLimitInfo> getAllRateLimitInfo(String userId) {
         Map<RateLimitType, RateLimitInfo> info = new HashMap<>();
-        
+
         for (RateLimitType type : RateLimitType.values()) {
             info.put(type, getRateLimitInfo(userId, type));
         }
-        
+
         return info;
     }
 
+    /**
+     * Đẩy số request đã cho qua kể từ lần trước lên store, trừ phần các node khác đã dùng vào bucket cục bộ
+     */
+    @Scheduled(fixedDelayString = "${ai.rate-limit.sync-interval-ms:1000}")
+    public void syncWithStore() {
+        Map<String, Long> deltas = new HashMap<>();
+        Map<String, Bucket> batch = new HashMap<>();
+        long started = System.nanoTime();
+        buckets.forEach((key, bucket) -> {
+            // Bucket vừa dùng trong tầng phút cũng gửi (delta 0) để nhận phần node khác đã dùng
+            long delta = bucket.unsynced.getAndSet(0);
+            if (delta > 0 || bucket.isActive(started)) {
+                deltas.put(key, delta);
+                batch.put(key, bucket);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> totals;
+        try {
+            totals = store.addAndGet(deltas);
+        } catch (Exception e) {
+            // Trả lại phần chưa đồng bộ để gửi ở lần sau
+            batch.forEach((key, bucket) -> bucket.unsynced.addAndGet(deltas.get(key)));
+            syncFailures.incrementAndGet();
+            log.warn("Rate limit sync failed: {}", e.getMessage());
+            return;
+        }
+        syncs.incrementAndGet();
+
+        long now = System.nanoTime();
+        batch.forEach((key, bucket) -> {
+            Long total = totals.get(key);
+            if (total == null) {
+                return;
+            }
+            long previous = bucket.syncedTotal;
+            long previousAt = bucket.syncedAt;
+            bucket.syncedTotal = total;
+            bucket.syncedAt = now;
+            if (previous < 0) {
+                // Lần đồng bộ đầu của bucket: chỉ lấy mốc
+                return;
+            }
+            // Âm khi bộ đếm chung vừa bị dọn: lấy mốc mới
+            long remote = total - previous - deltas.get(key);
+            if (remote > 0) {
+                bucket.charge(remote, previousAt, now);
+                remoteCharged.addAndGet(remote);
+            }
+        });
+    }
+
+    /**
+     * Dọn bucket đã đầy lại ở mọi tầng (tương đương bucket mới) và bộ đếm chung không còn dùng
+     */
+    @Scheduled(fixedDelayString = "${ai.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.forEach((key, bucket) -> {
+            if (bucket.retireIfIdle(now) && buckets.remove(key, bucket)) {
+                evictions.incrementAndGet();
+            }
+        });
+        try {
+            store.purgeIdle(counterTtl);
+        } catch (Exception e) {
+            log.warn("Rate limit counter purge failed: {}", e.getMessage());
+        }
+        log.debug("Evicted idle rate limit buckets. Current size: {}", buckets.size());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", store.getClass().getSimpleName());
+        stats.put("buckets", buckets.size());
+        stats.put("allowed", allowed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("syncs", syncs.get());
+        stats.put("syncFailures", syncFailures.get());
+        stats.put("remoteCharged", remoteCharged.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
     private String generateKey(String userId, RateLimitType type) {
         return userId + ":" + type.name();
     }
 
-    private int getMaxRequests(RateLimitType type) {
-        return switch (type) {
-            case AI_CHAT -> AI_REQUESTS_PER_MINUTE;
-            case AI_TRANSLATION -> TRANSLATION_REQUESTS_PER_MINUTE;
-            case GENERAL -> DEFAULT_REQUESTS_PER_MINUTE;
-        };
+    private static int getMaxRequests(RateLimitType type) {
+        return getTierLimits(type)[0];
     }
 
-    private void cleanupExpiredEntries() {
-        LocalDateTime now = LocalDateTime.now();
-        String currentMinute = now.toString().substring(0, 16); // YYYY-MM-DDTHH:MM
-        
-        if (!lastCleanup.containsKey(currentMinute)) {
-            lastCleanup.put(currentMinute, now);
-            
-            // Remove entries older than 1 hour
-            rateLimitMap.entrySet().removeIf(entry -> {
-                RateLimitTracker tracker = entry.getValue();
-                return tracker.isExpired(now.minusHours(1));
-            });
-            
-            log.debug("Cleaned up expired rate limit entries. Current size: {}", rateLimitMap.size());
-        }
+    // Giới hạn theo phút / giờ / ngày, 0 = không giới hạn
+    private static int[] getTierLimits(RateLimitType type) {
+        return switch (type) {
+            case AI_CHAT -> new int[]{AI_REQUESTS_PER_MINUTE, AI_REQUESTS_PER_HOUR, AI_REQUESTS_PER_DAY};
+            case AI_TRANSLATION -> new int[]{TRANSLATION_REQUESTS_PER_MINUTE, TRANSLATION_REQUESTS_PER_HOUR, 0};
+            case GENERAL -> new int[]{DEFAULT_REQUESTS_PER_MINUTE, DEFAULT_REQUESTS_PER_HOUR, DEFAULT_REQUESTS_PER_DAY};
+        };
     }
 
     /**
@@ -124,58 +239,141 @@ public class RateLimitingService {
     }
 
     /**
-     * Rate limit tracker for individual user
+     * Token bucket ba tầng cho một user + loại request.
+     * Mỗi tầng lưu "theoretical arrival time" (tat): request được nhận nếu
+     * max(tat, now) + interval - now <= period, với interval = period / limit.
      */
-    private static class RateLimitTracker {
-        private final AtomicInteger requestCount = new AtomicInteger(0);
-        private final LocalDateTime windowStart;
-        private final RateLimitType type;
-        private final int maxRequests;
+    private static class Bucket {
+        private static final long[] RETIRED = new long[0];
+
+        private final int[] limits;
+        private final long[] intervals = new long[TIER_PERIODS.length];
+        private final AtomicReference<long[]> tats;
+
+        // Số request đã cho qua chưa đẩy lên store
+        private final AtomicLong unsynced = new AtomicLong();
+        // Tổng chung đã thấy ở lần đồng bộ trước, -1 = chưa đồng bộ (chỉ thread đồng bộ dùng)
+        private volatile long syncedTotal = -1;
+        private volatile long syncedAt;
 
-        public RateLimitTracker(RateLimitType type) {
-            this.type = type;
-            this.windowStart = LocalDateTime.now();
-            this.maxRequests = getMaxRequestsForType(type);
+        Bucket(RateLimitType type, long now) {
+            this.limits = getTierLimits(type);
+            long[] initial = new long[TIER_PERIODS.length];
+            for (int i = 0; i < initial.length; i++) {
+                intervals[i] = limits[i] > 0 ? TIER_PERIODS[i] / limits[i] : 0;
+                initial[i] = now;
+            }
+            this.tats = new AtomicReference<>(initial);
         }
 
-        public boolean isAllowed() {
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Reset counter if window has passed
-            if (now.isAfter(windowStart.plusMinutes(1))) {
-                requestCount.set(0);
-                return true;
+        /**
+         * true = cho qua, false = vượt giới hạn, null = bucket đã bị dọn
+         */
+        Boolean tryAcquire(long now) {
+            while (true) {
+                long[] current = tats.get();
+                if (current == RETIRED) {
+                    return null;
+                }
+                long[] next = new long[current.length];
+                for (int i = 0; i < current.length; i++) {
+                    if (intervals[i] == 0) {
+                        continue;
+                    }
+                    long tat = current[i] - now > 0 ? current[i] : now;
+                    next[i] = tat + intervals[i];
+                    if (next[i] - now > TIER_PERIODS[i]) {
+                        return false;
+                    }
+                }
+                if (tats.compareAndSet(current, next)) {
+                    unsynced.incrementAndGet();
+                    return true;
+                }
             }
-            
-            int current = requestCount.incrementAndGet();
-            boolean allowed = current <= maxRequests;
-            
-            if (!allowed) {
-                log.warn("Rate limit exceeded for type: {} current: {} max: {}", type, current, maxRequests);
+        }
+
+        /**
+         * Trừ số request các node khác đã dùng kể từ lần đồng bộ trước (tính như thể chúng đến ngay
+         * tại mốc {@code since}, nên phần dùng đã lâu tự hết hạn); không phạt quá một chu kỳ của mỗi tầng
+         */
+        void charge(long count, long since, long now) {
+            while (true) {
+                long[] current = tats.get();
+                if (current == RETIRED) {
+                    return;
+                }
+                long[] next = new long[current.length];
+                for (int i = 0; i < current.length; i++) {
+                    if (intervals[i] == 0) {
+                        continue;
+                    }
+                    long base = current[i] - since > 0 ? current[i] : since;
+                    long charged = base + Math.min(count, limits[i]) * intervals[i];
+                    if (charged - now > TIER_PERIODS[i]) {
+                        charged = now + TIER_PERIODS[i];
+                    }
+                    next[i] = charged - current[i] > 0 ? charged : current[i];
+                }
+                if (tats.compareAndSet(current, next)) {
+                    return;
+                }
             }
-            
-            return allowed;
         }
 
-        public RateLimitInfo getRateLimitInfo() {
-            LocalDateTime now = LocalDateTime.now();
-            int current = requestCount.get();
-            int remaining = Math.max(0, maxRequests - current);
-            LocalDateTime resetTime = windowStart.plusMinutes(1);
-            
-            return new RateLimitInfo(maxRequests, remaining, resetTime);
+        /**
+         * Có request trong chu kỳ của tầng phút (tầng phút chưa đầy lại)
+         */
+        boolean isActive(long now) {
+            long[] current = tats.get();
+            return current != RETIRED && intervals[0] != 0 && current[0] - now > 0;
         }
 
-        public boolean isExpired(LocalDateTime cutoff) {
-            return windowStart.isBefore(cutoff);
+        /**
+         * Bucket đầy lại ở mọi tầng và không còn gì chưa đồng bộ thì đánh dấu đã dọn
+         */
+        boolean retireIfIdle(long now) {
+            long[] current = tats.get();
+            if (current == RETIRED || unsynced.get() > 0) {
+                return false;
+            }
+            for (int i = 0; i < current.length; i++) {
+                if (intervals[i] != 0 && current[i] - now > 0) {
+                    return false;
+                }
+            }
+            return tats.compareAndSet(current, RETIRED);
+        }
+
+        void retire() {
+            tats.set(RETIRED);
         }
 
-        private int getMaxRequestsForType(RateLimitType type) {
-            return switch (type) {
-                case AI_CHAT -> AI_REQUESTS_PER_MINUTE;
-                case AI_TRANSLATION -> TRANSLATION_REQUESTS_PER_MINUTE;
-                case GENERAL -> DEFAULT_REQUESTS_PER_MINUTE;
-            };
+        RateLimitInfo getRateLimitInfo(long now) {
+            long[] current = tats.get();
+            int tier = 0;
+            long tierRemaining = Long.MAX_VALUE;
+            long tierBacklog = 0;
+            for (int i = 0; i < TIER_PERIODS.length; i++) {
+                if (intervals[i] == 0 || current == RETIRED) {
+                    continue;
+                }
+                long backlog = Math.max(0, current[i] - now);
+                long remaining = Math.max(0, Math.min(limits[i], (TIER_PERIODS[i] - backlog) / intervals[i]));
+                if (remaining < tierRemaining) {
+                    tier = i;
+                    tierRemaining = remaining;
+                    tierBacklog = backlog;
+                }
+            }
+            if (tierRemaining == Long.MAX_VALUE) {
+                return new RateLimitInfo(limits[0], limits[0], LocalDateTime.now());
+            }
+            // Hết lượt: thời điểm có lượt tiếp theo; còn lượt: thời điểm tầng đầy lại
+            long untilReset = tierRemaining == 0
+                    ? Math.max(0, tierBacklog + intervals[tier] - TIER_PERIODS[tier])
+                    : tierBacklog;
+            return new RateLimitInfo(limits[tier], (int) tierRemaining, LocalDateTime.now().plusNanos(untilReset));
         }
     }
 
@@ -93,7 +93,7 @@ public class AgentEventService {
                 reminder.setRemindMinutes(remindMinutes);
                 reminder.setCreatedAt(LocalDateTime.now());
                 reminder.setSent(false); // Reset trạng thái gửi
-                emailReminderRepo.save(reminder);
+                emailReminderService.save(reminder);
                 log.info("🔄 Đã cập nhật lịch nhắc nhở cho sự kiện ID: {} với {} phút trước", eventId, remindMinutes);
             } else {
                 // Tạo lịch nhắc nhở mới
@@ -107,7 +107,7 @@ public class AgentEventService {
                 newReminder.setCreatedAt(LocalDateTime.now());
                 newReminder.setSent(false);
 
-                emailReminderRepo.save(newReminder);
+                emailReminderService.save(newReminder);
                 log.info("✅ Đã tạo lịch nhắc nhở mới cho sự kiện ID: {} với {} phút trước", eventId, remindMinutes);
             }
         } catch (Exception e) {
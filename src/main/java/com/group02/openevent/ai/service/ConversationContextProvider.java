@@ -0,0 +1,118 @@
+package com.group02.openevent.ai.service;
+
+import com.group02.openevent.ai.dto.Message;
+import com.group02.openevent.ai.session.AISessionState;
+import com.group02.openevent.ai.session.AISessionStore;
+import com.group02.openevent.models.ai.ChatMessage;
+import com.group02.openevent.repository.ai.ChatMessageRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dựng context hội thoại cho LLM từ ring buffer của phiên (AISessionStore).
+ * Lần đầu phiên được dùng (hoặc sau khi bị đẩy khỏi bộ nhớ) chỉ nạp N tin mới nhất từ DB
+ * bằng query giảm dần có giới hạn; các lượt sau được agent append thẳng vào buffer.
+ * Context được cắt theo ngân sách token để prompt không vượt giới hạn của model.
+ */
+@Component
+@Slf4j
+public class ConversationContextProvider {
+
+    private final ChatMessageRepo chatMessageRepo;
+    private final AISessionStore sessionStore;
+    private final int maxPromptTokens;
+
+    public ConversationContextProvider(ChatMessageRepo chatMessageRepo,
+                                       AISessionStore sessionStore,
+                                       @Value("${ai.context.max-prompt-tokens:8000}") int maxPromptTokens) {
+        this.chatMessageRepo = chatMessageRepo;
+        this.sessionStore = sessionStore;
+        this.maxPromptTokens = maxPromptTokens;
+    }
+
+    /**
+     * System prompt + các lượt gần nhất của phiên (cũ -> mới), vừa ngân sách token
+     * @param currentInput tin nhắn đang xử lý (đã được lưu DB trước khi gọi agent), null nếu không có
+     */
+    public List<Message> buildContext(Long userId, String sessionId, String systemPrompt, String currentInput) {
+        List<Message> ctx = new ArrayList<>();
+        ctx.add(new Message("system", systemPrompt));
+        if (sessionId == null) {
+            return ctx;
+        }
+
+        AISessionState session = sessionStore.getOrCreate(userId, sessionId);
+        if (!session.isTurnsLoaded()) {
+            session.seedTurns(loadTail(userId, sessionId, currentInput), sessionStore.getMaxTurns());
+        }
+
+        List<Message> turns = session.getRecentTurns();
+        int budget = maxPromptTokens - estimateTokens(systemPrompt)
+                - (currentInput != null ? estimateTokens(currentInput) : 0);
+        ctx.addAll(fitToBudget(turns, budget));
+        return ctx;
+    }
+
+    private List<Message> loadTail(Long userId, String sessionId, String currentInput) {
+        try {
+            List<ChatMessage> newest = chatMessageRepo.findByUserIdAndSessionIdOrderByTimestampDesc(
+                    userId, sessionId, PageRequest.of(0, sessionStore.getMaxTurns() + 1));
+            // Tin nhắn hiện tại đã được lưu trước khi agent chạy, agent sẽ tự thêm nó vào context
+            if (!newest.isEmpty() && currentInput != null
+                    && Boolean.TRUE.equals(newest.get(0).getIsFromUser())
+                    && currentInput.equals(newest.get(0).getMessage())) {
+                newest = newest.subList(1, newest.size());
+            }
+            List<Message> tail = new ArrayList<>(newest.size());
+            for (ChatMessage msg : newest) {
+                String role = Boolean.TRUE.equals(msg.getIsFromUser()) ? "user" : "assistant";
+                tail.add(new Message(role, msg.getMessage()));
+            }
+            Collections.reverse(tail);
+            log.debug("Loaded {} recent messages for session {}", tail.size(), sessionId);
+            return tail;
+        } catch (Exception e) {
+            log.warn("Failed to load session context for session {}: {}", sessionId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Giữ các lượt mới nhất vừa ngân sách; lượt mới nhất quá dài thì cắt bớt nội dung
+     */
+    private List<Message> fitToBudget(List<Message> turns, int budget) {
+        List<Message> kept = new ArrayList<>();
+        int remaining = budget;
+        for (int i = turns.size() - 1; i >= 0 && remaining > 0; i--) {
+            Message turn = turns.get(i);
+            int tokens = estimateTokens(turn.getContent());
+            if (tokens <= remaining) {
+                kept.add(turn);
+                remaining -= tokens;
+            } else {
+                if (kept.isEmpty()) {
+                    kept.add(new Message(turn.getRole(), truncate(turn.getContent(), remaining)));
+                }
+                break;
+            }
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    // Ước lượng thô ~3 ký tự/token (tiếng Việt có dấu tốn token hơn tiếng Anh), đủ để chặn prompt quá dài
+    static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 2) / 3;
+    }
+
+    private static String truncate(String text, int tokens) {
+        int maxChars = Math.max(0, tokens * 3 - 1);
+        return text.length() <= maxChars ? text : text.substring(0, maxChars) + "…";
+    }
+}
@@ -0,0 +1,209 @@
+package com.group02.openevent.ai.service;
+
+import com.group02.openevent.ai.util.MappedVectorStore;
+import com.group02.openevent.util.Hashing;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cache embedding hai tầng, key = SHA-256(modelId + text đã chuẩn hóa):
+ * - L1: LRU trong heap, giới hạn theo tổng số byte của vector (không theo số entry)
+ * - L2: file memory-mapped cho từng model (MappedVectorStore), giữ lại qua các lần restart
+ * Vector trả ra luôn là bản sao, caller sửa không ảnh hưởng cache.
+ */
+@Component
+@Slf4j
+public class EmbeddingCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Ước lượng overhead của một entry L1 (key, node LinkedHashMap, header mảng)
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final boolean enabled;
+    private final long maxMemoryBytes;
+    private final boolean diskEnabled;
+    private final Path diskDir;
+    private final int diskMaxEntries;
+    private final long diskMaxBytes;
+
+    private final LinkedHashMap<String, float[]> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+    private final Map<String, Optional<MappedVectorStore>> stores = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public EmbeddingCache(@Value("${ai.embedding-cache.enabled:true}") boolean enabled,
+                          @Value("${ai.embedding-cache.memory-max-mb:64}") long memoryMaxMb,
+                          @Value("${ai.embedding-cache.disk-enabled:true}") boolean diskEnabled,
+                          @Value("${ai.embedding-cache.disk-dir:data/embedding-cache}") String diskDir,
+                          @Value("${ai.embedding-cache.disk-max-entries:50000}") int diskMaxEntries,
+                          @Value("${ai.embedding-cache.disk-max-mb:128}") long diskMaxMb) {
+        this.enabled = enabled;
+        this.maxMemoryBytes = memoryMaxMb * 1024 * 1024;
+        this.diskEnabled = diskEnabled;
+        this.diskDir = Path.of(diskDir);
+        this.diskMaxEntries = diskMaxEntries;
+        // Giới hạn theo byte: số entry tự giảm khi dimension lớn (4096 dim ~ 16KB/entry)
+        this.diskMaxBytes = diskMaxMb * 1024 * 1024;
+    }
+
+    /**
+     * @return vector đã cache hoặc null
+     */
+    public float[] get(String modelId, String text) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] key = key(modelId, text);
+        String memoryKey = HexFormat.of().formatHex(key);
+        float[] vector;
+        synchronized (memory) {
+            vector = memory.get(memoryKey);
+        }
+        if (vector != null) {
+            memoryHits.incrementAndGet();
+            return vector.clone();
+        }
+        MappedVectorStore store = existingStore(modelId);
+        vector = store != null ? store.get(key) : null;
+        if (vector != null) {
+            diskHits.incrementAndGet();
+            putMemory(memoryKey, vector);
+            return vector.clone();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String modelId, String text, float[] vector) {
+        if (!enabled || vector == null || vector.length == 0) {
+            return;
+        }
+        byte[] key = key(modelId, text);
+        float[] copy = vector.clone();
+        putMemory(HexFormat.of().formatHex(key), copy);
+        MappedVectorStore store = storeFor(modelId, copy.length);
+        if (store != null) {
+            store.put(key, copy);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", total > 0 ? (double) hits / total : 0.0);
+        stats.put("memoryEvictions", evictions.get());
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+            stats.put("memoryBytes", memoryBytes);
+        }
+        stats.put("memoryMaxBytes", maxMemoryBytes);
+        Map<String, Integer> diskEntries = new LinkedHashMap<>();
+        stores.forEach((model, store) -> store.ifPresent(s -> diskEntries.put(model, s.size())));
+        stats.put("diskEntries", diskEntries);
+        return stats;
+    }
+
+    private void putMemory(String memoryKey, float[] vector) {
+        long entryBytes = (long) vector.length * Float.BYTES + ENTRY_OVERHEAD_BYTES;
+        if (entryBytes > maxMemoryBytes) {
+            return;
+        }
+        synchronized (memory) {
+            float[] previous = memory.put(memoryKey, vector);
+            if (previous != null) {
+                memoryBytes -= (long) previous.length * Float.BYTES + ENTRY_OVERHEAD_BYTES;
+            }
+            memoryBytes += entryBytes;
+            // Bỏ các entry ít dùng nhất đến khi tổng dung lượng về dưới giới hạn
+            Iterator<Map.Entry<String, float[]>> it = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+                Map.Entry<String, float[]> eldest = it.next();
+                memoryBytes -= (long) eldest.getValue().length * Float.BYTES + ENTRY_OVERHEAD_BYTES;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Store của model nếu file đã tồn tại (chưa biết dimension thì đọc từ header)
+     */
+    private MappedVectorStore existingStore(String modelId) {
+        if (!diskEnabled) {
+            return null;
+        }
+        Optional<MappedVectorStore> store = stores.get(modelId);
+        if (store != null) {
+            return store.orElse(null);
+        }
+        try {
+            int dimension = MappedVectorStore.readDimension(storeFile(modelId));
+            return dimension > 0 ? storeFor(modelId, dimension) : null;
+        } catch (IOException e) {
+            log.warn("Cannot read embedding store of model {}: {}", modelId, e.getMessage());
+            return null;
+        }
+    }
+
+    private MappedVectorStore storeFor(String modelId, int dimension) {
+        if (!diskEnabled) {
+            return null;
+        }
+        MappedVectorStore store = stores.computeIfAbsent(modelId, id -> {
+            try {
+                return Optional.of(MappedVectorStore.open(storeFile(id), dimension, diskMaxEntries, diskMaxBytes));
+            } catch (IOException | RuntimeException e) {
+                // Không mở được file thì chỉ dùng L1 cho model này
+                log.warn("Embedding disk cache disabled for model {}: {}", id, e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+        return store != null && store.getDimension() == dimension ? store : null;
+    }
+
+    private Path storeFile(String modelId) {
+        return diskDir.resolve(modelId.replaceAll("[^A-Za-z0-9._-]", "_") + ".vec");
+    }
+
+    /**
+     * Chuẩn hóa Unicode (NFC), bỏ khoảng trắng thừa; giữ nguyên hoa/thường vì model phân biệt
+     */
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ");
+    }
+
+    private static byte[] key(String modelId, String text) {
+        return Hashing.sha256(modelId, normalize(text));
+    }
+
+    @PreDestroy
+    public void close() {
+        stores.values().forEach(store -> store.ifPresent(s -> {
+            try {
+                s.close();
+            } catch (IOException e) {
+                log.warn("Cannot close embedding store: {}", e.getMessage());
+            }
+        }));
+    }
+}
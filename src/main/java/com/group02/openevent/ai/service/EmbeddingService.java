@@ -2,13 +2,21 @@ package com.group02.openevent.ai.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group02.openevent.ai.util.MicroBatcher;
+import com.group02.openevent.ai.util.VectorKernels;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service để tạo embeddings từ text sử dụng HuggingFace API
@@ -29,10 +37,30 @@ public class EmbeddingService {
 
     private boolean isEnabled = true;
 
+    // Cache 2 tầng (heap + file memory-mapped), tránh gọi lại API cho text đã embed
+    private final EmbeddingCache embeddingCache;
+
+    // Gom các getEmbedding đồng thời thành một request theo lô (null nếu tắt)
+    private final MicroBatcher<String, float[]> batcher;
+
+    // Thời gian tối đa cho một request embedding (cả thời gian chờ lô lẫn HTTP)
+    private final Duration requestTimeout;
+
     // 1. Dùng Constructor để Inject các giá trị cấu hình từ application.properties/dotenv
-    public EmbeddingService(@Value("${api.token:}") String apiToken) {
+    public EmbeddingService(@Value("${api.token:}") String apiToken,
+                            EmbeddingCache embeddingCache,
+                            @Value("${ai.embedding.batch.enabled:true}") boolean batchEnabled,
+                            @Value("${ai.embedding.batch.max-size:32}") int batchMaxSize,
+                            @Value("${ai.embedding.batch.max-wait-ms:5}") long batchMaxWaitMs,
+                            @Value("${ai.embedding.batch.max-in-flight:4}") int batchMaxInFlight,
+                            @Value("${ai.embedding.timeout-ms:15000}") long timeoutMs) {
         // Gán các giá trị được inject (đã được dotenv-java phân giải)
         this.apiToken = apiToken;
+        this.embeddingCache = embeddingCache;
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+        this.batcher = batchEnabled
+                ? new MicroBatcher<>("embedding", batchMaxSize, Duration.ofMillis(batchMaxWaitMs), batchMaxInFlight, this::getEmbeddings)
+                : null;
         // Các giá trị cố định có thể đặt trực tiếp ở đây
         this.apiUrl = "https://router.huggingface.co/nebius/v1/embeddings";
         this.modelId = "Qwen/Qwen3-Embedding-8B";
@@ -51,6 +79,22 @@ public class EmbeddingService {
         if (input == null || input.isBlank()) {
             throw new IllegalArgumentException("Input text cannot be null or empty.");
         }
+        float[] cached = embeddingCache.get(modelId, input);
+        if (cached != null) {
+            return cached;
+        }
+        if (batcher != null) {
+            // Chờ lô chứa input này (có timeout); lỗi của lô được ném lại nguyên dạng như lỗi API
+            CompletableFuture<float[]> future = batcher.submit(input);
+            try {
+                return future.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException e) {
+                future.cancel(false);
+                throw new TimeoutException("Embedding request timed out after " + requestTimeout.toMillis() + " ms");
+            }
+        }
         // Gọi lại hàm xử lý theo lô với danh sách chỉ có 1 phần tử
         List<float[]> embeddings = getEmbeddings(List.of(input));
         if (embeddings.isEmpty()) {
@@ -67,6 +111,45 @@ public class EmbeddingService {
             return Collections.emptyList();
         }
 
+        // Chỉ gọi API cho các text chưa có trong cache (mỗi text một lần)
+        float[][] results = new float[texts.size()][];
+        Map<String, List<Integer>> missing = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            results[i] = embeddingCache.get(modelId, texts.get(i));
+            if (results[i] == null) {
+                missing.computeIfAbsent(texts.get(i), t -> new ArrayList<>()).add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<String> toFetch = new ArrayList<>(missing.keySet());
+            List<float[]> fetched = requestEmbeddings(toFetch);
+            if (fetched.size() != toFetch.size()) {
+                throw new RuntimeException("Embedding API returned " + fetched.size() + " vectors for " + toFetch.size() + " texts");
+            }
+            for (int j = 0; j < toFetch.size(); j++) {
+                float[] vector = fetched.get(j);
+                embeddingCache.put(modelId, toFetch.get(j), vector);
+                List<Integer> positions = missing.get(toFetch.get(j));
+                for (int k = 0; k < positions.size(); k++) {
+                    results[positions.get(k)] = k == 0 ? vector : vector.clone();
+                }
+            }
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return embeddingCache.getStats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    private List<float[]> requestEmbeddings(List<String> texts) throws Exception {
         // 1. Chuẩn bị body với danh sách các input
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", modelId);
@@ -80,6 +163,7 @@ public class EmbeddingService {
                 .header("Authorization", "Bearer " + apiToken)
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(jsonRequest))
+                .timeout(requestTimeout)
                 .build();
 
         HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
@@ -116,15 +200,6 @@ public class EmbeddingService {
         return results;
     }
     public double cosineSimilarity(float[] a, float[] b) {
-        if (a.length != b.length) {
-            throw new IllegalArgumentException("Vectors must be same length");
-        }
-        double dot = 0.0, normA = 0.0, normB = 0.0;
-        for (int i = 0; i < a.length; i++) {
-            dot += a[i] * b[i];
-            normA += a[i] * a[i];
-            normB += b[i] * b[i];
-        }
-        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+        return VectorKernels.cosine(a, b);
     }
 }
\ No newline at end of file
@@ -8,6 +8,9 @@ import com.group02.openevent.ai.dto.TimeSlot;
 import com.group02.openevent.ai.mapper.AIEventMapper;
 import com.group02.openevent.ai.model.Language;
 import com.group02.openevent.ai.security.AISecurityService;
+import com.group02.openevent.ai.session.AISessionState;
+import com.group02.openevent.ai.session.AISessionStore;
+import com.group02.openevent.ai.util.StreamingTextRelay;
 import com.group02.openevent.ai.qdrant.model.ActionType;
 import com.group02.openevent.ai.qdrant.model.PendingEvent;
 import com.group02.openevent.ai.qdrant.model.TimeContext;
@@ -20,13 +23,13 @@ import com.group02.openevent.model.event.Place;
 import com.group02.openevent.model.ticket.TicketType;
 import com.group02.openevent.model.user.Customer;
 import com.group02.openevent.repository.ICustomerRepo;
-import com.group02.openevent.repository.ai.ChatMessageRepo;
 import com.group02.openevent.service.EventService;
 import com.group02.openevent.service.PlaceService;
 import com.group02.openevent.service.TicketTypeService;
 import com.group02.openevent.util.TimeSlotUnit;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,7 +39,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,16 +60,17 @@ public class EventAIAgent implements Serializable {
     private final ICustomerRepo customerRepo;
     private final TicketTypeService ticketTypeService;
     private final AIEventMapper AIEventMapper;
-    private final ChatMessageRepo chatMessageRepo;
     private final LanguageDetectionService languageDetectionService;
     private final TranslationService translationService;
     private final AISecurityService securityService;
-
-    /**
-     * PendingEvent neo theo sessionId để tránh đè nhau giữa nhiều phiên của cùng 1 user
-     * Dùng ConcurrentHashMap để thread-safe trong bean singleton.
-     */
-    private final Map<String, PendingEvent> pendingEvents = new ConcurrentHashMap<>();
+    private final SemanticResponseCache responseCache;
+    // Trạng thái theo phiên (event/đơn hàng đang chờ) nằm trong store, agent là bean dùng chung không giữ state
+    private final AISessionStore sessionStore;
+    private final ConversationContextProvider contextProvider;
+    private final PipelineStageRunner stages;
+    private final EventTitleIndex titleIndex;
+    private final long embeddingTimeoutMs;
+    private final long searchTimeoutMs;
 
     public EventAIAgent(EmbeddingService embeddingService,
                         PlaceService placeService,
@@ -81,10 +85,16 @@ public class EventAIAgent implements Serializable {
                         ICustomerRepo customerRepo,
                         TicketTypeService ticketTypeService,
                         AIEventMapper AIEventMapper,
-                        ChatMessageRepo chatMessageRepo,
                         LanguageDetectionService languageDetectionService,
                         TranslationService translationService,
-                        AISecurityService securityService) {
+                        AISecurityService securityService,
+                        SemanticResponseCache responseCache,
+                        AISessionStore sessionStore,
+                        ConversationContextProvider contextProvider,
+                        PipelineStageRunner stages,
+                        EventTitleIndex titleIndex,
+                        @Value("${ai.pipeline.embedding-timeout-ms:8000}") long embeddingTimeoutMs,
+                        @Value("${ai.pipeline.search-timeout-ms:8000}") long searchTimeoutMs) {
 
         this.embeddingService = embeddingService;
         this.placeService = placeService;
@@ -99,10 +109,16 @@ public class EventAIAgent implements Serializable {
         this.customerRepo = customerRepo;
         this.ticketTypeService = ticketTypeService;
         this.AIEventMapper = AIEventMapper;
-        this.chatMessageRepo = chatMessageRepo;
         this.languageDetectionService = languageDetectionService;
         this.translationService = translationService;
         this.securityService = securityService;
+        this.responseCache = responseCache;
+        this.sessionStore = sessionStore;
+        this.contextProvider = contextProvider;
+        this.stages = stages;
+        this.titleIndex = titleIndex;
+        this.embeddingTimeoutMs = embeddingTimeoutMs;
+        this.searchTimeoutMs = searchTimeoutMs;
         // KHÔNG giữ conversationHistory/pending theo user trong bean singleton
     }
 
@@ -372,27 +388,9 @@ hoặc
     /* =========================
        Xây context theo session
        ========================= */
-    private List<Message> buildConversationContext(String sessionId, Long userId) {
-        List<Message> ctx = new ArrayList<>();
-        ctx.add(new Message("system", buildSystemPrompt()));
-
-        if (sessionId == null) return ctx;
-
-        try {
-            List<com.group02.openevent.models.ai.ChatMessage> sessionMessages =
-                    chatMessageRepo.findByUserIdAndSessionIdOrderByTimestampAsc(userId, sessionId);
-
-            int startIndex = Math.max(0, sessionMessages.size() - 10); // lấy 10 tin gần nhất
-            for (int i = startIndex; i < sessionMessages.size(); i++) {
-                com.group02.openevent.models.ai.ChatMessage msg = sessionMessages.get(i);
-                String role = Boolean.TRUE.equals(msg.getIsFromUser()) ? "user" : "assistant";
-                ctx.add(new Message(role, msg.getMessage()));
-            }
-            log.debug("Loaded {} messages from session {} for user {}", sessionMessages.size(), sessionId, userId);
-        } catch (Exception e) {
-            log.warn("Failed to load session context for session {}: {}", sessionId, e.getMessage());
-        }
-        return ctx;
+    private List<Message> buildConversationContext(String sessionId, Long userId, String currentInput) {
+        // Lấy từ ring buffer của phiên, chỉ nạp đuôi lịch sử từ DB khi phiên chưa có trong bộ nhớ
+        return contextProvider.buildContext(userId, sessionId, buildSystemPrompt(), currentInput);
     }
 
     /* =========================
@@ -404,8 +402,24 @@ hoặc
      */
     @Transactional
     public String reply(String userInput, Long userId, String sessionId) throws Exception {
-        List<Message> context = buildConversationContext(sessionId, userId);
-        return processUserInput(userInput, userId, sessionId, context, null);
+        return reply(userInput, userId, sessionId, null);
+    }
+
+    /**
+     * Như {@link #reply(String, Long, String)}, nếu câu trả lời cần gọi LLM thì text được stream dần
+     * qua {@code onToken} (không gồm phần JSON action). Giá trị trả về vẫn là câu trả lời đầy đủ.
+     */
+    @Transactional
+    public String reply(String userInput, Long userId, String sessionId, Consumer<String> onToken) throws Exception {
+        List<Message> context = buildConversationContext(sessionId, userId, userInput);
+        String answer = processUserInput(userInput, userId, sessionId, context, null, onToken);
+
+        AISessionState session = sessionStore.getOrCreate(userId, sessionId);
+        session.addTurn(new Message("user", userInput), sessionStore.getMaxTurns());
+        if (answer != null) {
+            session.addTurn(new Message("assistant", answer), sessionStore.getMaxTurns());
+        }
+        return answer;
     }
 
     /**
@@ -435,7 +449,7 @@ hoặc
     }
 
     public String getConversationSummary(String sessionId, Long userId) {
-        List<Message> ctx = buildConversationContext(sessionId, userId);
+        List<Message> ctx = buildConversationContext(sessionId, userId, null);
         if (ctx.size() <= 1) {
             return "Không có cuộc trò chuyện nào được ghi nhận.";
         }
@@ -603,7 +617,18 @@ hoặc
                                    String sessionId,
                                    List<Message> context,
                                    HttpServletResponse response) throws Exception {
+        return processUserInput(userInput, userId, sessionId, context, response, null);
+    }
 
+    @Transactional
+    public String processUserInput(String userInput,
+                                   Long userId,
+                                   String sessionId,
+                                   List<Message> context,
+                                   HttpServletResponse response,
+                                   Consumer<String> onToken) throws Exception {
+
+        AISessionState session = sessionStore.getOrCreate(userId, sessionId);
 
         // Kiểm tra câu hỏi có ngoài phạm vi không
         if (isOutOfScope(userInput)) {
@@ -620,119 +645,83 @@ hoặc
         StringBuilder systemResult = new StringBuilder();
 
         /* ===== Pending theo SESSION ===== */
-        if (sessionId != null && pendingEvents.containsKey(sessionId)) {
+        if (session.getPendingEvent() != null) {
             String answer = userInput.trim().toLowerCase();
             if (answer.contains("có") || answer.contains("ok") || answer.contains("tiếp tục")) {
-                EventItem pendingItem = pendingEvents.remove(sessionId).getEventItem();
+                PendingEvent pending = session.takePendingEvent();
+                EventItem pendingItem = pending.getEventItem();
+                // Nạp lại địa điểm từ DB (PendingEvent chỉ giữ id)
+                List<Place> places = pending.getPlaceIds().stream()
+                        .map(placeService::findPlaceById)
+                        .flatMap(Optional::stream)
+                        .toList();
+                pendingItem.setPlace(places.isEmpty() ? null : new ArrayList<>(places));
                 Event eventToSave = AIEventMapper.toEvent(pendingItem);
                 agentEventService.saveEvent(eventToSave);
                 return "📅 Đã tạo sự kiện: " + pendingItem.getTitle();
             } else if (answer.contains("không")) {
-                pendingEvents.remove(sessionId);
+                session.setPendingEvent(null);
                 return "❌ Đã hủy tạo sự kiện do bạn từ chối.";
             } else {
                 return "❓Bạn có thể xác nhận lại: có/không?";
             }
         }
 
-        // ✅ NEW: nếu đang có pending order và user đang trả lời tên sự kiện
-        if (orderAIService.hasPendingOrder(userId) && looksLikeEventNameAnswer(userInput)) {
-            String eventName = extractEventNameFromBuyTicketInput("mua vé " + userInput);
-            if (eventName != null && !eventName.isBlank()) {
-                try {
-                    return orderAIService.startOrderCreation(userId, eventName.trim());
-                } catch (Exception e) {
-                    log.error("Error starting order from event-name-only input: {}", e.getMessage(), e);
-                }
-            }
-        }
+        // Embedding không phụ thuộc các bước tra cứu tên sự kiện bên dưới: chạy song song với chúng.
+        // Lỗi/timeout -> userVector = null để classifier dùng fallback
+        PipelineStageRunner.Stage<float[]> embeddingStage =
+                stages.fork("embedding", () -> embeddingService.getEmbedding(userInput));
 
-        // ✅ NEW: Nếu KHÔNG có pending order nhưng user chỉ nói tên sự kiện
-        if (!orderAIService.hasPendingOrder(userId)) {
-            String lowerInput = userInput.toLowerCase().trim();
-            
-            // Kiểm tra nếu input có vẻ như chỉ là tên sự kiện
-            if (looksLikeEventNameAnswer(userInput) || 
-                (lowerInput.split("\\s+").length <= 3 && !lowerInput.contains("mua") && !lowerInput.contains("vé"))) {
-                
-                String eventName = extractEventNameFromBuyTicketInput(userInput);
-                if (eventName != null && !eventName.isBlank()) {
-                    // Thử tìm sự kiện và trigger flow mua vé
-                    Optional<Event> eventOpt = eventService.getFirstPublicEventByTitle(eventName.trim());
-                    if (eventOpt.isPresent()) {
-                        return orderAIService.startOrderCreation(userId, eventName.trim());
-                    }
-                    
-                    // Fuzzy match
-                    String searchName = eventName.trim().toLowerCase();
-                    List<Event> matches = eventService.getAllEvents().stream()
-                            .filter(e -> e.getStatus() == EventStatus.PUBLIC)
-                            .filter(e -> e.getStartsAt() != null && e.getStartsAt().isAfter(LocalDateTime.now()))
-                            .filter(e -> e.getTitle() != null && e.getTitle().toLowerCase().contains(searchName))
-                            .toList();
-                    if (!matches.isEmpty()) {
-                        return orderAIService.startOrderCreation(userId, matches.get(0).getTitle());
-                    }
-                }
-            }
+        String eventNameReply = startOrderFromEventName(session, userInput);
+        if (eventNameReply != null) {
+            embeddingStage.cancel();
+            return eventNameReply;
         }
 
-        float[] userVector;
-        try {
-            userVector = embeddingService.getEmbedding(userInput);
-        } catch (IllegalStateException e) {
-            // Embedding service không khả dụng, set userVector = null để classifier dùng fallback
-            log.warn("Embedding service không khả dụng, sử dụng fallback intent classification: {}", e.getMessage());
-            userVector = null;
-        } catch (Exception e) {
-            log.error("Lỗi khi tạo embedding: {}", e.getMessage(), e);
-            userVector = null;
-        }
+        float[] userVector = embeddingStage.join(embeddingTimeoutMs, null);
 
         /* ==================== ORDER FLOW ==================== */
-        ActionType intent = classifier.classifyIntent(userInput, userVector);
+        ActionType intent = stages.timed("classify_intent", () -> classifier.classifyIntent(userInput, userVector));
         if (intent == ActionType.BUY_TICKET) {
             // Bước 1: Trích xuất tên sự kiện từ userInput
             String extractedEventName = extractEventNameFromBuyTicketInput(userInput);
 
+            // Vector search (bước 3) chạy song song với tra cứu exact match trong DB, hủy nếu exact match trúng
+            PipelineStageRunner.Stage<List<Event>> vectorSearchStage =
+                    stages.fork("event_vector_search", () -> eventVectorSearchService.searchEvents(userInput, userId, 1));
+
             // Bước 2: Thử tìm kiếm exact match trong database trước (nếu có tên được trích xuất)
             Optional<Event> exactMatch = Optional.empty();
             if (extractedEventName != null && !extractedEventName.trim().isEmpty()) {
                 exactMatch = eventService.getFirstPublicEventByTitle(extractedEventName.trim());
                 if (exactMatch.isPresent()) {
-                    return orderAIService.startOrderCreation(userId, extractedEventName.trim());
+                    vectorSearchStage.cancel();
+                    return orderAIService.startOrderCreation(session, extractedEventName.trim());
                 }
             }
 
-            // Bước 3: Nếu không tìm thấy exact match, thử vector search
-            List<Event> foundEvents = eventVectorSearchService.searchEvents(userInput, userId, 1);
+            // Bước 3: Nếu không tìm thấy exact match, dùng kết quả vector search
+            List<Event> foundEvents = vectorSearchStage.join(searchTimeoutMs, List.of());
             if (!foundEvents.isEmpty()) {
                 String eventName = foundEvents.get(0).getTitle();
                 Optional<Event> eventOpt = eventService.getFirstPublicEventByTitle(eventName.trim());
                 if (eventOpt.isPresent()) {
-                    return orderAIService.startOrderCreation(userId, eventName.trim());
+                    return orderAIService.startOrderCreation(session, eventName.trim());
                 }
             }
 
             // Bước 4: Nếu vector search cũng không tìm thấy, thử tìm kiếm fuzzy match
-            if (extractedEventName != null && !extractedEventName.trim().isEmpty()) {
-                String searchName = extractedEventName.trim().toLowerCase();
-                List<Event> allPublicEvents = eventService.getAllEvents().stream()
-                        .filter(e -> e.getStatus() == EventStatus.PUBLIC)
-                        .filter(e -> e.getStartsAt() != null && e.getStartsAt().isAfter(LocalDateTime.now()))
-                        .filter(e -> e.getTitle() != null && e.getTitle().toLowerCase().contains(searchName))
-                        .toList();
-                if (!allPublicEvents.isEmpty()) {
-                    return orderAIService.startOrderCreation(userId, allPublicEvents.get(0).getTitle());
-                }
+            Optional<EventTitleIndex.Match> titleMatch = matchEventTitle(extractedEventName, userInput);
+            if (titleMatch.isPresent()) {
+                return orderAIService.startOrderCreation(session, titleMatch.get().title());
             }
 
             // Bước 5: Nếu vẫn không tìm thấy, trả về thông báo lỗi
             return "Tôi hiểu bạn muốn mua vé, nhưng tôi chưa nhận ra tên sự kiện. Bạn có thể cho tôi biết tên sự kiện cụ thể được không?";
         }
 
-        if (orderAIService.hasPendingOrder(userId)) {
-            com.group02.openevent.ai.dto.PendingOrder pendingOrder = orderAIService.getPendingOrder(userId);
+        if (orderAIService.hasPendingOrder(session)) {
+            com.group02.openevent.ai.dto.PendingOrder pendingOrder = orderAIService.getPendingOrder(session);
 
             switch (pendingOrder.getCurrentStep()) {
                 case SELECT_EVENT -> {
@@ -740,21 +729,21 @@ hoặc
                     return "ℹ️ Vui lòng cho biết tên sự kiện bạn muốn mua vé.";
                 }
                 case SELECT_TICKET_TYPE -> {
-                    return orderAIService.selectTicketType(userId, userInput);
+                    return orderAIService.selectTicketType(session, userInput);
                 }
                 case PROVIDE_INFO -> {
                     Map<String, String> info = extractParticipantInfo(userInput);
-                    return orderAIService.provideInfo(userId, info);
+                    return orderAIService.provideInfo(session, info);
                 }
                 case CONFIRM_ORDER -> {
                     ActionType confirmIntent = classifier.classifyConfirmIntent(userInput, userVector);
                     switch (confirmIntent) {
                         case CONFIRM_ORDER -> {
-                            Map<String, Object> result = orderAIService.confirmOrder(userId);
+                            Map<String, Object> result = orderAIService.confirmOrder(session);
                             return String.valueOf(result.get("message"));
                         }
                         case CANCEL_ORDER -> {
-                            return orderAIService.cancelOrder(userId);
+                            return orderAIService.cancelOrder(session);
                         }
                         case UNKNOWN -> {
                             return "❓ Tôi không hiểu rõ ý của bạn. Vui lòng trả lời rõ ràng:\n" +
@@ -772,11 +761,28 @@ hoặc
         }
         /* ==================== END ORDER FLOW ==================== */
 
+        // Semantic cache: câu hỏi gần giống vừa được trả lời thì dùng lại, bỏ qua LLM
+        String cacheFingerprint = responseCacheFingerprint(intent, userInput, context);
+        long cacheGeneration = responseCache.generation();
+        if (cacheFingerprint != null) {
+            Optional<String> cached = responseCache.lookup(userVector, cacheFingerprint);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
         // Thêm user message vào context trước khi gọi LLM
         context.add(new Message("user", userInput));
 
-        // Truy vấn LLM
-        String aiResponse = llm.generateResponse(context);
+        // Truy vấn LLM (stream token cho người dùng nếu caller yêu cầu)
+        String aiResponse;
+        if (onToken != null) {
+            StreamingTextRelay relay = new StreamingTextRelay(onToken);
+            aiResponse = stages.timed("llm", () -> llm.streamResponse(context, relay).join());
+            relay.flush();
+        } else {
+            aiResponse = stages.timed("llm", () -> llm.generateResponse(context));
+        }
         aiResponse = aiResponse
                 .replaceAll("(?s)```json\\s*", "")
                 .replaceAll("(?s)```\\s*", "");
@@ -897,7 +903,7 @@ hoặc
                             if ("outdoor_activities".equals(intentWeather)) {
                                 String forecastNote = weatherService.getForecastNote(start, "Da Nang");
                                 if (forecastNote != null && !forecastNote.isEmpty()) {
-                                    if (sessionId != null) pendingEvents.put(sessionId, new PendingEvent(event));
+                                    if (sessionId != null) session.setPendingEvent(new PendingEvent(event));
                                     return "🌦 " + forecastNote + "\n❓Bạn có muốn tiếp tục tạo sự kiện này không?";
                                 }
                             }
@@ -1080,6 +1086,9 @@ hoặc
                     return "Dạ, hiện tại em chưa tìm thấy sự kiện nào phù hợp với yêu cầu của anh/chị ạ. Anh/chị có muốn em hỗ trợ tạo một sự kiện mới không? 😊";
                 }
 
+                if (fallbackIntent == intent) {
+                    responseCache.put(userVector, cacheFingerprint, realDataSummary, cacheGeneration);
+                }
                 return realDataSummary;
             }
             // --- KẾT THÚC SỬA LỖI ---
@@ -1087,6 +1096,9 @@ hoặc
             // ✅ Chỉ dùng câu trả lời tự nhiên của LLM khi intent là UNKNOWN / ERROR
             if ((fallbackIntent == ActionType.UNKNOWN || fallbackIntent == ActionType.ERROR)
                     && !userVisibleText.isBlank()) {
+                if (fallbackIntent == intent) {
+                    responseCache.put(userVector, cacheFingerprint, userVisibleText, cacheGeneration);
+                }
                 return userVisibleText;
             }
 
@@ -1203,10 +1215,98 @@ hoặc
         return userVisibleText;
     }
 
+    /**
+     * Tìm event theo tên trích từ câu; không trích được / không khớp thì tìm tên event nằm trong cả câu
+     */
+    private Optional<EventTitleIndex.Match> matchEventTitle(String extractedEventName, String userInput) {
+        if (extractedEventName != null && !extractedEventName.isBlank()) {
+            Optional<EventTitleIndex.Match> match = titleIndex.bestMatch(extractedEventName);
+            if (match.isPresent()) {
+                return match;
+            }
+        }
+        return titleIndex.bestMatch(userInput);
+    }
+
+    /**
+     * Người dùng chỉ gõ tên sự kiện (đang hoặc chưa có pending order): bắt đầu flow mua vé nếu tìm được sự kiện.
+     * @return câu trả lời, hoặc null nếu input không phải tên sự kiện đã biết
+     */
+    private String startOrderFromEventName(AISessionState session, String userInput) {
+        // ✅ NEW: nếu đang có pending order và user đang trả lời tên sự kiện
+        if (orderAIService.hasPendingOrder(session) && looksLikeEventNameAnswer(userInput)) {
+            String eventName = extractEventNameFromBuyTicketInput("mua vé " + userInput);
+            if (eventName != null && !eventName.isBlank()) {
+                try {
+                    return orderAIService.startOrderCreation(session, eventName.trim());
+                } catch (Exception e) {
+                    log.error("Error starting order from event-name-only input: {}", e.getMessage(), e);
+                }
+            }
+        }
+
+        // ✅ NEW: Nếu KHÔNG có pending order nhưng user chỉ nói tên sự kiện
+        if (!orderAIService.hasPendingOrder(session)) {
+            String lowerInput = userInput.toLowerCase().trim();
+            
+            // Kiểm tra nếu input có vẻ như chỉ là tên sự kiện
+            if (looksLikeEventNameAnswer(userInput) || 
+                (lowerInput.split("\\s+").length <= 3 && !lowerInput.contains("mua") && !lowerInput.contains("vé"))) {
+                
+                String eventName = extractEventNameFromBuyTicketInput(userInput);
+                if (eventName != null && !eventName.isBlank()) {
+                    // Thử tìm sự kiện và trigger flow mua vé
+                    Optional<Event> eventOpt = eventService.getFirstPublicEventByTitle(eventName.trim());
+                    if (eventOpt.isPresent()) {
+                        return orderAIService.startOrderCreation(session, eventName.trim());
+                    }
+                    
+                    // Fuzzy match
+                    Optional<EventTitleIndex.Match> match = titleIndex.bestMatch(eventName);
+                    if (match.isPresent()) {
+                        return orderAIService.startOrderCreation(session, match.get().title());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
     /* =========================
        Helpers
        ========================= */
 
+    // Từ chỉ thời gian làm câu trả lời khác hẳn dù embedding gần nhau ("tuần này" vs "tuần sau")
+    private static final List<String> CACHE_SCOPE_WORDS = List.of(
+            "hôm nay", "ngày mai", "tuần này", "tuần sau", "tháng này", "tháng sau", "cuối tuần", "nổi bật",
+            "today", "tomorrow", "this week", "next week", "this month", "next month", "weekend", "featured");
+    private static final Pattern CACHE_NUMBERS = Pattern.compile("\\d+");
+
+    /**
+     * Fingerprint ngữ cảnh cho semantic cache, hoặc null nếu turn này không được cache.
+     * Chỉ cache các intent trả lời từ dữ liệu chung (danh sách sự kiện) hoặc câu trả lời tự do của LLM;
+     * câu trả lời tự do phụ thuộc cả lịch sử hội thoại nên lịch sử nằm trong fingerprint.
+     * Không cache QUERY_TICKET_INFO: câu trả lời chứa số vé còn lại, thay đổi theo từng đơn hàng.
+     */
+    private String responseCacheFingerprint(ActionType intent, String userInput, List<Message> context) {
+        if (!responseCache.isEnabled()) {
+            return null;
+        }
+        String lowerInput = userInput.toLowerCase();
+        List<String> parts = new ArrayList<>();
+        parts.add(intent.name());
+        CACHE_SCOPE_WORDS.stream().filter(lowerInput::contains).forEach(parts::add);
+        CACHE_NUMBERS.matcher(lowerInput).results().forEach(m -> parts.add(m.group()));
+        switch (intent) {
+            case PROMPT_SUMMARY_TIME -> parts.add(LocalDate.now().toString());
+            case UNKNOWN, ERROR -> context.forEach(m -> parts.add(m.getRole() + ":" + m.getContent()));
+            default -> {
+                return null;
+            }
+        }
+        return SemanticResponseCache.fingerprint(parts);
+    }
+
     public static List<Action> tryParseActions(String jsonPart) {
         try {
             if (jsonPart == null || jsonPart.isEmpty()) {
@@ -1564,16 +1664,10 @@ hoặc
                 return buildTicketInfoResponse(event);
             }
 
-            if (extractedEventName != null && !extractedEventName.trim().isEmpty()) {
-                String searchName = extractedEventName.trim().toLowerCase();
-                List<Event> allPublicEvents = eventService.getAllEvents().stream()
-                        .filter(e -> e.getStatus() == EventStatus.PUBLIC)
-                        .filter(e -> e.getStartsAt() != null && e.getStartsAt().isAfter(LocalDateTime.now()))
-                        .filter(e -> e.getTitle() != null && e.getTitle().toLowerCase().contains(searchName))
-                        .toList();
-                if (!allPublicEvents.isEmpty()) {
-                    return buildTicketInfoResponse(allPublicEvents.get(0));
-                }
+            Optional<Event> titleMatch = matchEventTitle(extractedEventName, userInput)
+                    .flatMap(match -> eventService.getEventById(match.eventId()));
+            if (titleMatch.isPresent()) {
+                return buildTicketInfoResponse(titleMatch.get());
             }
 
             return "Tôi hiểu bạn muốn xem thông tin vé, nhưng tôi chưa nhận ra tên sự kiện. Bạn có thể cho tôi biết tên sự kiện cụ thể được không?";
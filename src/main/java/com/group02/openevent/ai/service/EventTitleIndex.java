@@ -0,0 +1,335 @@
+package com.group02.openevent.ai.service;
+
+import com.group02.openevent.model.enums.EventStatus;
+import com.group02.openevent.model.event.Event;
+import com.group02.openevent.repository.IEventRepo;
+import com.group02.openevent.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Index tên các event PUBLIC sắp diễn ra để tìm event theo tên gõ tự do trong chat (mua vé, hỏi giá vé).
+ * Tên được bỏ dấu tiếng Việt, lập posting list theo trigram; ứng viên chung trigram được xếp hạng bằng
+ * edit distance (khớp chuỗi con xấp xỉ). Chỉ giữ id/tên/thời gian trong bộ nhớ, entity chỉ được nạp cho event khớp.
+ * Cập nhật sau commit từ entity listener của Event (mọi luồng lưu/xóa event); nạp lại toàn bộ định kỳ
+ * chỉ để loại event đã bắt đầu và làm lưới an toàn (vd. update bằng query trực tiếp).
+ */
+@Component
+@Slf4j
+public class EventTitleIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+    // Query ngắn hơn mức này chỉ khớp nguyên một từ trong tên ("ok" không được khớp "Book fair")
+    private static final int MIN_PARTIAL_QUERY_LENGTH = 3;
+    private static final int MAX_CANDIDATES = 64;
+
+    private final IEventRepo eventRepo;
+    private final double minScore;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Posting list trigram -> id event, dựng lại (copy-on-write) mỗi khi entries thay đổi
+    private volatile Map<String, long[]> postings = Map.of();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    public EventTitleIndex(IEventRepo eventRepo,
+                           @Value("${ai.title-index.min-score:0.75}") double minScore) {
+        this.eventRepo = eventRepo;
+        this.minScore = minScore;
+    }
+
+    public record Match(Long eventId, String title, double score) {
+    }
+
+    private record Entry(Long id, String title, String folded, Set<String> tokens, LocalDateTime startsAt) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Nạp lại toàn bộ từ DB (chỉ id, title, startsAt)
+     */
+    @Scheduled(initialDelayString = "${ai.title-index.reload-interval-ms:600000}",
+            fixedDelayString = "${ai.title-index.reload-interval-ms:600000}")
+    public void reload() {
+        List<Object[]> rows;
+        try {
+            rows = eventRepo.findPublicUpcomingTitles(LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Không thể nạp event title index: {}", e.getMessage());
+            return;
+        }
+        Map<Long, Entry> fresh = new HashMap<>();
+        for (Object[] row : rows) {
+            Entry entry = entry((Long) row[0], (String) row[1], (LocalDateTime) row[2]);
+            if (entry != null) {
+                fresh.put(entry.id(), entry);
+            }
+        }
+        synchronized (this) {
+            entries.clear();
+            entries.putAll(fresh);
+            rebuildPostings();
+        }
+        reloads.incrementAndGet();
+        log.debug("Event title index loaded {} events", fresh.size());
+    }
+
+    /**
+     * Cập nhật một event sau khi transaction commit (gọi từ EventTitleIndexListener).
+     * Giá trị được chụp ngay lúc gọi; nhiều lần flush trong cùng transaction thì lần sau cùng thắng.
+     */
+    public void refreshEvent(Event event) {
+        if (event == null || event.getId() == null) {
+            return;
+        }
+        Long id = event.getId();
+        Entry entry = event.getStatus() == EventStatus.PUBLIC
+                ? entry(id, event.getTitle(), event.getStartsAt())
+                : null;
+        TransactionCallbacks.runAfterCommit(() -> apply(id, entry));
+    }
+
+    public void removeEvent(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> apply(eventId, null));
+    }
+
+    /**
+     * Event khớp tốt nhất với text: text là (một phần) tên event, hoặc text chứa tên event
+     */
+    public Optional<Match> bestMatch(String text) {
+        List<Match> matches = search(text, 1);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    /**
+     * Top event theo độ khớp (điểm 0..1, >= min-score)
+     */
+    public List<Match> search(String text, int limit) {
+        String query = fold(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, long[]> index = postings;
+
+        // Đếm số trigram chung, lấy các ứng viên chung nhiều nhất
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String gram : trigrams(query)) {
+            long[] ids = index.get(gram);
+            if (ids != null) {
+                for (long id : ids) {
+                    shared.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+        List<Long> candidates = shared.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                .limit(MAX_CANDIDATES)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        Set<String> queryTokens = new HashSet<>(Arrays.asList(query.split(" ")));
+        Map<Entry, Double> scored = new HashMap<>();
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry == null || entry.startsAt() == null || !entry.startsAt().isAfter(now)) {
+                continue;
+            }
+            double score = score(query, queryTokens, entry);
+            if (score >= minScore) {
+                scored.put(entry, score);
+            }
+        }
+        // Bằng điểm: tên có độ dài gần query nhất (khớp trọn tên) trước, rồi event diễn ra sớm hơn
+        List<Match> matches = scored.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Entry, Double>>comparingDouble(Map.Entry::getValue).reversed()
+                        .thenComparingInt(e -> Math.abs(e.getKey().folded().length() - query.length()))
+                        .thenComparing(e -> e.getKey().startsAt()))
+                .limit(limit)
+                .map(e -> new Match(e.getKey().id(), e.getKey().title(), e.getValue()))
+                .toList();
+
+        lookups.incrementAndGet();
+        lookupNanos.addAndGet(System.nanoTime() - start);
+        return matches;
+    }
+
+    public Map<String, Object> getStats() {
+        long count = lookups.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("events", entries.size());
+        stats.put("trigrams", postings.size());
+        stats.put("lookups", count);
+        stats.put("avgLookupMicros", count > 0 ? lookupNanos.get() / count / 1000.0 : 0.0);
+        stats.put("reloads", reloads.get());
+        stats.put("minScore", minScore);
+        return stats;
+    }
+
+    /**
+     * Bỏ dấu tiếng Việt, chữ thường, chỉ giữ chữ/số cách nhau một khoảng trắng
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(text.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        s = DIACRITICS.matcher(s).replaceAll("").toLowerCase(Locale.ROOT);
+        return NON_ALNUM.matcher(s).replaceAll(" ").trim();
+    }
+
+    // entry null (hoặc đã bắt đầu) = bỏ event khỏi index
+    private void apply(Long id, Entry entry) {
+        synchronized (this) {
+            if (entry != null && entry.startsAt() != null && entry.startsAt().isAfter(LocalDateTime.now())) {
+                entries.put(id, entry);
+            } else if (entries.remove(id) == null) {
+                return;
+            }
+            rebuildPostings();
+        }
+    }
+
+    private static Entry entry(Long id, String title, LocalDateTime startsAt) {
+        String folded = fold(title);
+        if (id == null || folded.isEmpty()) {
+            return null;
+        }
+        return new Entry(id, title, folded, Set.copyOf(Arrays.asList(folded.split(" "))), startsAt);
+    }
+
+    // Gọi trong synchronized(this)
+    private void rebuildPostings() {
+        Map<String, List<Long>> lists = new HashMap<>();
+        for (Entry entry : entries.values()) {
+            for (String gram : trigrams(entry.folded())) {
+                lists.computeIfAbsent(gram, k -> new ArrayList<>()).add(entry.id());
+            }
+        }
+        Map<String, long[]> fresh = new HashMap<>(lists.size() * 2);
+        lists.forEach((gram, ids) -> fresh.put(gram, ids.stream().mapToLong(Long::longValue).toArray()));
+        postings = fresh;
+    }
+
+    /**
+     * Trigram (không trùng) của chuỗi đã fold, có đệm khoảng trắng để bắt đầu/cuối từ cũng thành trigram
+     */
+    private static Set<String> trigrams(String folded) {
+        String padded = "  " + folded + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Lấy điểm cao nhất giữa: query nằm trong tên (người dùng gõ một phần tên),
+     * tên nằm trong query (người dùng gõ cả câu có chứa tên event)
+     * và tỉ lệ từ của query có trong tên (gõ thiếu từ / đảo thứ tự, vd "workshop ui ux")
+     */
+    private static double score(String query, Set<String> queryTokens, Entry entry) {
+        double queryInTitle;
+        if (query.length() >= MIN_PARTIAL_QUERY_LENGTH) {
+            queryInTitle = 1.0 - (double) substringDistance(query, entry.folded()) / query.length();
+        } else {
+            queryInTitle = entry.tokens().contains(query) ? 1.0 : 0.0;
+        }
+        double titleInQuery = 0.0;
+        if (entry.folded().length() >= MIN_PARTIAL_QUERY_LENGTH && queryTokens.size() > 1) {
+            titleInQuery = 1.0 - (double) substringDistance(entry.folded(), query) / entry.folded().length();
+        }
+        return Math.max(Math.max(queryInTitle, titleInQuery), tokenCoverage(queryTokens, entry.tokens()));
+    }
+
+    /**
+     * Tỉ lệ từ của query khớp một từ trong tên (từ >= 4 ký tự cho phép sai 1 ký tự); cần ít nhất 2 từ
+     */
+    private static double tokenCoverage(Set<String> queryTokens, Set<String> titleTokens) {
+        if (queryTokens.size() < 2) {
+            return 0.0;
+        }
+        int found = 0;
+        for (String token : queryTokens) {
+            if (titleTokens.contains(token)) {
+                found++;
+            } else if (token.length() >= 4) {
+                for (String titleToken : titleTokens) {
+                    if (Math.abs(titleToken.length() - token.length()) <= 1
+                            && editDistance(token, titleToken) <= 1) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        return (double) found / queryTokens.size();
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    /**
+     * Edit distance nhỏ nhất giữa pattern và một chuỗi con bất kỳ của text (Sellers)
+     */
+    private static int substringDistance(String pattern, String text) {
+        int m = pattern.length();
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            prev[i] = i;
+        }
+        int best = prev[m];
+        for (int j = 1; j <= text.length(); j++) {
+            cur[0] = 0; // được bắt đầu khớp ở bất kỳ vị trí nào của text
+            char c = text.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                int cost = pattern.charAt(i - 1) == c ? 0 : 1;
+                cur[i] = Math.min(Math.min(cur[i - 1] + 1, prev[i] + 1), prev[i - 1] + cost);
+            }
+            best = Math.min(best, cur[m]);
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return best;
+    }
+}
@@ -2,28 +2,58 @@ package com.group02.openevent.ai.service;
 
 import com.group02.openevent.ai.dto.Message;
 import com.group02.openevent.ai.util.ConfigLoader;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  *
  * @author Admin
  */
 @Service
+@Slf4j
 public class LLM {
 
+    private static final int STREAM_MAX_ATTEMPTS = 3;
+
     private final String apiKey; // Không phải static final nữa
     private final String endpoint; // Không phải static final nữa
+    private final String streamEndpoint;
+    private final long streamTimeoutMs;
+
+    // Client dùng chung cho streaming: giữ connection pool (HTTP/2 nếu server hỗ trợ), I/O bất đồng bộ
+    private final HttpClient streamClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
 
-    public LLM(@Value("${gemini.api.key}") String apiKey) {
+    public LLM(@Value("${gemini.api.key}") String apiKey,
+               @Value("${gemini.stream.timeout-ms:60000}") long streamTimeoutMs) {
         this.apiKey = apiKey;
         this.endpoint = "https://generativelanguage.googleapis.com/v1/models/gemini-2.5-flash:generateContent?key=" + this.apiKey;
+        this.streamEndpoint = "https://generativelanguage.googleapis.com/v1/models/gemini-2.5-flash:streamGenerateContent?alt=sse&key=" + this.apiKey;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
     public String generateResponse(List<Message> messages) {
         if (messages == null || messages.isEmpty()) {
@@ -45,28 +75,7 @@ public class LLM {
                 conn.setReadTimeout(30000); // 30 seconds
 
                 // Build the request JSON
-                List<Map<String, String>> parts = new ArrayList<>();
-                for (Message msg : messages) {
-                    if (msg.getContent() != null && !msg.getContent().isEmpty()) {
-                        Map<String, String> part = new HashMap<>();
-                        part.put("text", msg.getContent());
-                        parts.add(part);
-                    }
-                }
-
-                Map<String, Object> content = new HashMap<>();
-                content.put("role", "user");
-                content.put("parts", parts);
-
-                List<Map<String, Object>> contents = new ArrayList<>();
-                contents.add(content);
-
-                Map<String, Object> requestBody = new HashMap<>();
-                requestBody.put("contents", contents);
-
-                // Convert to JSON
-                ObjectMapper mapper = new ObjectMapper();
-                String json = mapper.writeValueAsString(requestBody);
+                String json = mapper.writeValueAsString(buildRequestBody(messages));
 
                 // Send request
                 try (OutputStream os = conn.getOutputStream()) {
@@ -150,5 +159,199 @@ public class LLM {
         
         throw new RuntimeException("Max retries exceeded for Gemini API");
     }
-}
 
+    /**
+     * Streaming qua streamGenerateContent (SSE): mỗi đoạn text được đẩy vào {@code onToken} ngay khi nhận,
+     * future hoàn thành với toàn bộ câu trả lời (để parse action như generateResponse).
+     * Không chặn thread gọi; 429/503 được retry với backoff bằng delayed executor nếu chưa nhận token nào.
+     * Khi hết streamTimeoutMs (hoặc future bị hủy) thì request HTTP đang chạy cũng bị hủy và body được đóng.
+     */
+    public CompletableFuture<String> streamResponse(List<Message> messages, Consumer<String> onToken) {
+        if (messages == null || messages.isEmpty()) {
+            throw new IllegalArgumentException("Messages cannot be null or empty");
+        }
+        String json;
+        try {
+            json = mapper.writeValueAsString(buildRequestBody(messages));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(streamEndpoint))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(30)) // thời gian chờ header phản hồi
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        StreamCall call = new StreamCall();
+        CompletableFuture<String> result = sendStream(request, onToken, 1, call)
+                .orTimeout(streamTimeoutMs, TimeUnit.MILLISECONDS);
+        // orTimeout chỉ hoàn thành future, không dừng HttpClient: hủy exchange đang chạy để giải phóng kết nối
+        result.whenComplete((text, error) -> {
+            if (error != null) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<String> sendStream(HttpRequest request, Consumer<String> onToken, int attempt, StreamCall call) {
+        if (call.cancelled) {
+            return CompletableFuture.failedFuture(new CancellationException("Gemini stream cancelled"));
+        }
+        SseTextSubscriber subscriber = new SseTextSubscriber(onToken);
+        AtomicReference<String> errorBody = new AtomicReference<>();
+        HttpResponse.BodyHandler<Void> handler = info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                : HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                    errorBody.set(body);
+                    return null;
+                });
+
+        CompletableFuture<HttpResponse<Void>> exchange = streamClient.sendAsync(request, handler);
+        call.track(exchange, subscriber);
+        return exchange.thenCompose(resp -> {
+            int status = resp.statusCode();
+            if (status == 200) {
+                return subscriber.result();
+            }
+            boolean retryable = status == 429 || status == 503;
+            if (retryable && attempt < STREAM_MAX_ATTEMPTS) {
+                log.warn("Gemini stream HTTP {}, thử lại lần {}", status, attempt + 1);
+                return CompletableFuture.supplyAsync(() -> null,
+                                CompletableFuture.delayedExecutor(1000L * attempt, TimeUnit.MILLISECONDS))
+                        .thenCompose(ignored -> sendStream(request, onToken, attempt + 1, call));
+            }
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Gemini API error: HTTP " + status + " - " + errorBody.get()));
+        });
+    }
+
+    private Map<String, Object> buildRequestBody(List<Message> messages) {
+        List<Map<String, String>> parts = new ArrayList<>();
+        for (Message msg : messages) {
+            if (msg.getContent() != null && !msg.getContent().isEmpty()) {
+                Map<String, String> part = new HashMap<>();
+                part.put("text", msg.getContent());
+                parts.add(part);
+            }
+        }
+
+        Map<String, Object> content = new HashMap<>();
+        content.put("role", "user");
+        content.put("parts", parts);
+
+        List<Map<String, Object>> contents = new ArrayList<>();
+        contents.add(content);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("contents", contents);
+        return requestBody;
+    }
+
+    /**
+     * Lần gọi stream hiện tại (kể cả các lần retry), để hủy request HTTP khi timeout
+     */
+    private static class StreamCall {
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<?> exchange;
+        private volatile SseTextSubscriber subscriber;
+
+        void track(CompletableFuture<?> exchange, SseTextSubscriber subscriber) {
+            this.exchange = exchange;
+            this.subscriber = subscriber;
+            if (cancelled) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            SseTextSubscriber current = subscriber;
+            if (current != null) {
+                current.cancel();
+            }
+            CompletableFuture<?> pending = exchange;
+            if (pending != null) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Đọc từng dòng SSE "data: {...}" của Gemini, lấy text trong candidates[0].content.parts
+     */
+    private class SseTextSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onToken;
+        private final StringBuilder full = new StringBuilder();
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        SseTextSubscriber(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+
+        CompletableFuture<String> result() {
+            return result;
+        }
+
+        /**
+         * Hủy subscription: HttpClient ngừng đọc và đóng body của response
+         */
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            result.completeExceptionally(new CancellationException("Gemini stream cancelled"));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:") || result.isDone()) {
+                return;
+            }
+            try {
+                JsonNode chunk = mapper.readTree(line.substring(5).trim());
+                StringBuilder text = new StringBuilder();
+                for (JsonNode part : chunk.path("candidates").path(0).path("content").path("parts")) {
+                    text.append(part.path("text").asText(""));
+                }
+                if (!text.isEmpty()) {
+                    full.append(text);
+                    if (onToken != null) {
+                        onToken.accept(text.toString());
+                    }
+                }
+            } catch (Exception e) {
+                result.completeExceptionally(new CompletionException("Không đọc được chunk Gemini stream", e));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (full.isEmpty()) {
+                result.completeExceptionally(new RuntimeException("No content parts in Gemini response"));
+            } else {
+                result.complete(full.toString());
+            }
+        }
+    }
+}
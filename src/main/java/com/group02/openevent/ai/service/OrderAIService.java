@@ -1,7 +1,9 @@
 package com.group02.openevent.ai.service;
 
 import com.group02.openevent.ai.dto.PendingOrder;
+import com.group02.openevent.ai.session.AISessionState;
 import com.group02.openevent.dto.order.CreateOrderWithTicketTypeRequest;
+import com.group02.openevent.model.enums.EventStatus;
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.model.order.Order;
 import com.group02.openevent.model.payment.Payment;
@@ -39,16 +41,21 @@ public class OrderAIService {
     private final ICustomerRepo customerRepo;
     private final AgentEventService agentEventService;
     private final UserService userService;
-
-    // Store pending orders by userId
-    private final Map<Long, PendingOrder> pendingOrders = new HashMap<>();
+    private final EventTitleIndex eventTitleIndex;
 
     /**
      * Start order creation process
      */
-    public String startOrderCreation(Long userId, String eventQuery) {
-        // Tìm sự kiện PUBLIC theo tên
+    public String startOrderCreation(AISessionState session, String eventQuery) {
+        // Tìm sự kiện PUBLIC theo tên; không trùng tên chính xác thì dùng title index (bỏ dấu, gõ sai nhẹ)
         List<Event> events = eventService.findByTitleAndPublicStatus(eventQuery);
+        if (events.isEmpty()) {
+            events = eventTitleIndex.bestMatch(eventQuery)
+                    .flatMap(match -> eventService.getEventById(match.eventId()))
+                    .filter(event -> event.getStatus() == EventStatus.PUBLIC)
+                    .map(List::of)
+                    .orElse(List.of());
+        }
 
         if (events.isEmpty()) {
             return "❌ Em chưa tìm thấy sự kiện có tên \"" + eventQuery + "\" trên hệ thống ạ.\n"
@@ -66,11 +73,11 @@ public class OrderAIService {
                     + "Anh/chị có thể chọn sự kiện khác hoặc quay lại sau nhé! 😊";
         }
 
-        // Tạo pending order cho user
+        // Tạo pending order cho phiên chat
         PendingOrder pendingOrder = new PendingOrder();
         pendingOrder.setEvent(event);
         pendingOrder.setCurrentStep(PendingOrder.OrderStep.SELECT_TICKET_TYPE);
-        pendingOrders.put(userId, pendingOrder);
+        session.setPendingOrder(pendingOrder);
 
         // Format thời gian & tiền
         DateTimeFormatter timeFmt = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
@@ -130,15 +137,15 @@ public class OrderAIService {
     /**
      * Select ticket type
      */
-    public String selectTicketType(Long userId, String ticketTypeName) {
-        PendingOrder pendingOrder = pendingOrders.get(userId);
+    public String selectTicketType(AISessionState session, String ticketTypeName) {
+        PendingOrder pendingOrder = session.getPendingOrder();
 
-        if (pendingOrder == null || pendingOrder.getEvent() == null) {
+        if (pendingOrder == null || pendingOrder.getEventId() == null) {
             return "❌ Vui lòng chọn sự kiện trước. Bạn có thể nói: 'Mua vé sự kiện [tên sự kiện]'";
         }
 
         // Find ticket type
-        List<TicketType> ticketTypes = ticketTypeService.getTicketTypesByEventId(pendingOrder.getEvent().getId());
+        List<TicketType> ticketTypes = ticketTypeService.getTicketTypesByEventId(pendingOrder.getEventId());
         Optional<TicketType> selectedTicket = ticketTypes.stream()
                 .filter(t -> t.getName().toLowerCase().contains(ticketTypeName.toLowerCase()))
                 .findFirst();
@@ -169,10 +176,10 @@ public class OrderAIService {
     /**
      * Provide participant information
      */
-    public String provideInfo(Long userId, Map<String, String> info) {
-        PendingOrder pendingOrder = pendingOrders.get(userId);
+    public String provideInfo(AISessionState session, Map<String, String> info) {
+        PendingOrder pendingOrder = session.getPendingOrder();
 
-        if (pendingOrder == null || pendingOrder.getTicketType() == null) {
+        if (pendingOrder == null || pendingOrder.getTicketTypeId() == null) {
             return "❌ Vui lòng chọn loại vé trước.";
         }
 
@@ -194,9 +201,9 @@ public class OrderAIService {
         // Show summary
         StringBuilder summary = new StringBuilder();
         summary.append("📋 **Xác nhận thông tin đơn hàng:**\n\n");
-        summary.append("🎫 Sự kiện: ").append(pendingOrder.getEvent().getTitle()).append("\n");
-        summary.append("🎟️ Loại vé: ").append(pendingOrder.getTicketType().getName()).append("\n");
-        summary.append("💰 Giá: ").append(pendingOrder.getTicketType().getFinalPrice()).append(" VND\n\n");
+        summary.append("🎫 Sự kiện: ").append(pendingOrder.getEventTitle()).append("\n");
+        summary.append("🎟️ Loại vé: ").append(pendingOrder.getTicketTypeName()).append("\n");
+        summary.append("💰 Giá: ").append(pendingOrder.getTicketPrice()).append(" VND\n\n");
         summary.append("👤 Thông tin người tham gia:\n");
         summary.append("- Tên: ").append(pendingOrder.getParticipantName()).append("\n");
         summary.append("- Email: ").append(pendingOrder.getParticipantEmail()).append("\n");
@@ -212,10 +219,11 @@ public class OrderAIService {
      * Confirm and create order
      */
     @Transactional
-    public Map<String, Object> confirmOrder(Long userId) {
+    public Map<String, Object> confirmOrder(AISessionState session) {
+        Long userId = session.getUserId();
         log.info("🔍 DEBUG: Starting confirmOrder for userId: {}", userId);
 
-        PendingOrder pendingOrder = pendingOrders.get(userId);
+        PendingOrder pendingOrder = session.getPendingOrder();
         log.info("🔍 DEBUG: Found pending order: {}", pendingOrder != null ? "YES" : "NO");
 
         Map<String, Object> result = new HashMap<>();
@@ -229,8 +237,8 @@ public class OrderAIService {
         }
 
         log.info("🔍 DEBUG: Pending order details - Event: {}, TicketType: {}, Participant: {}",
-                pendingOrder.getEvent() != null ? pendingOrder.getEvent().getTitle() : "NULL",
-                pendingOrder.getTicketType() != null ? pendingOrder.getTicketType().getName() : "NULL",
+                pendingOrder.getEventTitle() != null ? pendingOrder.getEventTitle() : "NULL",
+                pendingOrder.getTicketTypeName() != null ? pendingOrder.getTicketTypeName() : "NULL",
                 pendingOrder.getParticipantName());
 
         try {
@@ -270,12 +278,12 @@ public class OrderAIService {
 
             // RE-VALIDATE ticket availability from database before creating order
             // This prevents race conditions where ticket was sold between selection and confirmation
-            Long ticketTypeId = pendingOrder.getTicketType().getTicketTypeId();
+            Long ticketTypeId = pendingOrder.getTicketTypeId();
             TicketType ticketType = ticketTypeService.getTicketTypeById(ticketTypeId)
                     .orElseThrow(() -> new IllegalStateException("Ticket type not found: " + ticketTypeId));
             
             if (!ticketType.isAvailable() || !ticketTypeService.canPurchaseTickets(ticketTypeId, 1)) {
-                pendingOrders.remove(userId);
+                session.setPendingOrder(null);
                 log.warn("⚠️ Ticket type {} is no longer available when confirming order for user {}", 
                         ticketTypeId, userId);
                 result.put("success", false);
@@ -284,17 +292,17 @@ public class OrderAIService {
             }
             
             // Check if event is still open for registration
-            Event event = pendingOrder.getEvent();
-            if (event.getStatus() != com.group02.openevent.model.enums.EventStatus.PUBLIC) {
-                pendingOrders.remove(userId);
-                log.warn("⚠️ Event {} is not open for registration when confirming order", event.getId());
+            Event event = eventService.getEventById(pendingOrder.getEventId()).orElse(null);
+            if (event == null || event.getStatus() != com.group02.openevent.model.enums.EventStatus.PUBLIC) {
+                session.setPendingOrder(null);
+                log.warn("⚠️ Event {} is not open for registration when confirming order", pendingOrder.getEventId());
                 result.put("success", false);
                 result.put("message", "❌ Sự kiện này hiện không mở đăng ký. Vui lòng chọn sự kiện khác.");
                 return result;
             }
             
             if (event.getStartsAt() != null && event.getStartsAt().isBefore(java.time.LocalDateTime.now())) {
-                pendingOrders.remove(userId);
+                session.setPendingOrder(null);
                 log.warn("⚠️ Event {} has already started when confirming order", event.getId());
                 result.put("success", false);
                 result.put("message", "❌ Sự kiện này đã bắt đầu. Không thể đăng ký.");
@@ -303,13 +311,13 @@ public class OrderAIService {
 
             // Create order request
             CreateOrderWithTicketTypeRequest request = new CreateOrderWithTicketTypeRequest();
-            request.setEventId(pendingOrder.getEvent().getId());
+            request.setEventId(pendingOrder.getEventId());
             request.setParticipantName(pendingOrder.getParticipantName());
             request.setParticipantEmail(pendingOrder.getParticipantEmail());
             request.setParticipantPhone(pendingOrder.getParticipantPhone());
             request.setParticipantOrganization(pendingOrder.getParticipantOrganization());
             request.setNotes(pendingOrder.getNotes());
-            request.setTicketTypeId(pendingOrder.getTicketType().getTicketTypeId());
+            request.setTicketTypeId(pendingOrder.getTicketTypeId());
 
             // Create order
             log.info("🔍 DEBUG: Creating order with OrderService...");
@@ -326,7 +334,7 @@ public class OrderAIService {
                     payment.getPaymentId(), payment.getStatus());
 
             // Clear pending order
-            pendingOrders.remove(userId);
+            session.setPendingOrder(null);
             log.info("🔍 DEBUG: Pending order cleared for userId: {}", userId);
 
             // Check if this is a free event
@@ -379,8 +387,9 @@ public class OrderAIService {
     /**
      * Cancel pending order
      */
-    public String cancelOrder(Long userId) {
-        if (pendingOrders.remove(userId) != null) {
+    public String cancelOrder(AISessionState session) {
+        if (session.getPendingOrder() != null) {
+            session.setPendingOrder(null);
             return "❌ Đã hủy đơn hàng.";
         }
         return "ℹ️ Không có đơn hàng nào đang chờ xử lý.";
@@ -389,15 +398,15 @@ public class OrderAIService {
     /**
      * Get pending order status
      */
-    public PendingOrder getPendingOrder(Long userId) {
-        return pendingOrders.get(userId);
+    public PendingOrder getPendingOrder(AISessionState session) {
+        return session.getPendingOrder();
     }
 
     /**
      * Check if user has pending order
      */
-    public boolean hasPendingOrder(Long userId) {
-        return pendingOrders.containsKey(userId);
+    public boolean hasPendingOrder(AISessionState session) {
+        return session.getPendingOrder() != null;
     }
 }
 
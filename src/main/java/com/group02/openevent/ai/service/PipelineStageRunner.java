@@ -0,0 +1,159 @@
+package com.group02.openevent.ai.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chạy các bước (stage) của pipeline AI: stage độc lập được fork lên virtual thread để chạy song song
+ * với request thread, có timeout và hủy (interrupt) khi không còn cần kết quả.
+ * Mọi stage (fork hoặc chạy trực tiếp qua {@link #timed}) đều được ghi lại latency.
+ */
+@Component
+@Slf4j
+public class PipelineStageRunner {
+
+    private final boolean parallelEnabled;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, StageStats> stats = new ConcurrentHashMap<>();
+
+    public PipelineStageRunner(@Value("${ai.pipeline.parallel.enabled:true}") boolean parallelEnabled) {
+        this.parallelEnabled = parallelEnabled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Bắt đầu stage ở nền; tắt parallel thì chạy ngay trên thread hiện tại
+     */
+    public <T> Stage<T> fork(String name, Callable<T> task) {
+        Stage<T> stage = new Stage<>(name);
+        Callable<T> measured = () -> measure(name, task, stage.cancelled);
+        if (parallelEnabled) {
+            stage.future = executor.submit(measured);
+        } else {
+            FutureTask<T> inline = new FutureTask<>(measured);
+            inline.run();
+            stage.future = inline;
+        }
+        return stage;
+    }
+
+    /**
+     * Chạy stage trên thread hiện tại và ghi latency
+     */
+    public <T> T timed(String name, Callable<T> task) throws Exception {
+        return measure(name, task, null);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("parallelEnabled", parallelEnabled);
+        Map<String, Object> byStage = new TreeMap<>();
+        stats.forEach((name, s) -> byStage.put(name, s.snapshot()));
+        out.put("stages", byStage);
+        return out;
+    }
+
+    private <T> T measure(String name, Callable<T> task, AtomicBoolean cancelled) throws Exception {
+        StageStats s = stats.computeIfAbsent(name, k -> new StageStats());
+        long start = System.nanoTime();
+        try {
+            T result = task.call();
+            s.record(System.nanoTime() - start, false);
+            return result;
+        } catch (Exception e) {
+            // Lỗi do bị hủy không tính là failure
+            if (cancelled == null || !cancelled.get()) {
+                s.record(System.nanoTime() - start, true);
+            }
+            throw e;
+        }
+    }
+
+    public final class Stage<T> {
+        private final String name;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private Future<T> future;
+
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Kết quả của stage, chờ tối đa timeoutMs; quá hạn thì hủy stage, lỗi thì trả fallback
+         */
+        public T join(long timeoutMs, T fallback) {
+            try {
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("AI pipeline stage '{}' timed out after {} ms", name, timeoutMs);
+                stats.computeIfAbsent(name, k -> new StageStats()).timeouts.increment();
+                interrupt();
+                return fallback;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                return fallback;
+            } catch (ExecutionException e) {
+                log.warn("AI pipeline stage '{}' failed: {}", name, e.getCause().getMessage());
+                return fallback;
+            }
+        }
+
+        /**
+         * Hủy stage nếu còn đang chạy (kết quả không còn cần nữa)
+         */
+        public void cancel() {
+            if (interrupt()) {
+                stats.computeIfAbsent(name, k -> new StageStats()).cancelled.increment();
+            }
+        }
+
+        private boolean interrupt() {
+            return !future.isDone() && cancelled.compareAndSet(false, true) && future.cancel(true);
+        }
+    }
+
+    private static final class StageStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            long n = count.sum();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", n);
+            m.put("avgMs", n > 0 ? totalNanos.sum() / n / 1_000_000.0 : 0.0);
+            m.put("maxMs", maxNanos.get() / 1_000_000.0);
+            m.put("failures", failures.sum());
+            m.put("timeouts", timeouts.sum());
+            m.put("cancelled", cancelled.sum());
+            return m;
+        }
+    }
+}
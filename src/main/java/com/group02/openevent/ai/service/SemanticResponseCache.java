@@ -0,0 +1,177 @@
+package com.group02.openevent.ai.service;
+
+import com.group02.openevent.ai.util.VectorKernels;
+import com.group02.openevent.util.Hashing;
+import com.group02.openevent.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache câu trả lời theo ngữ nghĩa: entry = (embedding câu hỏi, fingerprint ngữ cảnh, câu trả lời).
+ * Câu hỏi mới trúng cache nếu cùng fingerprint và cosine với embedding đã lưu >= ngưỡng.
+ * Entry hết hạn theo TTL ngắn và bị xóa hết khi dữ liệu event thay đổi (sau commit).
+ * Caller quyết định turn nào được cache (không cache turn phụ thuộc người dùng hoặc sinh action).
+ */
+@Component
+@Slf4j
+public class SemanticResponseCache {
+
+    private final boolean enabled;
+    private final double threshold;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    // Thứ tự chèn: entry cũ nhất ở đầu, bị loại trước khi đầy
+    private final List<Entry> entries = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Tăng mỗi lần invalidate; câu trả lời tính từ thế hệ cũ không được lưu
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public SemanticResponseCache(@Value("${ai.response-cache.enabled:true}") boolean enabled,
+                                 @Value("${ai.response-cache.similarity-threshold:0.95}") double threshold,
+                                 @Value("${ai.response-cache.ttl-seconds:120}") long ttlSeconds,
+                                 @Value("${ai.response-cache.max-entries:500}") int maxEntries) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Thế hệ hiện tại, lấy trước khi tính câu trả lời rồi truyền lại cho {@link #put}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Câu trả lời của câu hỏi gần nhất (cùng fingerprint, cosine >= ngưỡng), nếu có
+     */
+    public Optional<String> lookup(float[] promptVector, String fingerprint) {
+        if (!enabled || promptVector == null || fingerprint == null) {
+            return Optional.empty();
+        }
+        float[] query = VectorKernels.normalize(promptVector);
+        if (query == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        Entry best = null;
+        float bestScore = (float) threshold;
+        lock.readLock().lock();
+        try {
+            for (Entry entry : entries) {
+                if (entry.expiresAt < now || !entry.fingerprint.equals(fingerprint)
+                        || entry.vector.length != query.length) {
+                    continue;
+                }
+                float score = VectorKernels.dot(entry.vector, query);
+                if (score >= bestScore) {
+                    bestScore = score;
+                    best = entry;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (best == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        log.debug("Semantic cache hit (score {})", bestScore);
+        return Optional.of(best.answer);
+    }
+
+    /**
+     * Lưu câu trả lời; bỏ qua nếu cache đã bị invalidate kể từ {@code fromGeneration}
+     */
+    public void put(float[] promptVector, String fingerprint, String answer, long fromGeneration) {
+        if (!enabled || promptVector == null || fingerprint == null || answer == null || answer.isBlank()) {
+            return;
+        }
+        float[] vector = VectorKernels.normalize(promptVector);
+        if (vector == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            if (generation.get() != fromGeneration) {
+                return;
+            }
+            entries.removeIf(entry -> entry.expiresAt < now);
+            while (entries.size() >= maxEntries && !entries.isEmpty()) {
+                entries.remove(0);
+            }
+            entries.add(new Entry(vector, fingerprint, answer, now + ttlMillis));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Invalidate sau khi transaction hiện tại commit, để không ai kịp cache lại dữ liệu cũ
+     */
+    public void invalidateAfterCommit() {
+        if (!enabled) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(this::invalidateAll);
+    }
+
+    /**
+     * SHA-256 của các phần ngữ cảnh mà câu trả lời phụ thuộc vào (ngoài câu hỏi)
+     */
+    public static String fingerprint(List<String> parts) {
+        return Hashing.sha256Hex(parts.toArray(new String[0]));
+    }
+
+    public Map<String, Object> getStats() {
+        long total = hits.get() + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", total > 0 ? (double) hits.get() / total : 0.0);
+        stats.put("invalidations", invalidations.get());
+        lock.readLock().lock();
+        try {
+            stats.put("entries", entries.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("similarityThreshold", threshold);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        return stats;
+    }
+
+    private record Entry(float[] vector, String fingerprint, String answer, long expiresAt) {
+    }
+}
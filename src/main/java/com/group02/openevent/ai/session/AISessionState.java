@@ -0,0 +1,128 @@
+package com.group02.openevent.ai.session;
+
+import com.group02.openevent.ai.dto.Message;
+import com.group02.openevent.ai.dto.PendingOrder;
+import com.group02.openevent.ai.qdrant.model.PendingEvent;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Trạng thái hội thoại của một phiên chat AI: chỉ giữ dữ liệu nhỏ, serialize được
+ * (event đang chờ xác nhận, đơn hàng đang đặt, vài lượt hội thoại gần nhất).
+ * Agent là bean dùng chung, không giữ trạng thái theo phiên.
+ */
+public class AISessionState implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String sessionId;
+    private final Long userId;
+    private final long createdAt;
+
+    private PendingEvent pendingEvent;
+    private PendingOrder pendingOrder;
+    // Ring buffer các lượt gần nhất; turnsLoaded = đã nạp phần đuôi lịch sử từ DB
+    private final Deque<Message> recentTurns = new ArrayDeque<>();
+    private boolean turnsLoaded;
+
+    // Không serialize: thời điểm truy cập chỉ có ý nghĩa khi phiên đang nằm trong bộ nhớ
+    private transient volatile long lastAccessedAt;
+
+    public AISessionState(String sessionId, Long userId) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessedAt = createdAt;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    void touch() {
+        this.lastAccessedAt = System.currentTimeMillis();
+    }
+
+    public synchronized PendingEvent getPendingEvent() {
+        return pendingEvent;
+    }
+
+    public synchronized void setPendingEvent(PendingEvent pendingEvent) {
+        this.pendingEvent = pendingEvent;
+    }
+
+    /**
+     * Lấy và xóa event đang chờ xác nhận
+     */
+    public synchronized PendingEvent takePendingEvent() {
+        PendingEvent taken = pendingEvent;
+        pendingEvent = null;
+        return taken;
+    }
+
+    public synchronized PendingOrder getPendingOrder() {
+        return pendingOrder;
+    }
+
+    public synchronized void setPendingOrder(PendingOrder pendingOrder) {
+        this.pendingOrder = pendingOrder;
+    }
+
+    /**
+     * Thêm một lượt hội thoại, bỏ lượt cũ nhất khi vượt quá maxTurns
+     */
+    public synchronized void addTurn(Message message, int maxTurns) {
+        recentTurns.addLast(message);
+        while (recentTurns.size() > maxTurns) {
+            recentTurns.removeFirst();
+        }
+    }
+
+    public synchronized List<Message> getRecentTurns() {
+        return new ArrayList<>(recentTurns);
+    }
+
+    public synchronized boolean isTurnsLoaded() {
+        return turnsLoaded;
+    }
+
+    /**
+     * Nạp phần đuôi lịch sử (cũ -> mới) vào buffer; các lượt đã thêm trong lúc đó được giữ lại ở cuối
+     */
+    public synchronized void seedTurns(List<Message> history, int maxTurns) {
+        List<Message> appended = new ArrayList<>(recentTurns);
+        recentTurns.clear();
+        history.forEach(recentTurns::addLast);
+        appended.forEach(recentTurns::addLast);
+        while (recentTurns.size() > maxTurns) {
+            recentTurns.removeFirst();
+        }
+        turnsLoaded = true;
+    }
+
+    // Cùng monitor với các setter để không serialize giữa chừng một thay đổi
+    @Serial
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+    }
+}
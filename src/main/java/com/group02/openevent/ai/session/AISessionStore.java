@@ -0,0 +1,317 @@
+package com.group02.openevent.ai.session;
+
+import com.group02.openevent.ai.dto.EventItem;
+import com.group02.openevent.ai.dto.Message;
+import com.group02.openevent.ai.dto.PendingOrder;
+import com.group02.openevent.ai.qdrant.model.PendingEvent;
+import com.group02.openevent.model.enums.EventStatus;
+import com.group02.openevent.model.enums.EventType;
+import com.group02.openevent.models.ai.ChatSessionStateSnapshot;
+import com.group02.openevent.repository.ai.ChatSessionStateSnapshotRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Kho trạng thái phiên chat AI trong bộ nhớ, giới hạn kích thước theo LRU.
+ * - Quá max-live phiên: phiên lâu không dùng nhất bị đẩy ra.
+ * - Sweeper định kỳ đẩy ra các phiên idle quá idle-timeout.
+ * - Nếu bật spill, phiên bị đẩy ra được serialize xuống DB và nạp lại khi người dùng quay lại;
+ *   nếu không, trạng thái (event/đơn hàng đang chờ) bị bỏ như khi phiên hết hạn trước đây.
+ * Phiên được khóa theo (userId, sessionId) để người khác đoán được sessionId cũng không đọc được trạng thái.
+ */
+@Component
+@Slf4j
+public class AISessionStore {
+
+    // Chỉ cho phép đúng các lớp nằm trong AISessionState (DTO của ứng dụng, collection java.util, java.time),
+    // mọi lớp khác bị từ chối
+    private static final ObjectInputFilter STATE_FILTER = ObjectInputFilter.Config.createFilter(String.join(";",
+            AISessionState.class.getName(),
+            PendingEvent.class.getName(),
+            EventItem.class.getName(),
+            PendingOrder.class.getName(),
+            PendingOrder.OrderStep.class.getName(),
+            Message.class.getName(),
+            EventType.class.getName(),
+            EventStatus.class.getName(),
+            "java.util.ArrayList",
+            "java.util.ArrayDeque",
+            "java.time.Ser",
+            "java.time.LocalDateTime",
+            "java.math.BigDecimal",
+            "java.math.BigInteger",
+            "java.lang.Number",
+            "java.lang.Long",
+            "java.lang.Enum",
+            // ArrayList/ArrayDeque kiểm tra mảng Object[] nội bộ qua filter trước khi cấp phát
+            "java.lang.Object",
+            "maxarray=100000",
+            "maxdepth=10",
+            "maxrefs=10000",
+            "!*"));
+    private static final int STATS_SAMPLE_SIZE = 200;
+
+    private final ChatSessionStateSnapshotRepo snapshotRepo;
+    private final int maxLive;
+    private final long idleTimeoutMillis;
+    private final int maxTurns;
+    private final boolean spillEnabled;
+    private final long spillTtlHours;
+
+    // accessOrder = true: thứ tự duyệt từ phiên lâu không dùng nhất -> mới dùng nhất
+    private final LinkedHashMap<String, AISessionState> sessions = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evictedLru = new AtomicLong();
+    private final AtomicLong expiredIdle = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong spillFailures = new AtomicLong();
+
+    public AISessionStore(ChatSessionStateSnapshotRepo snapshotRepo,
+                          @Value("${ai.session.max-live:5000}") int maxLive,
+                          @Value("${ai.session.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+                          @Value("${ai.session.max-turns:10}") int maxTurns,
+                          @Value("${ai.session.spill.enabled:false}") boolean spillEnabled,
+                          @Value("${ai.session.spill.ttl-hours:24}") long spillTtlHours) {
+        this.snapshotRepo = snapshotRepo;
+        this.maxLive = maxLive;
+        this.idleTimeoutMillis = idleTimeoutMinutes * 60_000;
+        this.maxTurns = maxTurns;
+        this.spillEnabled = spillEnabled;
+        this.spillTtlHours = spillTtlHours;
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    /**
+     * Trạng thái của phiên; tạo mới (hoặc nạp lại từ DB nếu đã spill) khi chưa có trong bộ nhớ.
+     * sessionId null: trả về trạng thái tạm, không lưu.
+     */
+    public AISessionState getOrCreate(Long userId, String sessionId) {
+        if (sessionId == null) {
+            return new AISessionState(null, userId);
+        }
+        String key = key(userId, sessionId);
+        AISessionState state = lookup(key);
+        if (state != null) {
+            return state;
+        }
+
+        AISessionState loaded = spillEnabled ? restore(key) : null;
+        List<AISessionState> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            // Request song song của cùng phiên có thể đã tạo trước
+            state = sessions.get(key);
+            if (state == null) {
+                state = loaded != null ? loaded : new AISessionState(sessionId, userId);
+                sessions.put(key, state);
+                if (loaded == null) {
+                    created.incrementAndGet();
+                }
+                Iterator<AISessionState> eldest = sessions.values().iterator();
+                while (sessions.size() > maxLive && eldest.hasNext()) {
+                    evicted.add(eldest.next());
+                    eldest.remove();
+                    evictedLru.incrementAndGet();
+                }
+            }
+            state.touch();
+        } finally {
+            lock.unlock();
+        }
+        // Ghi DB ngoài lock
+        evicted.forEach(this::spill);
+        return state;
+    }
+
+    public void remove(Long userId, String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        String key = key(userId, sessionId);
+        lock.lock();
+        try {
+            sessions.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (spillEnabled) {
+            try {
+                snapshotRepo.deleteById(key);
+            } catch (Exception e) {
+                log.warn("Failed to delete spilled AI session {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    public int getSessionCount() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Đẩy các phiên idle ra khỏi bộ nhớ (spill nếu bật) và dọn snapshot quá hạn trong DB
+     */
+    @Scheduled(fixedDelayString = "${ai.session.sweep-interval-ms:60000}")
+    public void sweepIdleSessions() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        List<AISessionState> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            // Duyệt theo thứ tự LRU: gặp phiên còn hoạt động thì các phiên sau cũng vậy
+            Iterator<AISessionState> it = sessions.values().iterator();
+            while (it.hasNext()) {
+                AISessionState state = it.next();
+                if (state.getLastAccessedAt() >= cutoff) {
+                    break;
+                }
+                expired.add(state);
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        expiredIdle.addAndGet(expired.size());
+        expired.forEach(this::spill);
+        if (!expired.isEmpty()) {
+            log.info("Evicted {} idle AI sessions", expired.size());
+        }
+
+        if (spillEnabled) {
+            try {
+                int purged = snapshotRepo.deleteByUpdatedAtBefore(LocalDateTime.now().minusHours(spillTtlHours));
+                if (purged > 0) {
+                    log.info("Purged {} expired AI session snapshots", purged);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to purge AI session snapshots: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Số phiên đang sống, số lần đẩy ra / spill / nạp lại và kích thước serialize trung bình mỗi phiên
+     */
+    public Map<String, Object> getStats() {
+        List<AISessionState> sample = new ArrayList<>();
+        int live;
+        lock.lock();
+        try {
+            live = sessions.size();
+            // Lấy mẫu từ các phiên dùng gần nhất (cuối danh sách LRU)
+            int skip = Math.max(0, live - STATS_SAMPLE_SIZE);
+            Iterator<AISessionState> it = sessions.values().iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                AISessionState state = it.next();
+                if (i >= skip) {
+                    sample.add(state);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        long sampledBytes = 0;
+        for (AISessionState state : sample) {
+            byte[] data = serialize(state);
+            sampledBytes += data != null ? data.length : 0;
+        }
+        long avgBytes = sample.isEmpty() ? 0 : sampledBytes / sample.size();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("liveSessions", live);
+        stats.put("maxLiveSessions", maxLive);
+        stats.put("avgBytesPerSession", avgBytes);
+        stats.put("estimatedTotalBytes", avgBytes * live);
+        stats.put("created", created.get());
+        stats.put("evictedLru", evictedLru.get());
+        stats.put("expiredIdle", expiredIdle.get());
+        stats.put("spillEnabled", spillEnabled);
+        stats.put("spilled", spilled.get());
+        stats.put("restored", restored.get());
+        stats.put("spillFailures", spillFailures.get());
+        return stats;
+    }
+
+    private AISessionState lookup(String key) {
+        lock.lock();
+        try {
+            AISessionState state = sessions.get(key);
+            if (state != null) {
+                state.touch();
+            }
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void spill(AISessionState state) {
+        if (!spillEnabled) {
+            return;
+        }
+        byte[] data = serialize(state);
+        if (data == null) {
+            spillFailures.incrementAndGet();
+            return;
+        }
+        try {
+            snapshotRepo.save(new ChatSessionStateSnapshot(
+                    key(state.getUserId(), state.getSessionId()), state.getUserId(), data, LocalDateTime.now()));
+            spilled.incrementAndGet();
+        } catch (Exception e) {
+            spillFailures.incrementAndGet();
+            log.warn("Failed to spill AI session {}: {}", state.getSessionId(), e.getMessage());
+        }
+    }
+
+    private AISessionState restore(String key) {
+        try {
+            Optional<ChatSessionStateSnapshot> snapshot = snapshotRepo.findById(key);
+            if (snapshot.isEmpty()) {
+                return null;
+            }
+            snapshotRepo.deleteById(key);
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot.get().getStateData()))) {
+                in.setObjectInputFilter(STATE_FILTER);
+                AISessionState state = (AISessionState) in.readObject();
+                restored.incrementAndGet();
+                return state;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to restore AI session {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] serialize(AISessionState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(state);
+        } catch (IOException e) {
+            log.warn("Failed to serialize AI session {}: {}", state.getSessionId(), e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String key(Long userId, String sessionId) {
+        return userId + ":" + sessionId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.group02.openevent.ai.util;
+
+/**
+ * Kernel tích vô hướng trên đoạn của hai mảng float; bản SIMD (SimdKernels) được nạp động
+ * trong VectorKernels nên class này không phụ thuộc jdk.incubator.vector.
+ */
+interface DotKernel {
+
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Số float xử lý trong một lệnh (1 với bản scalar)
+     */
+    int lanes();
+}
@@ -0,0 +1,329 @@
+package com.group02.openevent.ai.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index vector trong bộ nhớ, quét tuyến tính (flat scan), bất biến sau khi dựng.
+ * Vector được chuẩn hóa L2 lúc dựng và xếp liền nhau trong một mảng, nên cosine similarity
+ * chỉ còn là tích vô hướng (VectorKernels, SIMD nếu có). Với vài trăm vector mẫu thì quét hết
+ * nhanh hơn và chính xác hơn HNSW; muốn cập nhật thì dựng index mới rồi thay tham chiếu.
+ * <p>
+ * Có thể lượng tử hóa để giảm bộ nhớ:
+ * - INT8: mỗi chiều 1 byte + 1 scale/vector (~4x nhỏ hơn), score xấp xỉ cosine
+ * - BINARY: 1 bit dấu/chiều (32x) để lọc ứng viên theo Hamming, kèm mã INT8 để chấm lại (~3.5x tổng)
+ * Nếu giữ full precision thì top (limit * oversampling) ứng viên được chấm lại bằng float gốc.
+ */
+@Slf4j
+public final class FlatVectorIndex {
+
+    public enum Quantization {
+        NONE, INT8, BINARY;
+
+        /**
+         * Giá trị cấu hình không hợp lệ thì cảnh báo và dùng NONE thay vì làm hỏng khởi động
+         */
+        public static Quantization fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return NONE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown quantization '{}', falling back to none", value);
+                return NONE;
+            }
+        }
+    }
+
+    private static final FlatVectorIndex EMPTY =
+            new FlatVectorIndex(0, Quantization.NONE, 1, new float[0], null, null, null, List.of());
+
+    private final int dimension;
+    private final Quantization quantization;
+    private final int oversampling;
+    private final float[] matrix;  // size() * dimension, null nếu không giữ full precision
+    private final byte[] codes;    // size() * dimension, mã INT8 (INT8 và BINARY)
+    private final float[] scales;  // scale INT8 của từng hàng
+    private final long[] bits;     // size() * words, bit dấu (chỉ BINARY)
+    private final int words;
+    private final List<Map<String, Object>> payloads;
+
+    private FlatVectorIndex(int dimension, Quantization quantization, int oversampling, float[] matrix,
+                            byte[] codes, float[] scales, long[] bits, List<Map<String, Object>> payloads) {
+        this.dimension = dimension;
+        this.quantization = quantization;
+        this.oversampling = Math.max(1, oversampling);
+        this.matrix = matrix;
+        this.codes = codes;
+        this.scales = scales;
+        this.bits = bits;
+        this.words = (dimension + 63) / 64;
+        this.payloads = payloads;
+    }
+
+    public static FlatVectorIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Dựng index float đầy đủ, không lượng tử hóa
+     */
+    public static FlatVectorIndex build(List<float[]> vectors, List<Map<String, Object>> payloads) {
+        return build(vectors, payloads, Quantization.NONE, true, 1);
+    }
+
+    /**
+     * Dựng index từ các cặp (vector, payload). Vector rỗng, sai số chiều hoặc norm 0 bị bỏ qua.
+     * @param keepFullPrecision giữ float gốc để chấm lại ứng viên (tốn bộ nhớ như NONE)
+     * @param oversampling số ứng viên lấy từ bước lượng tử = limit * oversampling
+     */
+    public static FlatVectorIndex build(List<float[]> vectors, List<Map<String, Object>> payloads,
+                                        Quantization quantization, boolean keepFullPrecision, int oversampling) {
+        if (vectors.size() != payloads.size()) {
+            throw new IllegalArgumentException("vectors and payloads must have the same size");
+        }
+        int dimension = 0;
+        for (float[] vector : vectors) {
+            if (vector != null && vector.length > 0) {
+                dimension = vector.length;
+                break;
+            }
+        }
+        if (dimension == 0) {
+            return EMPTY;
+        }
+        // Chuẩn hóa trước, bỏ các vector không hợp lệ
+        List<float[]> rows = new ArrayList<>(vectors.size());
+        List<Map<String, Object>> kept = new ArrayList<>(vectors.size());
+        for (int i = 0; i < vectors.size(); i++) {
+            float[] vector = vectors.get(i);
+            if (vector == null || vector.length != dimension) {
+                continue;
+            }
+            float[] row = VectorKernels.normalize(vector);
+            if (row == null) {
+                continue;
+            }
+            rows.add(row);
+            kept.add(Collections.unmodifiableMap(new LinkedHashMap<>(payloads.get(i))));
+        }
+
+        int n = rows.size();
+        int words = (dimension + 63) / 64;
+        boolean full = quantization == Quantization.NONE || keepFullPrecision;
+        float[] matrix = full ? new float[n * dimension] : null;
+        byte[] codes = quantization != Quantization.NONE ? new byte[n * dimension] : null;
+        float[] scales = quantization != Quantization.NONE ? new float[n] : null;
+        long[] bits = quantization == Quantization.BINARY ? new long[n * words] : null;
+        for (int r = 0; r < n; r++) {
+            float[] row = rows.get(r);
+            int offset = r * dimension;
+            if (matrix != null) {
+                System.arraycopy(row, 0, matrix, offset, dimension);
+            }
+            if (codes != null) {
+                scales[r] = encodeInt8(row, codes, offset);
+            }
+            if (bits != null) {
+                encodeSigns(row, bits, r * words);
+            }
+        }
+        return new FlatVectorIndex(dimension, quantization, oversampling, matrix, codes, scales, bits, List.copyOf(kept));
+    }
+
+    public int size() {
+        return payloads.size();
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public Quantization quantization() {
+        return quantization;
+    }
+
+    /**
+     * Số byte dữ liệu vector đang giữ (không tính payload)
+     */
+    public long vectorBytes() {
+        long bytes = 0;
+        if (matrix != null) bytes += (long) matrix.length * Float.BYTES;
+        if (codes != null) bytes += codes.length + (long) scales.length * Float.BYTES;
+        if (bits != null) bytes += (long) bits.length * Long.BYTES;
+        return bytes;
+    }
+
+    /**
+     * Top-k theo cosine similarity, cùng dạng kết quả với QdrantService.searchSimilarVectors:
+     * mỗi phần tử có "id" (vị trí trong index), "score" và "payload", sắp giảm dần theo score.
+     */
+    public List<Map<String, Object>> search(float[] query, int limit) {
+        if (query == null || query.length != dimension || limit <= 0 || payloads.isEmpty()) {
+            return List.of();
+        }
+        float[] q = VectorKernels.normalize(query);
+        if (q == null) {
+            return List.of();
+        }
+        int k = Math.min(limit, payloads.size());
+        int candidates = Math.min(payloads.size(), k * oversampling);
+
+        TopK top;
+        switch (quantization) {
+            case INT8 -> {
+                if (matrix == null) {
+                    top = scanInt8(q, k);
+                } else {
+                    top = rescoreFloat(q, scanInt8(q, candidates), k);
+                }
+            }
+            case BINARY -> {
+                TopK coarse = scanBinary(q, candidates);
+                top = matrix != null ? rescoreFloat(q, coarse, k) : rescoreInt8(q, coarse, k);
+            }
+            default -> top = scanFloat(q, k);
+        }
+
+        List<Map<String, Object>> out = new ArrayList<>(top.count);
+        for (int i = 0; i < top.count; i++) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("id", (long) top.rows[i]);
+            m.put("score", (double) top.scores[i]);
+            m.put("payload", payloads.get(top.rows[i]));
+            out.add(m);
+        }
+        return out;
+    }
+
+    /**
+     * Id (vị trí) của top-k, dùng để đo recall giữa hai index dựng từ cùng dữ liệu
+     */
+    public List<Long> searchIds(float[] query, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (Map<String, Object> hit : search(query, limit)) {
+            ids.add((Long) hit.get("id"));
+        }
+        return ids;
+    }
+
+    private TopK scanFloat(float[] q, int k) {
+        TopK top = new TopK(k);
+        for (int row = 0; row < payloads.size(); row++) {
+            top.offer(row, floatScore(q, row));
+        }
+        return top;
+    }
+
+    private TopK scanInt8(float[] q, int k) {
+        TopK top = new TopK(k);
+        for (int row = 0; row < payloads.size(); row++) {
+            top.offer(row, int8Score(q, row));
+        }
+        return top;
+    }
+
+    private TopK scanBinary(float[] q, int k) {
+        long[] queryBits = new long[words];
+        encodeSigns(q, queryBits, 0);
+        TopK top = new TopK(k);
+        for (int row = 0; row < payloads.size(); row++) {
+            int offset = row * words;
+            int hamming = 0;
+            for (int w = 0; w < words; w++) {
+                hamming += Long.bitCount(bits[offset + w] ^ queryBits[w]);
+            }
+            // Ước lượng cosine từ tỉ lệ bit khác dấu, chỉ dùng để xếp hạng ứng viên
+            top.offer(row, 1f - 2f * hamming / dimension);
+        }
+        return top;
+    }
+
+    private TopK rescoreFloat(float[] q, TopK candidates, int k) {
+        TopK top = new TopK(k);
+        for (int i = 0; i < candidates.count; i++) {
+            top.offer(candidates.rows[i], floatScore(q, candidates.rows[i]));
+        }
+        return top;
+    }
+
+    private TopK rescoreInt8(float[] q, TopK candidates, int k) {
+        TopK top = new TopK(k);
+        for (int i = 0; i < candidates.count; i++) {
+            top.offer(candidates.rows[i], int8Score(q, candidates.rows[i]));
+        }
+        return top;
+    }
+
+    private float floatScore(float[] q, int row) {
+        return VectorKernels.dot(matrix, row * dimension, q, 0, dimension);
+    }
+
+    private float int8Score(float[] q, int row) {
+        int offset = row * dimension;
+        float dot = 0f;
+        for (int d = 0; d < dimension; d++) {
+            dot += codes[offset + d] * q[d];
+        }
+        return dot * scales[row];
+    }
+
+    /**
+     * Lượng tử đối xứng: code = round(v / scale), scale = max|v| / 127
+     */
+    private static float encodeInt8(float[] row, byte[] codes, int offset) {
+        float maxAbs = 0f;
+        for (float v : row) {
+            maxAbs = Math.max(maxAbs, Math.abs(v));
+        }
+        float scale = maxAbs / 127f;
+        for (int d = 0; d < row.length; d++) {
+            codes[offset + d] = (byte) Math.round(row[d] / scale);
+        }
+        return scale;
+    }
+
+    private static void encodeSigns(float[] row, long[] bits, int offset) {
+        for (int d = 0; d < row.length; d++) {
+            if (row[d] > 0f) {
+                bits[offset + (d >>> 6)] |= 1L << (d & 63);
+            }
+        }
+    }
+
+    /**
+     * Top-k nhỏ giữ bằng insertion sort, giảm dần theo score
+     */
+    private static final class TopK {
+        private final int[] rows;
+        private final float[] scores;
+        private int count;
+
+        TopK(int k) {
+            this.rows = new int[k];
+            this.scores = new float[k];
+        }
+
+        void offer(int row, float score) {
+            int k = rows.length;
+            if (k == 0 || (count == k && score <= scores[k - 1])) {
+                return;
+            }
+            int pos = count < k ? count++ : k - 1;
+            while (pos > 0 && scores[pos - 1] < score) {
+                scores[pos] = scores[pos - 1];
+                rows[pos] = rows[pos - 1];
+                pos--;
+            }
+            scores[pos] = score;
+            rows[pos] = row;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.group02.openevent.ai.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File vector float32 kích thước cố định, memory-mapped, tồn tại qua các lần restart.
+ * Layout: header [magic:int][dimension:int][next:long], sau đó {@code capacity} slot,
+ * mỗi slot = [key 32 byte][dimension float]. Ghi vòng (ring): khi đầy thì ghi đè slot cũ nhất.
+ * Key toàn 0 nghĩa là slot trống; khi ghi thì xóa key trước, ghi vector, ghi key sau cùng
+ * để slot ghi dở (crash giữa chừng) không bao giờ được đọc ra.
+ * Index key -> slot giữ trong heap, dựng lại bằng cách quét file khi mở.
+ */
+@Slf4j
+public class MappedVectorStore implements Closeable {
+
+    public static final int KEY_BYTES = 32;
+    private static final int MAGIC = 0x0E7EC001;
+    private static final int HEADER_BYTES = 16;
+
+    private final Path file;
+    private final int dimension;
+    private final int capacity;
+    private final int slotBytes;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<Key, Integer> index = new HashMap<>();
+    private long next;
+
+    private MappedVectorStore(Path file, int dimension, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.dimension = dimension;
+        this.capacity = capacity;
+        this.slotBytes = KEY_BYTES + dimension * Float.BYTES;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Mở file có sẵn (giữ dimension trong header) hoặc tạo mới với {@code dimension}.
+     * Số slot = min(maxEntries, maxBytes / kích thước slot), và cả file nằm trong một vùng map (< 2GB).
+     * File cũ lớn hơn giới hạn hiện tại được tạo lại (đây chỉ là cache).
+     */
+    public static MappedVectorStore open(Path file, int dimension, int maxEntries, long maxBytes) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean exists = Files.exists(file) && Files.size(file) >= HEADER_BYTES;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int capacity = capacityFor(dimension, maxEntries, maxBytes);
+            if (exists) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                channel.read(header, 0);
+                header.flip();
+                if (header.getInt() == MAGIC) {
+                    int storedDimension = header.getInt();
+                    int storedCapacity = (int) ((channel.size() - HEADER_BYTES) / (KEY_BYTES + (long) storedDimension * Float.BYTES));
+                    if (storedDimension == dimension && storedCapacity > 0 && storedCapacity <= capacity) {
+                        return load(file, dimension, storedCapacity, channel);
+                    }
+                }
+                log.warn("Embedding store {} has a different layout, recreating it", file);
+                channel.truncate(0);
+            }
+            MappedVectorStore store = map(file, dimension, capacity, channel);
+            store.buffer.putInt(0, MAGIC);
+            store.buffer.putInt(4, dimension);
+            store.buffer.putLong(8, 0L);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Đọc dimension từ header của file có sẵn, -1 nếu file không hợp lệ
+     */
+    public static int readDimension(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC ? header.getInt() : -1;
+        }
+    }
+
+    private static int capacityFor(int dimension, int maxEntries, long maxBytes) {
+        long slotBytes = KEY_BYTES + (long) dimension * Float.BYTES;
+        long maxByMapping = (Math.min(maxBytes, Integer.MAX_VALUE) - HEADER_BYTES) / slotBytes;
+        return (int) Math.max(1, Math.min(maxEntries, maxByMapping));
+    }
+
+    private static MappedVectorStore map(Path file, int dimension, int capacity, FileChannel channel) throws IOException {
+        long size = HEADER_BYTES + (long) capacity * (KEY_BYTES + (long) dimension * Float.BYTES);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return new MappedVectorStore(file, dimension, capacity, channel, buffer);
+    }
+
+    private static MappedVectorStore load(Path file, int dimension, int capacity, FileChannel channel) throws IOException {
+        MappedVectorStore store = map(file, dimension, capacity, channel);
+        store.next = store.buffer.getLong(8);
+        byte[] key = new byte[KEY_BYTES];
+        for (int slot = 0; slot < capacity; slot++) {
+            store.buffer.get(store.slotOffset(slot), key);
+            if (!isEmpty(key)) {
+                store.index.put(new Key(key.clone()), slot);
+            }
+        }
+        log.info("Opened embedding store {}: {} vectors of dimension {}", file, store.index.size(), dimension);
+        return store;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized float[] get(byte[] key) {
+        Integer slot = index.get(new Key(key));
+        if (slot == null) {
+            return null;
+        }
+        float[] vector = new float[dimension];
+        buffer.slice(slotOffset(slot) + KEY_BYTES, dimension * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .get(vector);
+        return vector;
+    }
+
+    public synchronized void put(byte[] key, float[] vector) {
+        if (vector.length != dimension || key.length != KEY_BYTES || isEmpty(key)) {
+            return;
+        }
+        Key k = new Key(key.clone());
+        if (index.containsKey(k)) {
+            return;
+        }
+        int slot = (int) (next % capacity);
+        int offset = slotOffset(slot);
+
+        // Slot cũ (nếu có) bị ghi đè: bỏ khỏi index và đánh dấu trống trước khi ghi
+        byte[] oldKey = new byte[KEY_BYTES];
+        buffer.get(offset, oldKey);
+        if (!isEmpty(oldKey)) {
+            index.remove(new Key(oldKey));
+            buffer.put(offset, new byte[KEY_BYTES]);
+        }
+        buffer.slice(offset + KEY_BYTES, dimension * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .put(vector);
+        buffer.put(offset, key);
+
+        next++;
+        buffer.putLong(8, next);
+        index.put(k, slot);
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_BYTES + slot * slotBytes;
+    }
+
+    private static boolean isEmpty(byte[] key) {
+        for (byte b : key) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+        log.debug("Closed embedding store {}", file);
+    }
+
+    private record Key(byte[] bytes) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(bytes, key.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+}
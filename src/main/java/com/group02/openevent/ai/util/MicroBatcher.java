@@ -0,0 +1,135 @@
+package com.group02.openevent.ai.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gom các yêu cầu đơn lẻ đến đồng thời thành một lời gọi theo lô.
+ * Một thread gom: lấy yêu cầu đầu tiên rồi chờ thêm tối đa {@code maxWait} hoặc đến khi đủ {@code maxBatchSize};
+ * lô được chạy trên pool riêng, tối đa {@code maxInFlight} lô cùng lúc (hết chỗ thì thread gom chờ,
+ * yêu cầu mới tiếp tục dồn vào lô sau). Kết quả thứ i của lô trả về cho yêu cầu thứ i.
+ */
+@Slf4j
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface BatchFunction<I, O> {
+        List<O> apply(List<I> inputs) throws Exception;
+    }
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BatchFunction<I, O> function;
+    private final BlockingQueue<Pending<I, O>> queue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final Thread collector;
+    private volatile boolean closed;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxWait, int maxInFlight, BatchFunction<I, O> function) {
+        this.name = name;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.function = function;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxInFlight), r -> {
+            Thread thread = new Thread(r, name + "-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.collector = new Thread(this::collectLoop, name + "-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    public CompletableFuture<O> submit(I input) {
+        CompletableFuture<O> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException(name + " batcher is closed"));
+            return future;
+        }
+        queue.add(new Pending<>(input, future));
+        return future;
+    }
+
+    private void collectLoop() {
+        while (!closed) {
+            List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending<I, O> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                batch.forEach(p -> p.future().completeExceptionally(new CancellationException(name + " batcher stopped")));
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                batch.forEach(p -> p.future().completeExceptionally(e));
+            }
+        }
+    }
+
+    private void run(List<Pending<I, O>> batch) {
+        // Bỏ các request caller đã hủy (hết timeout) trong lúc chờ slot
+        batch.removeIf(p -> p.future().isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<I> inputs = new ArrayList<>(batch.size());
+        batch.forEach(p -> inputs.add(p.input()));
+        try {
+            List<O> outputs = function.apply(inputs);
+            if (outputs == null || outputs.size() != batch.size()) {
+                throw new IllegalStateException(name + " batch returned " + (outputs == null ? 0 : outputs.size())
+                        + " results for " + batch.size() + " inputs");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(outputs.get(i));
+            }
+            if (batch.size() > 1) {
+                log.debug("{} batch of {} requests completed", name, batch.size());
+            }
+        } catch (Exception e) {
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        collector.interrupt();
+        executor.shutdown();
+        Pending<I, O> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new CancellationException(name + " batcher stopped"));
+        }
+    }
+
+    private record Pending<I, O>(I input, CompletableFuture<O> future) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.group02.openevent.ai.util;
+
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chuyển tiếp token LLM cho người dùng nhưng dừng lại khi gặp phần JSON action
+ * (code fence ``` hoặc mảng "[{"), vì phần đó chỉ dùng để parse action, không hiển thị.
+ * Giữ lại đuôi có thể là đầu của marker (vd "[" hoặc "``") cho tới khi chunk sau xác định được.
+ * Câu trả lời cuối cùng (đã parse action, kèm kết quả hệ thống) vẫn được gửi riêng sau khi stream xong.
+ */
+public class StreamingTextRelay implements Consumer<String> {
+
+    private static final Pattern MARKER = Pattern.compile("```|\\[\\s*\\{");
+    private static final Pattern PARTIAL_MARKER_TAIL = Pattern.compile("(`{1,2}|\\[\\s*)$");
+
+    private final Consumer<String> downstream;
+    private final StringBuilder pending = new StringBuilder();
+    private boolean suppressed = false;
+
+    public StreamingTextRelay(Consumer<String> downstream) {
+        this.downstream = downstream;
+    }
+
+    @Override
+    public synchronized void accept(String chunk) {
+        if (suppressed || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        pending.append(chunk);
+
+        Matcher marker = MARKER.matcher(pending);
+        if (marker.find()) {
+            emit(pending.substring(0, marker.start()));
+            pending.setLength(0);
+            suppressed = true;
+            return;
+        }
+        Matcher tail = PARTIAL_MARKER_TAIL.matcher(pending);
+        int keepFrom = tail.find() ? tail.start() : pending.length();
+        emit(pending.substring(0, keepFrom));
+        pending.delete(0, keepFrom);
+    }
+
+    /**
+     * Gửi phần còn giữ lại khi stream kết thúc
+     */
+    public synchronized void flush() {
+        if (!suppressed) {
+            emit(pending.toString());
+        }
+        pending.setLength(0);
+    }
+
+    private void emit(String text) {
+        if (!text.isEmpty()) {
+            downstream.accept(text);
+        }
+    }
+}
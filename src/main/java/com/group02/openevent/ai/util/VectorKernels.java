@@ -0,0 +1,115 @@
+package com.group02.openevent.ai.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Các phép tính similarity dùng chung cho embedding (dot, cosine, chuẩn hóa).
+ * Dùng SIMD qua jdk.incubator.vector khi build với profile Maven {@code vector-api} và JVM chạy với
+ * {@code --add-modules jdk.incubator.vector}, ngược lại dùng vòng lặp scalar. Class SIMD được nạp bằng
+ * reflection chỉ khi module có mặt, nên build/chạy mặc định không đụng tới incubator module (và không in cảnh báo).
+ * Tắt SIMD bằng system property {@code -Dopenevent.vector.simd=false}.
+ */
+@Slf4j
+public final class VectorKernels {
+
+    private static final String SIMD_KERNEL_CLASS = "com.group02.openevent.ai.util.SimdKernels";
+
+    // null nếu không dùng được SIMD
+    private static final DotKernel SIMD_KERNEL = loadSimdKernel();
+    private static final boolean SIMD = SIMD_KERNEL != null;
+
+    private VectorKernels() {
+    }
+
+    public static boolean isSimdEnabled() {
+        return SIMD;
+    }
+
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Vectors must be same length");
+        }
+        return dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Tích vô hướng của a[aOffset..aOffset+length) và b[bOffset..bOffset+length),
+     * dùng cho các hàng trong ma trận phẳng
+     */
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return SIMD ? SIMD_KERNEL.dot(a, aOffset, b, bOffset, length) : scalarDot(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Cosine khi chưa biết norm; nếu cả hai vector đã chuẩn hóa thì chỉ cần {@link #dot(float[], float[])}
+     */
+    public static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Vectors must be same length");
+        }
+        double normA = norm(a);
+        double normB = norm(b);
+        if (normA == 0 || normB == 0) {
+            return 0.0;
+        }
+        return dot(a, 0, b, 0, a.length) / (normA * normB);
+    }
+
+    public static double norm(float[] vector) {
+        return Math.sqrt(dot(vector, 0, vector, 0, vector.length));
+    }
+
+    /**
+     * Bản sao đã chuẩn hóa L2, hoặc null nếu vector có norm 0
+     */
+    public static float[] normalize(float[] vector) {
+        double norm = norm(vector);
+        if (norm == 0) {
+            return null;
+        }
+        float[] out = new float[vector.length];
+        float inv = (float) (1.0 / norm);
+        for (int i = 0; i < vector.length; i++) {
+            out[i] = vector[i] * inv;
+        }
+        return out;
+    }
+
+    static float scalarDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        // 4 accumulator độc lập để JIT không bị chặn bởi phụ thuộc giữa các phép cộng
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static DotKernel loadSimdKernel() {
+        if ("false".equalsIgnoreCase(System.getProperty("openevent.vector.simd"))) {
+            return null;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector không có trong JVM, dùng similarity kernel scalar");
+            return null;
+        }
+        try {
+            DotKernel kernel = (DotKernel) Class.forName(SIMD_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+            kernel.dot(new float[]{1f}, 0, new float[]{1f}, 0, 1);
+            log.info("Similarity kernel dùng SIMD, {} lane float", kernel.lanes());
+            return kernel;
+        } catch (ClassNotFoundException e) {
+            log.info("Bản build không có SIMD kernel (thiếu profile vector-api), dùng scalar");
+            return null;
+        } catch (Throwable t) {
+            log.warn("Không dùng được Vector API, quay về scalar: {}", t.toString());
+            return null;
+        }
+    }
+}
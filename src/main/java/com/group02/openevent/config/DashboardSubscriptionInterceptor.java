@@ -0,0 +1,58 @@
+package com.group02.openevent.config;
+
+import com.group02.openevent.service.DashboardPushService;
+import com.group02.openevent.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Chỉ host của event (hoặc ADMIN) được subscribe /topic/dashboard/event/{eventId}
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final DashboardService dashboardService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(DashboardPushService.TOPIC_PREFIX)) {
+            return message;
+        }
+
+        Long eventId;
+        try {
+            eventId = Long.valueOf(destination.substring(DashboardPushService.TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new MessageDeliveryException("Invalid dashboard destination: " + destination);
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        Object userId = attributes != null ? attributes.get("USER_ID") : null;
+        Object role = attributes != null ? attributes.get("USER_ROLE") : null;
+        if (userId == null) {
+            throw new MessageDeliveryException("Login required to watch event dashboard");
+        }
+        boolean allowed = dashboardService.canManageEventDashboard(eventId, userId, role);
+        if (!allowed) {
+            log.warn("User {} denied subscription to dashboard of event {}", userId, eventId);
+            throw new MessageDeliveryException("Not allowed to watch dashboard of event " + eventId);
+        }
+        return message;
+    }
+}
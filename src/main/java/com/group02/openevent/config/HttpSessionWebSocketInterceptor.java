@@ -28,6 +28,10 @@ public class HttpSessionWebSocketInterceptor implements HandshakeInterceptor {
                 if (userId != null) {
                     attributes.put("USER_ID", userId);
                 }
+                Object userRole = httpSession.getAttribute("USER_ROLE");
+                if (userRole != null) {
+                    attributes.put("USER_ROLE", userRole);
+                }
                 Object currentUserId = httpSession.getAttribute("CURRENT_USER_ID");
                 if (currentUserId != null) {
                     attributes.put("CURRENT_USER_ID", currentUserId);
@@ -11,21 +11,39 @@ import com.group02.openevent.model.enums.Role;
 import com.group02.openevent.security.annotation.RequireRole;
 import com.group02.openevent.service.AdminService;
 import com.group02.openevent.service.AuditLogService;
+import com.group02.openevent.service.ExportJobService;
+import com.group02.openevent.service.ExportService;
+import com.group02.openevent.service.MailOutboxService;
+import com.group02.openevent.service.RevenueRollupService;
+import com.group02.openevent.util.export.ExportFormat;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Controller
@@ -37,6 +55,14 @@ public class AdminController {
     private AdminService adminService;
     @Autowired
     private AuditLogService auditLogService;
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private ExportJobService exportJobService;
+    @Autowired
+    private MailOutboxService mailOutboxService;
 
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
@@ -97,6 +123,53 @@ public class AdminController {
         return ResponseEntity.ok(payments);
     }
     
+    @GetMapping("/api/orders/scroll")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> scrollOrders(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) LocalDate toDate,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        ScrollPosition position = keysetPosition("orderId", afterId);
+        Window<AdminOrderDTO> window = adminService.scrollOrders(status, search, fromDate, toDate, position, size);
+        return ResponseEntity.ok(toScrollResponse(window));
+    }
+    
+    @GetMapping("/api/payments/scroll")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> scrollPayments(
+            @RequestParam(value = "status", required = false) PaymentStatus status,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) LocalDate toDate,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        ScrollPosition position = keysetPosition("paymentId", afterId);
+        Window<AdminPaymentDTO> window = adminService.scrollPayments(status, search, fromDate, toDate, position, size);
+        return ResponseEntity.ok(toScrollResponse(window));
+    }
+    
+    // Keyset theo id (mới nhất trước), xem AdminServiceImpl.KEYSET_SORT_*
+    private ScrollPosition keysetPosition(String idProperty, Long afterId) {
+        if (afterId == null) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(Map.of(idProperty, afterId));
+    }
+    
+    private Map<String, Object> toScrollResponse(Window<?> window) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("content", window.getContent());
+        response.put("hasNext", window.hasNext());
+        if (!window.isEmpty() && window.positionAt(window.size() - 1) instanceof KeysetScrollPosition keyset) {
+            // Client gửi lại id này làm afterId để lấy trang tiếp theo
+            response.put("nextCursor", keyset.getKeys());
+        }
+        return response;
+    }
+    
     @GetMapping("/api/financial-summary")
     @ResponseBody
     public ResponseEntity<FinancialSummaryDTO> getFinancialSummary(
@@ -106,26 +179,124 @@ public class AdminController {
         return ResponseEntity.ok(summary);
     }
     
+    @PostMapping("/api/revenue-rollup/rebuild")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> rebuildRevenueRollup() {
+        revenueRollupService.rebuildAll();
+        return ResponseEntity.ok(Map.of("success", true, "message", "Revenue rollup rebuilt"));
+    }
+    
+    // Export stream thẳng ra response (format=csv|xlsx)
     @GetMapping("/api/orders/export")
     @ResponseBody
-    public ResponseEntity<List<AdminOrderDTO>> exportOrders(
+    public ResponseEntity<StreamingResponseBody> exportOrders(
             @RequestParam(value = "status", required = false) OrderStatus status,
             @RequestParam(value = "search", required = false) String search,
             @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
-            @RequestParam(value = "toDate", required = false) LocalDate toDate) {
-        List<AdminOrderDTO> orders = adminService.getAllOrdersForExport(status, search, fromDate, toDate);
-        return ResponseEntity.ok(orders);
+            @RequestParam(value = "toDate", required = false) LocalDate toDate,
+            @RequestParam(value = "format", required = false) String format) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        return streamExport("orders-export", exportFormat,
+            out -> exportService.exportOrders(status, search, fromDate, toDate, exportFormat, out));
     }
     
     @GetMapping("/api/payments/export")
     @ResponseBody
-    public ResponseEntity<List<AdminPaymentDTO>> exportPayments(
+    public ResponseEntity<StreamingResponseBody> exportPayments(
             @RequestParam(value = "status", required = false) PaymentStatus status,
             @RequestParam(value = "search", required = false) String search,
             @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
-            @RequestParam(value = "toDate", required = false) LocalDate toDate) {
-        List<AdminPaymentDTO> payments = adminService.getAllPaymentsForExport(status, search, fromDate, toDate);
-        return ResponseEntity.ok(payments);
+            @RequestParam(value = "toDate", required = false) LocalDate toDate,
+            @RequestParam(value = "format", required = false) String format) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        return streamExport("payments-export", exportFormat,
+            out -> exportService.exportPayments(status, search, fromDate, toDate, exportFormat, out));
+    }
+    
+    // Export chạy nền cho dữ liệu rất lớn: tạo job -> poll trạng thái -> tải file
+    @PostMapping("/api/orders/export/jobs")
+    @ResponseBody
+    public ResponseEntity<ExportJobDTO> submitOrdersExportJob(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) LocalDate toDate,
+            @RequestParam(value = "format", required = false) String format) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        return ResponseEntity.ok(exportJobService.submit("orders-export", exportFormat,
+            out -> exportService.exportOrders(status, search, fromDate, toDate, exportFormat, out)));
+    }
+    
+    @PostMapping("/api/payments/export/jobs")
+    @ResponseBody
+    public ResponseEntity<ExportJobDTO> submitPaymentsExportJob(
+            @RequestParam(value = "status", required = false) PaymentStatus status,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "fromDate", required = false) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) LocalDate toDate,
+            @RequestParam(value = "format", required = false) String format) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        return ResponseEntity.ok(exportJobService.submit("payments-export", exportFormat,
+            out -> exportService.exportPayments(status, search, fromDate, toDate, exportFormat, out)));
+    }
+    
+    @GetMapping("/api/export-jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ExportJobDTO> getExportJob(@PathVariable String jobId) {
+        return exportJobService.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @DeleteMapping("/api/export-jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> cancelExportJob(@PathVariable String jobId) {
+        boolean cancelled = exportJobService.cancel(jobId);
+        return ResponseEntity.ok(Map.of("success", cancelled));
+    }
+    
+    @GetMapping("/api/export-jobs/{jobId}/download")
+    @ResponseBody
+    public ResponseEntity<Resource> downloadExportJob(@PathVariable String jobId) {
+        Optional<ExportJobDTO> job = exportJobService.getJob(jobId);
+        Optional<Path> file = exportJobService.getResultFile(jobId);
+        if (job.isEmpty() || file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.get().getFileName())
+            .contentType(MediaType.parseMediaType(ExportFormat.valueOf(job.get().getFormat()).getContentType()))
+            .body(new FileSystemResource(file.get()));
+    }
+    
+    // Format không hỗ trợ là lỗi của client -> 400 thay vì 500
+    private ExportFormat parseExportFormat(String format) {
+        try {
+            return ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+    }
+    
+    private ResponseEntity<StreamingResponseBody> streamExport(String name, ExportFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + name + "." + format.getExtension())
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .body(body);
+    }
+    
+    // Mail outbox: độ sâu hàng đợi, throughput, số email DEAD
+    @GetMapping("/api/mail-outbox/stats")
+    @ResponseBody
+    public ResponseEntity<MailOutboxStatsDTO> getMailOutboxStats() {
+        return ResponseEntity.ok(mailOutboxService.getStats());
+    }
+    
+    @PostMapping("/api/mail-outbox/requeue-dead")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> requeueDeadMails() {
+        int requeued = mailOutboxService.requeueDead();
+        return ResponseEntity.ok(Map.of("success", true, "requeued", requeued));
     }
     
     // Event Operations APIs
@@ -351,16 +522,33 @@ public class AdminController {
     
     @GetMapping("/api/audit-logs/export")
     @ResponseBody
-    public ResponseEntity<List<EnhancedAuditLogDTO>> exportAuditLogs(
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
             @RequestParam(value = "actionType", required = false) String actionType,
             @RequestParam(value = "entityType", required = false) String entityType,
             @RequestParam(value = "userId", required = false) Long userId,
             @RequestParam(value = "search", required = false) String search,
             @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
-            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
-        log.info("API called: GET /admin/api/audit-logs/export?actionType={}&entityType={}&userId={}&search={}&fromDate={}&toDate={}", 
-            actionType, entityType, userId, search, fromDate, toDate);
-        List<EnhancedAuditLogDTO> logs = adminService.getAllAuditLogsForExport(actionType, entityType, userId, search, fromDate, toDate);
-        return ResponseEntity.ok(logs);
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(value = "format", required = false) String format) {
+        log.info("API called: GET /admin/api/audit-logs/export?actionType={}&entityType={}&userId={}&search={}&fromDate={}&toDate={}&format={}", 
+            actionType, entityType, userId, search, fromDate, toDate, format);
+        ExportFormat exportFormat = parseExportFormat(format);
+        return streamExport("audit-logs-export", exportFormat,
+            out -> exportService.exportAuditLogs(actionType, entityType, userId, search, fromDate, toDate, exportFormat, out));
+    }
+    
+    @PostMapping("/api/audit-logs/export/jobs")
+    @ResponseBody
+    public ResponseEntity<ExportJobDTO> submitAuditLogsExportJob(
+            @RequestParam(value = "actionType", required = false) String actionType,
+            @RequestParam(value = "entityType", required = false) String entityType,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(value = "format", required = false) String format) {
+        ExportFormat exportFormat = parseExportFormat(format);
+        return ResponseEntity.ok(exportJobService.submit("audit-logs-export", exportFormat,
+            out -> exportService.exportAuditLogs(actionType, entityType, userId, search, fromDate, toDate, exportFormat, out)));
     }
 }
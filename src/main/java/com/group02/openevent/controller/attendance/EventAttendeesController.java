@@ -3,10 +3,10 @@ package com.group02.openevent.controller.attendance;
 import com.group02.openevent.model.attendance.EventAttendance;
 import com.group02.openevent.service.EventAttendanceService;
 import com.group02.openevent.service.EventService;
+import com.group02.openevent.service.ExportService;
 import com.group02.openevent.service.QRCodeService;
+import com.group02.openevent.util.export.ExportFormat;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -14,10 +14,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.List;
 
 @Controller
 @RequestMapping("/event/{eventId}/attendees")
@@ -32,6 +30,9 @@ public class EventAttendeesController {
     @Autowired
     private QRCodeService qrCodeService;
 
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping("/{attendeeId}/check-in")
     @ResponseBody
     public ResponseEntity<?> checkIn(
@@ -121,85 +122,36 @@ public class EventAttendeesController {
     }
 
     @GetMapping("/export/excel")
-    public ResponseEntity<byte[]> exportToExcel(
+    public ResponseEntity<StreamingResponseBody> exportToExcel(
             @PathVariable Long eventId,
             @RequestParam(required = false) Long ticketTypeFilter,
             @RequestParam(required = false) String paymentStatusFilter,
             @RequestParam(required = false) String checkinStatusFilter
-    ) throws IOException {
-
-
-
-
-
-
-        List<EventAttendance> attendees = attendanceService.filterAttendees(
-                eventId, ticketTypeFilter, paymentStatusFilter, checkinStatusFilter);
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Attendees");
-
-        // Tạo header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"STT", "Tên", "Email", "SĐT", "Loại vé", "Tổ chức", "Trạng thái thanh toán",
-                "Check-in", "Check-out", "Ghi chú"};
-
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            CellStyle style = workbook.createCellStyle();
-            style.setFillForegroundColor(IndexedColors.GREEN.getIndex());
-            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            Font font = workbook.createFont();
-            font.setBold(true);
-            font.setColor(IndexedColors.WHITE.getIndex());
-            style.setFont(font);
-            cell.setCellStyle(style);
-        }
-
-        // Điền dữ liệu
-        int rowNum = 1;
-        for (EventAttendance attendee : attendees) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(rowNum - 1);
-            
-            // Handle null order case (attendees added manually don't have orders)
-            if (attendee.getOrder() != null) {
-                // Attendee có Order (người mua vé thật)
-                row.createCell(1).setCellValue(attendee.getOrder().getParticipantName() != null ? attendee.getOrder().getParticipantName() : "");
-                row.createCell(2).setCellValue(attendee.getOrder().getParticipantEmail() != null ? attendee.getOrder().getParticipantEmail() : "");
-                row.createCell(3).setCellValue(attendee.getOrder().getParticipantPhone() != null ? attendee.getOrder().getParticipantPhone() : "");
-                row.createCell(4).setCellValue(attendee.getOrder().getTicketType() != null && attendee.getOrder().getTicketType().getName() != null ? attendee.getOrder().getTicketType().getName() : "");
-                row.createCell(5).setCellValue(attendee.getOrder().getParticipantOrganization() != null ? attendee.getOrder().getParticipantOrganization() : "");
-                row.createCell(6).setCellValue(attendee.getOrder().getStatus() != null ? attendee.getOrder().getStatus().toString() : "");
-            } else {
-                // Attendee thêm thủ công (không có Order)
-                row.createCell(1).setCellValue(attendee.getFullName() != null ? attendee.getFullName() : "");
-                row.createCell(2).setCellValue(attendee.getEmail() != null ? attendee.getEmail() : "");
-                row.createCell(3).setCellValue(attendee.getPhone() != null ? attendee.getPhone() : "");
-                row.createCell(4).setCellValue("Thêm thủ công"); // Không có ticket type
-                row.createCell(5).setCellValue(attendee.getOrganization() != null ? attendee.getOrganization() : "");
-                row.createCell(6).setCellValue("Không có Order"); // Không có payment status
-            }
-            
-            row.createCell(7).setCellValue(attendee.getCheckInTime() != null ? attendee.getCheckInTime().toString() : "");
-            row.createCell(8).setCellValue(attendee.getCheckOutTime() != null ? attendee.getCheckOutTime().toString() : "");
-            row.createCell(9).setCellValue(attendee.getNotes() != null ? attendee.getNotes() : "");
-        }
+    ) {
+        return exportAttendees(eventId, ticketTypeFilter, paymentStatusFilter, checkinStatusFilter, ExportFormat.XLSX);
+    }
 
-        // Adjust column width
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportToCsv(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) Long ticketTypeFilter,
+            @RequestParam(required = false) String paymentStatusFilter,
+            @RequestParam(required = false) String checkinStatusFilter
+    ) {
+        return exportAttendees(eventId, ticketTypeFilter, paymentStatusFilter, checkinStatusFilter, ExportFormat.CSV);
+    }
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        workbook.write(bos);
-        workbook.close();
+    // Ghi thẳng ra response theo lô, không build toàn bộ workbook trong bộ nhớ
+    private ResponseEntity<StreamingResponseBody> exportAttendees(Long eventId, Long ticketTypeFilter,
+                                                                  String paymentStatusFilter, String checkinStatusFilter,
+                                                                  ExportFormat format) {
+        StreamingResponseBody body = out -> exportService.exportAttendees(
+                eventId, ticketTypeFilter, paymentStatusFilter, checkinStatusFilter, format, out);
 
         HttpHeaders responseHeaders = new HttpHeaders();
-        responseHeaders.add("Content-Disposition", "attachment; filename=attendees_" + eventId + ".xlsx");
-        responseHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        responseHeaders.add("Content-Disposition", "attachment; filename=attendees_" + eventId + "." + format.getExtension());
+        responseHeaders.setContentType(MediaType.parseMediaType(format.getContentType()));
 
-        return new ResponseEntity<>(bos.toByteArray(), responseHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(body, responseHeaders, HttpStatus.OK);
     }
 }
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -42,6 +43,22 @@ public class DashboardApiController {
         }
     }
     
+    @PostMapping("/event/{eventId}/stats/recompute")
+    public ResponseEntity<DashboardStatsResponse> recomputeEventDashboardStats(@PathVariable Long eventId, HttpSession session) {
+        log.info("API: Recomputing dashboard stats for event ID: {}", eventId);
+        if (!dashboardService.canManageEventDashboard(eventId,
+                session.getAttribute("USER_ID"), session.getAttribute("USER_ROLE"))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        try {
+            return ResponseEntity.ok(dashboardService.recomputeEventDashboardStats(eventId));
+        } catch (Exception e) {
+            log.error("API: Error recomputing dashboard stats for event {}: {}", eventId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/host/{hostId}/stats")
     public ResponseEntity<HostDashboardStatsResponse> getHostDashboardStats(@PathVariable Long hostId) {
         log.info("API: Getting dashboard stats for host ID: {}", hostId);
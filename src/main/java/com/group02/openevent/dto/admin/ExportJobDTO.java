@@ -0,0 +1,24 @@
+package com.group02.openevent.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDTO {
+    private String jobId;
+    private String name;
+    private String format;
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    private String fileName;
+    private Long sizeBytes;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,32 @@
+package com.group02.openevent.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailOutboxStatsDTO {
+    // Độ sâu hàng đợi theo trạng thái (đọc từ DB)
+    private long pending;
+    private long sending;
+    private long sent;
+    private long dead;
+    private LocalDateTime oldestPendingAt;
+
+    // Bộ đếm từ khi ứng dụng khởi động
+    private long sentTotal;
+    private long failedAttemptsTotal;
+    private long deadTotal;
+    private long throttledTotal;
+
+    // Số email gửi thành công trong 60 giây gần nhất
+    private long sentLastMinute;
+    private int activeWorkers;
+    private int workerQueueSize;
+}
@@ -0,0 +1,10 @@
+package com.group02.openevent.dto.report;
+
+import java.time.LocalDate;
+
+/**
+ * Projection tổng hợp theo từng ngày từ daily_revenue_rollup
+ */
+public interface DailyRevenueTotals extends RevenueTotals {
+    LocalDate getDay();
+}
@@ -0,0 +1,18 @@
+package com.group02.openevent.dto.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection thống kê order theo event (một dòng cho mỗi event), dùng cho các màn hình admin
+ */
+public interface EventOrderStats {
+    Long getEventId();
+
+    // Tổng quantity của order PAID
+    Long getTicketsSold();
+
+    // Tổng totalAmount của order PAID
+    BigDecimal getRevenue();
+
+    Long getRefundCount();
+}
@@ -0,0 +1,37 @@
+package com.group02.openevent.dto.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Số liệu dashboard của một event tại một thời điểm (bản sao bất biến của aggregate trong bộ nhớ)
+ *
+ * @param byTicketType  thống kê theo ticketTypeId
+ * @param refundedCount số order REFUNDED (kể cả order không có ticket type)
+ * @param daily         theo ngày tạo order, chỉ gồm order chưa hoàn tiền
+ */
+public record EventStatsSnapshot(
+        Map<Long, TicketTypeCounters> byTicketType,
+        long refundedCount,
+        SortedMap<LocalDate, DailyCounters> daily
+) {
+
+    /**
+     * @param sold     số order PAID
+     * @param revenue  tổng totalAmount của order PAID
+     * @param checkIns số attendee đã check-in
+     * @param refunds  số order REFUNDED
+     */
+    public record TicketTypeCounters(long sold, BigDecimal revenue, long checkIns, long refunds) {
+        public static final TicketTypeCounters EMPTY = new TicketTypeCounters(0, BigDecimal.ZERO, 0, 0);
+    }
+
+    /**
+     * @param revenue     tổng giá vé (ticket type price) của các order trong ngày
+     * @param ordersCount số order trong ngày
+     */
+    public record DailyCounters(BigDecimal revenue, long ordersCount) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.group02.openevent.dto.report;
+
+import com.group02.openevent.model.enums.EventType;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection doanh thu (net) theo loại event từ daily_revenue_rollup
+ */
+public interface EventTypeRevenue {
+    EventType getEventType();
+
+    BigDecimal getNetRevenue();
+}
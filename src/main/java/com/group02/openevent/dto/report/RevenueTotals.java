@@ -0,0 +1,27 @@
+package com.group02.openevent.dto.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection tổng hợp từ daily_revenue_rollup
+ */
+public interface RevenueTotals {
+    Long getOrderCount();
+
+    Long getPaidCount();
+
+    Long getRefundedCount();
+
+    BigDecimal getGrossRevenue();
+
+    BigDecimal getNetRevenue();
+
+    /**
+     * Số order đang ở trạng thái PAID (đã trừ order hoàn tiền)
+     */
+    default long getActivePaidCount() {
+        long paid = getPaidCount() != null ? getPaidCount() : 0L;
+        long refunded = getRefundedCount() != null ? getRefundedCount() : 0L;
+        return paid - refunded;
+    }
+}
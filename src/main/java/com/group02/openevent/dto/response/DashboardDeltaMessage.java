@@ -0,0 +1,49 @@
+package com.group02.openevent.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Message đẩy qua /topic/dashboard/event/{eventId}.
+ * Chỉ chứa các loại vé có thay đổi so với lần gửi trước (giá trị tuyệt đối, không phải hiệu),
+ * nên client bỏ lỡ message nào thì message sau vẫn đúng. full = true khi gửi toàn bộ loại vé.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardDeltaMessage {
+
+    private Long eventId;
+
+    // Tăng dần theo từng event, client bỏ qua message cũ hơn message đã áp dụng
+    private long seq;
+
+    private boolean full;
+
+    private BigDecimal totalRevenue;
+    private Long totalTicketsSold;
+    private Long totalCheckIn;
+    private Long totalRefunded;
+
+    private List<TicketTypeDelta> ticketTypes;
+
+    private LocalDateTime timestamp;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TicketTypeDelta {
+        private Long ticketTypeId;
+        private Long soldQuantity;
+        private BigDecimal revenue;
+        private Long checkInCount;
+        private Long refunds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.group02.openevent.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Số liệu dashboard của event vừa thay đổi (đã commit): order đổi trạng thái, check-in, tính lại
+ */
+@Getter
+public class EventStatsChangedEvent extends ApplicationEvent {
+    private final Long eventId;
+
+    public EventStatsChangedEvent(Object source, Long eventId) {
+        super(source);
+        this.eventId = eventId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.group02.openevent.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDate;
+
+/**
+ * Order vừa được tạo / cập nhật / xóa (mọi luồng lưu qua JPA), dùng để cập nhật số liệu tổng hợp theo ngày
+ */
+@Getter
+public class OrderChangedEvent extends ApplicationEvent {
+    private final Long orderId;
+    private final Long eventId;
+    private final LocalDate day;
+
+    public OrderChangedEvent(Object source, Long orderId, Long eventId, LocalDate day) {
+        super(source);
+        this.orderId = orderId;
+        this.eventId = eventId;
+        this.day = day;
+    }
+}
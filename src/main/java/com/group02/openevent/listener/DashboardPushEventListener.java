@@ -0,0 +1,22 @@
+package com.group02.openevent.listener;
+
+import com.group02.openevent.event.EventStatsChangedEvent;
+import com.group02.openevent.service.DashboardPushService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đánh dấu dashboard cần đẩy khi số liệu event thay đổi; việc gửi do DashboardPushService gộp theo chu kỳ
+ */
+@Component
+public class DashboardPushEventListener {
+
+    @Autowired
+    private DashboardPushService dashboardPushService;
+
+    @EventListener
+    public void handleEventStatsChanged(EventStatsChangedEvent event) {
+        dashboardPushService.markDirty(event.getEventId());
+    }
+}
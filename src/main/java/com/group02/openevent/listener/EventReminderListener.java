@@ -0,0 +1,34 @@
+package com.group02.openevent.listener;
+
+import com.group02.openevent.model.event.Event;
+import com.group02.openevent.service.ReminderDispatchService;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * JPA entity listener của Event: giờ bắt đầu đổi (bất kể lưu từ luồng nào) thì tính lại sendAt
+ * của các email nhắc chưa gửi, sau commit
+ */
+@Component
+public class EventReminderListener {
+
+    // Sử dụng static để inject dependency vào một listener
+    private static ReminderDispatchService reminderDispatchService;
+
+    // @Lazy: Hibernate tạo listener lúc dựng EntityManagerFactory, chưa thể tạo service phụ thuộc repository
+    @Autowired
+    public void init(@Lazy ReminderDispatchService reminderDispatchService) {
+        EventReminderListener.reminderDispatchService = reminderDispatchService;
+    }
+
+    @PostUpdate
+    public void afterEventUpdate(Event event) {
+        if (reminderDispatchService != null && !Objects.equals(event.getStartsAt(), event.getPersistedStartsAt())) {
+            reminderDispatchService.rescheduleEvent(event.getId());
+        }
+    }
+}
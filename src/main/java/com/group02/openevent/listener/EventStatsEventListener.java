@@ -0,0 +1,30 @@
+package com.group02.openevent.listener;
+
+import com.group02.openevent.event.OrderChangedEvent;
+import com.group02.openevent.service.EventStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cập nhật số liệu dashboard trong bộ nhớ sau khi thay đổi order đã commit
+ */
+@Component
+@Slf4j
+public class EventStatsEventListener {
+
+    @Autowired
+    private EventStatsService eventStatsService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Async
+    public void handleOrderChanged(OrderChangedEvent event) {
+        try {
+            eventStatsService.refreshOrder(event.getOrderId(), event.getEventId());
+        } catch (Exception e) {
+            log.error("Error refreshing dashboard stats for order {}: {}", event.getOrderId(), e.getMessage(), e);
+        }
+    }
+}
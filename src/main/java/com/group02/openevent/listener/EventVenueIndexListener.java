@@ -0,0 +1,43 @@
+package com.group02.openevent.listener;
+
+import com.group02.openevent.model.event.Event;
+import com.group02.openevent.service.VenueConflictService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener của Event: giữ venue index đồng bộ với mọi luồng lưu event
+ * (EventService, agent AI, admin...), không phải chờ lần rebuild định kỳ.
+ * Lưu ý: chỉ đổi collection places thì không có @PostUpdate, luồng đó phải tự gọi refreshEvent.
+ */
+@Component
+public class EventVenueIndexListener {
+
+    // Sử dụng static để inject dependency vào một listener
+    private static VenueConflictService venueConflictService;
+
+    // @Lazy: Hibernate tạo listener lúc dựng EntityManagerFactory, chưa thể tạo service phụ thuộc repository
+    @Autowired
+    public void init(@Lazy VenueConflictService venueConflictService) {
+        EventVenueIndexListener.venueConflictService = venueConflictService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterEventSave(Event event) {
+        if (venueConflictService != null) {
+            venueConflictService.refreshEvent(event.getId());
+        }
+    }
+
+    @PostRemove
+    public void afterEventDelete(Event event) {
+        if (venueConflictService != null) {
+            venueConflictService.removeEvent(event.getId());
+        }
+    }
+}
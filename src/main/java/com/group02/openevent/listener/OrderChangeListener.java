@@ -0,0 +1,39 @@
+package com.group02.openevent.listener;
+
+import com.group02.openevent.event.OrderChangedEvent;
+import com.group02.openevent.model.order.Order;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener của Order: mọi lần lưu order (tạo, thanh toán, hủy, hết hạn, hoàn tiền...)
+ * đều publish OrderChangedEvent, các listener @TransactionalEventListener xử lý sau commit
+ */
+@Component
+public class OrderChangeListener {
+
+    // Sử dụng static để inject dependency vào một listener
+    private static ApplicationEventPublisher eventPublisher;
+
+    // @Lazy: Hibernate tạo listener lúc dựng EntityManagerFactory
+    @Autowired
+    public void init(@Lazy ApplicationEventPublisher eventPublisher) {
+        OrderChangeListener.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterOrderChange(Order order) {
+        if (eventPublisher == null || order.getEvent() == null || order.getCreatedAt() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new OrderChangedEvent(this, order.getOrderId(),
+                order.getEvent().getId(), order.getCreatedAt().toLocalDate()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.group02.openevent.listener;
+
+import com.group02.openevent.event.OrderChangedEvent;
+import com.group02.openevent.service.RevenueRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cập nhật daily_revenue_rollup sau khi thay đổi order đã commit
+ */
+@Component
+@Slf4j
+public class RevenueRollupEventListener {
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    /**
+     * Mọi thay đổi order (kể cả hủy / hoàn tiền) cập nhật lại đúng bucket (event, ngày tạo order)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Async
+    public void handleOrderChanged(OrderChangedEvent event) {
+        try {
+            revenueRollupService.refreshBucket(event.getEventId(), event.getDay());
+        } catch (Exception e) {
+            log.error("Error refreshing revenue rollup for order {}: {}", event.getOrderId(), e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.group02.openevent.model.ai;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trạng thái đồng bộ vector của một Event lên Qdrant: hash của text đã embed và của payload đã ghi.
+ * Text không đổi thì không embed lại; chỉ payload đổi thì chỉ ghi đè payload.
+ */
+@Entity
+@Table(name = "event_vector_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventVectorState {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "text_hash", nullable = false, length = 64)
+    private String textHash;
+
+    @Column(name = "payload_hash", nullable = false, length = 64)
+    private String payloadHash;
+
+    @Column(name = "synced_at", nullable = false)
+    private LocalDateTime syncedAt;
+}
@@ -3,11 +3,14 @@ package com.group02.openevent.model.email;
 import com.group02.openevent.model.event.Event; // Cần import lớp Event
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.Hibernate;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "email_reminder")
+@Table(name = "email_reminder", indexes = {
+        @Index(name = "idx_email_reminder_due", columnList = "is_sent, send_at")
+})
 @Data
 public class EmailReminder {
 
@@ -31,6 +34,19 @@ public class EmailReminder {
     @Column(name = "is_sent", nullable = false)
     private boolean isSent = false;
 
+    // Thời điểm cần gửi = event.startsAt - remindMinutes, được index để chỉ đọc các reminder đến hạn
+    @Column(name = "send_at")
+    private LocalDateTime sendAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void computeSendAt() {
+        // Chỉ tính khi event đã được load; đổi giờ event thì EventReminderListener gọi rescheduleEvent để cập nhật lại
+        if (event != null && Hibernate.isInitialized(event) && event.getStartsAt() != null) {
+            sendAt = event.getStartsAt().minusMinutes(remindMinutes);
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -71,6 +87,14 @@ public class EmailReminder {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getSendAt() {
+        return sendAt;
+    }
+
+    public void setSendAt(LocalDateTime sendAt) {
+        this.sendAt = sendAt;
+    }
+
     public boolean isSent() {
         return isSent;
     }
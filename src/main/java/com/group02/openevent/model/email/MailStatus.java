@@ -0,0 +1,8 @@
+package com.group02.openevent.model.email;
+
+public enum MailStatus {
+    PENDING,   // chờ gửi (kể cả chờ gửi lại sau lỗi)
+    SENDING,   // worker đang gửi
+    SENT,
+    DEAD       // hết số lần thử, cần xử lý thủ công
+}
@@ -1,9 +1,14 @@
 package com.group02.openevent.model.event;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.group02.openevent.ai.listener.EventTitleIndexListener;
+import com.group02.openevent.ai.listener.EventVectorSyncListener;
+import com.group02.openevent.listener.EventReminderListener;
+import com.group02.openevent.listener.EventVenueIndexListener;
 import com.group02.openevent.model.department.Department;
 import com.group02.openevent.model.email.EmailReminder;
 import com.group02.openevent.model.enums.EventStatus;
@@ -12,6 +17,7 @@ import com.group02.openevent.model.organization.Organization;
 import com.group02.openevent.model.ticket.TicketType;
 import com.group02.openevent.model.user.Host;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -23,6 +29,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "event")
+@EntityListeners({EventVectorSyncListener.class, EventVenueIndexListener.class, EventTitleIndexListener.class,
+        EventReminderListener.class})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "event_type", discriminatorType = DiscriminatorType.STRING)
 @JsonTypeInfo(
@@ -159,6 +167,21 @@ public class Event {
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     @org.hibernate.annotations.BatchSize(size = 30)
     private List<EmailReminder> emailReminders;
+
+    // startsAt đang lưu trong DB (lần nạp/ghi gần nhất): EventReminderListener so sánh để biết giờ bắt đầu có đổi không
+    @Transient
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime persistedStartsAt;
+
+    // Callback của entity chạy sau các entity listener nên listener vẫn thấy giá trị cũ trong @PostUpdate
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedStartsAt() {
+        persistedStartsAt = startsAt;
+    }
+
     public Event() {
     }
 
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.model.user.Customer;
 import com.group02.openevent.model.ticket.TicketType;
+import com.group02.openevent.listener.OrderChangeListener;
 import com.group02.openevent.model.voucher.Voucher;
 import jakarta.persistence.*;
 
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "orders")
+@EntityListeners(OrderChangeListener.class)
 public class Order {
 
     @Id
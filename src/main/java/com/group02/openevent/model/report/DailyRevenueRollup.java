@@ -0,0 +1,67 @@
+package com.group02.openevent.model.report;
+
+import com.group02.openevent.model.enums.EventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Doanh thu tổng hợp theo (ngày tạo order, event); department và event type được lưu kèm để group.
+ * Được cập nhật theo từng bucket từ OrderCreatedEvent/PaymentCompletedEvent và có thể rebuild toàn bộ
+ * từ bảng orders (xem RevenueRollupService).
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "daily_revenue_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_day_event", columnNames = {"rollup_date", "event_id"}),
+        indexes = {
+                @Index(name = "idx_rollup_day", columnList = "rollup_date"),
+                @Index(name = "idx_rollup_department_day", columnList = "department_id, rollup_date")
+        })
+public class DailyRevenueRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "department_id")
+    private Long departmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 31)
+    private EventType eventType;
+
+    // Tổng số order tạo trong ngày (mọi trạng thái)
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    // Order đã thanh toán (PAID + REFUNDED)
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount = 0L;
+
+    @Column(name = "refunded_count", nullable = false)
+    private Long refundedCount = 0L;
+
+    // Tổng tiền order đã thanh toán, kể cả đã hoàn
+    @Column(name = "gross_revenue", precision = 15, scale = 2, nullable = false)
+    private BigDecimal grossRevenue = BigDecimal.ZERO;
+
+    // gross - refunded = tổng tiền order đang PAID
+    @Column(name = "net_revenue", precision = 15, scale = 2, nullable = false)
+    private BigDecimal netRevenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -2,11 +2,13 @@ package com.group02.openevent.model.ticket;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.group02.openevent.model.event.Event;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "ticket_type")
+@DynamicUpdate // soldQuantity do TicketInventoryService ghi batch, tránh ghi đè bằng giá trị cũ
 public class TicketType {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
  * Entity for chat messages
  */
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        @Index(name = "idx_chat_messages_session_time", columnList = "user_id, session_id, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
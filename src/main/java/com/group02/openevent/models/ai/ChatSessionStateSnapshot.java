@@ -0,0 +1,34 @@
+package com.group02.openevent.models.ai;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trạng thái hội thoại AI (serialize) của phiên bị đẩy khỏi bộ nhớ, nạp lại khi phiên hoạt động trở lại
+ */
+@Entity
+@Table(name = "chat_session_states")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSessionStateSnapshot {
+
+    // userId + ":" + sessionId
+    @Id
+    @Column(name = "state_key", length = 191)
+    private String stateKey;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Lob
+    @Column(name = "state_data", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] stateData;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,29 @@
+package com.group02.openevent.models.ai;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tổng số request AI đã được cho qua của một key (userId:type) trên toàn cluster
+ */
+@Entity
+@Table(name = "ai_rate_limit_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitCounter {
+
+    @Id
+    @Column(name = "limit_key", length = 191)
+    private String limitKey;
+
+    @Column(name = "total", nullable = false)
+    private Long total = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -4,7 +4,9 @@ import com.group02.openevent.model.user.Customer;
 import com.group02.openevent.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,4 +22,11 @@ public interface ICustomerRepo extends JpaRepository<Customer, Long> {
             "WHERE u.name IS NOT NULL AND u.name != '' AND u.name != 'Chưa có dữ liệu' " +
             "ORDER BY c.points DESC", nativeQuery = true)
     List<Object[]> findTopStudentsByPointsNative();
+
+    /**
+     * Email của các customer theo accountId (một query cho cả lô reminder)
+     * @return rows [accountId, email]
+     */
+    @Query("SELECT a.accountId, a.email FROM Customer c JOIN c.user u JOIN u.account a WHERE a.accountId IN :accountIds")
+    List<Object[]> findEmailsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
 }
\ No newline at end of file
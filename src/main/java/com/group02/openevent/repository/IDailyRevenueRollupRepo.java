@@ -0,0 +1,93 @@
+package com.group02.openevent.repository;
+
+import com.group02.openevent.dto.report.DailyRevenueTotals;
+import com.group02.openevent.dto.report.EventTypeRevenue;
+import com.group02.openevent.dto.report.RevenueTotals;
+import com.group02.openevent.model.report.DailyRevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IDailyRevenueRollupRepo extends JpaRepository<DailyRevenueRollup, Long> {
+
+    /**
+     * Tính lại một bucket (day, event) từ bảng orders (idempotent, an toàn khi event bị publish lặp)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_revenue_rollup (rollup_date, event_id, department_id, event_type, " +
+            "order_count, paid_count, refunded_count, gross_revenue, net_revenue, updated_at) " +
+            "SELECT :day, e.id, e.department_id, e.event_type, COUNT(o.order_id), " +
+            "COALESCE(SUM(CASE WHEN o.status IN ('PAID', 'REFUNDED') THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN o.status = 'REFUNDED' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN o.status IN ('PAID', 'REFUNDED') THEN o.total_amount ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN o.status = 'PAID' THEN o.total_amount ELSE 0 END), 0), " +
+            "NOW() " +
+            "FROM event e LEFT JOIN orders o ON o.event_id = e.id AND o.created_at >= :dayStart AND o.created_at < :dayEnd " +
+            "WHERE e.id = :eventId " +
+            "GROUP BY e.id, e.department_id, e.event_type " +
+            "ON DUPLICATE KEY UPDATE department_id = VALUES(department_id), event_type = VALUES(event_type), " +
+            "order_count = VALUES(order_count), paid_count = VALUES(paid_count), " +
+            "refunded_count = VALUES(refunded_count), gross_revenue = VALUES(gross_revenue), " +
+            "net_revenue = VALUES(net_revenue), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int refreshBucket(@Param("eventId") Long eventId,
+                      @Param("day") LocalDate day,
+                      @Param("dayStart") LocalDateTime dayStart,
+                      @Param("dayEnd") LocalDateTime dayEnd);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_revenue_rollup", nativeQuery = true)
+    int deleteAllRollups();
+
+    /**
+     * Rebuild toàn bộ rollup từ bảng orders bằng một câu INSERT ... SELECT ... GROUP BY
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_revenue_rollup (rollup_date, event_id, department_id, event_type, " +
+            "order_count, paid_count, refunded_count, gross_revenue, net_revenue, updated_at) " +
+            "SELECT DATE(o.created_at), e.id, e.department_id, e.event_type, COUNT(o.order_id), " +
+            "SUM(CASE WHEN o.status IN ('PAID', 'REFUNDED') THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'REFUNDED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status IN ('PAID', 'REFUNDED') THEN o.total_amount ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'PAID' THEN o.total_amount ELSE 0 END), " +
+            "NOW() " +
+            "FROM orders o JOIN event e ON e.id = o.event_id " +
+            "GROUP BY DATE(o.created_at), e.id, e.department_id, e.event_type",
+            nativeQuery = true)
+    int insertAllFromOrders();
+
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0) AS orderCount, COALESCE(SUM(r.paidCount), 0) AS paidCount, " +
+            "COALESCE(SUM(r.refundedCount), 0) AS refundedCount, COALESCE(SUM(r.grossRevenue), 0) AS grossRevenue, " +
+            "COALESCE(SUM(r.netRevenue), 0) AS netRevenue " +
+            "FROM DailyRevenueRollup r " +
+            "WHERE (:fromDay IS NULL OR r.day >= :fromDay) AND (:toDay IS NULL OR r.day <= :toDay) " +
+            "AND (:departmentId IS NULL OR r.departmentId = :departmentId)")
+    RevenueTotals sumTotals(@Param("fromDay") LocalDate fromDay,
+                            @Param("toDay") LocalDate toDay,
+                            @Param("departmentId") Long departmentId);
+
+    @Query("SELECT r.day AS day, SUM(r.orderCount) AS orderCount, SUM(r.paidCount) AS paidCount, " +
+            "SUM(r.refundedCount) AS refundedCount, SUM(r.grossRevenue) AS grossRevenue, " +
+            "SUM(r.netRevenue) AS netRevenue " +
+            "FROM DailyRevenueRollup r " +
+            "WHERE r.day >= :fromDay AND r.day <= :toDay " +
+            "AND (:departmentId IS NULL OR r.departmentId = :departmentId) " +
+            "GROUP BY r.day ORDER BY r.day")
+    List<DailyRevenueTotals> sumByDay(@Param("fromDay") LocalDate fromDay,
+                                      @Param("toDay") LocalDate toDay,
+                                      @Param("departmentId") Long departmentId);
+
+    @Query("SELECT r.eventType AS eventType, SUM(r.netRevenue) AS netRevenue " +
+            "FROM DailyRevenueRollup r " +
+            "WHERE (:fromDay IS NULL OR r.day >= :fromDay) AND (:toDay IS NULL OR r.day <= :toDay) " +
+            "GROUP BY r.eventType")
+    List<EventTypeRevenue> sumNetRevenueByEventType(@Param("fromDay") LocalDate fromDay,
+                                                    @Param("toDay") LocalDate toDay);
+}
@@ -1,10 +1,15 @@
 package com.group02.openevent.repository;
 
 import com.group02.openevent.model.email.EmailReminder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,5 +37,48 @@ public interface IEmailReminderRepo extends JpaRepository<EmailReminder, Long> {
      * @param userId User ID
      * @return Optional email reminder
      */
+    @EntityGraph(attributePaths = "event")
     Optional<EmailReminder> findByEventIdAndUserId(Long eventId, Long userId);
+
+    /**
+     * Reminder chưa gửi có sendAt trước mốc thời gian (dùng index is_sent, send_at)
+     * @return rows [id, sendAt]
+     */
+    @Query("SELECT r.id, r.sendAt FROM EmailReminder r WHERE r.isSent = false AND r.sendAt <= :until")
+    List<Object[]> findUnsentDueBefore(@Param("until") LocalDateTime until);
+
+    /**
+     * Nạp một lô reminder chưa gửi kèm event (một query cho cả lô)
+     */
+    @EntityGraph(attributePaths = "event")
+    List<EmailReminder> findByIdInAndIsSentFalse(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE EmailReminder r SET r.isSent = true WHERE r.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Tính sendAt cho các reminder chưa gửi được tạo trước khi có cột send_at
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE email_reminder r JOIN event e ON e.id = r.event_id
+        SET r.send_at = DATE_SUB(e.starts_at, INTERVAL r.remind_minutes MINUTE)
+        WHERE r.is_sent = false AND r.send_at IS NULL
+        """, nativeQuery = true)
+    int backfillSendAt();
+
+    /**
+     * Tính lại sendAt khi giờ bắt đầu của event thay đổi
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE email_reminder r JOIN event e ON e.id = r.event_id
+        SET r.send_at = DATE_SUB(e.starts_at, INTERVAL r.remind_minutes MINUTE)
+        WHERE r.is_sent = false AND r.event_id = :eventId
+        """, nativeQuery = true)
+    int rescheduleByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT r.id, r.sendAt FROM EmailReminder r WHERE r.isSent = false AND r.event.id = :eventId")
+    List<Object[]> findUnsentByEventId(@Param("eventId") Long eventId);
 }
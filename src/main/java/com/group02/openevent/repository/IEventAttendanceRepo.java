@@ -102,6 +102,14 @@ public interface IEventAttendanceRepo extends JpaRepository<EventAttendance, Lon
            "AND a.order IS NOT NULL")
     List<EventAttendance> findCheckedInByEventId(@Param("eventId") Long eventId);
     
+    // Dữ liệu cho EventStatsService: [attendanceId, ticketTypeId] của các attendee đã check-in
+    @Query("SELECT a.attendanceId, tt.ticketTypeId FROM EventAttendance a " +
+           "JOIN a.order o " +
+           "JOIN o.ticketType tt " +
+           "WHERE a.event.id = :eventId " +
+           "AND (a.checkInTime IS NOT NULL OR a.status = 'CHECKED_IN')")
+    List<Object[]> findCheckedInTicketTypeRowsByEventId(@Param("eventId") Long eventId);
+    
     /**
      * Count total attendances for an event
      */
@@ -158,6 +166,26 @@ public interface IEventAttendanceRepo extends JpaRepository<EventAttendance, Lon
             @Param("ticketTypeId") Long ticketTypeId,
             @Param("paymentStatus") String paymentStatus,
             @Param("checkinStatus") String checkinStatus);
+    // Cùng điều kiện với filterAttendees, đọc theo lô attendanceId > afterId (keyset) cho export
+    @Query("SELECT ea FROM EventAttendance ea " +
+            "LEFT JOIN FETCH ea.order o " +
+            "LEFT JOIN FETCH o.ticketType tt " +
+            "WHERE ea.event.id = :eventId " +
+            "AND ea.attendanceId > :afterId " +
+            "AND (:ticketTypeId IS NULL OR tt.ticketTypeId = :ticketTypeId) " +
+            "AND (:paymentStatus IS NULL OR CAST(o.status AS STRING) = :paymentStatus) " +
+            "AND (:checkinStatus IS NULL OR " +
+            "  (:checkinStatus = 'CHECKED_IN' AND ea.checkInTime IS NOT NULL AND (ea.checkOutTime IS NULL OR ea.status != 'CHECKED_OUT')) OR " +
+            "  (:checkinStatus = 'NOT_CHECKED_IN' AND ea.checkInTime IS NULL) OR " +
+            "  (:checkinStatus = 'CHECKED_OUT' AND (ea.checkOutTime IS NOT NULL OR ea.status = 'CHECKED_OUT'))) " +
+            "ORDER BY ea.attendanceId ASC")
+    List<EventAttendance> filterAttendeesAfter(
+            @Param("eventId") Long eventId,
+            @Param("ticketTypeId") Long ticketTypeId,
+            @Param("paymentStatus") String paymentStatus,
+            @Param("checkinStatus") String checkinStatus,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
     Optional<EventAttendance> findByEvent_IdAndAttendanceId(Long eventId, Long attendanceId);
 }
 
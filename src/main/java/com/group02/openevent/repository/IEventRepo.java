@@ -4,7 +4,6 @@ package com.group02.openevent.repository;
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.model.enums.EventType;
 import com.group02.openevent.model.enums.EventStatus;
-import com.group02.openevent.model.event.Place;
 import com.group02.openevent.model.event.Speaker;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,14 +24,21 @@ public interface IEventRepo extends JpaRepository<Event, Long> {
     @EntityGraph(attributePaths = {"host", "organization", "department"})
     @Query("SELECT e FROM Event e WHERE TYPE(e) = :eventType")
     List<Event> findByEventType(@Param("eventType") Class<? extends Event> eventType);
-    @EntityGraph(attributePaths = {"host", "organization", "department"})
+
+    // Lịch theo địa điểm cho VenueConflictService: [eventId, title, startsAt, endsAt, placeId, placeName]
+    @Query("""
+        SELECT e.id, e.title, e.startsAt, e.endsAt, p.id, p.placeName FROM Event e
+        JOIN e.places p
+        WHERE e.startsAt IS NOT NULL AND e.endsAt IS NOT NULL
+    """)
+    List<Object[]> findAllPlaceSlots();
+
     @Query("""
-        SELECT DISTINCT e FROM Event e
+        SELECT e.id, e.title, e.startsAt, e.endsAt, p.id, p.placeName FROM Event e
         JOIN e.places p
-        WHERE p IN :places
-          AND (e.startsAt < :end AND e.endsAt > :start)
+        WHERE e.id = :eventId AND e.startsAt IS NOT NULL AND e.endsAt IS NOT NULL
     """)
-    List<Event> findConflictedEvents(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("places") List<Place> places);
+    List<Object[]> findPlaceSlotsByEventId(@Param("eventId") Long eventId);
     @EntityGraph(attributePaths = {"host", "organization", "department"})
     List<Event> findByStatus(String status);
     boolean removeEventById(int id);
@@ -41,6 +48,11 @@ public interface IEventRepo extends JpaRepository<Event, Long> {
     @EntityGraph(attributePaths = {"host", "organization", "department"})
     @Query("SELECT e FROM Event e WHERE e.title = :title AND e.status = 'PUBLIC'")
     List<Event> findByTitleAndPublicStatus(@Param("title") String title);
+    /**
+     * id, title, startsAt của các event PUBLIC chưa bắt đầu (không nạp entity / cột LONGTEXT)
+     */
+    @Query("SELECT e.id, e.title, e.startsAt FROM Event e WHERE e.status = 'PUBLIC' AND e.startsAt > :now")
+    List<Object[]> findPublicUpcomingTitles(@Param("now") LocalDateTime now);
     @Query("SELECT e FROM Event e WHERE e.host.id = :userId AND e.startsAt > :now ORDER BY e.startsAt ASC LIMIT 1")
     Optional<Event> findNextUpcomingEventByUserId(
             @Param("userId") Long userId,
@@ -133,10 +145,19 @@ public interface IEventRepo extends JpaRepository<Event, Long> {
      * Filter events by host ID with search, status, and time filters
      */
 
+    /**
+     * userId của host sở hữu event (kiểm tra quyền subscribe dashboard realtime)
+     */
+    @Query("SELECT e.host.user.userId FROM Event e WHERE e.id = :eventId")
+    Optional<Long> findHostUserIdByEventId(@Param("eventId") Long eventId);
 
+    /**
+     * id tất cả event (đối chiếu với các point event trên Qdrant)
+     */
+    @Query("SELECT e.id FROM Event e")
+    List<Long> findAllIds();
 
-
-
-
-
-}
\ No newline at end of file
+    // [eventId, title] cho một lô event (map audit log)
+    @Query("SELECT e.id, e.title FROM Event e WHERE e.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
+}
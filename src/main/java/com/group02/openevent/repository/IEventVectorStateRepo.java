@@ -0,0 +1,9 @@
+package com.group02.openevent.repository;
+
+import com.group02.openevent.model.ai.EventVectorState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IEventVectorStateRepo extends JpaRepository<EventVectorState, Long> {
+}
@@ -0,0 +1,60 @@
+package com.group02.openevent.repository;
+
+import com.group02.openevent.model.email.MailOutbox;
+import com.group02.openevent.model.email.MailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IMailOutboxRepo extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * id các email PENDING đã đến lượt gửi, cũ nhất trước (dùng index status, next_attempt_at)
+     */
+    @Query("SELECT m.id FROM MailOutbox m WHERE m.status = :status AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") MailStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Chuyển các email còn PENDING sang SENDING; email đã bị worker khác nhận thì không đổi
+     */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.group02.openevent.model.email.MailStatus.SENDING, m.lockedAt = :lockedAt " +
+           "WHERE m.id IN :ids AND m.status = com.group02.openevent.model.email.MailStatus.PENDING")
+    int claim(@Param("ids") Collection<Long> ids, @Param("lockedAt") LocalDateTime lockedAt);
+
+    List<MailOutbox> findByIdInAndLockedAt(Collection<Long> ids, LocalDateTime lockedAt);
+
+    /**
+     * Trả lại hàng đợi các email bị kẹt ở SENDING (worker chết giữa chừng, restart...)
+     */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.group02.openevent.model.email.MailStatus.PENDING, m.lockedAt = null " +
+           "WHERE m.status = com.group02.openevent.model.email.MailStatus.SENDING AND m.lockedAt < :before")
+    int releaseStuck(@Param("before") LocalDateTime before);
+
+    /**
+     * @return rows [status, count]
+     */
+    @Query("SELECT m.status, COUNT(m) FROM MailOutbox m GROUP BY m.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT MIN(m.nextAttemptAt) FROM MailOutbox m WHERE m.status = com.group02.openevent.model.email.MailStatus.PENDING")
+    LocalDateTime findOldestPendingAt();
+
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.status = com.group02.openevent.model.email.MailStatus.SENT AND m.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.group02.openevent.model.email.MailStatus.PENDING, m.attempts = 0, " +
+           "m.nextAttemptAt = :now, m.lastError = null WHERE m.status = com.group02.openevent.model.email.MailStatus.DEAD")
+    int requeueDead(@Param("now") LocalDateTime now);
+}
@@ -1,21 +1,33 @@
 package com.group02.openevent.repository;
 
+import com.group02.openevent.dto.report.EventOrderStats;
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.model.order.Order;
 import com.group02.openevent.model.order.OrderStatus;
 import com.group02.openevent.model.user.Customer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Service;
 
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
-public interface IOrderRepo extends JpaRepository<Order, Long> {
+public interface IOrderRepo extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+
+    /**
+     * Dynamic filter + paging (OrderSpecifications), fetch sẵn các quan hệ dùng khi map sang AdminOrderDTO
+     */
+    @Override
+    @EntityGraph(attributePaths = {"customer.user.account", "event", "ticketType"})
+    Page<Order> findAll(Specification<Order> spec, Pageable pageable);
 
     List<Order> findByCustomer(Customer customer);
 
@@ -121,6 +133,36 @@ public interface IOrderRepo extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.status = com.group02.openevent.model.order.OrderStatus.PENDING " +
             "AND o.createdAt < :beforeTime")
     List<Order> findPendingOrdersCreatedBefore(@Param("beforeTime") java.time.LocalDateTime beforeTime);
-}
 
+    /**
+     * Đếm order theo trạng thái trong khoảng [from, to); null = không giới hạn
+     */
+    @Query("SELECT o.status, COUNT(o) FROM Order o " +
+            "WHERE (:fromTime IS NULL OR o.createdAt >= :fromTime) AND (:toTime IS NULL OR o.createdAt < :toTime) " +
+            "GROUP BY o.status")
+    List<Object[]> countByStatusBetween(@Param("fromTime") java.time.LocalDateTime fromTime,
+                                        @Param("toTime") java.time.LocalDateTime toTime);
 
+    /**
+     * Thống kê order (vé đã bán, doanh thu, số order hoàn tiền) cho nhiều event trong một query GROUP BY
+     */
+    @Query("SELECT o.event.id AS eventId, " +
+            "COALESCE(SUM(CASE WHEN o.status = com.group02.openevent.model.order.OrderStatus.PAID THEN o.quantity ELSE 0 END), 0) AS ticketsSold, " +
+            "COALESCE(SUM(CASE WHEN o.status = com.group02.openevent.model.order.OrderStatus.PAID THEN o.totalAmount ELSE 0 END), 0) AS revenue, " +
+            "COALESCE(SUM(CASE WHEN o.status = com.group02.openevent.model.order.OrderStatus.REFUNDED THEN 1 ELSE 0 END), 0) AS refundCount " +
+            "FROM Order o WHERE o.event.id IN :eventIds GROUP BY o.event.id")
+    List<EventOrderStats> aggregateByEventIds(@Param("eventIds") java.util.Collection<Long> eventIds);
+
+    // Dữ liệu cho EventStatsService: [orderId, ticketTypeId, status, totalAmount, createdAt, ticketPrice]
+    @Query("SELECT o.orderId, tt.ticketTypeId, o.status, o.totalAmount, o.createdAt, tt.price " +
+            "FROM Order o LEFT JOIN o.ticketType tt WHERE o.event.id = :eventId")
+    List<Object[]> findStatsRowsByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT o.orderId, tt.ticketTypeId, o.status, o.totalAmount, o.createdAt, tt.price " +
+            "FROM Order o LEFT JOIN o.ticketType tt WHERE o.orderId = :orderId")
+    List<Object[]> findStatsRowsByOrderId(@Param("orderId") Long orderId);
+
+    // [orderId, eventTitle] cho một lô order (map audit log)
+    @Query("SELECT o.orderId, e.title FROM Order o LEFT JOIN o.event e WHERE o.orderId IN :ids")
+    List<Object[]> findEventTitlesByOrderIdIn(@Param("ids") Collection<Long> ids);
+}
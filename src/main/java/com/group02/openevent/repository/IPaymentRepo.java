@@ -3,16 +3,32 @@ package com.group02.openevent.repository;
 import com.group02.openevent.model.payment.Payment;
 import com.group02.openevent.model.payment.PaymentStatus;
 import com.group02.openevent.model.order.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface IPaymentRepo extends JpaRepository<Payment, Long> {
+public interface IPaymentRepo extends JpaRepository<Payment, Long>, JpaSpecificationExecutor<Payment> {
+
+    /**
+     * Dynamic filter + paging (PaymentSpecifications), fetch sẵn thông tin khách hàng của order
+     */
+    @Override
+    @EntityGraph(attributePaths = {"order.customer.user.account"})
+    Page<Payment> findAll(Specification<Payment> spec, Pageable pageable);
+    
+    // Tìm payments của nhiều order trong một query (tránh N+1 khi map danh sách order)
+    List<Payment> findByOrder_OrderIdIn(Collection<Long> orderIds);
     
     // Tìm payment theo order
     Optional<Payment> findByOrder(Order order);
@@ -51,4 +67,13 @@ public interface IPaymentRepo extends JpaRepository<Payment, Long> {
     @Query("SELECT p FROM Payment p WHERE p.status = com.group02.openevent.model.payment.PaymentStatus.PENDING " +
             "AND p.createdAt < :beforeTime")
     List<Payment> findPendingPaymentsCreatedBefore(@Param("beforeTime") java.time.LocalDateTime beforeTime);
+    
+    /**
+     * Số lượng và tổng tiền payment theo trạng thái trong khoảng [from, to); null = không giới hạn
+     */
+    @Query("SELECT p.status, COUNT(p), COALESCE(SUM(p.amount), 0) FROM Payment p " +
+            "WHERE (:fromTime IS NULL OR p.createdAt >= :fromTime) AND (:toTime IS NULL OR p.createdAt < :toTime) " +
+            "GROUP BY p.status")
+    List<Object[]> sumByStatusBetween(@Param("fromTime") java.time.LocalDateTime fromTime,
+                                      @Param("toTime") java.time.LocalDateTime toTime);
 }
@@ -4,6 +4,7 @@ import com.group02.openevent.model.ticket.TicketType;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,6 +25,15 @@ public interface ITicketTypeRepo extends JpaRepository<TicketType, Long> {
     @Query("SELECT t FROM TicketType t WHERE t.ticketTypeId = :id")
     Optional<TicketType> findByIdForUpdate(@Param("id") Long id);
 
+    /**
+     * Cộng dồn soldQuantity (delta có thể âm) khi TicketInventoryService flush batch,
+     * không đọc entity nên không ghi đè thay đổi của transaction khác
+     */
+    @Modifying
+    @Query("UPDATE TicketType t SET t.soldQuantity = CASE WHEN t.soldQuantity + :delta < 0 THEN 0 " +
+            "ELSE t.soldQuantity + :delta END WHERE t.ticketTypeId = :id")
+    int addSoldQuantity(@Param("id") Long id, @Param("delta") int delta);
+
     List<TicketType> findByEventId(Long eventId);
 
     @Query("SELECT tt FROM TicketType tt WHERE tt.event.id = :eventId " +
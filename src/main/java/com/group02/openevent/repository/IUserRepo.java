@@ -2,10 +2,13 @@ package com.group02.openevent.repository;
 
 import com.group02.openevent.model.account.Account;
 import com.group02.openevent.model.user.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IUserRepo extends JpaRepository<User, Long> {
@@ -20,4 +23,8 @@ public interface IUserRepo extends JpaRepository<User, Long> {
     Optional<User> findByAccountIdWithRoles(@Param("accountId") Long accountId);
 
     boolean existsByPhoneNumber(String phoneNumber);
+
+    // Nạp một lô user kèm account và các role (getRole) trong một query, dùng khi map audit log
+    @EntityGraph(attributePaths = {"account", "hosts", "customer", "admin", "department"})
+    List<User> findByUserIdIn(Collection<Long> userIds);
 }
@@ -1,6 +1,7 @@
 package com.group02.openevent.repository.ai;
 
 import com.group02.openevent.models.ai.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -17,6 +18,11 @@ public interface ChatMessageRepo extends JpaRepository<ChatMessage, Long> {
      * Find messages by user ID and session ID ordered by timestamp ascending
      */
     List<ChatMessage> findByUserIdAndSessionIdOrderByTimestampAsc(Long userId, String sessionId);
+
+    /**
+     * Newest messages of a session first; page size = number of messages to load
+     */
+    List<ChatMessage> findByUserIdAndSessionIdOrderByTimestampDesc(Long userId, String sessionId, Pageable pageable);
     
     /**
      * Find messages by user ID ordered by timestamp ascending
@@ -0,0 +1,26 @@
+package com.group02.openevent.repository.ai;
+
+import com.group02.openevent.models.ai.ChatSessionStateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for spilled AI session state
+ */
+@Repository
+public interface ChatSessionStateSnapshotRepo extends JpaRepository<ChatSessionStateSnapshot, String> {
+
+    /**
+     * Delete snapshots not touched since the given time
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChatSessionStateSnapshot s WHERE s.updatedAt < :before")
+    int deleteByUpdatedAtBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,35 @@
+package com.group02.openevent.repository.ai;
+
+import com.group02.openevent.models.ai.RateLimitCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for cluster-wide AI rate limit counters
+ */
+@Repository
+public interface RateLimitCounterRepo extends JpaRepository<RateLimitCounter, String> {
+
+    /**
+     * Cộng delta vào bộ đếm (tạo mới nếu chưa có) trong một câu lệnh, an toàn khi nhiều node cùng ghi
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ai_rate_limit_counters (limit_key, total, updated_at) VALUES (:key, :delta, :now) " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int addToTotal(@Param("key") String key, @Param("delta") long delta, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete counters not touched since the given time
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RateLimitCounter c WHERE c.updatedAt < :before")
+    int deleteByUpdatedAtBefore(@Param("before") LocalDateTime before);
+}
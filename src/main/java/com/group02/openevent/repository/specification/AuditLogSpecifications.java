@@ -0,0 +1,46 @@
+package com.group02.openevent.repository.specification;
+
+import com.group02.openevent.model.auditLog.AuditLog;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dynamic filters cho AuditLog, dùng cho export audit log của admin.
+ */
+public final class AuditLogSpecifications {
+
+    private AuditLogSpecifications() {
+    }
+
+    public static Specification<AuditLog> adminFilter(String actionType, String entityType, Long userId, String search,
+                                                      LocalDate fromDate, LocalDate toDate) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (actionType != null && !actionType.isEmpty()) {
+                predicates.add(cb.equal(root.get("actionType"), actionType));
+            }
+            if (entityType != null && !entityType.isEmpty()) {
+                predicates.add(cb.equal(root.get("entityType"), entityType));
+            }
+            if (userId != null) {
+                predicates.add(cb.equal(root.get("actorId"), userId));
+            }
+            if (search != null && !search.isEmpty()) {
+                predicates.add(cb.like(cb.lower(root.get("description")), "%" + search.toLowerCase() + "%"));
+            }
+            if (fromDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), fromDate.atStartOfDay()));
+            }
+            if (toDate != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), toDate.plusDays(1).atStartOfDay()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
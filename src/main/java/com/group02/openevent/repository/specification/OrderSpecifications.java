@@ -0,0 +1,61 @@
+package com.group02.openevent.repository.specification;
+
+import com.group02.openevent.model.account.Account;
+import com.group02.openevent.model.event.Event;
+import com.group02.openevent.model.order.Order;
+import com.group02.openevent.model.order.OrderStatus;
+import com.group02.openevent.model.user.Customer;
+import com.group02.openevent.model.user.User;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dynamic filters cho Order, dùng chung cho trang admin (getOrders) và export.
+ * Tất cả điều kiện được dịch sang SQL thay vì lọc bằng stream trong Java.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> adminFilter(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (fromDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), fromDate.atStartOfDay()));
+            }
+            if (toDate != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), toDate.plusDays(1).atStartOfDay()));
+            }
+
+            if (search != null && !search.trim().isEmpty()) {
+                String pattern = "%" + search.trim().toLowerCase() + "%";
+                Join<Order, Event> event = root.join("event", JoinType.LEFT);
+                Join<Order, Customer> customer = root.join("customer", JoinType.LEFT);
+                Join<Customer, User> user = customer.join("user", JoinType.LEFT);
+                Join<User, Account> account = user.join("account", JoinType.LEFT);
+
+                predicates.add(cb.or(
+                        cb.like(root.get("orderId").as(String.class), "%" + search.trim() + "%"),
+                        cb.like(cb.lower(event.get("title")), pattern),
+                        cb.like(cb.lower(user.get("name")), pattern),
+                        cb.like(cb.lower(account.get("email")), pattern),
+                        cb.like(cb.lower(root.get("participantName")), pattern),
+                        cb.like(cb.lower(root.get("participantEmail")), pattern)
+                ));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
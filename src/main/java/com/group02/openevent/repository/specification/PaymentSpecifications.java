@@ -0,0 +1,60 @@
+package com.group02.openevent.repository.specification;
+
+import com.group02.openevent.model.account.Account;
+import com.group02.openevent.model.order.Order;
+import com.group02.openevent.model.payment.Payment;
+import com.group02.openevent.model.payment.PaymentStatus;
+import com.group02.openevent.model.user.Customer;
+import com.group02.openevent.model.user.User;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dynamic filters cho Payment, dùng chung cho trang admin (getPayments) và export.
+ */
+public final class PaymentSpecifications {
+
+    private PaymentSpecifications() {
+    }
+
+    public static Specification<Payment> adminFilter(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (fromDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), fromDate.atStartOfDay()));
+            }
+            if (toDate != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), toDate.plusDays(1).atStartOfDay()));
+            }
+
+            if (search != null && !search.trim().isEmpty()) {
+                String raw = "%" + search.trim() + "%";
+                String pattern = "%" + search.trim().toLowerCase() + "%";
+                Join<Payment, Order> order = root.join("order", JoinType.LEFT);
+                Join<Order, Customer> customer = order.join("customer", JoinType.LEFT);
+                Join<Customer, User> user = customer.join("user", JoinType.LEFT);
+                Join<User, Account> account = user.join("account", JoinType.LEFT);
+
+                predicates.add(cb.or(
+                        cb.like(root.get("paymentId").as(String.class), raw),
+                        cb.like(order.get("orderId").as(String.class), raw),
+                        cb.like(cb.lower(root.get("transactionId")), pattern),
+                        cb.like(cb.lower(user.get("name")), pattern),
+                        cb.like(cb.lower(account.get("email")), pattern)
+                ));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
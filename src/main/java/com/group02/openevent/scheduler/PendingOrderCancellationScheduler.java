@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Scheduler để tự động hủy các đơn hàng và payment có trạng thái PENDING sau một khoảng thời gian
+ * Scheduler để tự động hủy các đơn hàng và payment có trạng thái PENDING sau một khoảng thời gian.
+ * Vé của đơn bị hủy được trả về TicketInventoryService (qua TicketTypeService.releaseTickets) sau khi transaction commit.
  */
 @Component
 @RequiredArgsConstructor
@@ -7,6 +7,8 @@ import com.group02.openevent.model.order.OrderStatus;
 import com.group02.openevent.model.payment.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,11 +24,12 @@ public interface AdminService {
     
     Page<AdminPaymentDTO> getPayments(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate, Pageable pageable);
     
-    FinancialSummaryDTO getFinancialSummary(LocalDate fromDate, LocalDate toDate);
+    // Keyset pagination (createdAt DESC, id DESC) cho danh sách lớn
+    Window<AdminOrderDTO> scrollOrders(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate, ScrollPosition position, int limit);
     
-    List<AdminOrderDTO> getAllOrdersForExport(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate);
+    Window<AdminPaymentDTO> scrollPayments(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate, ScrollPosition position, int limit);
     
-    List<AdminPaymentDTO> getAllPaymentsForExport(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate);
+    FinancialSummaryDTO getFinancialSummary(LocalDate fromDate, LocalDate toDate);
     
     // Event Operations methods
     Page<PendingApprovalDTO> getPendingApprovals(Pageable pageable);
@@ -60,5 +63,6 @@ public interface AdminService {
     
     Page<EnhancedAuditLogDTO> getEnhancedAuditLogs(String actionType, String entityType, Long userId, String search, LocalDate fromDate, LocalDate toDate, Pageable pageable);
     
-    List<EnhancedAuditLogDTO> getAllAuditLogsForExport(String actionType, String entityType, Long userId, String search, LocalDate fromDate, LocalDate toDate);
+    // Keyset pagination (createdAt DESC, auditId DESC) cho export
+    Window<EnhancedAuditLogDTO> scrollAuditLogs(String actionType, String entityType, Long userId, String search, LocalDate fromDate, LocalDate toDate, ScrollPosition position, int limit);
 }
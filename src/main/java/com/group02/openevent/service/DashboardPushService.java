@@ -0,0 +1,20 @@
+package com.group02.openevent.service;
+
+/**
+ * Đẩy số liệu dashboard của event cho host đang xem qua WebSocket.
+ * Các thay đổi được gộp lại và gửi tối đa một message mỗi chu kỳ cho mỗi event.
+ */
+public interface DashboardPushService {
+
+    String TOPIC_PREFIX = "/topic/dashboard/event/";
+
+    /**
+     * Đánh dấu event có số liệu mới, sẽ được gửi ở chu kỳ kế tiếp (nếu có người đang xem)
+     */
+    void markDirty(Long eventId);
+
+    /**
+     * Gửi các event đã đánh dấu
+     */
+    void flush();
+}
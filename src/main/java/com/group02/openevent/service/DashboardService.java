@@ -7,6 +7,10 @@ import org.springframework.data.domain.Pageable;
 
 public interface DashboardService {
     DashboardStatsResponse getEventDashboardStats(Long eventId);
+    // Tính lại toàn bộ số liệu dashboard của event từ DB (bỏ qua aggregate trong bộ nhớ)
+    DashboardStatsResponse recomputeEventDashboardStats(Long eventId);
+    // Chỉ host của event hoặc ADMIN được xem / tính lại dashboard realtime của event
+    boolean canManageEventDashboard(Long eventId, Object userId, Object role);
     HostDashboardStatsResponse getHostDashboardStats(Long hostId);
     Page<com.group02.openevent.model.order.Order> getHostOrders(Long hostId, Pageable pageable);
     Page<com.group02.openevent.model.order.Order> getHostPaidOrders(Long hostId, Pageable pageable);
@@ -3,7 +3,8 @@ package com.group02.openevent.service;
 import com.group02.openevent.model.event.Event;
 
 /**
- * Service for sending emails
+ * Service for sending emails.
+ * Các phương thức chỉ kiểm tra dữ liệu rồi ghi email vào mail outbox; việc gửi SMTP chạy nền (MailOutboxService)
  */
 public interface EmailService {
     
@@ -0,0 +1,32 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.dto.report.EventStatsSnapshot;
+import com.group02.openevent.model.attendance.EventAttendance;
+
+/**
+ * Số liệu dashboard theo event (vé bán, doanh thu, check-in, hoàn tiền theo ticket type và theo ngày),
+ * giữ trong bộ nhớ và cập nhật tăng dần khi order/check-in thay đổi thay vì tính lại mỗi lần xem.
+ */
+public interface EventStatsService {
+
+    /**
+     * Số liệu hiện tại; event chưa có trong bộ nhớ sẽ được nạp từ DB
+     */
+    EventStatsSnapshot getStats(Long eventId);
+
+    /**
+     * Đọc lại trạng thái đã commit của một order (tạo, thanh toán, hủy, hết hạn, hoàn tiền, xóa)
+     * và áp vào aggregate nếu event đang được giữ. Gọi nhiều lần với cùng order là an toàn.
+     */
+    void refreshOrder(Long orderId, Long eventId);
+
+    /**
+     * Ghi nhận attendee vừa check-in; nếu đang trong transaction thì áp dụng sau commit
+     */
+    void recordCheckIn(EventAttendance attendance);
+
+    /**
+     * Tính lại toàn bộ số liệu của event từ DB
+     */
+    EventStatsSnapshot recompute(Long eventId);
+}
@@ -0,0 +1,40 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.dto.admin.ExportJobDTO;
+import com.group02.openevent.util.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Export chạy nền cho dữ liệu rất lớn: ghi ra file tạm, client poll trạng thái rồi tải file.
+ * Job có thể hủy; file kết quả bị xóa sau một khoảng thời gian.
+ */
+public interface ExportJobService {
+
+    @FunctionalInterface
+    interface ExportTask {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Đưa job vào hàng đợi
+     * @throws IllegalStateException nếu hàng đợi export đã đầy
+     */
+    ExportJobDTO submit(String name, ExportFormat format, ExportTask task);
+
+    Optional<ExportJobDTO> getJob(String jobId);
+
+    /**
+     * Hủy job đang chờ/đang chạy
+     * @return false nếu không tìm thấy job hoặc job đã kết thúc
+     */
+    boolean cancel(String jobId);
+
+    /**
+     * File kết quả của job đã COMPLETED
+     */
+    Optional<Path> getResultFile(String jobId);
+}
@@ -0,0 +1,29 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.model.order.OrderStatus;
+import com.group02.openevent.model.payment.PaymentStatus;
+import com.group02.openevent.util.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Export dữ liệu lớn ra CSV/XLSX: đọc DB theo lô (keyset) và ghi thẳng ra OutputStream,
+ * bộ nhớ dùng tỉ lệ với kích thước lô chứ không phải tổng số dòng.
+ * Nếu thread bị interrupt (hủy export job) thì dừng giữa các lô và ném CancellationException.
+ */
+public interface ExportService {
+
+    void exportOrders(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate,
+                      ExportFormat format, OutputStream out) throws IOException;
+
+    void exportPayments(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate,
+                        ExportFormat format, OutputStream out) throws IOException;
+
+    void exportAuditLogs(String actionType, String entityType, Long userId, String search,
+                         LocalDate fromDate, LocalDate toDate, ExportFormat format, OutputStream out) throws IOException;
+
+    void exportAttendees(Long eventId, Long ticketTypeFilter, String paymentStatusFilter, String checkinStatusFilter,
+                         ExportFormat format, OutputStream out) throws IOException;
+}
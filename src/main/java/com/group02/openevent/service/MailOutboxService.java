@@ -0,0 +1,28 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.dto.admin.MailOutboxStatsDTO;
+
+/**
+ * Hàng đợi email bền vững: email được ghi vào bảng mail_outbox rồi được worker pool gửi theo lô,
+ * có giới hạn tốc độ theo domain người nhận, thử lại với backoff và trạng thái DEAD khi hết số lần thử.
+ */
+public interface MailOutboxService {
+
+    /**
+     * Ghi email vào outbox (cùng transaction với caller nếu có)
+     */
+    void enqueue(String to, String subject, String body, boolean html);
+
+    /**
+     * Nhận các email đến lượt và giao cho worker pool
+     */
+    void dispatchDue();
+
+    MailOutboxStatsDTO getStats();
+
+    /**
+     * Đưa các email DEAD về lại hàng đợi
+     * @return số email được đưa lại
+     */
+    int requeueDead();
+}
@@ -0,0 +1,27 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.model.email.EmailReminder;
+
+/**
+ * Gửi email nhắc sự kiện đúng thời điểm sendAt.
+ * Chỉ các reminder đến hạn trong một khoảng ngắn (horizon) được giữ trong hàng đợi theo thời gian;
+ * reminder xa hơn nằm trong DB và được nạp dần qua index (is_sent, send_at).
+ */
+public interface ReminderDispatchService {
+
+    /**
+     * Đưa reminder vừa tạo/cập nhật vào hàng đợi (sau khi transaction commit)
+     */
+    void schedule(EmailReminder reminder);
+
+    /**
+     * Tính lại sendAt cho các reminder chưa gửi của event (khi giờ bắt đầu thay đổi)
+     */
+    void rescheduleEvent(Long eventId);
+
+    /**
+     * Nạp các reminder chưa gửi có sendAt trong horizon vào hàng đợi
+     * @return số reminder mới được đưa vào hàng đợi
+     */
+    int enqueueUpcoming();
+}
@@ -0,0 +1,37 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.dto.report.DailyRevenueTotals;
+import com.group02.openevent.dto.report.EventTypeRevenue;
+import com.group02.openevent.dto.report.RevenueTotals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Doanh thu tổng hợp theo ngày (daily_revenue_rollup) cho dashboard admin/department.
+ * Các truy vấn chạy trên rollup nên chi phí tỉ lệ với số ngày thay vì số order.
+ */
+public interface RevenueRollupService {
+
+    /**
+     * Tính lại bucket (day, event) sau khi order của event đó thay đổi
+     */
+    void refreshBucket(Long eventId, LocalDate day);
+
+    /**
+     * Xóa và dựng lại toàn bộ rollup từ bảng orders
+     */
+    void rebuildAll();
+
+    /**
+     * Tổng trong khoảng [from, to]; from/to/departmentId null = không giới hạn
+     */
+    RevenueTotals getTotals(LocalDate from, LocalDate to, Long departmentId);
+
+    /**
+     * Tổng theo từng ngày trong khoảng [from, to], chỉ gồm các ngày có dữ liệu
+     */
+    List<DailyRevenueTotals> getDailyTotals(LocalDate from, LocalDate to, Long departmentId);
+
+    List<EventTypeRevenue> getNetRevenueByEventType(LocalDate from, LocalDate to);
+}
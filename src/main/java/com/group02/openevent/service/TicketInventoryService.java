@@ -0,0 +1,40 @@
+package com.group02.openevent.service;
+
+/**
+ * In-process ticket inventory engine.
+ * Giữ số vé còn lại của từng TicketType trong bộ nhớ (sharded atomic counters)
+ * để giữ/trả vé không cần khóa dòng trong DB; soldQuantity được ghi lại DB theo batch.
+ */
+public interface TicketInventoryService {
+
+    /**
+     * Thử giữ {@code quantity} vé, không khóa DB.
+     * @return true nếu giữ được, false nếu không đủ vé
+     */
+    boolean tryReserve(Long ticketTypeId, int quantity);
+
+    /**
+     * Trả lại {@code quantity} vé vào kho (hủy đơn, hết hạn thanh toán, rollback...)
+     */
+    void release(Long ticketTypeId, int quantity);
+
+    /**
+     * Số vé còn lại theo engine (đã tính các thay đổi chưa ghi xuống DB)
+     */
+    int getAvailable(Long ticketTypeId);
+
+    /**
+     * Cập nhật tổng số vé khi host sửa totalQuantity
+     */
+    void resize(Long ticketTypeId, int newTotalQuantity);
+
+    /**
+     * Bỏ TicketType khỏi engine (khi loại vé bị xóa)
+     */
+    void evict(Long ticketTypeId);
+
+    /**
+     * Ghi các thay đổi soldQuantity đang chờ xuống DB trong một transaction
+     */
+    void flushPendingSold();
+}
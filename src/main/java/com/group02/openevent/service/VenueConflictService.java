@@ -0,0 +1,41 @@
+package com.group02.openevent.service;
+
+import com.group02.openevent.dto.admin.VenueConflictDTO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Phát hiện trùng lịch địa điểm.
+ * Giữ lịch của từng Place trong bộ nhớ (sắp theo startsAt) để kiểm tra trùng lịch khi tạo event
+ * và lập báo cáo xung đột bằng sweep-line thay vì so từng cặp event.
+ * Hai khoảng [start, end) bị coi là trùng khi start1 < end2 và start2 < end1.
+ */
+public interface VenueConflictService {
+
+    /**
+     * Id các event đang dùng một trong các place và trùng khoảng [start, end)
+     */
+    List<Long> findConflictingEventIds(LocalDateTime start, LocalDateTime end, Collection<Long> placeIds);
+
+    /**
+     * Toàn bộ cặp event trùng lịch tại cùng địa điểm, sắp theo số phút trùng giảm dần
+     */
+    List<VenueConflictDTO> detectAllConflicts();
+
+    /**
+     * Nạp lại lịch của một event (sau khi đổi thời gian/địa điểm); nếu đang trong transaction thì chờ commit
+     */
+    void refreshEvent(Long eventId);
+
+    /**
+     * Bỏ event khỏi index (khi event bị xóa)
+     */
+    void removeEvent(Long eventId);
+
+    /**
+     * Dựng lại toàn bộ index từ DB
+     */
+    void rebuild();
+}
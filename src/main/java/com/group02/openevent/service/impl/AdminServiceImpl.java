@@ -2,6 +2,10 @@ package com.group02.openevent.service.impl;
 
 
 import com.group02.openevent.dto.admin.*;
+import com.group02.openevent.dto.report.DailyRevenueTotals;
+import com.group02.openevent.dto.report.EventOrderStats;
+import com.group02.openevent.dto.report.EventTypeRevenue;
+import com.group02.openevent.dto.report.RevenueTotals;
 import com.group02.openevent.model.auditLog.AuditLog;
 import com.group02.openevent.model.department.Department;
 import com.group02.openevent.model.enums.EventStatus;
@@ -18,16 +22,25 @@ import com.group02.openevent.model.request.RequestStatus;
 import com.group02.openevent.model.request.RequestType;
 import com.group02.openevent.model.user.Customer;
 import com.group02.openevent.repository.*;
+import com.group02.openevent.repository.specification.AuditLogSpecifications;
+import com.group02.openevent.repository.specification.OrderSpecifications;
+import com.group02.openevent.repository.specification.PaymentSpecifications;
 import com.group02.openevent.service.AdminService;
 import com.group02.openevent.service.AuditLogService;
 import com.group02.openevent.service.EventService;
 import com.group02.openevent.service.RequestService;
+import com.group02.openevent.service.RevenueRollupService;
+import com.group02.openevent.service.VenueConflictService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +57,14 @@ import java.util.stream.Collectors;
 @Service
 public class AdminServiceImpl implements AdminService {
 
+    private static final int EVENT_STATS_BATCH_SIZE = 1000;
+
+    // Keyset (scroll/export) chỉ sort theo khóa chính: created_at có thể NULL ở dữ liệu cũ và điều kiện
+    // keyset "created_at < ?" sẽ bỏ sót các dòng đó; id tự tăng nên thứ tự vẫn là mới nhất trước
+    private static final Sort KEYSET_SORT_ORDERS = Sort.by(Sort.Direction.DESC, "orderId");
+    private static final Sort KEYSET_SORT_PAYMENTS = Sort.by(Sort.Direction.DESC, "paymentId");
+    private static final Sort KEYSET_SORT_AUDIT_LOGS = Sort.by(Sort.Direction.DESC, "auditId");
+
     @Autowired
     private IOrderRepo orderRepo;
 
@@ -94,6 +115,12 @@ public class AdminServiceImpl implements AdminService {
     
     @Autowired
     private IFormResponseRepo formResponseRepo;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private VenueConflictService venueConflictService;
 
     @Override
     public AdminStatsDTO getAdminDashboardStats() {
@@ -136,35 +163,17 @@ public class AdminServiceImpl implements AdminService {
     }
 
     private Long calculateTotalRevenue() {
-        return orderRepo.findAll().stream()
-                .filter(order ->
-                        order.getStatus() == OrderStatus.PAID)
-                .mapToLong(order -> order.getTotalAmount() != null ? order.getTotalAmount().longValue() : 0)
-                .sum();
+        return toLong(revenueRollupService.getTotals(null, null, null).getNetRevenue());
     }
 
     private Double calculateRevenueChangePercent() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime currentMonthStart = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime previousMonthStart = currentMonthStart.minusMonths(1);
-        LocalDateTime previousMonthEnd = currentMonthStart.minusSeconds(1);
+        LocalDate today = LocalDate.now();
+        LocalDate currentMonthStart = today.withDayOfMonth(1);
+        LocalDate previousMonthStart = currentMonthStart.minusMonths(1);
+        LocalDate previousMonthEnd = currentMonthStart.minusDays(1);
 
-        Long currentMonthRevenue = orderRepo.findAll().stream()
-                .filter(order ->
-                        order.getStatus() == OrderStatus.PAID &&
-                                order.getCreatedAt() != null &&
-                                order.getCreatedAt().isAfter(currentMonthStart))
-                .mapToLong(order -> order.getTotalAmount() != null ? order.getTotalAmount().longValue() : 0)
-                .sum();
-
-        Long previousMonthRevenue = orderRepo.findAll().stream()
-                .filter(order ->
-                        order.getStatus() == OrderStatus.PAID &&
-                                order.getCreatedAt() != null &&
-                                order.getCreatedAt().isAfter(previousMonthStart) &&
-                                order.getCreatedAt().isBefore(previousMonthEnd))
-                .mapToLong(order -> order.getTotalAmount() != null ? order.getTotalAmount().longValue() : 0)
-                .sum();
+        Long currentMonthRevenue = toLong(revenueRollupService.getTotals(currentMonthStart, today, null).getNetRevenue());
+        Long previousMonthRevenue = toLong(revenueRollupService.getTotals(previousMonthStart, previousMonthEnd, null).getNetRevenue());
 
         if (previousMonthRevenue == 0) return 0.0;
         return ((double) (currentMonthRevenue - previousMonthRevenue) / previousMonthRevenue) * 100;
@@ -172,64 +181,77 @@ public class AdminServiceImpl implements AdminService {
 
     private List<Map<String, Object>> getRevenueByPeriod(String period, LocalDate startDate, LocalDate endDate) {
         List<Map<String, Object>> result = new ArrayList<>();
+        LocalDate today = LocalDate.now();
 
         if ("day".equalsIgnoreCase(period)) {
             // Last 30 days
-            LocalDate now = LocalDate.now();
+            Map<LocalDate, Long> revenueByDay = new HashMap<>();
+            for (DailyRevenueTotals totals : revenueRollupService.getDailyTotals(today.minusDays(29), today, null)) {
+                revenueByDay.put(totals.getDay(), toLong(totals.getNetRevenue()));
+            }
             for (int i = 29; i >= 0; i--) {
-                LocalDate day = now.minusDays(i);
-                LocalDateTime dayStart = day.atStartOfDay();
-                LocalDateTime dayEnd = day.atTime(23, 59, 59);
-
-                Long revenue = calculateRevenueForPeriod(dayStart, dayEnd);
+                LocalDate day = today.minusDays(i);
 
                 Map<String, Object> data = new HashMap<>();
                 data.put("date", day.toString());
-                data.put("revenue", revenue);
+                data.put("revenue", revenueByDay.getOrDefault(day, 0L));
                 result.add(data);
             }
-        } else if ("year".equalsIgnoreCase(period)) {
-            // Last 12 months
-            for (int i = 11; i >= 0; i--) {
+        } else {
+            // "year": last 12 months, default: last 6 months
+            int months = "year".equalsIgnoreCase(period) ? 12 : 6;
+            YearMonth firstMonth = YearMonth.now().minusMonths(months - 1);
+            Map<YearMonth, Long> revenueByMonth = sumNetRevenueByMonth(firstMonth.atDay(1), today, null);
+            for (int i = months - 1; i >= 0; i--) {
                 YearMonth month = YearMonth.now().minusMonths(i);
-                LocalDateTime monthStart = month.atDay(1).atStartOfDay();
-                LocalDateTime monthEnd = month.atEndOfMonth().atTime(23, 59, 59);
-
-                Long revenue = calculateRevenueForPeriod(monthStart, monthEnd);
 
                 Map<String, Object> data = new HashMap<>();
                 data.put("month", month.toString());
-                data.put("revenue", revenue);
+                data.put("revenue", revenueByMonth.getOrDefault(month, 0L));
                 result.add(data);
             }
-        } else {
-            // Default: Last 6 months
-            for (int i = 5; i >= 0; i--) {
-                YearMonth month = YearMonth.now().minusMonths(i);
-                LocalDateTime monthStart = month.atDay(1).atStartOfDay();
-                LocalDateTime monthEnd = month.atEndOfMonth().atTime(23, 59, 59);
+        }
 
-                Long revenue = calculateRevenueForPeriod(monthStart, monthEnd);
+        return result;
+    }
 
-                Map<String, Object> data = new HashMap<>();
-                data.put("month", month.toString());
-                data.put("revenue", revenue);
-                result.add(data);
-            }
+    private Map<YearMonth, Long> sumNetRevenueByMonth(LocalDate from, LocalDate to, Long departmentId) {
+        Map<YearMonth, Long> revenueByMonth = new HashMap<>();
+        for (DailyRevenueTotals totals : revenueRollupService.getDailyTotals(from, to, departmentId)) {
+            revenueByMonth.merge(YearMonth.from(totals.getDay()), toLong(totals.getNetRevenue()), Long::sum);
         }
+        return revenueByMonth;
+    }
 
+    private static Long toLong(BigDecimal amount) {
+        return amount != null ? amount.longValue() : 0L;
+    }
+
+    /**
+     * Thống kê order của nhiều event bằng query GROUP BY (chia lô để IN-list không quá dài)
+     */
+    private Map<Long, EventOrderStats> aggregateOrdersByEvent(Collection<Event> events) {
+        List<Long> eventIds = events.stream()
+                .map(Event::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, EventOrderStats> result = new HashMap<>();
+        for (int i = 0; i < eventIds.size(); i += EVENT_STATS_BATCH_SIZE) {
+            List<Long> batch = eventIds.subList(i, Math.min(i + EVENT_STATS_BATCH_SIZE, eventIds.size()));
+            for (EventOrderStats stats : orderRepo.aggregateByEventIds(batch)) {
+                result.put(stats.getEventId(), stats);
+            }
+        }
         return result;
     }
 
-    private Long calculateRevenueForPeriod(LocalDateTime start, LocalDateTime end) {
-        return orderRepo.findAll().stream()
-                .filter(order ->
-                        order.getStatus() == OrderStatus.PAID &&
-                                order.getCreatedAt() != null &&
-                                order.getCreatedAt().isAfter(start) &&
-                                order.getCreatedAt().isBefore(end))
-                .mapToLong(order -> order.getTotalAmount() != null ? order.getTotalAmount().longValue() : 0)
-                .sum();
+    private long ticketsSoldOf(EventOrderStats stats) {
+        return stats != null && stats.getTicketsSold() != null ? stats.getTicketsSold() : 0L;
+    }
+
+    private long revenueOf(EventOrderStats stats) {
+        return stats != null ? toLong(stats.getRevenue()) : 0L;
     }
 
     private List<Map<String, Object>> getEventsByType() {
@@ -368,206 +390,63 @@ public class AdminServiceImpl implements AdminService {
     
     // Financial Reports Implementation
     @Override
+    @Transactional(readOnly = true)
     public Page<AdminOrderDTO> getOrders(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate, Pageable pageable) {
-        List<Order> allOrders = orderRepo.findAll();
-        
-        // Apply filters
-        List<Order> filteredOrders = allOrders.stream()
-            .filter(order -> {
-                // Status filter
-                if (status != null && order.getStatus() != status) {
-                    return false;
-                }
-                
-                // Date range filter
-                if (fromDate != null && order.getCreatedAt() != null) {
-                    if (order.getCreatedAt().toLocalDate().isBefore(fromDate)) {
-                        return false;
-                    }
-                }
-                if (toDate != null && order.getCreatedAt() != null) {
-                    if (order.getCreatedAt().toLocalDate().isAfter(toDate)) {
-                        return false;
-                    }
-                }
-                
-                // Search filter
-                if (search != null && !search.trim().isEmpty()) {
-                    String searchLower = search.toLowerCase();
-                    boolean matches = false;
-                    if (order.getOrderId() != null && order.getOrderId().toString().contains(search)) {
-                        matches = true;
-                    }
-                    if (order.getEvent() != null && order.getEvent().getTitle() != null && 
-                        order.getEvent().getTitle().toLowerCase().contains(searchLower)) {
-                        matches = true;
-                    }
-                    if (order.getCustomer() != null && order.getCustomer().getUser() != null) {
-                        if (order.getCustomer().getUser().getName() != null && 
-                            order.getCustomer().getUser().getName().toLowerCase().contains(searchLower)) {
-                            matches = true;
-                        }
-                        if (order.getCustomer().getUser().getAccount() != null && 
-                            order.getCustomer().getUser().getAccount().getEmail() != null && 
-                            order.getCustomer().getUser().getAccount().getEmail().toLowerCase().contains(searchLower)) {
-                            matches = true;
-                        }
-                    }
-                    if (order.getParticipantName() != null && 
-                        order.getParticipantName().toLowerCase().contains(searchLower)) {
-                        matches = true;
-                    }
-                    if (order.getParticipantEmail() != null && 
-                        order.getParticipantEmail().toLowerCase().contains(searchLower)) {
-                        matches = true;
-                    }
-                    if (!matches) return false;
-                }
-                
-                return true;
-            })
-            .sorted((o1, o2) -> {
-                if (o1.getCreatedAt() != null && o2.getCreatedAt() != null) {
-                    return o2.getCreatedAt().compareTo(o1.getCreatedAt());
-                }
-                return 0;
-            })
-            .collect(Collectors.toList());
-        
-        // Pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filteredOrders.size());
-        List<Order> pagedOrders = filteredOrders.subList(start, end);
-        
-        // Convert to DTOs
-        List<AdminOrderDTO> orderDTOs = pagedOrders.stream()
-            .map(this::convertToAdminOrderDTO)
-            .collect(Collectors.toList());
-        
-        return new PageImpl<>(orderDTOs, pageable, filteredOrders.size());
+        Specification<Order> spec = OrderSpecifications.adminFilter(status, search, fromDate, toDate);
+        Page<Order> orders = orderRepo.findAll(spec, withTieBreaker(pageable, "orderId"));
+        return new PageImpl<>(convertToAdminOrderDTOs(orders.getContent()), pageable, orders.getTotalElements());
     }
     
     @Override
+    @Transactional(readOnly = true)
+    public Window<AdminOrderDTO> scrollOrders(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate,
+                                              ScrollPosition position, int limit) {
+        Specification<Order> spec = OrderSpecifications.adminFilter(status, search, fromDate, toDate);
+        // project(): fetch graph cho các quan hệ dùng khi map DTO (EntityGraph của findAll không áp dụng cho findBy)
+        Window<Order> window = orderRepo.findBy(spec, q -> q
+            .project("customer.user.account", "event", "ticketType")
+            .sortBy(KEYSET_SORT_ORDERS)
+            .limit(limit)
+            .scroll(position));
+        return Window.from(convertToAdminOrderDTOs(window.getContent()), window::positionAt, window.hasNext());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
     public Page<AdminPaymentDTO> getPayments(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate, Pageable pageable) {
-        List<Payment> allPayments = paymentRepo.findAll();
-        
-        // Apply filters
-        List<Payment> filteredPayments = allPayments.stream()
-            .filter(payment -> {
-                // Status filter
-                if (status != null && payment.getStatus() != status) {
-                    return false;
-                }
-                
-                // Date range filter
-                if (fromDate != null && payment.getCreatedAt() != null) {
-                    if (payment.getCreatedAt().toLocalDate().isBefore(fromDate)) {
-                        return false;
-                    }
-                }
-                if (toDate != null && payment.getCreatedAt() != null) {
-                    if (payment.getCreatedAt().toLocalDate().isAfter(toDate)) {
-                        return false;
-                    }
-                }
-                
-                // Search filter
-                if (search != null && !search.trim().isEmpty()) {
-                    String searchLower = search.toLowerCase();
-                    boolean matches = false;
-                    if (payment.getPaymentId() != null && payment.getPaymentId().toString().contains(search)) {
-                        matches = true;
-                    }
-                    if (payment.getOrder() != null && payment.getOrder().getOrderId() != null && 
-                        payment.getOrder().getOrderId().toString().contains(search)) {
-                        matches = true;
-                    }
-                    if (payment.getTransactionId() != null && 
-                        payment.getTransactionId().toLowerCase().contains(searchLower)) {
-                        matches = true;
-                    }
-                    if (payment.getOrder() != null && payment.getOrder().getCustomer() != null && 
-                        payment.getOrder().getCustomer().getUser() != null) {
-                        if (payment.getOrder().getCustomer().getUser().getName() != null && 
-                            payment.getOrder().getCustomer().getUser().getName().toLowerCase().contains(searchLower)) {
-                            matches = true;
-                        }
-                        if (payment.getOrder().getCustomer().getUser().getAccount() != null && 
-                            payment.getOrder().getCustomer().getUser().getAccount().getEmail() != null && 
-                            payment.getOrder().getCustomer().getUser().getAccount().getEmail().toLowerCase().contains(searchLower)) {
-                            matches = true;
-                        }
-                    }
-                    if (!matches) return false;
-                }
-                
-                return true;
-            })
-            .sorted((p1, p2) -> {
-                if (p1.getCreatedAt() != null && p2.getCreatedAt() != null) {
-                    return p2.getCreatedAt().compareTo(p1.getCreatedAt());
-                }
-                return 0;
-            })
-            .collect(Collectors.toList());
-        
-        // Pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filteredPayments.size());
-        List<Payment> pagedPayments = filteredPayments.subList(start, end);
-        
-        // Convert to DTOs
-        List<AdminPaymentDTO> paymentDTOs = pagedPayments.stream()
+        Specification<Payment> spec = PaymentSpecifications.adminFilter(status, search, fromDate, toDate);
+        Page<Payment> payments = paymentRepo.findAll(spec, withTieBreaker(pageable, "paymentId"));
+        List<AdminPaymentDTO> paymentDTOs = payments.getContent().stream()
             .map(this::convertToAdminPaymentDTO)
             .collect(Collectors.toList());
-        
-        return new PageImpl<>(paymentDTOs, pageable, filteredPayments.size());
+        return new PageImpl<>(paymentDTOs, pageable, payments.getTotalElements());
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Window<AdminPaymentDTO> scrollPayments(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate,
+                                                  ScrollPosition position, int limit) {
+        Specification<Payment> spec = PaymentSpecifications.adminFilter(status, search, fromDate, toDate);
+        Window<Payment> window = paymentRepo.findBy(spec, q -> q
+            .project("order.customer.user.account")
+            .sortBy(KEYSET_SORT_PAYMENTS)
+            .limit(limit)
+            .scroll(position));
+        return window.map(this::convertToAdminPaymentDTO);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public FinancialSummaryDTO getFinancialSummary(LocalDate fromDate, LocalDate toDate) {
-        List<Order> allOrders = orderRepo.findAll();
-        List<Payment> allPayments = paymentRepo.findAll();
-        
-        // Apply date filters if provided
+        // Revenue/order metrics come from the daily rollup, status breakdowns from grouped queries
+        RevenueTotals totals = revenueRollupService.getTotals(fromDate, toDate, null);
         LocalDateTime fromDateTime = fromDate != null ? fromDate.atStartOfDay() : null;
-        LocalDateTime toDateTime = toDate != null ? toDate.atTime(23, 59, 59) : null;
-        
-        List<Order> filteredOrders = allOrders.stream()
-            .filter(order -> {
-                if (fromDateTime != null && order.getCreatedAt() != null && 
-                    order.getCreatedAt().isBefore(fromDateTime)) {
-                    return false;
-                }
-                if (toDateTime != null && order.getCreatedAt() != null && 
-                    order.getCreatedAt().isAfter(toDateTime)) {
-                    return false;
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
-        
-        List<Payment> filteredPayments = allPayments.stream()
-            .filter(payment -> {
-                if (fromDateTime != null && payment.getCreatedAt() != null && 
-                    payment.getCreatedAt().isBefore(fromDateTime)) {
-                    return false;
-                }
-                if (toDateTime != null && payment.getCreatedAt() != null && 
-                    payment.getCreatedAt().isAfter(toDateTime)) {
-                    return false;
-                }
-                return true;
-            })
-            .collect(Collectors.toList());
+        LocalDateTime toDateTime = toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
         
         // Calculate metrics
-        Long totalRevenue = filteredOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.PAID)
-            .mapToLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
-            .sum();
+        Long totalRevenue = toLong(totals.getNetRevenue());
         
-        Long totalOrders = (long) filteredOrders.size();
+        Long totalOrders = totals.getOrderCount() != null ? totals.getOrderCount() : 0L;
         
         BigDecimal avgOrderValue = totalOrders > 0 ? 
             BigDecimal.valueOf(totalRevenue).divide(BigDecimal.valueOf(totalOrders), 2, java.math.RoundingMode.HALF_UP) :
@@ -582,17 +461,19 @@ public class AdminServiceImpl implements AdminService {
         // Net profit (service fees - costs, simplified)
         Long netProfit = totalServiceFees;
         
-        // Pending payments
-        Long pendingPaymentsAmount = filteredPayments.stream()
-            .filter(p -> p.getStatus() == PaymentStatus.PENDING)
-            .mapToLong(p -> p.getAmount() != null ? p.getAmount().longValue() : 0)
-            .sum();
+        // Payments by status + pending payments amount
+        Map<String, Long> paymentsByStatus = new HashMap<>();
+        Long pendingPaymentsAmount = 0L;
+        for (Object[] row : paymentRepo.sumByStatusBetween(fromDateTime, toDateTime)) {
+            PaymentStatus paymentStatus = (PaymentStatus) row[0];
+            paymentsByStatus.put(paymentStatus != null ? paymentStatus.name() : "UNKNOWN", ((Number) row[1]).longValue());
+            if (paymentStatus == PaymentStatus.PENDING) {
+                pendingPaymentsAmount = toLong((BigDecimal) row[2]);
+            }
+        }
         
         // Refunded amount
-        Long refundedAmount = filteredOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.REFUNDED)
-            .mapToLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
-            .sum();
+        Long refundedAmount = toLong(totals.getGrossRevenue()) - totalRevenue;
         
         // Revenue breakdown by source (currently only ticket sales)
         Map<String, Long> revenueBySource = new HashMap<>();
@@ -600,41 +481,29 @@ public class AdminServiceImpl implements AdminService {
         revenueBySource.put("Service Fees", totalServiceFees);
         
         // Revenue by event type
-        Map<String, Long> revenueByEventType = filteredOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.PAID && o.getEvent() != null)
-            .collect(Collectors.groupingBy(
-                o -> o.getEvent().getEventType() != null ? o.getEvent().getEventType().name() : "OTHER",
-                Collectors.summingLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
-            ));
+        Map<String, Long> revenueByEventType = new HashMap<>();
+        for (EventTypeRevenue row : revenueRollupService.getNetRevenueByEventType(fromDate, toDate)) {
+            revenueByEventType.merge(row.getEventType() != null ? row.getEventType().name() : "OTHER",
+                toLong(row.getNetRevenue()), Long::sum);
+        }
         
         // Revenue by payment method (simplified - all PayOS for now)
         Map<String, Long> revenueByPaymentMethod = new HashMap<>();
         revenueByPaymentMethod.put("PayOS", totalRevenue);
         
         // Orders by status
-        Map<String, Long> ordersByStatus = filteredOrders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getStatus() != null ? o.getStatus().name() : "UNKNOWN",
-                Collectors.counting()
-            ));
-        
-        // Payments by status
-        Map<String, Long> paymentsByStatus = filteredPayments.stream()
-            .collect(Collectors.groupingBy(
-                p -> p.getStatus() != null ? p.getStatus().name() : "UNKNOWN",
-                Collectors.counting()
-            ));
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        for (Object[] row : orderRepo.countByStatusBetween(fromDateTime, toDateTime)) {
+            OrderStatus orderStatus = (OrderStatus) row[0];
+            ordersByStatus.merge(orderStatus != null ? orderStatus.name() : "UNKNOWN", ((Number) row[1]).longValue(), Long::sum);
+        }
         
         // Conversion rate (simplified)
-        long paidOrders = filteredOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.PAID)
-            .count();
+        long paidOrders = totals.getActivePaidCount();
         Double conversionRate = totalOrders > 0 ? (paidOrders * 100.0 / totalOrders) : 0.0;
         
         // Refund rate
-        long refundedOrders = filteredOrders.stream()
-            .filter(o -> o.getStatus() == OrderStatus.REFUNDED)
-            .count();
+        long refundedOrders = totals.getRefundedCount() != null ? totals.getRefundedCount() : 0L;
         Double refundRate = totalOrders > 0 ? (refundedOrders * 100.0 / totalOrders) : 0.0;
         
         // Growth rate (simplified - compare with previous period)
@@ -662,22 +531,38 @@ public class AdminServiceImpl implements AdminService {
             .build();
     }
     
-    @Override
-    public List<AdminOrderDTO> getAllOrdersForExport(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate) {
-        Pageable pageable = Pageable.unpaged();
-        Page<AdminOrderDTO> page = getOrders(status, search, fromDate, toDate, pageable);
-        return page.getContent();
+    // Helper methods
+    
+    /**
+     * Luôn thêm khóa chính vào sort để thứ tự phân trang ổn định khi createdAt trùng nhau
+     */
+    private Pageable withTieBreaker(Pageable pageable, String idProperty) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "createdAt");
+        if (sort.getOrderFor(idProperty) == null) {
+            sort = sort.and(Sort.by(Sort.Direction.DESC, idProperty));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
     }
     
-    @Override
-    public List<AdminPaymentDTO> getAllPaymentsForExport(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate) {
-        Pageable pageable = Pageable.unpaged();
-        Page<AdminPaymentDTO> page = getPayments(status, search, fromDate, toDate, pageable);
-        return page.getContent();
+    /**
+     * Map một trang order sang DTO, lấy payment của cả trang bằng một query
+     */
+    private List<AdminOrderDTO> convertToAdminOrderDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getOrderId).collect(Collectors.toList());
+        Map<Long, Payment> paymentsByOrderId = paymentRepo.findByOrder_OrderIdIn(orderIds).stream()
+            .collect(Collectors.toMap(p -> p.getOrder().getOrderId(), p -> p, (first, second) -> first));
+        return orders.stream()
+            .map(order -> convertToAdminOrderDTO(order, paymentsByOrderId.get(order.getOrderId())))
+            .collect(Collectors.toList());
     }
     
-    // Helper methods
-    private AdminOrderDTO convertToAdminOrderDTO(Order order) {
+    private AdminOrderDTO convertToAdminOrderDTO(Order order, Payment payment) {
         String customerName = null;
         String customerEmail = null;
         Long customerId = null;
@@ -704,16 +589,8 @@ public class AdminServiceImpl implements AdminService {
         }
         
         // Get payment status
-        String paymentStatus = "N/A";
-        Optional<Payment> paymentOpt = paymentRepo.findByOrder(order);
-        if (paymentOpt.isPresent()) {
-            paymentStatus = paymentOpt.get().getStatus().name();
-        }
-        
-        LocalDateTime paidAt = null;
-        if (paymentOpt.isPresent() && paymentOpt.get().getPaidAt() != null) {
-            paidAt = paymentOpt.get().getPaidAt();
-        }
+        String paymentStatus = payment != null ? payment.getStatus().name() : "N/A";
+        LocalDateTime paidAt = payment != null ? payment.getPaidAt() : null;
         
         return AdminOrderDTO.builder()
             .orderId(order.getOrderId())
@@ -866,17 +743,14 @@ public class AdminServiceImpl implements AdminService {
         
         log.info("Paged events: {} to {} (total: {})", start, end, filtered.size());
         
+        Map<Long, EventOrderStats> orderStats = aggregateOrdersByEvent(paged);
+        
         List<EventStatusDTO> dtos = paged.stream()
             .map(event -> {
                 long registeredCount = attendanceRepo.countByEventId(event.getId());
-                long ticketsSold = orderRepo.findByEventId(event.getId()).stream()
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .mapToLong(o -> o.getQuantity() != null ? o.getQuantity() : 0)
-                    .sum();
-                long revenue = orderRepo.findByEventId(event.getId()).stream()
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .mapToLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
-                    .sum();
+                EventOrderStats stats = orderStats.get(event.getId());
+                long ticketsSold = ticketsSoldOf(stats);
+                long revenue = revenueOf(stats);
                 
                 double attendanceRate = 0.0;
                 if (registeredCount > 0) {
@@ -997,11 +871,14 @@ public class AdminServiceImpl implements AdminService {
         List<Department> departments = departmentRepo.findAll();
         log.info("Total departments found: {}", departments.size());
         
+        List<Event> allEvents = eventRepo.findAll();
+        Map<Long, EventOrderStats> orderStats = aggregateOrdersByEvent(allEvents);
+        
         List<DepartmentEventStatsDTO> result = departments.stream()
             .map(dept -> {
                 log.debug("Processing department: {} (ID: {})", dept.getDepartmentName(), dept.getUserId());
                 
-                List<Event> deptEvents = eventRepo.findAll().stream()
+                List<Event> deptEvents = allEvents.stream()
                     .filter(e ->  e.getHost().getUser().getUserId().equals(dept.getUserId()))
                     .collect(Collectors.toList());
                 
@@ -1023,9 +900,7 @@ public class AdminServiceImpl implements AdminService {
                     .count();
                 
                 long totalRevenue = deptEvents.stream()
-                    .flatMap(e -> orderRepo.findByEventId(e.getId()).stream())
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .mapToLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
+                    .mapToLong(e -> revenueOf(orderStats.get(e.getId())))
                     .sum();
                 
                 long totalParticipants = deptEvents.stream()
@@ -1120,82 +995,10 @@ public class AdminServiceImpl implements AdminService {
     public List<VenueConflictDTO> getVenueConflicts() {
         log.info("=== getVenueConflicts called ===");
         
-        List<VenueConflictDTO> conflicts = new ArrayList<>();
-        List<Event> allEvents = eventRepo.findAll();
-        log.info("Total events in database: {}", allEvents.size());
-        
-        int checkedPairs = 0;
-        for (int i = 0; i < allEvents.size(); i++) {
-            Event event1 = allEvents.get(i);
-            if (event1.getStartsAt() == null || event1.getEndsAt() == null) {
-                log.debug("Event {} skipped: missing start/end time", event1.getId());
-                continue;
-            }
-            if (event1.getPlaces() == null || event1.getPlaces().isEmpty()) {
-                log.debug("Event {} skipped: no places", event1.getId());
-                continue;
-            }
-            
-            for (int j = i + 1; j < allEvents.size(); j++) {
-                Event event2 = allEvents.get(j);
-                if (event2.getStartsAt() == null || event2.getEndsAt() == null) continue;
-                if (event2.getPlaces() == null || event2.getPlaces().isEmpty()) continue;
-                
-                checkedPairs++;
-                
-                // Check if events share a venue
-                boolean shareVenue = event1.getPlaces().stream()
-                    .anyMatch(p1 -> event2.getPlaces().stream()
-                        .anyMatch(p2 -> p1.getId().equals(p2.getId())));
-                
-                if (!shareVenue) continue;
-                
-                // Check time overlap
-                boolean timeOverlap = !(event1.getEndsAt().isBefore(event2.getStartsAt()) 
-                    || event1.getStartsAt().isAfter(event2.getEndsAt()));
-                
-                if (timeOverlap) {
-                    Place sharedPlace = event1.getPlaces().stream()
-                        .filter(p1 -> event2.getPlaces().stream()
-                            .anyMatch(p2 -> p1.getId().equals(p2.getId())))
-                        .findFirst()
-                        .orElse(null);
-                    
-                    LocalDateTime overlapStart = event1.getStartsAt().isAfter(event2.getStartsAt()) 
-                        ? event1.getStartsAt() : event2.getStartsAt();
-                    LocalDateTime overlapEnd = event1.getEndsAt().isBefore(event2.getEndsAt()) 
-                        ? event1.getEndsAt() : event2.getEndsAt();
-                    long overlapMinutes = ChronoUnit.MINUTES.between(overlapStart, overlapEnd);
-                    
-                    String severity = overlapMinutes > 60 ? "HIGH" : (overlapMinutes > 30 ? "MEDIUM" : "LOW");
-                    
-                    log.info("Conflict detected: Event {} and Event {} at venue {} (overlap: {} minutes, severity: {})", 
-                        event1.getId(), event2.getId(), 
-                        sharedPlace != null ? sharedPlace.getPlaceName() : "Unknown", 
-                        overlapMinutes, severity);
-                    
-                    conflicts.add(VenueConflictDTO.builder()
-                        .event1Id(event1.getId())
-                        .event1Title(event1.getTitle())
-                        .event1Start(event1.getStartsAt())
-                        .event1End(event1.getEndsAt())
-                        .event2Id(event2.getId())
-                        .event2Title(event2.getTitle())
-                        .event2Start(event2.getStartsAt())
-                        .event2End(event2.getEndsAt())
-                        .venueName(sharedPlace != null ? sharedPlace.getPlaceName() : "Unknown")
-                        .conflictSeverity(severity)
-                        .overlapMinutes(overlapMinutes)
-                        .build());
-                }
-            }
-        }
-        
-        log.info("Checked {} event pairs, found {} conflicts", checkedPairs, conflicts.size());
+        List<VenueConflictDTO> conflicts = venueConflictService.detectAllConflicts();
+        log.info("Found {} venue conflicts", conflicts.size());
         
-        return conflicts.stream()
-            .sorted((a, b) -> Long.compare(b.getOverlapMinutes(), a.getOverlapMinutes()))
-            .collect(Collectors.toList());
+        return conflicts;
     }
     
     @Override
@@ -1264,6 +1067,11 @@ public class AdminServiceImpl implements AdminService {
         List<Speaker> allSpeakers = speakerRepo.findAll();
         log.info("Total speakers in database: {}", allSpeakers.size());
         
+        Map<Long, EventOrderStats> orderStats = aggregateOrdersByEvent(allSpeakers.stream()
+            .filter(speaker -> speaker.getEvents() != null)
+            .flatMap(speaker -> speaker.getEvents().stream())
+            .collect(Collectors.toList()));
+        
         List<SpeakerStatsDTO> dtos = allSpeakers.stream()
             .map(speaker -> {
                 List<Event> speakerEvents = speaker.getEvents() != null ? speaker.getEvents() : new ArrayList<>();
@@ -1274,9 +1082,7 @@ public class AdminServiceImpl implements AdminService {
                     .sum();
                 
                 long totalRevenue = speakerEvents.stream()
-                    .flatMap(e -> orderRepo.findByEventId(e.getId()).stream())
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .mapToLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
+                    .mapToLong(e -> revenueOf(orderStats.get(e.getId())))
                     .sum();
                 
                 log.debug("Speaker {}: events={}, participants={}, revenue={}", 
@@ -1342,10 +1148,8 @@ public class AdminServiceImpl implements AdminService {
         long totalCheckIns = filteredEvents.stream()
             .mapToLong(e -> attendanceRepo.countCheckedInByEventId(e.getId()))
             .sum();
-        long totalRevenue = filteredEvents.stream()
-            .flatMap(e -> orderRepo.findByEventId(e.getId()).stream())
-            .filter(o -> o.getStatus() == OrderStatus.PAID)
-            .mapToLong(o -> o.getTotalAmount() != null ? o.getTotalAmount().longValue() : 0)
+        long totalRevenue = aggregateOrdersByEvent(filteredEvents).values().stream()
+            .mapToLong(this::revenueOf)
             .sum();
         
         log.info("Metrics calculation: totalEvents={}, totalRegistrations={}, totalCheckIns={}, totalRevenue={}", 
@@ -1685,89 +1489,131 @@ public class AdminServiceImpl implements AdminService {
             .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
             .collect(Collectors.toList());
         
-        // Convert to DTOs
-        List<EnhancedAuditLogDTO> dtos = filteredLogs.stream()
-            .map(auditLog -> {
-                // Get user info
-                String userName = "System";
-                String userEmail = "N/A";
-                String userRole = "SYSTEM";
-                Long userIdValue = auditLog.getActorId();
-                
-                if (userIdValue != null) {
-                    Optional<com.group02.openevent.model.user.User> userOpt = userRepo.findById(userIdValue);
-                    if (userOpt.isPresent()) {
-                        com.group02.openevent.model.user.User user = userOpt.get();
-                        userName = user.getName() != null ? user.getName() : "Unknown";
-                        userEmail = user.getAccount() != null && user.getAccount().getEmail() != null 
-                            ? user.getAccount().getEmail() : "N/A";
-                        userRole = user.getRole() != null ? user.getRole().name() : "CUSTOMER";
-                    }
-                }
-                
-                // Get entity details
-                String entityDetails = "";
-                if (auditLog.getEntityType() != null && auditLog.getEntityId() != null) {
-                    try {
-                        switch (auditLog.getEntityType()) {
-                            case "EVENT":
-                                Optional<Event> eventOpt = eventRepo.findById(auditLog.getEntityId());
-                                if (eventOpt.isPresent()) {
-                                    entityDetails = eventOpt.get().getTitle();
-                                }
-                                break;
-                            case "ORDER":
-                                Optional<Order> orderOpt = orderRepo.findById(auditLog.getEntityId());
-                                if (orderOpt.isPresent()) {
-                                    Order order = orderOpt.get();
-                                    entityDetails = String.format("Order #%d - %s", 
-                                        order.getOrderId(), 
-                                        order.getEvent() != null ? order.getEvent().getTitle() : "N/A");
-                                }
-                                break;
-                            case "FEEDBACK":
-                                entityDetails = String.format("Feedback Form ID: %d", auditLog.getEntityId());
-                                break;
-                            default:
-                                entityDetails = String.format("%s ID: %d", auditLog.getEntityType(), auditLog.getEntityId());
-                        }
-                    } catch (Exception e) {
-                        log.warn("Error fetching entity details for {} ID {}: {}", 
-                            auditLog.getEntityType(), auditLog.getEntityId(), e.getMessage());
-                    }
-                }
-                
-                return EnhancedAuditLogDTO.builder()
-                    .auditId(auditLog.getAuditId())
-                    .timestamp(auditLog.getCreatedAt())
-                    .userId(userIdValue)
-                    .userName(userName)
-                    .userEmail(userEmail)
-                    .userRole(userRole)
-                    .actionType(auditLog.getActionType())
-                    .entityType(auditLog.getEntityType())
-                    .entityId(auditLog.getEntityId())
-                    .description(auditLog.getDescription())
-                    .entityDetails(entityDetails)
-                    .build();
-            })
-            .collect(Collectors.toList());
+        // Paginate trước, chỉ convert các log của trang hiện tại
+        int start = (int) Math.min(pageable.getOffset(), filteredLogs.size());
+        int end = Math.min((start + pageable.getPageSize()), filteredLogs.size());
+        List<com.group02.openevent.model.auditLog.AuditLog> pageLogs = filteredLogs.subList(start, end);
         
-        // Paginate
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), dtos.size());
-        List<EnhancedAuditLogDTO> paged = dtos.subList(start, end);
+        AuditLogLookups lookups = loadAuditLogLookups(pageLogs);
+        List<EnhancedAuditLogDTO> paged = pageLogs.stream()
+            .map(auditLog -> convertToEnhancedAuditLogDTO(auditLog, lookups))
+            .collect(Collectors.toList());
         
-        return new PageImpl<>(paged, pageable, dtos.size());
+        return new PageImpl<>(paged, pageable, filteredLogs.size());
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<EnhancedAuditLogDTO> getAllAuditLogsForExport(String actionType, String entityType, Long userId, 
-            String search, LocalDate fromDate, LocalDate toDate) {
-        // Use the same logic as getEnhancedAuditLogs but return all results without pagination
-        Pageable pageable = PageRequest.of(0, Integer.MAX_VALUE);
-        Page<EnhancedAuditLogDTO> page = getEnhancedAuditLogs(actionType, entityType, userId, search, fromDate, toDate, pageable);
-        return page.getContent();
+    public Window<EnhancedAuditLogDTO> scrollAuditLogs(String actionType, String entityType, Long userId, String search,
+                                                       LocalDate fromDate, LocalDate toDate, ScrollPosition position, int limit) {
+        Specification<com.group02.openevent.model.auditLog.AuditLog> spec =
+            AuditLogSpecifications.adminFilter(actionType, entityType, userId, search, fromDate, toDate);
+        Window<com.group02.openevent.model.auditLog.AuditLog> window = auditLogRepo.findBy(spec, q -> q
+            .sortBy(KEYSET_SORT_AUDIT_LOGS)
+            .limit(limit)
+            .scroll(position));
+        AuditLogLookups lookups = loadAuditLogLookups(window.getContent());
+        return window.map(auditLog -> convertToEnhancedAuditLogDTO(auditLog, lookups));
+    }
+    
+    // User / tên event / tên event của order cho một lô audit log, mỗi loại một query thay vì findById từng dòng
+    private record AuditLogLookups(Map<Long, com.group02.openevent.model.user.User> users,
+                                   Map<Long, String> eventTitles,
+                                   Map<Long, String> orderEventTitles) {}
+    
+    private AuditLogLookups loadAuditLogLookups(Collection<com.group02.openevent.model.auditLog.AuditLog> auditLogs) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> eventIds = new HashSet<>();
+        Set<Long> orderIds = new HashSet<>();
+        for (com.group02.openevent.model.auditLog.AuditLog auditLog : auditLogs) {
+            if (auditLog.getActorId() != null) {
+                userIds.add(auditLog.getActorId());
+            }
+            if (auditLog.getEntityId() == null) {
+                continue;
+            }
+            if ("EVENT".equals(auditLog.getEntityType())) {
+                eventIds.add(auditLog.getEntityId());
+            } else if ("ORDER".equals(auditLog.getEntityType())) {
+                orderIds.add(auditLog.getEntityId());
+            }
+        }
+        
+        Map<Long, com.group02.openevent.model.user.User> users = userIds.isEmpty() ? Map.of()
+            : userRepo.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(com.group02.openevent.model.user.User::getUserId, u -> u, (a, b) -> a));
+        // HashMap vì title có thể null (Collectors.toMap không nhận value null)
+        Map<Long, String> eventTitles = new HashMap<>();
+        if (!eventIds.isEmpty()) {
+            eventRepo.findTitlesByIdIn(eventIds).forEach(row -> eventTitles.put((Long) row[0], (String) row[1]));
+        }
+        Map<Long, String> orderEventTitles = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            orderRepo.findEventTitlesByOrderIdIn(orderIds).forEach(row -> orderEventTitles.put((Long) row[0], (String) row[1]));
+        }
+        return new AuditLogLookups(users, eventTitles, orderEventTitles);
+    }
+    
+    private EnhancedAuditLogDTO convertToEnhancedAuditLogDTO(com.group02.openevent.model.auditLog.AuditLog auditLog,
+                                                             AuditLogLookups lookups) {
+        // Get user info
+        String userName = "System";
+        String userEmail = "N/A";
+        String userRole = "SYSTEM";
+        Long userIdValue = auditLog.getActorId();
+        
+        if (userIdValue != null) {
+            com.group02.openevent.model.user.User user = lookups.users().get(userIdValue);
+            if (user != null) {
+                userName = user.getName() != null ? user.getName() : "Unknown";
+                userEmail = user.getAccount() != null && user.getAccount().getEmail() != null 
+                    ? user.getAccount().getEmail() : "N/A";
+                userRole = user.getRole() != null ? user.getRole().name() : "CUSTOMER";
+            }
+        }
+        
+        // Get entity details
+        String entityDetails = "";
+        if (auditLog.getEntityType() != null && auditLog.getEntityId() != null) {
+            try {
+                switch (auditLog.getEntityType()) {
+                    case "EVENT":
+                        if (lookups.eventTitles().containsKey(auditLog.getEntityId())) {
+                            entityDetails = lookups.eventTitles().get(auditLog.getEntityId());
+                        }
+                        break;
+                    case "ORDER":
+                        if (lookups.orderEventTitles().containsKey(auditLog.getEntityId())) {
+                            String eventTitle = lookups.orderEventTitles().get(auditLog.getEntityId());
+                            entityDetails = String.format("Order #%d - %s", 
+                                auditLog.getEntityId(), 
+                                eventTitle != null ? eventTitle : "N/A");
+                        }
+                        break;
+                    case "FEEDBACK":
+                        entityDetails = String.format("Feedback Form ID: %d", auditLog.getEntityId());
+                        break;
+                    default:
+                        entityDetails = String.format("%s ID: %d", auditLog.getEntityType(), auditLog.getEntityId());
+                }
+            } catch (Exception e) {
+                log.warn("Error fetching entity details for {} ID {}: {}", 
+                    auditLog.getEntityType(), auditLog.getEntityId(), e.getMessage());
+            }
+        }
+        
+        return EnhancedAuditLogDTO.builder()
+            .auditId(auditLog.getAuditId())
+            .timestamp(auditLog.getCreatedAt())
+            .userId(userIdValue)
+            .userName(userName)
+            .userEmail(userEmail)
+            .userRole(userRole)
+            .actionType(auditLog.getActionType())
+            .entityType(auditLog.getEntityType())
+            .entityId(auditLog.getEntityId())
+            .description(auditLog.getDescription())
+            .entityDetails(entityDetails)
+            .build();
     }
 }
@@ -0,0 +1,180 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.dto.report.EventStatsSnapshot;
+import com.group02.openevent.dto.response.DashboardDeltaMessage;
+import com.group02.openevent.service.DashboardPushService;
+import com.group02.openevent.service.EventStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalescing: thay đổi chỉ đánh dấu event "dirty", mỗi chu kỳ flush đọc snapshot một lần cho mỗi event
+ * rồi gửi các loại vé khác với lần gửi trước. Nhiều order/check-in trong cùng chu kỳ chỉ tạo một message.
+ * Event không có ai subscribe thì không đọc snapshot và không gửi gì.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardPushServiceImpl implements DashboardPushService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final EventStatsService eventStatsService;
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // Event cần gửi lại toàn bộ (vừa có người subscribe)
+    private final Set<Long> fullResync = ConcurrentHashMap.newKeySet();
+    // "sessionId/subscriptionId" -> eventId
+    private final Map<String, Long> subscriptions = new ConcurrentHashMap<>();
+    // Chỉ được đọc/ghi trong flush()
+    private final Map<Long, Sent> lastSent = new HashMap<>();
+
+    @Override
+    public void markDirty(Long eventId) {
+        if (eventId != null) {
+            dirty.add(eventId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${dashboard.live.push-interval-ms:1000}")
+    public synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Set<Long> watched = new HashSet<>(subscriptions.values());
+        lastSent.keySet().retainAll(watched);
+
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long eventId = it.next();
+            it.remove();
+            if (!watched.contains(eventId)) {
+                continue;
+            }
+            try {
+                push(eventId);
+            } catch (Exception e) {
+                log.error("Error pushing dashboard stats for event {}: {}", eventId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void push(Long eventId) {
+        EventStatsSnapshot snapshot = eventStatsService.getStats(eventId);
+        Sent previous = lastSent.get(eventId);
+        boolean full = fullResync.remove(eventId) || previous == null;
+
+        List<DashboardDeltaMessage.TicketTypeDelta> changed = new ArrayList<>();
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalSold = 0;
+        long totalCheckIn = 0;
+        for (Map.Entry<Long, EventStatsSnapshot.TicketTypeCounters> entry : snapshot.byTicketType().entrySet()) {
+            EventStatsSnapshot.TicketTypeCounters counters = entry.getValue();
+            totalRevenue = totalRevenue.add(counters.revenue());
+            totalSold += counters.sold();
+            totalCheckIn += counters.checkIns();
+            if (full || !sameCounters(counters, previous.byTicketType().get(entry.getKey()))) {
+                changed.add(toDelta(entry.getKey(), counters));
+            }
+        }
+        if (!full) {
+            // Loại vé biến mất khỏi snapshot (order bị tính lại) thì gửi về 0
+            previous.byTicketType().keySet().stream()
+                    .filter(id -> !snapshot.byTicketType().containsKey(id))
+                    .forEach(id -> changed.add(toDelta(id, EventStatsSnapshot.TicketTypeCounters.EMPTY)));
+            if (changed.isEmpty() && previous.refundedCount() == snapshot.refundedCount()) {
+                return;
+            }
+        }
+
+        long seq = previous != null ? previous.seq() + 1 : 1;
+        DashboardDeltaMessage message = DashboardDeltaMessage.builder()
+                .eventId(eventId)
+                .seq(seq)
+                .full(full)
+                .totalRevenue(totalRevenue)
+                .totalTicketsSold(totalSold)
+                .totalCheckIn(totalCheckIn)
+                .totalRefunded(snapshot.refundedCount())
+                .ticketTypes(changed)
+                .timestamp(LocalDateTime.now())
+                .build();
+        messagingTemplate.convertAndSend(TOPIC_PREFIX + eventId, message);
+        lastSent.put(eventId, new Sent(seq, snapshot.byTicketType(), snapshot.refundedCount()));
+        log.debug("Pushed dashboard {} for event {} (seq {}, {} ticket types)",
+                full ? "snapshot" : "delta", eventId, seq, changed.size());
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long eventId = parseEventId(accessor.getDestination());
+        if (eventId == null) {
+            return;
+        }
+        subscriptions.put(subscriptionKey(accessor), eventId);
+        // Người mới vào cần toàn bộ số liệu, không chỉ phần thay đổi
+        fullResync.add(eventId);
+        markDirty(eventId);
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        subscriptions.remove(subscriptionKey(StompHeaderAccessor.wrap(event.getMessage())));
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + "/";
+        subscriptions.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private String subscriptionKey(StompHeaderAccessor accessor) {
+        return accessor.getSessionId() + "/" + accessor.getSubscriptionId();
+    }
+
+    private static Long parseEventId(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(destination.substring(TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean sameCounters(EventStatsSnapshot.TicketTypeCounters a, EventStatsSnapshot.TicketTypeCounters b) {
+        return b != null
+                && a.sold() == b.sold()
+                && a.checkIns() == b.checkIns()
+                && a.refunds() == b.refunds()
+                && a.revenue().compareTo(b.revenue()) == 0;
+    }
+
+    private static DashboardDeltaMessage.TicketTypeDelta toDelta(Long ticketTypeId,
+                                                                  EventStatsSnapshot.TicketTypeCounters counters) {
+        return DashboardDeltaMessage.TicketTypeDelta.builder()
+                .ticketTypeId(ticketTypeId)
+                .soldQuantity(counters.sold())
+                .revenue(counters.revenue())
+                .checkInCount(counters.checkIns())
+                .refunds(counters.refunds())
+                .build();
+    }
+
+    private record Sent(long seq, Map<Long, EventStatsSnapshot.TicketTypeCounters> byTicketType, long refundedCount) {
+    }
+}
@@ -2,16 +2,14 @@ package com.group02.openevent.service.impl;
 
 import com.group02.openevent.dto.response.DashboardStatsResponse;
 import com.group02.openevent.dto.response.HostDashboardStatsResponse;
-import com.group02.openevent.model.attendance.EventAttendance;
-import com.group02.openevent.model.event.Event;
+import com.group02.openevent.dto.report.EventStatsSnapshot;
 import com.group02.openevent.model.order.Order;
-import com.group02.openevent.model.order.OrderStatus;
 import com.group02.openevent.model.ticket.TicketType;
-import com.group02.openevent.repository.IEventAttendanceRepo;
 import com.group02.openevent.repository.IEventRepo;
 import com.group02.openevent.repository.IOrderRepo;
 import com.group02.openevent.repository.ITicketTypeRepo;
 import com.group02.openevent.service.DashboardService;
+import com.group02.openevent.service.EventStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,13 +17,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -35,155 +32,62 @@ public class DashboardServiceImpl implements DashboardService {
     private final IEventRepo eventRepo;
     private final ITicketTypeRepo ticketTypeRepo;
     private final IOrderRepo orderRepo;
-    private final IEventAttendanceRepo eventAttendanceRepo;
-    
-    // Helper class for daily stats calculation
-    private static class DailyStatsData {
-        BigDecimal revenue = BigDecimal.ZERO;
-        long ordersCount = 0;
-        long ticketsSold = 0;
-    }
+    private final EventStatsService eventStatsService;
     
     @Override
     public DashboardStatsResponse getEventDashboardStats(Long eventId) {
-        log.info("Calculating dashboard stats for event ID: {}", eventId);
+        log.debug("Building dashboard stats for event ID: {}", eventId);
         
         // Verify event exists
-        Event event = eventRepo.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        
-        // Get ticket types for this event
-        List<TicketType> ticketTypes = ticketTypeRepo.findByEventId(eventId);
-        log.info("Found {} ticket types for event {}", ticketTypes.size(), eventId);
-        
-        // Debug: Log ticket type details
-        for (TicketType ticketType : ticketTypes) {
-            log.info("TicketType ID: {}, Name: {}, Price: {}, TotalQty: {}, SoldQty: {}", 
-                ticketType.getTicketTypeId(), ticketType.getName(), ticketType.getPrice(),
-                ticketType.getTotalQuantity(), ticketType.getSoldQuantity());
+        if (!eventRepo.existsById(eventId)) {
+            throw new RuntimeException("Event not found with id: " + eventId);
         }
         
-        // Get orders for this event
-        List<Order> orders = orderRepo.findByEventId(eventId);
-        log.info("Found {} orders for event {}", orders.size(), eventId);
-        
-        // Debug: Log order details
-        for (Order order : orders) {
-            log.info("Order ID: {}, Status: {}, TicketType: {}, TotalAmount: {}", 
-                order.getOrderId(), order.getStatus(), 
-                order.getTicketType() != null ? order.getTicketType().getName() : "null",
-                order.getTotalAmount());
-        }
+        // Get ticket types for this event (name/price/totalQuantity)
+        List<TicketType> ticketTypes = ticketTypeRepo.findByEventId(eventId);
         
-        // Calculate basic statistics
-        DashboardStatsResponse.DashboardStatsResponseBuilder builder = DashboardStatsResponse.builder();
+        // Sold/revenue/check-in/refund come from the in-memory aggregate, not from loading every order
+        EventStatsSnapshot stats = eventStatsService.getStats(eventId);
         
         // Initialize counters
         BigDecimal totalRevenue = BigDecimal.ZERO;
         long totalTicketsSold = 0;
         long totalAttendees = 0;
         long totalCheckIn = 0;
-        long totalRefunded = 0;
+        long totalRefunded = stats.refundedCount();
         long totalQuantity = 0;
         long unsoldTickets = 0;
         long vouchersUsed = 0; // TODO: Implement voucher tracking
         
-        // Calculate check-in data from EventAttendance (not from orders!)
-        // Get all checked-in attendances for this event
-        List<EventAttendance> checkedInAttendances = eventAttendanceRepo.findCheckedInByEventId(eventId);
-        log.info("Found {} checked-in attendances for event {}", checkedInAttendances.size(), eventId);
-        
-        // Count check-ins by ticket type
-        Map<Long, Long> checkInCountByTicketType = new HashMap<>();
-        for (EventAttendance attendance : checkedInAttendances) {
-            if (attendance.getOrder() != null && 
-                attendance.getOrder().getTicketType() != null &&
-                (attendance.getCheckInTime() != null || 
-                 attendance.getStatus() == EventAttendance.AttendanceStatus.CHECKED_IN)) {
-                Long ticketTypeId = attendance.getOrder().getTicketType().getTicketTypeId();
-                checkInCountByTicketType.put(ticketTypeId, 
-                    checkInCountByTicketType.getOrDefault(ticketTypeId, 0L) + 1);
-                log.debug("Check-in found: TicketTypeId={}, AttendanceId={}", ticketTypeId, attendance.getAttendanceId());
-            }
-        }
-        
-        log.info("Check-in count by ticket type: {}", checkInCountByTicketType);
-        
-        // Process ticket types
-        List<DashboardStatsResponse.TicketTypeStats> ticketTypeStats = ticketTypes.stream()
-                .map(ticketType -> {
-                    long soldQty = ticketType.getSoldQuantity() != null ? ticketType.getSoldQuantity() : 0;
-                    long totalQty = ticketType.getTotalQuantity() != null ? ticketType.getTotalQuantity() : 0;
-                    BigDecimal price = ticketType.getPrice() != null ? ticketType.getPrice() : BigDecimal.ZERO;
-                    long checkInCount = checkInCountByTicketType.getOrDefault(ticketType.getTicketTypeId(), 0L);
-                    
-                    return DashboardStatsResponse.TicketTypeStats.builder()
-                            .ticketTypeId(ticketType.getTicketTypeId())
-                            .name(ticketType.getName())
-                            .price(price)
-                            .totalQuantity(totalQty)
-                            .soldQuantity(soldQty)
-                            .unsoldQuantity(totalQty - soldQty)
-                            .checkInCount(checkInCount)
-                            .checkInRate(0) // Will be calculated later
-                            .build();
-                })
-                .collect(Collectors.toList());
-        
-        // Calculate totals from ORDERS instead of ticket types
-        // Because TicketType.soldQuantity is not updated, we need to calculate from actual orders
-        Map<Long, Long> soldQuantityByTicketType = new HashMap<>();
+        List<DashboardStatsResponse.TicketTypeStats> ticketTypeStats = new ArrayList<>();
         Map<Long, BigDecimal> revenueByTicketType = new HashMap<>();
-        
-        for (Order order : orders) {
-            if (order.getStatus() == OrderStatus.PAID && order.getTicketType() != null) {
-                Long ticketTypeId = order.getTicketType().getTicketTypeId();
-                
-                // Count sold quantity
-                soldQuantityByTicketType.put(ticketTypeId, 
-                    soldQuantityByTicketType.getOrDefault(ticketTypeId, 0L) + 1);
-                
-                // Calculate revenue from order total amount
-                BigDecimal orderAmount = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
-                revenueByTicketType.put(ticketTypeId, 
-                    revenueByTicketType.getOrDefault(ticketTypeId, BigDecimal.ZERO).add(orderAmount));
-                
-                log.info("Order {} contributes: TicketType={}, Amount={}", 
-                    order.getOrderId(), order.getTicketType().getName(), orderAmount);
-            }
-        }
-        
-        // Update ticket type stats with real data from orders
-        for (DashboardStatsResponse.TicketTypeStats stat : ticketTypeStats) {
-            Long ticketTypeId = stat.getTicketTypeId();
-            long realSoldQty = soldQuantityByTicketType.getOrDefault(ticketTypeId, 0L);
-            BigDecimal realRevenue = revenueByTicketType.getOrDefault(ticketTypeId, BigDecimal.ZERO);
+        for (TicketType ticketType : ticketTypes) {
+            EventStatsSnapshot.TicketTypeCounters counters = stats.byTicketType()
+                    .getOrDefault(ticketType.getTicketTypeId(), EventStatsSnapshot.TicketTypeCounters.EMPTY);
+            long soldQty = counters.sold();
+            long totalQty = ticketType.getTotalQuantity() != null ? ticketType.getTotalQuantity() : 0;
+            BigDecimal price = ticketType.getPrice() != null ? ticketType.getPrice() : BigDecimal.ZERO;
+            double checkInRate = soldQty > 0 ? (counters.checkIns() * 100.0 / soldQty) : 0;
             
-            // Update the stat with real data
-            stat.setSoldQuantity(realSoldQty);
-            stat.setUnsoldQuantity(stat.getTotalQuantity() - realSoldQty);
+            ticketTypeStats.add(DashboardStatsResponse.TicketTypeStats.builder()
+                    .ticketTypeId(ticketType.getTicketTypeId())
+                    .name(ticketType.getName())
+                    .price(price)
+                    .totalQuantity(totalQty)
+                    .soldQuantity(soldQty)
+                    .unsoldQuantity(totalQty - soldQty)
+                    .checkInCount(counters.checkIns())
+                    .checkInRate(checkInRate)
+                    .build());
+            revenueByTicketType.put(ticketType.getTicketTypeId(), counters.revenue());
             
             // Add to totals
-            totalRevenue = totalRevenue.add(realRevenue);
-            totalTicketsSold += realSoldQty;
-            totalAttendees += realSoldQty;
-            totalCheckIn += stat.getCheckInCount();
-            totalQuantity += stat.getTotalQuantity();
-            unsoldTickets += stat.getUnsoldQuantity();
-            
-            log.info("Updated TicketType: {} - RealSoldQty: {}, RealRevenue: {}", 
-                stat.getName(), realSoldQty, realRevenue);
-        }
-        
-        // Calculate refunded orders
-        totalRefunded = orders.stream()
-                .filter(order -> order.getStatus() == OrderStatus.REFUNDED)
-                .count();
-        
-        // Update check-in rates for each ticket type
-        for (DashboardStatsResponse.TicketTypeStats stat : ticketTypeStats) {
-            double checkInRate = stat.getSoldQuantity() > 0 ? (stat.getCheckInCount() * 100.0 / stat.getSoldQuantity()) : 0;
-            stat.setCheckInRate(checkInRate);
+            totalRevenue = totalRevenue.add(counters.revenue());
+            totalTicketsSold += soldQty;
+            totalAttendees += soldQty;
+            totalCheckIn += counters.checkIns();
+            totalQuantity += totalQty;
+            unsoldTickets += totalQty - soldQty;
         }
         
         // Calculate percentage rates
@@ -191,7 +95,7 @@ public class DashboardServiceImpl implements DashboardService {
         double refundRate = totalTicketsSold > 0 ? (totalRefunded * 100.0 / totalTicketsSold) : 0;
         double unsoldRate = totalQuantity > 0 ? (unsoldTickets * 100.0 / totalQuantity) : 0;
         
-        // Calculate revenue by type for pie chart using real data
+        // Calculate revenue by type for pie chart
         List<DashboardStatsResponse.RevenueByType> revenueByType = new ArrayList<>();
         for (DashboardStatsResponse.TicketTypeStats stat : ticketTypeStats) {
             if (stat.getSoldQuantity() > 0) {
@@ -205,58 +109,21 @@ public class DashboardServiceImpl implements DashboardService {
                         .revenue(revenue)
                         .percentage(percentage)
                         .build());
-                
-                log.info("Revenue by type: {} - Revenue: {}, Percentage: {}%", 
-                    stat.getName(), revenue, percentage);
             }
         }
         
-        // Calculate daily stats for trend charts
-        Map<String, DailyStatsData> dailyStatsMap = new HashMap<>();
+        // Daily stats for trend charts (already sorted by date)
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
-        for (Order order : orders) {
-            if (order.getCreatedAt() != null && order.getStatus() != OrderStatus.REFUNDED) {
-                String dateKey = order.getCreatedAt().toLocalDate().format(formatter);
-                DailyStatsData dailyData = dailyStatsMap.getOrDefault(dateKey, new DailyStatsData());
-                
-                BigDecimal orderRevenue = BigDecimal.ZERO;
-                if (order.getTicketType() != null && order.getTicketType().getPrice() != null) {
-                    orderRevenue = order.getTicketType().getPrice();
-                }
-                
-                dailyData.revenue = dailyData.revenue.add(orderRevenue);
-                dailyData.ordersCount++;
-                dailyData.ticketsSold++;
-                
-                dailyStatsMap.put(dateKey, dailyData);
-            }
-        }
-        
-        // Convert to response format
         List<DashboardStatsResponse.DailyStats> dailyStats = new ArrayList<>();
-        for (Map.Entry<String, DailyStatsData> entry : dailyStatsMap.entrySet()) {
-            dailyStats.add(DashboardStatsResponse.DailyStats.builder()
-                    .date(entry.getKey())
-                    .revenue(entry.getValue().revenue)
-                    .ordersCount(entry.getValue().ordersCount)
-                    .ticketsSold(entry.getValue().ticketsSold)
-                    .build());
-        }
-        
-        // Sort by date
-        dailyStats.sort((a, b) -> {
-            try {
-                LocalDate dateA = LocalDate.parse(a.getDate(), formatter);
-                LocalDate dateB = LocalDate.parse(b.getDate(), formatter);
-                return dateA.compareTo(dateB);
-            } catch (Exception e) {
-                return 0;
-            }
-        });
+        stats.daily().forEach((day, daily) -> dailyStats.add(DashboardStatsResponse.DailyStats.builder()
+                .date(day.format(formatter))
+                .revenue(daily.revenue())
+                .ordersCount(daily.ordersCount())
+                .ticketsSold(daily.ordersCount())
+                .build()));
         
         // Build response
-        DashboardStatsResponse response = builder
+        DashboardStatsResponse response = DashboardStatsResponse.builder()
                 .totalRevenue(totalRevenue)
                 .totalTicketsSold(totalTicketsSold)
                 .totalAttendees(totalAttendees)
@@ -273,17 +140,31 @@ public class DashboardServiceImpl implements DashboardService {
                 .dailyStats(dailyStats)
                 .build();
         
-        log.info("Dashboard stats calculated for event {}: Revenue={}, Tickets Sold={}, Check-in Rate={}%", 
+        log.debug("Dashboard stats for event {}: Revenue={}, Tickets Sold={}, Check-in Rate={}%", 
                 eventId, totalRevenue, totalTicketsSold, checkInRate);
         
-        // Debug: Log final calculated values
-        log.info("Final KPI Values - Revenue: {}, TicketsSold: {}, Attendees: {}, CheckIn: {}, Refunded: {}, Quantity: {}, Unsold: {}", 
-                totalRevenue, totalTicketsSold, totalAttendees, totalCheckIn, totalRefunded, totalQuantity, unsoldTickets);
-        log.info("Final Rates - CheckIn: {}%, Refund: {}%, Unsold: {}%", checkInRate, refundRate, unsoldRate);
-        
         return response;
     }
     
+    @Override
+    public DashboardStatsResponse recomputeEventDashboardStats(Long eventId) {
+        eventStatsService.recompute(eventId);
+        return getEventDashboardStats(eventId);
+    }
+    
+    @Override
+    public boolean canManageEventDashboard(Long eventId, Object userId, Object role) {
+        if (userId == null) {
+            return false;
+        }
+        if ("ADMIN".equals(String.valueOf(role))) {
+            return true;
+        }
+        return eventRepo.findHostUserIdByEventId(eventId)
+                .map(hostUserId -> Objects.equals(hostUserId.toString(), userId.toString()))
+                .orElse(false);
+    }
+    
     @Override
     public HostDashboardStatsResponse getHostDashboardStats(Long hostId) {
         log.info("Calculating host dashboard stats for host ID: {}", hostId);
@@ -4,6 +4,7 @@ package com.group02.openevent.service.impl;
 import com.group02.openevent.dto.department.DepartmentStatsDTO;
 import com.group02.openevent.dto.department.FeaturedEventDTO;
 import com.group02.openevent.dto.department.OrderDTO;
+import com.group02.openevent.dto.report.DailyRevenueTotals;
 import com.group02.openevent.model.department.ArticleStatus;
 import com.group02.openevent.model.department.Department;
 import com.group02.openevent.model.enums.EventStatus;
@@ -15,13 +16,16 @@ import com.group02.openevent.model.request.Request;
 import com.group02.openevent.model.request.RequestStatus;
 import com.group02.openevent.repository.*;
 import com.group02.openevent.service.DepartmentService;
+import com.group02.openevent.service.RevenueRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -34,6 +38,7 @@ public class DepartmentServiceImpl implements DepartmentService {
     private final IRequestRepo requestRepo;
     private final IArticleRepo articleRepo;
     private final IOrderRepo  orderRepo;
+    private final RevenueRollupService revenueRollupService;
 
     @Override
     public Department saveDepartment(Department department) {
@@ -301,23 +306,17 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     @Override
     public Map<String, Object> getParticipantsTrend(Long departmentId) {
-        List<Order> orders = orderRepo.findByDepartmentId(departmentId);
-        LocalDateTime now = LocalDateTime.now();
+        Map<YearMonth, Long> participantsByMonth = new HashMap<>();
+        for (DailyRevenueTotals totals : getLastSixMonthsTotals(departmentId)) {
+            participantsByMonth.merge(YearMonth.from(totals.getDay()), totals.getActivePaidCount(), Long::sum);
+        }
+
         List<String> labels = new ArrayList<>();
         List<Long> data = new ArrayList<>();
-
         for (int i = 5; i >= 0; i--) {
-            LocalDateTime monthStart = now.minusMonths(i).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime monthEnd = monthStart.plusMonths(1);
-
-            long participantCount = orders.stream()
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .filter(o -> o.getCreatedAt() != null)
-                    .filter(o -> !o.getCreatedAt().isBefore(monthStart) && o.getCreatedAt().isBefore(monthEnd))
-                    .count();
-
-            labels.add("T" + monthStart.getMonthValue());
-            data.add(participantCount);
+            YearMonth month = YearMonth.now().minusMonths(i);
+            labels.add("T" + month.getMonthValue());
+            data.add(participantsByMonth.getOrDefault(month, 0L));
         }
 
         Map<String, Object> result = new HashMap<>();
@@ -328,24 +327,14 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     @Override
     public Map<String, Object> getRevenueTrend(Long departmentId) {
-        List<Order> orders = orderRepo.findByDepartmentId(departmentId);
-        LocalDateTime now = LocalDateTime.now();
+        Map<YearMonth, BigDecimal> revenueByMonth = sumNetRevenueByMonth(departmentId);
+
         List<String> labels = new ArrayList<>();
         List<BigDecimal> data = new ArrayList<>();
-
         for (int i = 5; i >= 0; i--) {
-            LocalDateTime monthStart = now.minusMonths(i).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime monthEnd = monthStart.plusMonths(1);
-
-            BigDecimal monthRevenue = orders.stream()
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .filter(o -> o.getCreatedAt() != null)
-                    .filter(o -> !o.getCreatedAt().isBefore(monthStart) && o.getCreatedAt().isBefore(monthEnd))
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            labels.add("T" + monthStart.getMonthValue());
-            data.add(monthRevenue);
+            YearMonth month = YearMonth.now().minusMonths(i);
+            labels.add("T" + month.getMonthValue());
+            data.add(revenueByMonth.getOrDefault(month, BigDecimal.ZERO));
         }
 
         Map<String, Object> result = new HashMap<>();
@@ -509,26 +498,14 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     @Override
     public Map<String, Object> getRevenueTrendData(Long departmentId) {
-        List<Order> orders = orderRepo.findByDepartmentId(departmentId);
-        LocalDateTime now = LocalDateTime.now();
+        Map<YearMonth, BigDecimal> revenueByMonth = sumNetRevenueByMonth(departmentId);
 
         List<String> labels = new ArrayList<>();
         List<Double> data = new ArrayList<>();
-
         for (int i = 5; i >= 0; i--) {
-            LocalDateTime monthStart = now.minusMonths(i).withDayOfMonth(1)
-                    .withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime monthEnd = monthStart.plusMonths(1);
-
-            BigDecimal monthRevenue = orders.stream()
-                    .filter(o -> o.getStatus() == OrderStatus.PAID)
-                    .filter(o -> o.getCreatedAt() != null)
-                    .filter(o -> !o.getCreatedAt().isBefore(monthStart) && o.getCreatedAt().isBefore(monthEnd))
-                    .map(Order::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            labels.add("Tháng " + monthStart.getMonthValue());
-            data.add(monthRevenue.doubleValue() / 1_000_000); // Convert to millions
+            YearMonth month = YearMonth.now().minusMonths(i);
+            labels.add("Tháng " + month.getMonthValue());
+            data.add(revenueByMonth.getOrDefault(month, BigDecimal.ZERO).doubleValue() / 1_000_000); // Convert to millions
         }
 
         Map<String, Object> result = new HashMap<>();
@@ -573,4 +550,19 @@ public class DepartmentServiceImpl implements DepartmentService {
         result.put("backgroundColor", backgroundColor);
         return result;
     }
+
+    // Trend 6 tháng đọc từ daily_revenue_rollup (O(số ngày)) thay vì load toàn bộ order của department
+    private List<DailyRevenueTotals> getLastSixMonthsTotals(Long departmentId) {
+        LocalDate from = YearMonth.now().minusMonths(5).atDay(1);
+        return revenueRollupService.getDailyTotals(from, LocalDate.now(), departmentId);
+    }
+
+    private Map<YearMonth, BigDecimal> sumNetRevenueByMonth(Long departmentId) {
+        Map<YearMonth, BigDecimal> revenueByMonth = new HashMap<>();
+        for (DailyRevenueTotals totals : getLastSixMonthsTotals(departmentId)) {
+            BigDecimal revenue = totals.getNetRevenue() != null ? totals.getNetRevenue() : BigDecimal.ZERO;
+            revenueByMonth.merge(YearMonth.from(totals.getDay()), revenue, BigDecimal::add);
+        }
+        return revenueByMonth;
+    }
 }
@@ -3,6 +3,7 @@ package com.group02.openevent.service.impl;
 import com.group02.openevent.model.email.EmailReminder;
 import com.group02.openevent.repository.IEmailReminderRepo;
 import com.group02.openevent.service.EmailReminderService;
+import com.group02.openevent.service.ReminderDispatchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -13,15 +14,19 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class EmailReminderSericeImpl implements EmailReminderService {
     private final IEmailReminderRepo emailReminderRepository;
+    private final ReminderDispatchService reminderDispatchService;
 
     /**
      * Lưu một yêu cầu nhắc nhở email mới hoặc cập nhật yêu cầu đã tồn tại.
      * Phương thức này được gọi bởi AgentEventService sau khi AI Agent xử lý.
+     * Reminder được đưa vào hàng đợi gửi theo sendAt sau khi transaction commit.
      * * @param reminder Đối tượng EmailReminder cần lưu.
      * @return Đối tượng EmailReminder đã được lưu (có ID).
      */
     public EmailReminder save(EmailReminder reminder) {
-        return emailReminderRepository.save(reminder);
+        EmailReminder saved = emailReminderRepository.save(reminder);
+        reminderDispatchService.schedule(saved);
+        return saved;
     }
 
     /**
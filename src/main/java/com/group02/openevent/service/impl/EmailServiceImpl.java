@@ -2,26 +2,24 @@ package com.group02.openevent.service.impl;
 
 import com.group02.openevent.model.event.Event;
 import com.group02.openevent.service.EmailService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.group02.openevent.service.MailOutboxService;
+import com.group02.openevent.util.EmailValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
 
 /**
- * Implementation of Email Service
+ * Implementation of Email Service.
+ * Email được ghi vào mail outbox, MailOutboxService gửi bằng worker pool (không chặn thread gọi)
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailServiceImpl implements EmailService {
     
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mailOutboxService;
     
     private static final DateTimeFormatter DATE_FORMATTER = 
             DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
@@ -46,35 +44,17 @@ public class EmailServiceImpl implements EmailService {
             throw new IllegalArgumentException("Event start/end time cannot be null");
         }
         
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setTo(userEmail);
-            helper.setSubject("🔔 Nhắc nhở: Sự kiện \"" + event.getTitle() + "\" sắp diễn ra!");
-            
-            String content = buildReminderEmailContent(event, minutesBefore);
-            helper.setText(content, true); // true = HTML
-            
-            mailSender.send(message);
-            log.info("✅ Sent reminder email to {} for event: {}", userEmail, event.getTitle());
-            
-        } catch (MessagingException e) {
-            log.error("❌ Failed to send email to {}: {}", userEmail, e.getMessage(), e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+        String subject = "🔔 Nhắc nhở: Sự kiện \"" + event.getTitle() + "\" sắp diễn ra!";
+        String content = buildReminderEmailContent(event, minutesBefore);
+        mailOutboxService.enqueue(userEmail, subject, content, true); // true = HTML
+        log.info("✅ Queued reminder email to {} for event: {}", userEmail, event.getTitle());
     }
     
     /**
      * Validate email format
      */
     private boolean isValidEmailFormat(String email) {
-        if (email == null || email.trim().isEmpty()) {
-            return false;
-        }
-        // Basic email format validation
-        String emailRegex = "^[A-Za-z0-9+_.-]+@(.+)$";
-        return email.matches(emailRegex);
+        return EmailValidator.isValid(email);
     }
 
     @Override
@@ -88,19 +68,8 @@ public class EmailServiceImpl implements EmailService {
             throw new IllegalArgumentException("Invalid email format: " + to);
         }
         
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(content);
-            
-            mailSender.send(message);
-            log.info("✅ Sent email to {}: {}", to, subject);
-            
-        } catch (Exception e) {
-            log.error("❌ Failed to send email to {}: {}", to, e.getMessage(), e);
-            throw new RuntimeException("Failed to send email", e);
-        }
+        mailOutboxService.enqueue(to, subject, content, false);
+        log.info("✅ Queued email to {}: {}", to, subject);
     }
     
     /**
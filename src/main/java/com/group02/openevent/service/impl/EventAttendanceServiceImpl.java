@@ -16,6 +16,7 @@ import com.group02.openevent.repository.ITicketTypeRepo;
 import com.group02.openevent.repository.ICustomerRepo;
 import com.group02.openevent.repository.IAccountRepo;
 import com.group02.openevent.service.EventAttendanceService;
+import com.group02.openevent.service.EventStatsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -33,6 +34,9 @@ public class EventAttendanceServiceImpl implements EventAttendanceService {
     
     @Autowired
     private IEventAttendanceRepo attendanceRepo;
+
+    @Autowired
+    private EventStatsService eventStatsService;
     
     @Autowired
     private IEventRepo eventRepo;
@@ -106,7 +110,9 @@ public class EventAttendanceServiceImpl implements EventAttendanceService {
         }
         
         log.info("Updated EventAttendance {} for check-in at {}", existing.getAttendanceId(), existing.getCheckInTime());
-        return attendanceRepo.save(existing);
+        EventAttendance saved = attendanceRepo.save(existing);
+        eventStatsService.recordCheckIn(saved);
+        return saved;
     }
     
     @Override
@@ -238,7 +244,9 @@ public class EventAttendanceServiceImpl implements EventAttendanceService {
         attendance.setStatus(EventAttendance.AttendanceStatus.CHECKED_IN);
         
         log.info("Updated EventAttendance {} for check-in at {}", attendance.getAttendanceId(), attendance.getCheckInTime());
-        return attendanceRepo.save(attendance);
+        EventAttendance saved = attendanceRepo.save(attendance);
+        eventStatsService.recordCheckIn(saved);
+        return saved;
     }
 
     public EventAttendance checkOut(Long id,Long attendanceId) {
@@ -22,6 +22,7 @@ import com.group02.openevent.event.EventCancelledEvent;
 import com.group02.openevent.event.EventCreatedEvent;
 import com.group02.openevent.event.EventUpdatedEvent;
 import com.group02.openevent.service.EventService;
+import com.group02.openevent.service.VenueConflictService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -68,6 +69,7 @@ public class EventServiceImpl implements EventService {
     IOrganizationRepo organizationRepo;
     IHostRepo hostRepo;
     IPlaceRepo placeRepo;
+    VenueConflictService venueConflictService;
     @Autowired
     ApplicationEventPublisher eventPublisher;
     @PersistenceContext
@@ -241,6 +243,8 @@ public class EventServiceImpl implements EventService {
         // ✅ Save cuối cùng
         log.info("Saving event with {} places to database", event.getPlaces().size());
         Event saved = eventRepo.saveAndFlush(event);
+        // Chỉ đổi danh sách places (ManyToMany) thì Hibernate không gọi @PostUpdate: refresh venue index tại đây
+        venueConflictService.refreshEvent(saved.getId());
 
         // Publish EventUpdatedEvent for audit log
         try {
@@ -406,7 +410,15 @@ public class EventServiceImpl implements EventService {
     }
     @Override
     public List<Event> isTimeConflict(LocalDateTime start, LocalDateTime end, List<Place> places) {
-        return eventRepo.findConflictedEvents(start, end, places);
+        if (places == null || places.isEmpty()) {
+            return List.of();
+        }
+        List<Long> placeIds = places.stream()
+                .map(Place::getId)
+                .filter(java.util.Objects::nonNull)
+                .collect(Collectors.toList());
+        List<Long> conflictedIds = venueConflictService.findConflictingEventIds(start, end, placeIds);
+        return conflictedIds.isEmpty() ? List.of() : eventRepo.findAllById(conflictedIds);
     }
 
     @Override
@@ -0,0 +1,258 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.dto.report.EventStatsSnapshot;
+import com.group02.openevent.event.EventStatsChangedEvent;
+import com.group02.openevent.model.attendance.EventAttendance;
+import com.group02.openevent.model.order.OrderStatus;
+import com.group02.openevent.repository.IEventAttendanceRepo;
+import com.group02.openevent.repository.IOrderRepo;
+import com.group02.openevent.service.EventStatsService;
+import com.group02.openevent.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregate số liệu dashboard theo event, chỉ nạp cho các event đang được xem.
+ * Mỗi aggregate nhớ đóng góp của từng order (theo orderId) và từng check-in (theo attendanceId):
+ * khi order đổi trạng thái thì trừ đóng góp cũ, cộng đóng góp mới, nên ghi nhận lặp lại không làm sai số.
+ * Order được cập nhật từ OrderChangedEvent (entity listener của Order, sau commit) nên mọi luồng
+ * (thanh toán, hủy, hết hạn, hoàn tiền...) đều được tính. Nạp/tính lại chỉ đọc projection (không load entity).
+ * Định kỳ tính lại các event đang giữ làm lưới an toàn (update bằng query trực tiếp), và bỏ các event lâu không ai xem.
+ */
+@Service
+@Slf4j
+public class EventStatsServiceImpl implements EventStatsService {
+
+    private final IOrderRepo orderRepo;
+    private final IEventAttendanceRepo attendanceRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long idleEvictMillis;
+    private final Map<Long, EventStats> stats = new ConcurrentHashMap<>();
+
+    public EventStatsServiceImpl(IOrderRepo orderRepo,
+                                 IEventAttendanceRepo attendanceRepo,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${dashboard.event-stats.idle-evict-minutes:120}") long idleEvictMinutes) {
+        this.orderRepo = orderRepo;
+        this.attendanceRepo = attendanceRepo;
+        this.eventPublisher = eventPublisher;
+        this.idleEvictMillis = TimeUnit.MINUTES.toMillis(idleEvictMinutes);
+    }
+
+    @Override
+    public EventStatsSnapshot getStats(Long eventId) {
+        EventStats eventStats = stats.computeIfAbsent(eventId, this::load);
+        eventStats.lastAccess = System.currentTimeMillis();
+        return eventStats.snapshot();
+    }
+
+    @Override
+    public void refreshOrder(Long orderId, Long eventId) {
+        if (orderId == null || eventId == null || !stats.containsKey(eventId)) {
+            // Event chưa được xem: lần nạp sau sẽ đọc từ DB
+            return;
+        }
+        List<Object[]> rows = orderRepo.findStatsRowsByOrderId(orderId);
+        EventStats eventStats = stats.get(eventId);
+        if (eventStats == null) {
+            return;
+        }
+        if (rows.isEmpty()) {
+            // Order đã bị xóa
+            eventStats.removeOrder(orderId);
+        } else {
+            eventStats.applyOrder(orderId, toEntry(rows.get(0)));
+        }
+        publishChanged(eventId);
+    }
+
+    @Override
+    public void recordCheckIn(EventAttendance attendance) {
+        if (attendance == null || attendance.getAttendanceId() == null || attendance.getEvent() == null
+                || attendance.getOrder() == null || attendance.getOrder().getTicketType() == null) {
+            // Attendee thêm thủ công (không có order) không tính vào thống kê theo ticket type
+            return;
+        }
+        Long eventId = attendance.getEvent().getId();
+        Long attendanceId = attendance.getAttendanceId();
+        Long ticketTypeId = attendance.getOrder().getTicketType().getTicketTypeId();
+        TransactionCallbacks.runAfterCommit(() -> {
+            EventStats eventStats = stats.get(eventId);
+            if (eventStats != null) {
+                if (eventStats.applyCheckIn(attendanceId, ticketTypeId)) {
+                    publishChanged(eventId);
+                }
+            }
+        });
+    }
+
+    @Override
+    public EventStatsSnapshot recompute(Long eventId) {
+        EventStats fresh = load(eventId);
+        stats.put(eventId, fresh);
+        publishChanged(eventId);
+        return fresh.snapshot();
+    }
+
+    /**
+     * Reconciliation: tính lại các event đang giữ trong bộ nhớ, bỏ các event không ai xem
+     */
+    @Scheduled(fixedDelayString = "${dashboard.event-stats.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        long now = System.currentTimeMillis();
+        int recomputed = 0;
+        for (Map.Entry<Long, EventStats> entry : stats.entrySet()) {
+            if (now - entry.getValue().lastAccess > idleEvictMillis) {
+                stats.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            try {
+                EventStats fresh = load(entry.getKey());
+                fresh.lastAccess = entry.getValue().lastAccess;
+                if (stats.replace(entry.getKey(), entry.getValue(), fresh)) {
+                    publishChanged(entry.getKey());
+                }
+                recomputed++;
+            } catch (Exception e) {
+                log.error("Error reconciling dashboard stats for event {}: {}", entry.getKey(), e.getMessage(), e);
+            }
+        }
+        if (recomputed > 0) {
+            log.debug("Reconciled dashboard stats for {} events", recomputed);
+        }
+    }
+
+    private EventStats load(Long eventId) {
+        long startTime = System.currentTimeMillis();
+        EventStats eventStats = new EventStats();
+        List<Object[]> orderRows = orderRepo.findStatsRowsByEventId(eventId);
+        for (Object[] row : orderRows) {
+            eventStats.applyOrder((Long) row[0], toEntry(row));
+        }
+        for (Object[] row : attendanceRepo.findCheckedInTicketTypeRowsByEventId(eventId)) {
+            eventStats.applyCheckIn((Long) row[0], (Long) row[1]);
+        }
+        log.debug("Loaded dashboard stats for event {} ({} orders) in {} ms",
+                eventId, orderRows.size(), System.currentTimeMillis() - startTime);
+        return eventStats;
+    }
+
+    // [orderId, ticketTypeId, status, totalAmount, createdAt, ticketPrice]
+    private static OrderEntry toEntry(Object[] row) {
+        LocalDateTime createdAt = (LocalDateTime) row[4];
+        return new OrderEntry(
+                (Long) row[1],
+                (OrderStatus) row[2],
+                (BigDecimal) row[3],
+                createdAt != null ? createdAt.toLocalDate() : null,
+                (BigDecimal) row[5]);
+    }
+
+    private void publishChanged(Long eventId) {
+        // Listener chỉ đánh dấu dashboard cần đẩy, không chặn luồng ghi
+        eventPublisher.publishEvent(new EventStatsChangedEvent(this, eventId));
+    }
+
+    /**
+     * Phần dữ liệu của một order ảnh hưởng tới thống kê
+     */
+    private record OrderEntry(Long ticketTypeId, OrderStatus status, BigDecimal totalAmount,
+                              LocalDate createdDay, BigDecimal price) {
+    }
+
+    private static final class Counters {
+        long sold;
+        BigDecimal revenue = BigDecimal.ZERO;
+        long checkIns;
+        long refunds;
+    }
+
+    private static final class Daily {
+        BigDecimal revenue = BigDecimal.ZERO;
+        long ordersCount;
+    }
+
+    private static final class EventStats {
+        private final Map<Long, OrderEntry> orders = new HashMap<>();
+        private final Map<Long, Long> checkIns = new HashMap<>(); // attendanceId -> ticketTypeId
+        private final Map<Long, Counters> byTicketType = new HashMap<>();
+        private final Map<LocalDate, Daily> daily = new HashMap<>();
+        private long refunded;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        synchronized void applyOrder(Long orderId, OrderEntry entry) {
+            OrderEntry previous = orders.put(orderId, entry);
+            if (previous != null) {
+                contribute(previous, -1);
+            }
+            contribute(entry, 1);
+        }
+
+        synchronized void removeOrder(Long orderId) {
+            OrderEntry previous = orders.remove(orderId);
+            if (previous != null) {
+                contribute(previous, -1);
+            }
+        }
+
+        synchronized boolean applyCheckIn(Long attendanceId, Long ticketTypeId) {
+            if (checkIns.putIfAbsent(attendanceId, ticketTypeId) == null) {
+                counters(ticketTypeId).checkIns++;
+                return true;
+            }
+            return false;
+        }
+
+        private void contribute(OrderEntry entry, int sign) {
+            BigDecimal signum = BigDecimal.valueOf(sign);
+            if (entry.status() == OrderStatus.PAID && entry.ticketTypeId() != null) {
+                Counters counters = counters(entry.ticketTypeId());
+                counters.sold += sign;
+                if (entry.totalAmount() != null) {
+                    counters.revenue = counters.revenue.add(entry.totalAmount().multiply(signum));
+                }
+            }
+            if (entry.status() == OrderStatus.REFUNDED) {
+                refunded += sign;
+                if (entry.ticketTypeId() != null) {
+                    counters(entry.ticketTypeId()).refunds += sign;
+                }
+            } else if (entry.createdDay() != null) {
+                Daily day = daily.computeIfAbsent(entry.createdDay(), d -> new Daily());
+                day.ordersCount += sign;
+                if (entry.price() != null) {
+                    day.revenue = day.revenue.add(entry.price().multiply(signum));
+                }
+                if (day.ordersCount == 0) {
+                    daily.remove(entry.createdDay());
+                }
+            }
+        }
+
+        private Counters counters(Long ticketTypeId) {
+            return byTicketType.computeIfAbsent(ticketTypeId, id -> new Counters());
+        }
+
+        synchronized EventStatsSnapshot snapshot() {
+            Map<Long, EventStatsSnapshot.TicketTypeCounters> ticketTypes = new HashMap<>();
+            byTicketType.forEach((id, c) -> ticketTypes.put(id,
+                    new EventStatsSnapshot.TicketTypeCounters(c.sold, c.revenue, c.checkIns, c.refunds)));
+            TreeMap<LocalDate, EventStatsSnapshot.DailyCounters> days = new TreeMap<>();
+            daily.forEach((day, d) -> days.put(day, new EventStatsSnapshot.DailyCounters(d.revenue, d.ordersCount)));
+            return new EventStatsSnapshot(ticketTypes, refunded, days);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.dto.admin.ExportJobDTO;
+import com.group02.openevent.service.ExportJobService;
+import com.group02.openevent.util.export.ExportFormat;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Export job chạy trên pool riêng (giới hạn số job đồng thời và hàng đợi) để export lớn
+ * không chiếm thread xử lý request. Trạng thái job giữ trong bộ nhớ, file kết quả nằm ở thư mục tạm.
+ */
+@Service
+@Slf4j
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final long retentionMinutes;
+
+    public ExportJobServiceImpl(@Value("${export.jobs.max-concurrent:2}") int maxConcurrent,
+                                @Value("${export.jobs.queue-capacity:20}") int queueCapacity,
+                                @Value("${export.jobs.retention-minutes:60}") long retentionMinutes) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "export-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    @Override
+    public ExportJobDTO submit(String name, ExportFormat format, ExportTask task) {
+        Job job = new Job(UUID.randomUUID().toString(), name, format);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("Too many export jobs in progress, please try again later");
+        }
+        log.info("Export job {} ({}) submitted", job.id, name);
+        return job.toDTO();
+    }
+
+    @Override
+    public Optional<ExportJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toDTO);
+    }
+
+    @Override
+    public boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.status = Status.CANCELLED;
+        job.finishedAt = LocalDateTime.now();
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        log.info("Export job {} cancelled", jobId);
+        return true;
+    }
+
+    @Override
+    public Optional<Path> getResultFile(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.status != Status.COMPLETED) {
+            return Optional.empty();
+        }
+        return Optional.of(job.file);
+    }
+
+    /**
+     * Xóa job (và file) đã kết thúc quá thời gian lưu
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void cleanupExpiredJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.finishedAt != null && job.finishedAt.isBefore(threshold)) {
+                deleteQuietly(job.file);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        jobs.values().forEach(job -> deleteQuietly(job.file));
+    }
+
+    private void run(Job job, ExportTask task) {
+        if (job.status == Status.CANCELLED) {
+            return;
+        }
+        job.status = Status.RUNNING;
+        try {
+            job.file = Files.createTempFile("export-" + job.id, "." + job.format.getExtension());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(job.file))) {
+                task.write(out);
+            }
+            if (Thread.currentThread().isInterrupted() || job.status == Status.CANCELLED) {
+                throw new CancellationException();
+            }
+            job.sizeBytes = Files.size(job.file);
+            job.status = Status.COMPLETED;
+            log.info("Export job {} completed: {} bytes", job.id, job.sizeBytes);
+        } catch (CancellationException e) {
+            job.status = Status.CANCELLED;
+            deleteQuietly(job.file);
+        } catch (Exception e) {
+            if (job.status != Status.CANCELLED) {
+                job.status = Status.FAILED;
+                job.error = e.getMessage();
+                log.error("Export job {} failed: {}", job.id, e.getMessage(), e);
+            }
+            deleteQuietly(job.file);
+        } finally {
+            if (job.finishedAt == null) {
+                job.finishedAt = LocalDateTime.now();
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete export file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String name;
+        private final ExportFormat format;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Status status = Status.PENDING;
+        private volatile Future<?> future;
+        private volatile Path file;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        Job(String id, String name, ExportFormat format) {
+            this.id = id;
+            this.name = name;
+            this.format = format;
+        }
+
+        boolean isFinished() {
+            return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+        }
+
+        ExportJobDTO toDTO() {
+            return ExportJobDTO.builder()
+                    .jobId(id)
+                    .name(name)
+                    .format(format.name())
+                    .status(status.name())
+                    .fileName(name + "." + format.getExtension())
+                    .sizeBytes(sizeBytes)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.model.attendance.EventAttendance;
+import com.group02.openevent.model.order.Order;
+import com.group02.openevent.model.order.OrderStatus;
+import com.group02.openevent.model.payment.PaymentStatus;
+import com.group02.openevent.repository.IEventAttendanceRepo;
+import com.group02.openevent.service.AdminService;
+import com.group02.openevent.service.ExportService;
+import com.group02.openevent.util.export.ExportFormat;
+import com.group02.openevent.util.export.TabularWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * Mỗi lô được đọc trong transaction riêng (scroll* của AdminService / query của repo),
+ * nên không giữ connection hay persistence context suốt thời gian ghi response.
+ */
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private static final List<String> ORDER_HEADERS = List.of(
+            "Order ID", "Customer Name", "Customer Email", "Event Title", "Ticket Type Name",
+            "Quantity", "Total Amount", "Status", "Payment Status", "Created At");
+    private static final List<String> PAYMENT_HEADERS = List.of(
+            "Payment ID", "Order ID", "Customer Name", "Customer Email", "Amount",
+            "Payment Method", "Status", "Transaction ID", "Created At", "Paid At");
+    private static final List<String> AUDIT_LOG_HEADERS = List.of(
+            "Timestamp", "User Name", "User Email", "User Role", "Action Type",
+            "Entity Type", "Entity ID", "Description", "Entity Details");
+    private static final List<String> ATTENDEE_HEADERS = List.of(
+            "STT", "Tên", "Email", "SĐT", "Loại vé", "Tổ chức", "Trạng thái thanh toán",
+            "Check-in", "Check-out", "Ghi chú");
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private IEventAttendanceRepo attendanceRepo;
+
+    @Value("${export.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void exportOrders(OrderStatus status, String search, LocalDate fromDate, LocalDate toDate,
+                             ExportFormat format, OutputStream out) throws IOException {
+        try (TabularWriter writer = TabularWriter.open(format, out, "Orders")) {
+            writer.writeHeader(ORDER_HEADERS);
+            long rows = writeWindows(writer,
+                    position -> adminService.scrollOrders(status, search, fromDate, toDate, position, batchSize),
+                    o -> Arrays.asList(o.getOrderId(), o.getCustomerName(), o.getCustomerEmail(), o.getEventTitle(),
+                            o.getTicketTypeName(), o.getQuantity(), o.getTotalAmount(), o.getStatus(),
+                            o.getPaymentStatus(), o.getCreatedAt()));
+            log.info("Exported {} orders as {}", rows, format);
+        }
+    }
+
+    @Override
+    public void exportPayments(PaymentStatus status, String search, LocalDate fromDate, LocalDate toDate,
+                               ExportFormat format, OutputStream out) throws IOException {
+        try (TabularWriter writer = TabularWriter.open(format, out, "Payments")) {
+            writer.writeHeader(PAYMENT_HEADERS);
+            long rows = writeWindows(writer,
+                    position -> adminService.scrollPayments(status, search, fromDate, toDate, position, batchSize),
+                    p -> Arrays.asList(p.getPaymentId(), p.getOrderId(), p.getCustomerName(), p.getCustomerEmail(),
+                            p.getAmount(), p.getPaymentMethod(), p.getStatus(), p.getTransactionId(),
+                            p.getCreatedAt(), p.getPaidAt()));
+            log.info("Exported {} payments as {}", rows, format);
+        }
+    }
+
+    @Override
+    public void exportAuditLogs(String actionType, String entityType, Long userId, String search,
+                                LocalDate fromDate, LocalDate toDate, ExportFormat format, OutputStream out) throws IOException {
+        try (TabularWriter writer = TabularWriter.open(format, out, "Audit Logs")) {
+            writer.writeHeader(AUDIT_LOG_HEADERS);
+            long rows = writeWindows(writer,
+                    position -> adminService.scrollAuditLogs(actionType, entityType, userId, search, fromDate, toDate,
+                            position, batchSize),
+                    a -> Arrays.asList(a.getTimestamp(), a.getUserName(), a.getUserEmail(), a.getUserRole(),
+                            a.getActionType(), a.getEntityType(), a.getEntityId(), a.getDescription(),
+                            a.getEntityDetails()));
+            log.info("Exported {} audit logs as {}", rows, format);
+        }
+    }
+
+    @Override
+    public void exportAttendees(Long eventId, Long ticketTypeFilter, String paymentStatusFilter, String checkinStatusFilter,
+                                ExportFormat format, OutputStream out) throws IOException {
+        try (TabularWriter writer = TabularWriter.open(format, out, "Attendees")) {
+            writer.writeHeader(ATTENDEE_HEADERS);
+            long rowNum = 0;
+            long afterId = 0L;
+            List<EventAttendance> batch;
+            do {
+                checkCancelled();
+                batch = attendanceRepo.filterAttendeesAfter(eventId, ticketTypeFilter, paymentStatusFilter,
+                        checkinStatusFilter, afterId, PageRequest.of(0, batchSize));
+                for (EventAttendance attendee : batch) {
+                    writer.writeRow(toAttendeeRow(++rowNum, attendee));
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getAttendanceId();
+                }
+            } while (batch.size() == batchSize);
+            log.info("Exported {} attendees of event {} as {}", rowNum, eventId, format);
+        }
+    }
+
+    private <T> long writeWindows(TabularWriter writer, Function<ScrollPosition, Window<T>> fetch,
+                                  Function<T, List<?>> toRow) throws IOException {
+        long rows = 0;
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<T> window;
+        do {
+            checkCancelled();
+            window = fetch.apply(position);
+            if (window.isEmpty()) {
+                break;
+            }
+            for (T item : window.getContent()) {
+                writer.writeRow(toRow.apply(item));
+            }
+            rows += window.size();
+            position = window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+        return rows;
+    }
+
+    private List<?> toAttendeeRow(long rowNum, EventAttendance attendee) {
+        String name;
+        String email;
+        String phone;
+        String ticketType;
+        String organization;
+        String paymentStatus;
+        Order order = attendee.getOrder();
+        if (order != null) {
+            // Attendee có Order (người mua vé thật)
+            name = order.getParticipantName();
+            email = order.getParticipantEmail();
+            phone = order.getParticipantPhone();
+            ticketType = order.getTicketType() != null ? order.getTicketType().getName() : null;
+            organization = order.getParticipantOrganization();
+            paymentStatus = order.getStatus() != null ? order.getStatus().toString() : null;
+        } else {
+            // Attendee thêm thủ công (không có Order)
+            name = attendee.getFullName();
+            email = attendee.getEmail();
+            phone = attendee.getPhone();
+            ticketType = "Thêm thủ công";
+            organization = attendee.getOrganization();
+            paymentStatus = "Không có Order";
+        }
+        return Arrays.asList(rowNum, name, email, phone, ticketType, organization, paymentStatus,
+                attendee.getCheckInTime() != null ? attendee.getCheckInTime().toString() : null,
+                attendee.getCheckOutTime() != null ? attendee.getCheckOutTime().toString() : null,
+                attendee.getNotes());
+    }
+
+    private void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Export cancelled");
+        }
+    }
+}
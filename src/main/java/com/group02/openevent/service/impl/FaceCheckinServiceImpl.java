@@ -8,6 +8,7 @@ import com.group02.openevent.model.user.Customer;
 import com.group02.openevent.model.user.User;
 import com.group02.openevent.repository.IEventAttendanceRepo;
 import com.group02.openevent.repository.IOrderRepo;
+import com.group02.openevent.service.EventStatsService;
 import com.group02.openevent.service.FaceCheckinService;
 import com.group02.openevent.service.FaceVerificationClient;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +37,9 @@ public class FaceCheckinServiceImpl implements FaceCheckinService {
     @Autowired
     private IEventAttendanceRepo attendanceRepo;
     
+    @Autowired
+    private EventStatsService eventStatsService;
+    
     @Override
     @Transactional
     public EventAttendance faceCheckIn(Long eventId, byte[] capturedImage, Customer currentCustomer) {
@@ -124,6 +128,7 @@ public class FaceCheckinServiceImpl implements FaceCheckinService {
         }
         
         EventAttendance saved = attendanceRepo.save(attendance);
+        eventStatsService.recordCheckIn(saved);
         
         log.info("Face check-in successful for event {} and customer {} with orderId {}", 
             eventId, currentCustomer.getCustomerId(), paidOrder.getOrderId());
@@ -0,0 +1,383 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.dto.admin.MailOutboxStatsDTO;
+import com.group02.openevent.model.email.MailOutbox;
+import com.group02.openevent.model.email.MailStatus;
+import com.group02.openevent.repository.IMailOutboxRepo;
+import com.group02.openevent.service.MailOutboxService;
+import com.group02.openevent.util.EmailValidator;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Poller (một thread @Scheduled) nhận các email đến lượt, áp giới hạn theo domain, chia thành lô
+ * và giao cho worker pool. Mỗi lô được gửi bằng một lần gọi JavaMailSender.send(MimeMessage...)
+ * nên dùng chung một kết nối SMTP cho cả lô. Lỗi được thử lại với exponential backoff,
+ * quá maxAttempts thì chuyển DEAD.
+ */
+@Service
+@Slf4j
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+
+    private final IMailOutboxRepo outboxRepo;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+
+    @Value("${mail.outbox.claim-size:200}")
+    private int claimSize;
+
+    @Value("${mail.outbox.connection-batch-size:50}")
+    private int connectionBatchSize;
+
+    @Value("${mail.outbox.per-domain-per-minute:100}")
+    private int perDomainPerMinute;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${mail.outbox.backoff-max-minutes:60}")
+    private long backoffMaxMinutes;
+
+    @Value("${mail.outbox.stuck-minutes:10}")
+    private long stuckMinutes;
+
+    @Value("${mail.outbox.sent-retention-days:7}")
+    private long sentRetentionDays;
+
+    private final Map<String, DomainWindow> domainWindows = new HashMap<>();
+    private final RollingCounter sentPerSecond = new RollingCounter(60);
+    private final AtomicLong sentTotal = new AtomicLong();
+    private final AtomicLong failedAttemptsTotal = new AtomicLong();
+    private final AtomicLong deadTotal = new AtomicLong();
+    private final AtomicLong throttledTotal = new AtomicLong();
+
+    public MailOutboxServiceImpl(IMailOutboxRepo outboxRepo,
+                                 JavaMailSender mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${mail.outbox.workers:4}") int workerCount,
+                                 @Value("${mail.outbox.worker-queue-capacity:20}") int workerQueueCapacity) {
+        this.outboxRepo = outboxRepo;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(workerQueueCapacity), r -> {
+                    Thread thread = new Thread(r, "mail-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void enqueue(String to, String subject, String body, boolean html) {
+        if (to == null || to.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty");
+        }
+        String recipient = to.trim();
+        if (!EmailValidator.isValid(recipient)) {
+            throw new IllegalArgumentException("Invalid email format: " + to);
+        }
+        outboxRepo.save(MailOutbox.builder()
+                .recipient(recipient)
+                .recipientDomain(recipient.substring(recipient.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT))
+                .subject(subject != null ? subject : "")
+                .body(body != null ? body : "")
+                .html(html)
+                .status(MailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void dispatchDue() {
+        try {
+            // Worker pool còn đầy việc thì chưa nhận thêm, email vẫn nằm an toàn trong DB
+            if (workers.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxRepo.findDueIds(MailStatus.PENDING, now, PageRequest.of(0, claimSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            LocalDateTime lockedAt = now.truncatedTo(ChronoUnit.MILLIS);
+            transactionTemplate.execute(status -> outboxRepo.claim(ids, lockedAt));
+            List<MailOutbox> claimed = outboxRepo.findByIdInAndLockedAt(ids, lockedAt);
+
+            Map<String, List<MailOutbox>> byDomain = new LinkedHashMap<>();
+            claimed.forEach(mail -> byDomain.computeIfAbsent(mail.getRecipientDomain(), d -> new ArrayList<>()).add(mail));
+
+            List<MailOutbox> deferred = new ArrayList<>();
+            for (Map.Entry<String, List<MailOutbox>> entry : byDomain.entrySet()) {
+                List<MailOutbox> mails = entry.getValue();
+                DomainWindow window = domainWindows.computeIfAbsent(entry.getKey(), d -> new DomainWindow());
+                int granted = window.acquire(mails.size(), perDomainPerMinute);
+                if (granted < mails.size()) {
+                    // Vượt giới hạn của domain: hoãn đến phút kế tiếp, không tính là một lần thử
+                    for (MailOutbox mail : mails.subList(granted, mails.size())) {
+                        mail.setStatus(MailStatus.PENDING);
+                        mail.setLockedAt(null);
+                        mail.setNextAttemptAt(window.nextWindowStart());
+                        deferred.add(mail);
+                    }
+                    throttledTotal.addAndGet(mails.size() - granted);
+                }
+                for (int from = 0; from < granted; from += connectionBatchSize) {
+                    submit(new ArrayList<>(mails.subList(from, Math.min(granted, from + connectionBatchSize))));
+                }
+            }
+            if (!deferred.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> outboxRepo.saveAll(deferred));
+            }
+        } catch (Exception e) {
+            log.error("❌ Error dispatching mail outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    private void submit(List<MailOutbox> batch) {
+        try {
+            workers.execute(() -> sendBatch(batch));
+        } catch (RejectedExecutionException e) {
+            // Pool đầy: trả về PENDING để lần poll sau nhận lại
+            batch.forEach(mail -> {
+                mail.setStatus(MailStatus.PENDING);
+                mail.setLockedAt(null);
+            });
+            transactionTemplate.executeWithoutResult(status -> outboxRepo.saveAll(batch));
+        }
+    }
+
+    private void sendBatch(List<MailOutbox> batch) {
+        Map<MimeMessage, MailOutbox> byMessage = new IdentityHashMap<>();
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        for (MailOutbox mail : batch) {
+            try {
+                byMessage.put(toMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                failures.put(mail, e);
+            }
+        }
+
+        if (!byMessage.isEmpty()) {
+            try {
+                mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    byMessage.values().forEach(mail -> failures.put(mail, e));
+                } else {
+                    e.getFailedMessages().forEach((message, cause) -> {
+                        MailOutbox mail = byMessage.get(message);
+                        if (mail != null) {
+                            failures.put(mail, cause);
+                        }
+                    });
+                }
+            } catch (MailException e) {
+                // Không kết nối/xác thực được SMTP: cả lô lỗi
+                byMessage.values().forEach(mail -> failures.put(mail, e));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (MailOutbox mail : batch) {
+            Exception failure = failures.get(mail);
+            if (failure == null) {
+                mail.setStatus(MailStatus.SENT);
+                mail.setSentAt(now);
+                mail.setLockedAt(null);
+                sent++;
+            } else {
+                markFailed(mail, failure, now);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepo.saveAll(batch));
+        } catch (Exception e) {
+            // Email SENDING sẽ được releaseStuck trả lại hàng đợi (có thể gửi trùng)
+            log.error("❌ Cannot save mail outbox results for {} emails: {}", batch.size(), e.getMessage(), e);
+        }
+
+        sentTotal.addAndGet(sent);
+        sentPerSecond.add(sent);
+        log.debug("Mail batch done: {} sent, {} failed", sent, failures.size());
+    }
+
+    private void markFailed(MailOutbox mail, Exception failure, LocalDateTime now) {
+        failedAttemptsTotal.incrementAndGet();
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLockedAt(null);
+        String error = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        mail.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        if (attempts >= maxAttempts) {
+            mail.setStatus(MailStatus.DEAD);
+            deadTotal.incrementAndGet();
+            log.error("❌ Email {} to {} moved to DEAD after {} attempts: {}", mail.getId(), mail.getRecipient(), attempts, error);
+        } else {
+            mail.setStatus(MailStatus.PENDING);
+            mail.setNextAttemptAt(now.plus(backoff(attempts)));
+            log.warn("Email {} to {} failed (attempt {}), retry at {}: {}",
+                    mail.getId(), mail.getRecipient(), attempts, mail.getNextAttemptAt(), error);
+        }
+    }
+
+    /**
+     * base * 2^(attempts-1), tối đa backoffMaxMinutes
+     */
+    private Duration backoff(int attempts) {
+        Duration max = Duration.ofMinutes(backoffMaxMinutes);
+        Duration delay = Duration.ofSeconds(backoffBaseSeconds).multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private MimeMessage toMimeMessage(MailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, mail.isHtml(), "UTF-8");
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), mail.isHtml());
+        return message;
+    }
+
+    /**
+     * Trả lại email kẹt ở SENDING và xóa email đã gửi quá hạn lưu
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void maintenance() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer released = transactionTemplate.execute(status -> outboxRepo.releaseStuck(now.minusMinutes(stuckMinutes)));
+            Integer deleted = transactionTemplate.execute(status -> outboxRepo.deleteSentBefore(now.minusDays(sentRetentionDays)));
+            if ((released != null && released > 0) || (deleted != null && deleted > 0)) {
+                log.info("Mail outbox maintenance: {} stuck emails released, {} sent emails purged", released, deleted);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error in mail outbox maintenance: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public MailOutboxStatsDTO getStats() {
+        Map<MailStatus, Long> counts = new EnumMap<>(MailStatus.class);
+        for (Object[] row : outboxRepo.countByStatus()) {
+            counts.put((MailStatus) row[0], (Long) row[1]);
+        }
+        return MailOutboxStatsDTO.builder()
+                .pending(counts.getOrDefault(MailStatus.PENDING, 0L))
+                .sending(counts.getOrDefault(MailStatus.SENDING, 0L))
+                .sent(counts.getOrDefault(MailStatus.SENT, 0L))
+                .dead(counts.getOrDefault(MailStatus.DEAD, 0L))
+                .oldestPendingAt(outboxRepo.findOldestPendingAt())
+                .sentTotal(sentTotal.get())
+                .failedAttemptsTotal(failedAttemptsTotal.get())
+                .deadTotal(deadTotal.get())
+                .throttledTotal(throttledTotal.get())
+                .sentLastMinute(sentPerSecond.sum())
+                .activeWorkers(workers.getActiveCount())
+                .workerQueueSize(workers.getQueue().size())
+                .build();
+    }
+
+    @Override
+    public int requeueDead() {
+        Integer requeued = transactionTemplate.execute(status -> outboxRepo.requeueDead(LocalDateTime.now()));
+        return requeued != null ? requeued : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Lô đang gửi được chạy nốt; email chưa gửi vẫn nằm trong DB
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Cửa sổ cố định một phút cho một domain; chỉ dùng trong thread poller
+     */
+    private static final class DomainWindow {
+        private long minute = -1;
+        private int used;
+
+        int acquire(int requested, int limit) {
+            long current = System.currentTimeMillis() / 60_000;
+            if (current != minute) {
+                minute = current;
+                used = 0;
+            }
+            int granted = Math.max(0, Math.min(requested, limit - used));
+            used += granted;
+            return granted;
+        }
+
+        LocalDateTime nextWindowStart() {
+            return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        }
+    }
+
+    /**
+     * Bộ đếm theo từng giây trong {@code size} giây gần nhất
+     */
+    private static final class RollingCounter {
+        private final long[] seconds;
+        private final long[] counts;
+
+        RollingCounter(int size) {
+            this.seconds = new long[size];
+            this.counts = new long[size];
+        }
+
+        synchronized void add(long value) {
+            long now = System.currentTimeMillis() / 1000;
+            int slot = (int) (now % seconds.length);
+            if (seconds[slot] != now) {
+                seconds[slot] = now;
+                counts[slot] = 0;
+            }
+            counts[slot] += value;
+        }
+
+        synchronized long sum() {
+            long now = System.currentTimeMillis() / 1000;
+            long total = 0;
+            for (int i = 0; i < seconds.length; i++) {
+                if (now - seconds[i] < seconds.length) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.model.email.EmailReminder;
+import com.group02.openevent.model.event.Event;
+import com.group02.openevent.repository.ICustomerRepo;
+import com.group02.openevent.repository.IEmailReminderRepo;
+import com.group02.openevent.service.EmailService;
+import com.group02.openevent.service.ReminderDispatchService;
+import com.group02.openevent.util.EmailValidator;
+import com.group02.openevent.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hàng đợi DelayQueue theo sendAt, một thread dispatcher lấy reminder ngay khi đến hạn,
+ * gom các reminder cùng đến hạn thành lô: nạp reminder + event bằng một query, email người nhận
+ * bằng một query, ghi vào mail outbox và đánh dấu đã gửi bằng một câu UPDATE (cùng transaction).
+ * {@code queued} giữ sendAt hiện hành của từng reminder trong hàng đợi; phần tử có sendAt khác
+ * (reminder đã bị đổi giờ) bị bỏ qua khi lấy ra.
+ */
+@Service
+@Slf4j
+public class ReminderDispatchServiceImpl implements ReminderDispatchService {
+
+
+    private final IEmailReminderRepo reminderRepo;
+    private final ICustomerRepo customerRepo;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final long horizonMinutes;
+    private final long retryDelayMinutes;
+    private final int batchSize;
+
+    private final DelayQueue<DueReminder> queue = new DelayQueue<>();
+    private final Map<Long, LocalDateTime> queued = new ConcurrentHashMap<>();
+    private volatile Thread dispatcher;
+
+    public ReminderDispatchServiceImpl(IEmailReminderRepo reminderRepo,
+                                       ICustomerRepo customerRepo,
+                                       EmailService emailService,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${email.reminder.horizon-minutes:10}") long horizonMinutes,
+                                       @Value("${email.reminder.retry-delay-minutes:5}") long retryDelayMinutes,
+                                       @Value("${email.reminder.batch-size:50}") int batchSize) {
+        this.reminderRepo = reminderRepo;
+        this.customerRepo = customerRepo;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Có thể được gọi trong afterCommit của transaction khác nên luôn mở transaction mới
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.horizonMinutes = horizonMinutes;
+        this.retryDelayMinutes = retryDelayMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            Integer backfilled = transactionTemplate.execute(status -> reminderRepo.backfillSendAt());
+            if (backfilled != null && backfilled > 0) {
+                log.info("Backfilled send_at for {} pending email reminders", backfilled);
+            }
+            enqueueUpcoming();
+        } catch (Exception e) {
+            log.error("❌ Error loading pending email reminders: {}", e.getMessage(), e);
+        }
+        Thread thread = new Thread(this::dispatchLoop, "reminder-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+        dispatcher = thread;
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void schedule(EmailReminder reminder) {
+        if (reminder == null || reminder.getId() == null || reminder.isSent() || reminder.getSendAt() == null) {
+            return;
+        }
+        Long id = reminder.getId();
+        LocalDateTime sendAt = reminder.getSendAt();
+        TransactionCallbacks.runAfterCommit(() -> enqueue(id, sendAt, true));
+    }
+
+    @Override
+    public void rescheduleEvent(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> {
+            try {
+                Integer updated = transactionTemplate.execute(status -> reminderRepo.rescheduleByEventId(eventId));
+                if (updated == null || updated == 0) {
+                    return;
+                }
+                for (Object[] row : reminderRepo.findUnsentByEventId(eventId)) {
+                    enqueue((Long) row[0], (LocalDateTime) row[1], true);
+                }
+                log.debug("Rescheduled {} email reminders of event {}", updated, eventId);
+            } catch (Exception e) {
+                log.error("❌ Error rescheduling email reminders of event {}: {}", eventId, e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public int enqueueUpcoming() {
+        int added = 0;
+        for (Object[] row : reminderRepo.findUnsentDueBefore(LocalDateTime.now().plusMinutes(horizonMinutes))) {
+            // Không ghi đè reminder đang chờ gửi lại
+            if (enqueue((Long) row[0], (LocalDateTime) row[1], false)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private boolean enqueue(Long id, LocalDateTime sendAt, boolean replace) {
+        if (sendAt == null || sendAt.isAfter(LocalDateTime.now().plusMinutes(horizonMinutes))) {
+            // Ngoài horizon: lần nạp định kỳ sau sẽ lấy từ DB
+            if (replace) {
+                queued.remove(id);
+            }
+            return false;
+        }
+        LocalDateTime previous = replace ? queued.put(id, sendAt) : queued.putIfAbsent(id, sendAt);
+        if (previous != null && (!replace || previous.equals(sendAt))) {
+            return false;
+        }
+        queue.add(new DueReminder(id, sendAt));
+        return true;
+    }
+
+    private void dispatchLoop() {
+        List<DueReminder> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                // Lấy thêm các reminder cũng đã đến hạn
+                queue.drainTo(batch, batchSize - 1);
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (DueReminder due : batch) {
+                    if (queued.remove(due.id(), due.sendAt())) {
+                        ids.add(due.id());
+                    }
+                }
+                if (!ids.isEmpty()) {
+                    dispatch(ids);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("❌ Error dispatching email reminders: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Long> ids) {
+        List<EmailReminder> reminders = reminderRepo.findByIdInAndIsSentFalse(ids);
+        if (reminders.isEmpty()) {
+            return;
+        }
+        Set<Long> accountIds = new HashSet<>();
+        reminders.forEach(reminder -> accountIds.add(reminder.getUserId()));
+        Map<Long, String> emails = new HashMap<>();
+        for (Object[] row : customerRepo.findEmailsByAccountIds(accountIds)) {
+            emails.put((Long) row[0], (String) row[1]);
+        }
+
+        // Ghi email vào mail outbox và đánh dấu reminder đã gửi trong cùng một transaction
+        Integer sentCount = transactionTemplate.execute(status -> handOff(reminders, emails));
+        if (sentCount != null && sentCount > 0) {
+            log.info("✅ Queued {} reminder emails", sentCount);
+        }
+    }
+
+    private int handOff(List<EmailReminder> reminders, Map<Long, String> emails) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> done = new ArrayList<>();
+        int sentCount = 0;
+        for (EmailReminder reminder : reminders) {
+            Event event = reminder.getEvent();
+            if (event == null || event.getStartsAt() == null) {
+                log.warn("Event not found or has no start time for reminder ID: {}, marking as sent", reminder.getId());
+                done.add(reminder.getId());
+                continue;
+            }
+            LocalDateTime sendAt = event.getStartsAt().minusMinutes(reminder.getRemindMinutes());
+            if (sendAt.isAfter(now)) {
+                // Event đã bị dời giờ sau khi reminder vào hàng đợi
+                enqueue(reminder.getId(), sendAt, true);
+                continue;
+            }
+            if (!now.isBefore(event.getStartsAt())) {
+                log.info("Event {} has already started, marking reminder ID: {} as sent", event.getId(), reminder.getId());
+                done.add(reminder.getId());
+                continue;
+            }
+            if (sendAt.isBefore(now.minusDays(1))) {
+                log.info("Reminder time {} is too far in the past (> 1 day), marking reminder ID: {} as sent",
+                        sendAt, reminder.getId());
+                done.add(reminder.getId());
+                continue;
+            }
+            String userEmail = emails.get(reminder.getUserId());
+            if (!EmailValidator.isValid(userEmail)) {
+                log.warn("No valid email for user {} (reminder ID: {}), marking as sent", reminder.getUserId(), reminder.getId());
+                done.add(reminder.getId());
+                continue;
+            }
+            try {
+                emailService.sendEventReminderEmail(userEmail, event, reminder.getRemindMinutes());
+                done.add(reminder.getId());
+                sentCount++;
+            } catch (Exception emailException) {
+                log.error("❌ Failed to send email to {} for reminder ID {}: {}",
+                        userEmail, reminder.getId(), emailException.getMessage());
+                // Không đánh dấu đã gửi, thử lại sau retryDelayMinutes
+                enqueue(reminder.getId(), now.plusMinutes(retryDelayMinutes), true);
+            }
+        }
+
+        if (!done.isEmpty()) {
+            reminderRepo.markSent(done);
+        }
+        return sentCount;
+    }
+
+    private record DueReminder(Long id, LocalDateTime sendAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            long dueMillis = sendAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return unit.convert(dueMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return sendAt.compareTo(((DueReminder) other).sendAt);
+        }
+    }
+}
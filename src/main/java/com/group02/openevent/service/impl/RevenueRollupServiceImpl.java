@@ -0,0 +1,84 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.dto.report.DailyRevenueTotals;
+import com.group02.openevent.dto.report.EventTypeRevenue;
+import com.group02.openevent.dto.report.RevenueTotals;
+import com.group02.openevent.repository.IDailyRevenueRollupRepo;
+import com.group02.openevent.repository.IOrderRepo;
+import com.group02.openevent.service.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupServiceImpl implements RevenueRollupService {
+
+    private final IDailyRevenueRollupRepo rollupRepo;
+    private final IOrderRepo orderRepo;
+
+    @Override
+    @Transactional
+    public void refreshBucket(Long eventId, LocalDate day) {
+        if (eventId == null || day == null) {
+            return;
+        }
+        rollupRepo.refreshBucket(eventId, day, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Reconciliation định kỳ: mọi thay đổi order qua JPA đã refresh bucket (OrderChangeListener),
+     * rebuild chỉ để bắt các cập nhật bulk/native SQL bỏ qua entity listener
+     */
+    @Override
+    @Transactional
+    @Scheduled(cron = "${report.revenue-rollup.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        long startTime = System.currentTimeMillis();
+        rollupRepo.deleteAllRollups();
+        int rows = rollupRepo.insertAllFromOrders();
+        log.info("Revenue rollup rebuilt: {} rows in {} ms", rows, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Lần đầu chạy (bảng rollup rỗng) thì dựng từ dữ liệu order hiện có
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIfEmpty() {
+        try {
+            if (rollupRepo.count() == 0 && orderRepo.count() > 0) {
+                log.info("Revenue rollup is empty, building from orders...");
+                rollupRepo.insertAllFromOrders();
+            }
+        } catch (Exception e) {
+            log.error("Error initializing revenue rollup: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RevenueTotals getTotals(LocalDate from, LocalDate to, Long departmentId) {
+        return rollupRepo.sumTotals(from, to, departmentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyRevenueTotals> getDailyTotals(LocalDate from, LocalDate to, Long departmentId) {
+        return rollupRepo.sumByDay(from, to, departmentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventTypeRevenue> getNetRevenueByEventType(LocalDate from, LocalDate to) {
+        return rollupRepo.sumNetRevenueByEventType(from, to);
+    }
+}
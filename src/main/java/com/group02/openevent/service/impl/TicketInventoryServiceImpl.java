@@ -0,0 +1,228 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.model.ticket.TicketType;
+import com.group02.openevent.repository.ITicketTypeRepo;
+import com.group02.openevent.service.TicketInventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ticket inventory engine cho flash sale.
+ * Mỗi TicketType có một {@link Stock} gồm nhiều shard AtomicInteger, được nạp một lần từ
+ * totalQuantity/soldQuantity. Giữ vé = CAS trên một shard nên các request không phải xếp hàng
+ * trên cùng một dòng MySQL. Phần soldQuantity thay đổi được cộng dồn và ghi xuống DB theo batch.
+ *
+ * Lưu ý: engine là in-process, chỉ đúng khi một instance ứng dụng bán vé.
+ */
+@Service
+@Slf4j
+public class TicketInventoryServiceImpl implements TicketInventoryService {
+
+    private final ITicketTypeRepo ticketTypeRepo;
+    private final int shardCount;
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+
+    public TicketInventoryServiceImpl(ITicketTypeRepo ticketTypeRepo,
+                                      @Value("${ticket.inventory.shards:8}") int shardCount) {
+        this.ticketTypeRepo = ticketTypeRepo;
+        this.shardCount = Math.max(1, shardCount);
+    }
+
+    @Override
+    public boolean tryReserve(Long ticketTypeId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        Stock stock = getOrLoad(ticketTypeId);
+        if (!stock.take(quantity)) {
+            return false;
+        }
+        stock.pendingSold.addAndGet(quantity);
+        return true;
+    }
+
+    @Override
+    public void release(Long ticketTypeId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        Stock stock = stocks.get(ticketTypeId);
+        if (stock == null) {
+            // Chưa nạp vào engine: nạp từ DB rồi trả vé như bình thường
+            stock = getOrLoad(ticketTypeId);
+        }
+        stock.put(quantity);
+        stock.pendingSold.addAndGet(-quantity);
+    }
+
+    @Override
+    public int getAvailable(Long ticketTypeId) {
+        return getOrLoad(ticketTypeId).available();
+    }
+
+    @Override
+    public void resize(Long ticketTypeId, int newTotalQuantity) {
+        Stock stock = stocks.get(ticketTypeId);
+        if (stock == null) {
+            // Chưa nạp thì lần nạp sau sẽ đọc totalQuantity mới từ DB
+            return;
+        }
+        synchronized (stock) {
+            int delta = newTotalQuantity - stock.totalQuantity;
+            stock.totalQuantity = newTotalQuantity;
+            if (delta > 0) {
+                stock.put(delta);
+            } else if (delta < 0) {
+                stock.drain(-delta);
+            }
+        }
+    }
+
+    @Override
+    public void evict(Long ticketTypeId) {
+        Stock stock = stocks.remove(ticketTypeId);
+        if (stock != null && stock.pendingSold.get() != 0) {
+            log.warn("Evicted ticket type {} with {} unflushed sold tickets", ticketTypeId, stock.pendingSold.get());
+        }
+    }
+
+    /**
+     * Ghi soldQuantity xuống DB định kỳ; mọi loại vé thay đổi được ghi trong cùng một transaction
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${ticket.inventory.flush-interval-ms:1000}")
+    @Transactional
+    public void flushPendingSold() {
+        doFlush();
+    }
+
+    /**
+     * Ghi nốt phần còn lại trước khi tắt ứng dụng
+     */
+    @EventListener(ContextClosedEvent.class)
+    @Transactional
+    public void flushOnShutdown() {
+        int flushed = doFlush();
+        if (flushed > 0) {
+            log.info("Flushed sold quantity of {} ticket types on shutdown", flushed);
+        }
+    }
+
+    private int doFlush() {
+        Map<Long, Integer> drained = new HashMap<>();
+        for (Map.Entry<Long, Stock> entry : stocks.entrySet()) {
+            int delta = entry.getValue().pendingSold.getAndSet(0);
+            if (delta != 0) {
+                drained.put(entry.getKey(), delta);
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            for (Map.Entry<Long, Integer> entry : drained.entrySet()) {
+                ticketTypeRepo.addSoldQuantity(entry.getKey(), entry.getValue());
+            }
+            log.debug("Flushed sold quantity for {} ticket types", drained.size());
+            return drained.size();
+        } catch (RuntimeException e) {
+            // Transaction sẽ rollback: trả delta lại để lần flush sau ghi tiếp
+            drained.forEach((id, delta) -> {
+                Stock stock = stocks.get(id);
+                if (stock != null) {
+                    stock.pendingSold.addAndGet(delta);
+                }
+            });
+            log.error("Failed to flush ticket sold quantity: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private Stock getOrLoad(Long ticketTypeId) {
+        return stocks.computeIfAbsent(ticketTypeId, id -> {
+            TicketType ticketType = ticketTypeRepo.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Ticket type not found: " + id));
+            int total = ticketType.getTotalQuantity() != null ? ticketType.getTotalQuantity() : 0;
+            int sold = ticketType.getSoldQuantity() != null ? ticketType.getSoldQuantity() : 0;
+            return new Stock(total, Math.max(0, total - sold), shardCount);
+        });
+    }
+
+    /**
+     * Số vé còn lại của một TicketType, chia đều vào các shard để giảm tranh chấp CAS
+     */
+    static final class Stock {
+        private final AtomicInteger[] shards;
+        private final AtomicInteger pendingSold = new AtomicInteger();
+        private volatile int totalQuantity;
+
+        Stock(int totalQuantity, int available, int shardCount) {
+            this.totalQuantity = totalQuantity;
+            this.shards = new AtomicInteger[shardCount];
+            int perShard = available / shardCount;
+            int remainder = available % shardCount;
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new AtomicInteger(perShard + (i < remainder ? 1 : 0));
+            }
+        }
+
+        boolean take(int quantity) {
+            int taken = takeUpTo(quantity);
+            if (taken == quantity) {
+                return true;
+            }
+            // Không đủ vé: trả lại phần đã lấy
+            if (taken > 0) {
+                put(taken);
+            }
+            return false;
+        }
+
+        void drain(int quantity) {
+            takeUpTo(quantity);
+        }
+
+        void put(int quantity) {
+            shards[ThreadLocalRandom.current().nextInt(shards.length)].addAndGet(quantity);
+        }
+
+        int available() {
+            int sum = 0;
+            for (AtomicInteger shard : shards) {
+                sum += shard.get();
+            }
+            return sum;
+        }
+
+        private int takeUpTo(int quantity) {
+            int start = ThreadLocalRandom.current().nextInt(shards.length);
+            int taken = 0;
+            for (int i = 0; i < shards.length && taken < quantity; i++) {
+                AtomicInteger shard = shards[(start + i) % shards.length];
+                while (taken < quantity) {
+                    int current = shard.get();
+                    if (current <= 0) {
+                        break;
+                    }
+                    int grab = Math.min(current, quantity - taken);
+                    if (shard.compareAndSet(current, current - grab)) {
+                        taken += grab;
+                    }
+                }
+            }
+            return taken;
+        }
+    }
+}
@@ -8,7 +8,9 @@ import com.group02.openevent.model.ticket.TicketType;
 import com.group02.openevent.repository.ITicketTypeRepo;
 import com.group02.openevent.repository.IOrderRepo;
 import com.group02.openevent.service.EventService;
+import com.group02.openevent.service.TicketInventoryService;
 import com.group02.openevent.service.TicketTypeService;
+import com.group02.openevent.util.TransactionCallbacks;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +19,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import jakarta.persistence.LockModeType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -38,6 +39,8 @@ public class TicketTypeServiceImpl implements TicketTypeService {
     private EventService eventService;
     @Autowired
     private IOrderRepo orderRepo;
+    @Autowired
+    private TicketInventoryService ticketInventoryService;
 
 
     @Override
@@ -56,6 +59,7 @@ public class TicketTypeServiceImpl implements TicketTypeService {
             if (Boolean.TRUE.equals(request.getIsDeleted())) {
                 if (request.getTicketTypeId() != null) {
                     ticketTypeRepo.deleteById(request.getTicketTypeId());
+                    ticketInventoryService.evict(request.getTicketTypeId());
                 }
                 continue;
             }
@@ -71,12 +75,15 @@ public class TicketTypeServiceImpl implements TicketTypeService {
             } else {
                 TicketType existing = ticketTypeRepo.findById(request.getTicketTypeId())
                         .orElseThrow(() -> new EntityNotFoundException("Ticket not found"));
-                // Do not override identifier or relations
-                BeanUtils.copyProperties(ticket, existing, "ticketTypeId", "event");
+                // Do not override identifier, relations or soldQuantity (owned by TicketInventoryService)
+                BeanUtils.copyProperties(ticket, existing, "ticketTypeId", "event", "soldQuantity");
                 ticket = existing;
             }
 
             ticketTypeRepo.save(ticket);
+            if (ticket.getTotalQuantity() != null) {
+                ticketInventoryService.resize(ticket.getTicketTypeId(), ticket.getTotalQuantity());
+            }
         }
     }
 
@@ -108,6 +115,7 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         }
 
         ticketTypeRepo.delete(ticketType);
+        ticketInventoryService.evict(id);
     }
 
     @Override
@@ -122,40 +130,35 @@ public class TicketTypeServiceImpl implements TicketTypeService {
 
     @Override
     public boolean canPurchaseTickets(Long ticketTypeId, Integer quantity) {
-        Optional<TicketType> ticketTypeOpt = ticketTypeRepo.findById(ticketTypeId);
-        if (ticketTypeOpt.isEmpty()) {
+        if (!ticketTypeRepo.existsById(ticketTypeId)) {
             return false;
         }
-        return ticketTypeOpt.get().canPurchase();
+        int requested = quantity != null ? quantity : 1;
+        return ticketInventoryService.getAvailable(ticketTypeId) >= requested;
     }
 
     @Override
     @Transactional
     public void reserveTickets(Long ticketTypeId) {
-        // Use pessimistic lock to prevent race conditions
-        TicketType ticketType = ticketTypeRepo.findByIdForUpdate(ticketTypeId)
-                .orElseThrow(() -> new IllegalArgumentException("Ticket type not found: " + ticketTypeId));
-
-        // Re-check availability with lock held
-        if (!ticketType.canPurchase()) {
-            throw new IllegalStateException("Cannot reserve tickets for ticket type: " + ticketTypeId + 
-                " (Available: " + ticketType.getAvailableQuantity() + ")");
+        // Admit/reject in memory, no row lock; soldQuantity is flushed to DB in batches
+        if (!ticketInventoryService.tryReserve(ticketTypeId, 1)) {
+            throw new IllegalStateException("Cannot reserve tickets for ticket type: " + ticketTypeId +
+                " (Available: " + ticketInventoryService.getAvailable(ticketTypeId) + ")");
         }
 
-        // Reserve ticket (increases soldQuantity)
-        ticketType.increaseSoldQuantity();
-        ticketTypeRepo.save(ticketType);
+        // Order creation failed after reserving: give the ticket back
+        TransactionCallbacks.runAfterRollback(() -> ticketInventoryService.release(ticketTypeId, 1));
     }
 
     @Override
     @Transactional
     public void releaseTickets(Long ticketTypeId, Integer quantity) {
-        TicketType ticketType = ticketTypeRepo.findById(ticketTypeId)
-                .orElse(null);
+        if (ticketTypeId == null || quantity == null || quantity <= 0) {
+            return;
+        }
 
-        assert ticketType != null;
-        ticketType.decreaseSoldQuantity(quantity);
-        ticketTypeRepo.save(ticketType);
+        // Only return stock once the cancellation is committed
+        TransactionCallbacks.runAfterCommit(() -> ticketInventoryService.release(ticketTypeId, quantity));
     }
 
     @Override
@@ -0,0 +1,268 @@
+package com.group02.openevent.service.impl;
+
+import com.group02.openevent.dto.admin.VenueConflictDTO;
+import com.group02.openevent.repository.IEventRepo;
+import com.group02.openevent.service.VenueConflictService;
+import com.group02.openevent.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index lịch theo địa điểm: mỗi Place giữ một TreeSet các slot sắp theo (startsAt, eventId).
+ * - Kiểm tra trùng lịch: chỉ duyệt các slot có startsAt trong [start - maxDuration, end)
+ * - Báo cáo xung đột: sweep-line trên từng Place, O(n log n + số cặp trùng)
+ * Index được nạp lần đầu khi dùng, cập nhật theo từng event khi EventService lưu/xóa event,
+ * và dựng lại định kỳ cho các luồng sửa event không đi qua EventService.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VenueConflictServiceImpl implements VenueConflictService {
+
+    private static final Comparator<Slot> BY_START =
+            Comparator.comparing(Slot::start).thenComparing(Slot::eventId);
+
+    private final IEventRepo eventRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Các field dưới đây được bảo vệ bởi lock
+    private Map<Long, PlaceSchedule> schedules = new HashMap<>();
+    private Map<Long, Slot> slotsByEvent = new HashMap<>();
+    private Map<Long, Set<Long>> placesByEvent = new HashMap<>();
+    private boolean loaded;
+
+    @Override
+    public List<Long> findConflictingEventIds(LocalDateTime start, LocalDateTime end, Collection<Long> placeIds) {
+        if (start == null || end == null || placeIds == null || placeIds.isEmpty()) {
+            return List.of();
+        }
+        ensureLoaded();
+
+        Set<Long> result = new TreeSet<>();
+        lock.readLock().lock();
+        try {
+            for (Long placeId : placeIds) {
+                PlaceSchedule schedule = placeId != null ? schedules.get(placeId) : null;
+                if (schedule != null) {
+                    schedule.collectOverlapping(start, end, result);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(result);
+    }
+
+    @Override
+    public List<VenueConflictDTO> detectAllConflicts() {
+        ensureLoaded();
+
+        List<VenueConflictDTO> conflicts = new ArrayList<>();
+        // Hai event dùng chung nhiều place chỉ được báo một lần
+        Set<Map.Entry<Long, Long>> reportedPairs = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (PlaceSchedule schedule : schedules.values()) {
+                schedule.sweep(conflicts, reportedPairs);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        log.info("Venue sweep over {} places found {} conflicts", schedules.size(), conflicts.size());
+
+        conflicts.sort((a, b) -> Long.compare(b.getOverlapMinutes(), a.getOverlapMinutes()));
+        return conflicts;
+    }
+
+    @Override
+    public void refreshEvent(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> {
+            List<Object[]> rows = eventRepo.findPlaceSlotsByEventId(eventId);
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    // Lần nạp đầu tiên sẽ đọc dữ liệu mới từ DB
+                    return;
+                }
+                unindex(eventId);
+                rows.forEach(this::index);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void removeEvent(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(eventId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${event.venue-index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            // Giữ write lock trong lúc đọc DB để không mất các refreshEvent chạy xen giữa
+            List<Object[]> rows = eventRepo.findAllPlaceSlots();
+            schedules = new HashMap<>();
+            slotsByEvent = new HashMap<>();
+            placesByEvent = new HashMap<>();
+            rows.forEach(this::index);
+            loaded = true;
+            log.debug("Venue index rebuilt: {} events, {} places in {} ms",
+                    slotsByEvent.size(), schedules.size(), System.currentTimeMillis() - startTime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        rebuild();
+    }
+
+    // row: [eventId, title, startsAt, endsAt, placeId, placeName]
+    private void index(Object[] row) {
+        Long eventId = (Long) row[0];
+        LocalDateTime start = (LocalDateTime) row[2];
+        LocalDateTime end = (LocalDateTime) row[3];
+        Long placeId = (Long) row[4];
+        if (!start.isBefore(end)) {
+            log.debug("Event {} skipped in venue index: startsAt is not before endsAt", eventId);
+            return;
+        }
+        Slot slot = slotsByEvent.computeIfAbsent(eventId, id -> new Slot(id, (String) row[1], start, end));
+        if (placesByEvent.computeIfAbsent(eventId, id -> new HashSet<>()).add(placeId)) {
+            schedules.computeIfAbsent(placeId, id -> new PlaceSchedule((String) row[5])).add(slot);
+        }
+    }
+
+    private void unindex(Long eventId) {
+        Slot slot = slotsByEvent.remove(eventId);
+        Set<Long> placeIds = placesByEvent.remove(eventId);
+        if (slot == null || placeIds == null) {
+            return;
+        }
+        for (Long placeId : placeIds) {
+            PlaceSchedule schedule = schedules.get(placeId);
+            if (schedule != null) {
+                schedule.slots.remove(slot);
+                if (schedule.slots.isEmpty()) {
+                    schedules.remove(placeId);
+                }
+            }
+        }
+    }
+
+    private record Slot(Long eventId, String title, LocalDateTime start, LocalDateTime end) {
+        boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+            return start.isBefore(otherEnd) && otherStart.isBefore(end);
+        }
+    }
+
+    /**
+     * Lịch của một Place. maxDuration chỉ tăng (đến lần rebuild sau) nên luôn là cận trên hợp lệ
+     */
+    private static final class PlaceSchedule {
+        private final String placeName;
+        private final NavigableSet<Slot> slots = new TreeSet<>(BY_START);
+        private Duration maxDuration = Duration.ZERO;
+
+        PlaceSchedule(String placeName) {
+            this.placeName = placeName;
+        }
+
+        void add(Slot slot) {
+            slots.add(slot);
+            Duration duration = Duration.between(slot.start(), slot.end());
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+        }
+
+        void collectOverlapping(LocalDateTime start, LocalDateTime end, Set<Long> result) {
+            // Slot bắt đầu trước start - maxDuration thì chắc chắn đã kết thúc trước start
+            LocalDateTime from = start.minus(maxDuration);
+            if (!from.isBefore(end)) {
+                return;
+            }
+            Slot lower = new Slot(Long.MIN_VALUE, null, from, from);
+            Slot upper = new Slot(Long.MIN_VALUE, null, end, end);
+            for (Slot slot : slots.subSet(lower, true, upper, false)) {
+                if (slot.overlaps(start, end)) {
+                    result.add(slot.eventId());
+                }
+            }
+        }
+
+        void sweep(List<VenueConflictDTO> conflicts, Set<Map.Entry<Long, Long>> reportedPairs) {
+            // Các slot đang "mở" tại thời điểm quét, slot kết thúc sớm nhất ở đầu
+            PriorityQueue<Slot> active = new PriorityQueue<>(Comparator.comparing(Slot::end));
+            for (Slot current : slots) {
+                while (!active.isEmpty() && !active.peek().end().isAfter(current.start())) {
+                    active.poll();
+                }
+                for (Slot other : active) {
+                    Map.Entry<Long, Long> pair = Map.entry(
+                            Math.min(other.eventId(), current.eventId()),
+                            Math.max(other.eventId(), current.eventId()));
+                    if (reportedPairs.add(pair)) {
+                        conflicts.add(toConflict(other, current));
+                    }
+                }
+                active.add(current);
+            }
+        }
+
+        private VenueConflictDTO toConflict(Slot first, Slot second) {
+            LocalDateTime overlapStart = second.start();
+            LocalDateTime overlapEnd = first.end().isBefore(second.end()) ? first.end() : second.end();
+            long overlapMinutes = ChronoUnit.MINUTES.between(overlapStart, overlapEnd);
+            String severity = overlapMinutes > 60 ? "HIGH" : (overlapMinutes > 30 ? "MEDIUM" : "LOW");
+
+            return VenueConflictDTO.builder()
+                    .event1Id(first.eventId())
+                    .event1Title(first.title())
+                    .event1Start(first.start())
+                    .event1End(first.end())
+                    .event2Id(second.eventId())
+                    .event2Title(second.title())
+                    .event2Start(second.start())
+                    .event2End(second.end())
+                    .venueName(placeName != null ? placeName : "Unknown")
+                    .conflictSeverity(severity)
+                    .overlapMinutes(overlapMinutes)
+                    .build();
+        }
+    }
+}
@@ -1,30 +1,66 @@
 package com.group02.openevent.services.ai;
 
 import com.group02.openevent.ai.service.EventAIAgent;
-import com.group02.openevent.ai.util.SessionManager;
 import com.group02.openevent.dto.ai.*;
 import com.group02.openevent.models.ai.ChatMessage;
 import com.group02.openevent.models.ai.ChatSession;
 import com.group02.openevent.repository.ai.ChatMessageRepo;
 import com.group02.openevent.repository.ai.ChatSessionRepo;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Service for managing chat sessions and messages
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ChatSessionService {
     
     private final ChatSessionRepo chatSessionRepo;
     private final ChatMessageRepo chatMessageRepo;
+    private final TransactionTemplate transactionTemplate;
+    // Agent dùng chung cho mọi phiên; trạng thái theo phiên nằm trong AISessionStore
+    private final EventAIAgent eventAIAgent;
+    // Pool riêng cho chat streaming để request thread (SSE) được trả về ngay
+    private final ThreadPoolExecutor streamExecutor;
+
+    public ChatSessionService(ChatSessionRepo chatSessionRepo,
+                              ChatMessageRepo chatMessageRepo,
+                              TransactionTemplate transactionTemplate,
+                              EventAIAgent eventAIAgent,
+                              @Value("${ai.chat.stream.max-concurrent:8}") int maxConcurrent,
+                              @Value("${ai.chat.stream.queue-capacity:50}") int queueCapacity) {
+        this.chatSessionRepo = chatSessionRepo;
+        this.chatMessageRepo = chatMessageRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.eventAIAgent = eventAIAgent;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.streamExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "ai-chat-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
     
     /**
      * List all sessions for a user
@@ -64,6 +100,24 @@ public class ChatSessionService {
      */
     @Transactional
     public ChatReply chat(ChatRequest request) {
+        return chat(request, null);
+    }
+
+    /**
+     * Xử lý tin nhắn trên pool streaming; text của LLM được đẩy dần qua {@code onToken},
+     * future hoàn thành với câu trả lời đầy đủ (đã lưu vào lịch sử như {@link #chat(ChatRequest)})
+     * @throws IllegalStateException nếu pool đang quá tải
+     */
+    public CompletableFuture<ChatReply> chatStream(ChatRequest request, Consumer<String> onToken) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> transactionTemplate.execute(status -> chat(request, onToken)), streamExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many streaming chats in progress, please try again later");
+        }
+    }
+
+    private ChatReply chat(ChatRequest request, Consumer<String> onToken) {
         try {
             // Save user message
             ChatMessage userMessage = new ChatMessage();
@@ -75,7 +129,7 @@ public class ChatSessionService {
             chatMessageRepo.save(userMessage);
             
             // Generate AI response (simplified)
-            String aiResponse = generateAIResponse(request.message(), request.userId(), request.sessionId());
+            String aiResponse = generateAIResponse(request.message(), request.userId(), request.sessionId(), onToken);
             
             // Save AI response
             ChatMessage aiMessage = new ChatMessage();
@@ -109,13 +163,10 @@ public class ChatSessionService {
     /**
      * Generate AI response using EventAIAgent
      */
-    private String generateAIResponse(String userMessage, Long userId, String sessionId) {
+    private String generateAIResponse(String userMessage, Long userId, String sessionId, Consumer<String> onToken) {
         try {
-            // Get or create AI agent for the session
-            EventAIAgent agent = SessionManager.getOrCreate(sessionId);
-            
             // Generate response using the AI agent
-            String response = agent.reply(userMessage, userId, sessionId);
+            String response = eventAIAgent.reply(userMessage, userId, sessionId, onToken);
             
             return response != null ? response : "🤖 Xin lỗi, tôi không thể tạo phản hồi lúc này. Vui lòng thử lại sau.";
             
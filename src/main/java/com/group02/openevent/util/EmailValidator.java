@@ -0,0 +1,21 @@
+package com.group02.openevent.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Kiểm tra định dạng email cơ bản, dùng chung cho các luồng gửi mail
+ */
+public final class EmailValidator {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private EmailValidator() {
+    }
+
+    public static boolean isValid(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return false;
+        }
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+}
@@ -0,0 +1,36 @@
+package com.group02.openevent.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 dùng cho khóa cache / phát hiện nội dung thay đổi (không dùng cho mật khẩu).
+ * Nhiều phần được nối bằng byte 0 để ("ab", "c") và ("a", "bc") cho hash khác nhau.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    public static byte[] sha256(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                digest.update((byte) 0);
+            }
+            digest.update(String.valueOf(parts[i]).getBytes(StandardCharsets.UTF_8));
+        }
+        return digest.digest();
+    }
+
+    public static String sha256Hex(String... parts) {
+        return HexFormat.of().formatHex(sha256(parts));
+    }
+}
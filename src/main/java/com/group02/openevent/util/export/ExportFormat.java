@@ -0,0 +1,37 @@
+package com.group02.openevent.util.export;
+
+/**
+ * Định dạng file export
+ */
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Parse từ request param (không phân biệt hoa thường), mặc định CSV
+     *
+     * @throws IllegalArgumentException nếu format không hỗ trợ
+     */
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        return ExportFormat.valueOf(value.trim().toUpperCase());
+    }
+}
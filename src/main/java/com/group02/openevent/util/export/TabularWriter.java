@@ -0,0 +1,24 @@
+package com.group02.openevent.util.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Ghi dữ liệu dạng bảng từng dòng ra OutputStream (không giữ toàn bộ dữ liệu trong bộ nhớ).
+ * close() ghi nốt phần còn lại nhưng không đóng OutputStream bên dưới.
+ */
+public interface TabularWriter extends Closeable {
+
+    void writeHeader(List<String> headers) throws IOException;
+
+    void writeRow(List<?> values) throws IOException;
+
+    static TabularWriter open(ExportFormat format, OutputStream out, String sheetName) {
+        return switch (format) {
+            case CSV -> new CsvTabularWriter(out);
+            case XLSX -> new XlsxTabularWriter(out, sheetName);
+        };
+    }
+}
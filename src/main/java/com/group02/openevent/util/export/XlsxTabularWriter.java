@@ -0,0 +1,86 @@
+package com.group02.openevent.util.export;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * XLSX dạng streaming (SXSSF): chỉ giữ {@link #ROW_WINDOW} dòng trong bộ nhớ, phần còn lại
+ * được flush ra file tạm (nén). Style header tạo một lần cho cả sheet; độ rộng cột đặt cố định
+ * theo header thay vì autoSizeColumn (autoSize phải duyệt lại toàn bộ dòng).
+ */
+public class XlsxTabularWriter implements TabularWriter {
+
+    private static final int ROW_WINDOW = 100;
+    private static final int MIN_COLUMN_CHARS = 12;
+    private static final int MAX_COLUMN_CHARS = 50;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private final CellStyle headerStyle;
+    private int rowNum;
+
+    public XlsxTabularWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName != null ? sheetName : "Sheet1");
+
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setColor(IndexedColors.WHITE.getIndex());
+        this.headerStyle = workbook.createCellStyle();
+        headerStyle.setFillForegroundColor(IndexedColors.GREEN.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        headerStyle.setFont(font);
+    }
+
+    @Override
+    public void writeHeader(List<String> headers) {
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < headers.size(); i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellValue(headers.get(i));
+            cell.setCellStyle(headerStyle);
+            int chars = Math.min(MAX_COLUMN_CHARS, Math.max(MIN_COLUMN_CHARS, headers.get(i).length() + 2));
+            sheet.setColumnWidth(i, chars * 256);
+        }
+        sheet.createFreezePane(0, 1);
+    }
+
+    @Override
+    public void writeRow(List<?> values) {
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                cell.setCellValue(bool);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.write(out);
+            out.flush();
+        } finally {
+            // Xóa file tạm của SXSSF
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -1627,17 +1627,11 @@ function exportOrdersToCSV() {
     if (search) params.push(`search=${encodeURIComponent(search)}`);
     if (fromDate) params.push(`fromDate=${fromDate}`);
     if (toDate) params.push(`toDate=${toDate}`);
-    if (params.length > 0) url += '?' + params.join('&');
+    params.push('format=csv');
+    url += '?' + params.join('&');
     
-    fetch(url)
-        .then(response => response.json())
-        .then(data => {
-            exportToCSVFromData(data, 'orders-export.csv', [
-                'orderId', 'customerName', 'customerEmail', 'eventTitle', 
-                'ticketTypeName', 'quantity', 'totalAmount', 'status', 'paymentStatus', 'createdAt'
-            ]);
-        })
-        .catch(error => console.error('Error exporting orders:', error));
+    // Server stream file CSV, trình duyệt tải trực tiếp
+    window.location.href = url;
 }
 
 function exportPaymentsToCSV() {
@@ -1657,17 +1651,11 @@ function exportPaymentsToCSV() {
     if (search) params.push(`search=${encodeURIComponent(search)}`);
     if (fromDate) params.push(`fromDate=${fromDate}`);
     if (toDate) params.push(`toDate=${toDate}`);
-    if (params.length > 0) url += '?' + params.join('&');
+    params.push('format=csv');
+    url += '?' + params.join('&');
     
-    fetch(url)
-        .then(response => response.json())
-        .then(data => {
-            exportToCSVFromData(data, 'payments-export.csv', [
-                'paymentId', 'orderId', 'customerName', 'customerEmail', 
-                'amount', 'paymentMethod', 'status', 'transactionId', 'createdAt', 'paidAt'
-            ]);
-        })
-        .catch(error => console.error('Error exporting payments:', error));
+    // Server stream file CSV, trình duyệt tải trực tiếp
+    window.location.href = url;
 }
 
 function exportToCSVFromData(data, filename, fields) {
@@ -1974,21 +1962,10 @@ function exportAuditLogsToCSV() {
     if (fromDate) params.append('fromDate', fromDate);
     if (toDate) params.append('toDate', toDate);
     
-    const url = `/admin/api/audit-logs/export?${params.toString()}`;
+    params.append('format', 'csv');
     
-    fetch(url)
-        .then(response => response.json())
-        .then(data => {
-            if (data && data.length > 0) {
-                exportToCSVFromData(data, 'audit-logs-export.csv', [
-                    'timestamp', 'userName', 'userEmail', 'userRole', 
-                    'actionType', 'entityType', 'entityId', 'description', 'entityDetails'
-                ]);
-            } else {
-                alert('No data to export');
-            }
-        })
-        .catch(error => console.error('Error exporting audit logs:', error));
+    // Server stream file CSV, trình duyệt tải trực tiếp
+    window.location.href = `/admin/api/audit-logs/export?${params.toString()}`;
 }
 
 // Debounce search function for callbacks
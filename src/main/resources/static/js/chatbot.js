@@ -1027,6 +1027,119 @@
 }
 
     // ===== API INTEGRATION =====
+    // ===== STREAMING =====
+    // Gọi endpoint SSE: render token vào bubble tạm, trả về {message, shouldReload} khi nhận event 'done'.
+    // Trả về null chỉ khi không stream được (trình duyệt cũ, lỗi mạng, server chưa có endpoint) để caller dùng API thường.
+    // Server đã nhận request (429, 400, 503...) thì báo lỗi của server, không gửi lại: tránh bị tính rate limit hai lần
+    // và vượt giới hạn số stream đồng thời đúng lúc server quá tải.
+    async function streamChatReply(url, body, signal, onOpen) {
+    if (!window.ReadableStream || !window.TextDecoder) return null;
+
+    let response;
+    try {
+    response = await fetch(url, {
+    method: "POST",
+    headers: { "Content-Type": "application/json", Accept: "text/event-stream" },
+    body: JSON.stringify(body),
+    signal,
+});
+} catch (e) {
+    if (e?.name === "AbortError") throw e;
+    return null;
+}
+    if (response.status === 404 || response.status === 405) return null;
+    if (!response.ok) throw new Error(await httpErrorMessage(response));
+    const contentType = response.headers.get("Content-Type") || "";
+    if (!response.body || !contentType.includes("text/event-stream")) return null;
+    if (onOpen) onOpen(); // đã kết nối, thời gian sinh câu trả lời do server giới hạn
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = "";
+    let text = "";
+    let drafts = null;
+    let result = null;
+    try {
+    while (result === null) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    let sep;
+    while (result === null && (sep = buffer.indexOf("\n\n")) >= 0) {
+    const rawEvent = buffer.slice(0, sep);
+    buffer = buffer.slice(sep + 2);
+
+    let eventName = "message";
+    const dataLines = [];
+    rawEvent.split("\n").forEach((line) => {
+    if (line.startsWith("event:")) eventName = line.slice(6).trim();
+    else if (line.startsWith("data:")) dataLines.push(line.slice(5));
+});
+    if (!dataLines.length) continue;
+
+    let payload;
+    try {
+    payload = JSON.parse(dataLines.join("\n"));
+} catch {
+    continue;
+}
+    if (eventName === "token") {
+    if (!drafts) {
+    showTyping(false);
+    displayMessage("bot", "");
+    drafts = Array.from(document.querySelectorAll(".message.bot-message:last-child .message-content"));
+}
+    text += payload.text || "";
+    drafts.forEach((el) => (el.innerHTML = formatMessage(text)));
+} else if (eventName === "done") {
+    result = payload;
+} else if (eventName === "error") {
+    result = { message: payload.message };
+}
+}
+}
+} finally {
+    // Bubble tạm được thay bằng câu trả lời cuối (đã parse action, có thể kèm kết quả hệ thống)
+    if (drafts) drafts.forEach((el) => el.closest(".message")?.remove());
+}
+    if (result === null) throw new Error("NetworkError: stream closed");
+    return result;
+}
+
+    // Thông báo lỗi cho response không OK (dùng chung cho API thường và streaming)
+    async function httpErrorMessage(response) {
+    let errorMessage = `Lỗi HTTP! Trạng thái: ${response.status}`;
+    try {
+    const errJson = await response.json();
+    if (errJson?.message) errorMessage = errJson.message;
+    else if (errJson?.error) errorMessage = errJson.error;
+    console.log("Error response data:", errJson);
+} catch { /* ignore parse error */ }
+
+    switch (response.status) {
+    case 400:
+    if (errorMessage.startsWith("Lỗi HTTP")) errorMessage = "Dữ liệu không hợp lệ. Vui lòng kiểm tra lại tin nhắn.";
+    break;
+    case 401:
+    errorMessage = "Phiên đăng nhập đã hết hạn. Vui lòng đăng nhập lại.";
+    break;
+    case 403:
+    errorMessage = "Không có quyền truy cập. Vui lòng đăng nhập để sử dụng chatbot.";
+    break;
+    case 429:
+    errorMessage = "Bạn đã gửi quá nhiều tin nhắn. Vui lòng chờ một chút rồi thử lại.";
+    break;
+    case 500:
+    errorMessage = "Lỗi máy chủ. Vui lòng thử lại sau.";
+    break;
+    case 503:
+    if (errorMessage.startsWith("Lỗi HTTP")) errorMessage = "Dịch vụ tạm thời không khả dụng. Vui lòng thử lại sau.";
+    break;
+}
+    return errorMessage;
+}
+
     async function sendMessageToApi(message, retryCount = 0) {
     // PATCH: lock local button reference
     const localSendBtn = document.querySelector(".send-btn, .send-button, #chatSendBtn");
@@ -1110,6 +1223,9 @@
     const tId = setTimeout(() => controller.abort(new Error("TIMEOUT")), timeoutMs);
 
     try {
+    // Ưu tiên streaming (SSE) để hiển thị câu trả lời ngay khi có token; không được thì dùng API thường
+    let data = await streamChatReply(`${requestUrl}/stream`, requestBody, controller.signal, () => clearTimeout(tId));
+    if (!data) {
     const response = await fetch(requestUrl, {
     method: "POST",
     headers: { "Content-Type": "application/json" },
@@ -1123,43 +1239,13 @@
     ok: response.ok,
 });
 
-    if (!response.ok) {
-    let errorMessage = `Lỗi HTTP! Trạng thái: ${response.status}`;
-    try {
-    const errJson = await response.json();
-    if (errJson?.message) errorMessage = errJson.message;
-    else if (errJson?.error) errorMessage = errJson.error;
-    console.log("Error response data:", errJson);
-} catch { /* ignore parse error */ }
+    if (!response.ok) throw new Error(await httpErrorMessage(response));
 
-    switch (response.status) {
-    case 400:
-    if (errorMessage.startsWith("Lỗi HTTP")) errorMessage = "Dữ liệu không hợp lệ. Vui lòng kiểm tra lại tin nhắn.";
-    break;
-    case 401:
-    errorMessage = "Phiên đăng nhập đã hết hạn. Vui lòng đăng nhập lại.";
-    break;
-    case 403:
-    errorMessage = "Không có quyền truy cập. Vui lòng đăng nhập để sử dụng chatbot.";
-    break;
-    case 429:
-    errorMessage = "Bạn đã gửi quá nhiều tin nhắn. Vui lòng chờ một chút rồi thử lại.";
-    break;
-    case 500:
-    errorMessage = "Lỗi máy chủ. Vui lòng thử lại sau.";
-    break;
-    case 503:
-    errorMessage = "Dịch vụ tạm thời không khả dụng. Vui lòng thử lại sau.";
-    break;
-}
-    throw new Error(errorMessage);
-}
-
-    let data = null;
     try {
     data = await response.json();
 } catch {
     data = {};
+}
 }
 
     let botMessage = data?.message || "Xin lỗi, tôi chưa hiểu ý bạn.";
@@ -809,6 +809,42 @@ class DashboardStats {
         }
     }
 
+    // Áp dụng message từ /topic/dashboard/event/{eventId}: chỉ cập nhật KPI và bảng vé, không vẽ lại chart
+    applyLiveDelta(delta) {
+        if (this.lastSeq !== undefined && delta.seq <= this.lastSeq && !delta.full) {
+            return
+        }
+        this.lastSeq = delta.seq
+
+        const data = this.statsData
+        ;(delta.ticketTypes || []).forEach((change) => {
+            const ticketType = data.ticketTypeStats.find((t) => t.ticketTypeId === change.ticketTypeId)
+            if (!ticketType) {
+                return
+            }
+            ticketType.soldQuantity = change.soldQuantity
+            ticketType.unsoldQuantity = ticketType.totalQuantity - change.soldQuantity
+            ticketType.checkInCount = change.checkInCount
+            ticketType.checkInRate = change.soldQuantity > 0 ? (change.checkInCount * 100) / change.soldQuantity : 0
+        })
+
+        data.totalRevenue = delta.totalRevenue
+        data.totalTicketsSold = delta.totalTicketsSold
+        data.totalAttendees = delta.totalTicketsSold
+        data.totalCheckIn = delta.totalCheckIn
+        data.totalRefunded = delta.totalRefunded
+        data.unsoldTickets = data.ticketTypeStats.reduce((sum, t) => sum + t.unsoldQuantity, 0)
+        data.checkInRate = data.totalTicketsSold > 0 ? (data.totalCheckIn * 100) / data.totalTicketsSold : 0
+        data.refundRate = data.totalTicketsSold > 0 ? (data.totalRefunded * 100) / data.totalTicketsSold : 0
+        data.unsoldRate = data.totalQuantity > 0 ? (data.unsoldTickets * 100) / data.totalQuantity : 0
+
+        this.renderKPICards()
+        document.getElementById("checkInPercentage").textContent = data.checkInRate.toFixed(1) + "%"
+        document.getElementById("checkInCount").textContent = data.totalCheckIn
+        document.getElementById("totalTicketsForCheckIn").textContent = data.totalTicketsSold
+        this.renderTicketDetailsTable()
+    }
+
     renderTicketDetailsTable() {
         const tbody = document.getElementById("ticketDetailsBody")
         tbody.innerHTML = ""
@@ -888,6 +924,9 @@ async function initializeDashboard() {
         // Khởi tạo dashboard với dữ liệu từ API
         const dashboard = new DashboardStats(statsData)
         window.dashboardInstance = dashboard // Lưu instance để có thể cleanup sau
+
+        // Nhận cập nhật realtime (vé bán, doanh thu, check-in) thay vì phải tải lại trang
+        connectLiveDashboard(eventId)
         
         // Export methods để debug
         window.forceRenderCheckInChart = () => {
@@ -932,6 +971,41 @@ async function initializeDashboard() {
     }
 }
 
+// Subscribe topic dashboard của event; server gộp thay đổi và gửi tối đa ~1 message/giây
+function connectLiveDashboard(eventId) {
+    disconnectLiveDashboard()
+    if (typeof SockJS === 'undefined' || typeof Stomp === 'undefined') {
+        console.log("[v0] SockJS/Stomp not loaded, live dashboard disabled")
+        return
+    }
+
+    const client = Stomp.over(new SockJS('/ws'))
+    client.debug = null
+    client.connect({}, () => {
+        client.subscribe(`/topic/dashboard/event/${eventId}`, (message) => {
+            if (window.dashboardInstance) {
+                window.dashboardInstance.applyLiveDelta(JSON.parse(message.body))
+            }
+        })
+    }, (error) => {
+        console.warn("[v0] Live dashboard connection closed:", error)
+    })
+    window.dashboardLiveClient = client
+}
+
+function disconnectLiveDashboard() {
+    if (window.dashboardLiveClient) {
+        try {
+            window.dashboardLiveClient.disconnect()
+        } catch (e) {
+            // Kết nối đã đóng
+        }
+        window.dashboardLiveClient = null
+    }
+}
+
+window.disconnectLiveDashboard = disconnectLiveDashboard
+
 // Khởi tạo dashboard khi trang load (cho trường hợp load trực tiếp)
 // document.addEventListener("DOMContentLoaded", initializeDashboard)
 
@@ -0,0 +1,160 @@
+package com.group02.openevent.ai.qdrant.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class EmbeddedVectorStoreTest {
+
+    private static final int DIM = 4;
+
+    @TempDir
+    Path snapshotDir;
+
+    private EmbeddedVectorStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore(DIM);
+        store.upsertPoints(List.of(
+                point(1L, new float[]{1, 0, 0, 0}, Map.of("kind", "event", "startsAt", 100, "title", "Hội thảo AI")),
+                point(2L, new float[]{0.9f, 0.1f, 0, 0}, Map.of("kind", "event", "startsAt", 200, "title", "Workshop Java")),
+                point(3L, new float[]{0, 1, 0, 0}, Map.of("kind", "place", "startsAt", 300, "title", "Hội trường A")),
+                point("intent-1", new float[]{0, 0, 1, 0}, Map.of("kind", "intent"))));
+    }
+
+    @Test
+    void search_returnsNearestFirstWithCosineScore() {
+        List<Map<String, Object>> results = store.search(new float[]{2, 0, 0, 0}, 2, null);
+
+        assertThat(results).extracting(r -> r.get("id")).containsExactly(1L, 2L);
+        assertThat((double) results.get(0).get("score")).isCloseTo(1.0, within(1e-6));
+        assertThat(payload(results.get(0))).containsEntry("title", "Hội thảo AI");
+    }
+
+    @Test
+    void upsert_existingIdReplacesVectorAndPayload() {
+        store.upsertPoints(List.of(point(1L, new float[]{0, 0, 0, 1}, Map.of("kind", "event", "startsAt", 150))));
+
+        List<Map<String, Object>> results = store.search(new float[]{0, 0, 0, 1}, 1, null);
+
+        assertThat(results.get(0).get("id")).isEqualTo(1L);
+        assertThat(payload(results.get(0))).containsEntry("startsAt", 150).doesNotContainKey("title");
+        assertThat(store.scroll(null, 100, false, null)).hasSize(4);
+    }
+
+    @Test
+    void upsert_rejectsWrongDimension() {
+        assertThatThrownBy(() -> store.upsertPoints(List.of(point(9L, new float[]{1, 0}, Map.of()))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void search_appliesMatchAndRangeFilter(boolean indexed) {
+        if (indexed) {
+            store.createPayloadIndex("kind", "keyword");
+            store.createPayloadIndex("startsAt", "integer");
+        }
+        Map<String, Object> filter = Map.of("must", List.of(
+                Map.of("key", "kind", "match", Map.of("value", "event")),
+                Map.of("key", "startsAt", "range", Map.of("gte", 150))));
+
+        List<Map<String, Object>> results = store.search(new float[]{1, 0, 0, 0}, 10, filter);
+
+        assertThat(results).extracting(r -> r.get("id")).containsExactly(2L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void search_appliesShouldAndMustNot(boolean indexed) {
+        if (indexed) {
+            store.createPayloadIndex("kind", "keyword");
+        }
+        Map<String, Object> filter = Map.of(
+                "should", List.of(
+                        Map.of("key", "kind", "match", Map.of("value", "event")),
+                        Map.of("key", "kind", "match", Map.of("value", "place"))),
+                "must_not", List.of(Map.of("has_id", List.of(1))));
+
+        List<Map<String, Object>> results = store.search(new float[]{1, 0, 0, 0}, 10, filter);
+
+        assertThat(results).extracting(r -> r.get("id")).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void overwritePayloads_updatesIndexedFilter() {
+        store.createPayloadIndex("kind", "keyword");
+        store.overwritePayloads(Map.of(3L, Map.of("kind", "event", "startsAt", 300)));
+
+        Map<String, Object> filter = Map.of("must", List.of(Map.of("key", "kind", "match", Map.of("value", "event"))));
+
+        assertThat(store.search(new float[]{0, 1, 0, 0}, 10, filter))
+                .extracting(r -> r.get("id")).first().isEqualTo(3L);
+    }
+
+    @Test
+    void delete_removesPointFromSearchScrollAndIndex() {
+        store.createPayloadIndex("kind", "keyword");
+        store.deletePoints(List.of(1L, "intent-1", 404L));
+
+        assertThat(store.search(new float[]{1, 0, 0, 0}, 10, null))
+                .extracting(r -> r.get("id")).containsExactly(2L, 3L);
+        Map<String, Object> filter = Map.of("must", List.of(Map.of("key", "kind", "match", Map.of("value", "event"))));
+        assertThat(store.scroll(filter, 100, false, null)).extracting(r -> r.get("id")).containsExactly(2L);
+
+        // Slot đã xóa được dùng lại cho point mới
+        store.upsertPoints(List.of(point(5L, new float[]{1, 0, 0, 0}, Map.of("kind", "event"))));
+        assertThat(store.scroll(filter, 100, false, null)).extracting(r -> r.get("id")).containsExactlyInAnyOrder(2L, 5L);
+    }
+
+    @Test
+    void snapshot_roundTripRestoresPointsAndPayloads() {
+        store.deletePoints(List.of(2L));
+        store.snapshot();
+
+        EmbeddedVectorStore restored = newStore(DIM);
+        restored.load();
+
+        assertThat(restored.scroll(null, 100, true, null))
+                .extracting(r -> r.get("id")).containsExactlyInAnyOrder(1L, 3L, "intent-1");
+        List<Map<String, Object>> results = restored.search(new float[]{0, 1, 0, 0}, 1,
+                Map.of("must", List.of(Map.of("key", "kind", "match", Map.of("value", "place")))));
+        assertThat(results).extracting(r -> r.get("id")).containsExactly(3L);
+        assertThat(payload(results.get(0))).containsEntry("title", "Hội trường A").containsEntry("startsAt", 300);
+    }
+
+    @Test
+    void load_withDifferentDimensionStartsEmpty() {
+        store.snapshot();
+        assertThat(snapshotDir.resolve("vectors.snapshot")).exists();
+
+        EmbeddedVectorStore other = newStore(DIM * 2);
+        other.load();
+
+        assertThat(other.scroll(null, 100, false, null)).isEmpty();
+    }
+
+    private EmbeddedVectorStore newStore(int dimension) {
+        return new EmbeddedVectorStore(dimension, snapshotDir.toString());
+    }
+
+    private static Map<String, Object> point(Object id, float[] vector, Map<String, Object> payload) {
+        return Map.of("id", id, "vector", vector, "payload", payload);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> payload(Map<String, Object> result) {
+        return (Map<String, Object>) result.get("payload");
+    }
+}
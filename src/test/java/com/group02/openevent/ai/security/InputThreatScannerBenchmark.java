@@ -0,0 +1,63 @@
+package com.group02.openevent.ai.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * So sánh bộ regex cũ (8 lần matches()) với InputThreatScanner trên tin nhắn sạch - trường hợp phổ biến,
+ * regex phải quét hết input cho từng rule.
+ * Chạy: ./mvnw -Pjmh test-compile exec:exec -Djmh.args=InputThreatScannerBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputThreatScannerBenchmark {
+
+    private static final String SENTENCE = "Tôi muốn mua 2 vé hội thảo công nghệ cuối tuần này ở hội trường A, còn chỗ không? ";
+
+    @Param({"80", "500", "2000"})
+    private int length;
+
+    private String input;
+    private InputThreatScanner scanner;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(SENTENCE);
+        }
+        input = sb.substring(0, length);
+        scanner = InputThreatScanner.getDefault();
+    }
+
+    @Benchmark
+    public boolean legacyRegex() {
+        for (Pattern pattern : InputThreatScannerTest.LEGACY_PATTERNS) {
+            if (pattern.matcher(input).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean scanner() {
+        return scanner.matches(input);
+    }
+}
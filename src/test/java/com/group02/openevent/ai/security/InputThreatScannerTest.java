@@ -0,0 +1,151 @@
+package com.group02.openevent.ai.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InputThreatScannerTest {
+
+    // Bộ regex cũ của AISecurityService, giữ lại làm chuẩn so sánh
+    static final List<Pattern> LEGACY_PATTERNS = List.of(
+            Pattern.compile(".*(union|select|insert|update|delete|drop|create|alter|exec|execute).*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*(;|--|/\\*|\\*/).*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*<script.*>.*</script>.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*javascript:.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*on\\w+\\s*=.*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*(\\||&|;|`|\\$|\\(|\\)).*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*(\\.\\./|\\.\\.\\\\).*", Pattern.CASE_INSENSITIVE),
+            Pattern.compile(".*(password|passwd|secret|key|token|api_key|private).*", Pattern.CASE_INSENSITIVE));
+
+    // Mảnh ghép sinh input: từ khóa (đủ / thiếu / hoa thường), các phần của rule script và on\w+\s*=,
+    // khoảng trắng và các ký tự xuống dòng mà "." không khớp
+    private static final String[] FRAGMENTS = {
+            "select", "SeLeCt", "selec", "union", "drop", "exec", "execute", "exe",
+            ";", "-", "--", "/", "*", "/*", "*/",
+            "<script", "<SCRIPT", "<scrip", ">", "</script>", "</script", "</ScRiPt>",
+            "javascript:", "javascript", "JavaScript:",
+            "on", "ON", "o", "n", "onclick", "onload", "onx", "x", "_", "9", "=", "==",
+            "|", "&", "`", "$", "(", ")",
+            "..", "../", "..\\", ".", "\\",
+            "password", "passwd", "secret", "key", "KEY", "ke", "token", "api_key", "private", "priv",
+            " ", "  ", "\t", "\u000B", "\f", "\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029",
+            "mua vé", "sự kiện", "hội thảo", "a", "b", "Z", "é", "đ", "\u00A0"
+    };
+
+    private static boolean legacyMatches(String input) {
+        for (Pattern pattern : LEGACY_PATTERNS) {
+            if (pattern.matcher(input).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomInput(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int parts = random.nextInt(8);
+        for (int i = 0; i < parts; i++) {
+            sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // Hiện ký tự điều khiển / ngoài ASCII dạng mã hex cho thông báo lỗi
+    private static String visible(String input) {
+        StringBuilder sb = new StringBuilder();
+        input.chars().forEach(c -> sb.append(c < 32 || c > 126 ? String.format("\\u%04x", c) : String.valueOf((char) c)));
+        return sb.toString();
+    }
+
+    private final InputThreatScanner scanner = InputThreatScanner.getDefault();
+
+    @Test
+    void matches_agreesWithLegacyPatternsOnGeneratedInputs() {
+        Random random = new Random(20241018L);
+        for (int i = 0; i < 200_000; i++) {
+            String input = randomInput(random);
+            assertThat(scanner.matches(input))
+                    .as("input \"%s\"", visible(input))
+                    .isEqualTo(legacyMatches(input));
+        }
+    }
+
+    @Test
+    void matches_agreesWithLegacyPatternsOnRandomAsciiText() {
+        Random random = new Random(7L);
+        String alphabet = "onscriptkey<>/=;-_ \t\n\r.\\()$&|`*ab9";
+        for (int i = 0; i < 100_000; i++) {
+            char[] chars = new char[random.nextInt(16)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            String input = new String(chars);
+            assertThat(scanner.matches(input)).as("input \"%s\"", visible(input))
+                    .isEqualTo(legacyMatches(input));
+        }
+    }
+
+    @Test
+    void cannotMatchWithAnySuffix_holdsForEveryGeneratedSuffix() {
+        Random random = new Random(99L);
+        int settled = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String prefix = randomInput(random);
+            if (!scanner.cannotMatchWithAnySuffix(prefix)) {
+                continue;
+            }
+            settled++;
+            for (int j = 0; j < 10; j++) {
+                String input = prefix + randomInput(random);
+                assertThat(legacyMatches(input)).as("input \"%s\"", visible(input)).isFalse();
+                assertThat(scanner.matches(input)).isFalse();
+            }
+        }
+        assertThat(settled).isGreaterThan(1000);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "'Giá vé (VIP): 500k\\nDòng 2'  | true",
+            "'Giá vé (VIP): 500k'            | false",
+            "'onx \\n'                      | false",
+            "'onx \\n a'                    | true",
+            "'\\n'                          | true"
+    })
+    void cannotMatchWithAnySuffix_settlesOnlyAfterLineBreakOutsideMatch(String escaped, boolean expected) {
+        assertThat(scanner.cannotMatchWithAnySuffix(escaped.translateEscapes())).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // \s* của on\w+\s*= được phép chứa xuống dòng, nhưng phần còn lại thì không
+            "'onx \\n ='        | true",
+            "'onx \\n =\\n'     | false",
+            "'a\\nonx\\n='      | false",
+            "'onx\\n=y onz='    | true",
+            "'onx\\r\\n=1'      | true",
+            "'on\\n='           | false",
+            // Nhiều dòng: các rule .*x.* không khớp
+            "'mua vé\\nkey'     | false",
+            "'select\\r'        | false",
+            "'drop\u2028table' | false",
+            "'<script</script></script>' | true",
+            "'<script>\\n</script>'      | false",
+            "'<SCRIPT x>alert</Script>'  | true",
+            "'ONCLICK = 1'      | true",
+            "'mua vé hội thảo'  | false",
+            "''                 | false"
+    })
+    void matches_handlesMultiLineAndEdgeCases(String escaped, boolean expected) {
+        String input = escaped.translateEscapes();
+
+        assertThat(legacyMatches(input)).isEqualTo(expected);
+        assertThat(scanner.matches(input)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,64 @@
+package com.group02.openevent.ai.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh kernel scalar với VectorKernels.dot (SIMD nếu có) trên các kích thước embedding thường gặp,
+ * và cosine mới với vòng lặp cũ của EmbeddingService (cộng dồn double, xem VectorKernelsTest.legacyCosine).
+ * Chạy: ./mvnw -Pjmh,vector-api test-compile exec:exec -Djmh.args=VectorKernelsBenchmark
+ * (không có profile vector-api thì dot cũng là scalar).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+public class VectorKernelsBenchmark {
+
+    @Param({"384", "1536", "4096"})
+    private int dimension;
+
+    private float[] a;
+    private float[] b;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = VectorKernelsTest.randomVector(random, dimension);
+        b = VectorKernelsTest.randomVector(random, dimension);
+    }
+
+    @Benchmark
+    public float scalarDot() {
+        return VectorKernels.scalarDot(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public float kernelDot() {
+        return VectorKernels.dot(a, 0, b, 0, dimension);
+    }
+
+    @Benchmark
+    public double legacyCosine() {
+        return VectorKernelsTest.legacyCosine(a, b);
+    }
+
+    @Benchmark
+    public double cosine() {
+        return VectorKernels.cosine(a, b);
+    }
+}
@@ -0,0 +1,68 @@
+package com.group02.openevent.ai.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorKernelsTest {
+
+    // Vòng lặp cũ của EmbeddingService.cosineSimilarity (tích float, cộng dồn double), giữ lại làm chuẩn so sánh
+    static double legacyCosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Vectors must be same length");
+        }
+        double dot = 0.0, normA = 0.0, normB = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+
+    // b = a + nhiễu nhỏ: cosine gần 1, vùng mà sai số cộng dồn float ảnh hưởng tới thứ hạng
+    private static float[] perturb(Random random, float[] a, float noise) {
+        float[] b = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i] + (random.nextFloat() * 2 - 1) * noise;
+        }
+        return b;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 384, 1536, 4096})
+    void cosine_staysWithinFloatAccumulationErrorOfLegacyLoop(int dimension) {
+        Random random = new Random(dimension);
+        for (int i = 0; i < 200; i++) {
+            float[] a = randomVector(random, dimension);
+            float[] b = i % 2 == 0 ? randomVector(random, dimension) : perturb(random, a, 0.01f);
+
+            assertThat(VectorKernels.cosine(a, b)).isCloseTo(legacyCosine(a, b), within(1e-5));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {384, 1536})
+    void dotOfNormalizedVectors_matchesLegacyCosine(int dimension) {
+        Random random = new Random(31L * dimension);
+        for (int i = 0; i < 200; i++) {
+            float[] a = randomVector(random, dimension);
+            float[] b = perturb(random, a, 0.05f);
+
+            assertThat((double) VectorKernels.dot(VectorKernels.normalize(a), VectorKernels.normalize(b)))
+                    .isCloseTo(legacyCosine(a, b), within(1e-5));
+        }
+    }
+}